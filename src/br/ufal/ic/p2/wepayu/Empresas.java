@@ -0,0 +1,88 @@
+package br.ufal.ic.p2.wepayu;
+
+import br.ufal.ic.p2.wepayu.Exception.ValidacaoException;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Várias empresas isoladas na mesma JVM, cada uma com a sua {@link Facade}.
+ * <p>
+ * Cada empresa tem o seu diretório de dados (um subdiretório da raiz com o nome da empresa), o seu
+ * repositório, as suas agendas de pagamento (gravadas no seu snapshot) e o seu histórico de undo:
+ * nada do estado de uma empresa é visível às outras. O que não tem estado por empresa é
+ * compartilhado: as regras compiladas das agendas, os métodos de pagamento sem atributos e o pool
+ * da etapa paralela da folha. Uma empresa é aberta (e o seu snapshot carregado) no primeiro acesso,
+ * e pode ser usada por várias threads, como uma fachada comum.
+ * <p>
+ * A abertura e o encerramento de uma mesma empresa são serializados pelo mapa de empresas abertas:
+ * um acesso que chega durante o encerramento espera o snapshot ser gravado e reabre a empresa a
+ * partir dele, nunca sobre o diretório ainda sendo gravado.
+ */
+public final class Empresas implements AutoCloseable {
+
+    private static final Pattern NOME_VALIDO = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+
+    private final Path raiz;
+    private final Map<String, Facade> abertas = new ConcurrentHashMap<>();
+    private volatile boolean encerrado;
+
+    /**
+     * Cria o motor sobre um diretório raiz, sem ainda abrir nenhuma empresa.
+     * @param raiz O diretório que contém os diretórios de dados das empresas.
+     */
+    public Empresas(Path raiz) {
+        this.raiz = raiz;
+    }
+
+    /**
+     * Retorna a fachada de uma empresa, abrindo-a se ainda não estiver aberta.
+     * @param nome O nome da empresa, que é também o nome do seu diretório de dados.
+     * @return A fachada da empresa.
+     * @throws ValidacaoException se o nome for inválido ou o motor já tiver sido encerrado.
+     */
+    public Facade empresa(String nome) throws ValidacaoException {
+        if (encerrado) throw new ValidacaoException("Nao pode dar comandos depois de encerrarSistema.");
+        if (nome == null || !NOME_VALIDO.matcher(nome).matches()) throw new ValidacaoException("Nome de empresa invalido.");
+        Facade facade = abertas.computeIfAbsent(nome, n -> new Facade(raiz.resolve(n)));
+        if (encerrado) {
+            // O close() pode ter percorrido as empresas antes desta abertura.
+            encerrar(nome);
+            throw new ValidacaoException("Nao pode dar comandos depois de encerrarSistema.");
+        }
+        return facade;
+    }
+
+    /**
+     * Retorna os nomes das empresas abertas.
+     * @return Os nomes, em ordem alfabética.
+     */
+    public Set<String> getAbertas() {
+        return new TreeSet<>(abertas.keySet());
+    }
+
+    /**
+     * Encerra uma empresa, salvando os seus dados. Um acesso posterior a reabre a partir do disco.
+     * A empresa só sai do mapa depois de encerrada, de modo que uma abertura concorrente espera.
+     * @param nome O nome da empresa.
+     */
+    public void encerrar(String nome) {
+        abertas.computeIfPresent(nome, (n, facade) -> {
+            facade.encerrarSistema();
+            return null;
+        });
+    }
+
+    /**
+     * Encerra todas as empresas abertas, salvando os seus dados, e deixa de aceitar acessos.
+     */
+    @Override
+    public void close() {
+        encerrado = true;
+        for (String nome : getAbertas()) encerrar(nome);
+    }
+}
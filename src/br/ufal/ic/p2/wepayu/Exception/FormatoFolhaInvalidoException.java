@@ -0,0 +1,13 @@
+package br.ufal.ic.p2.wepayu.Exception;
+
+import br.ufal.ic.p2.wepayu.Exception.ValidacaoException;
+
+/**
+ * Exceção lançada quando o formato de saída da folha de pagamento é inválido.
+ */
+public class FormatoFolhaInvalidoException extends ValidacaoException {
+    /**
+     * Construtor que define a mensagem de erro padrão.
+     */
+    public FormatoFolhaInvalidoException() { super("Formato de folha invalido."); }
+}
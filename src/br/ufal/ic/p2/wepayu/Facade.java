@@ -3,25 +3,205 @@ package br.ufal.ic.p2.wepayu;
 import br.ufal.ic.p2.wepayu.Exception.EmpregadoNaoEncontradoException;
 import br.ufal.ic.p2.wepayu.Exception.EmpregadoNaoExisteException;
 import br.ufal.ic.p2.wepayu.Exception.ValidacaoException;
+import br.ufal.ic.p2.wepayu.Repository.EmpregadoJournal;
+import br.ufal.ic.p2.wepayu.Repository.EmpregadoJournal.Operacao;
 import br.ufal.ic.p2.wepayu.Repository.EmpregadoRepository;
 import br.ufal.ic.p2.wepayu.Services.*;
+import br.ufal.ic.p2.wepayu.models.Empregado;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Fachada para o sistema WePayU.
  * Ponto de entrada único que simplifica a interação com os diversos serviços do sistema,
  * como gerenciamento de empregados, lançamentos e folha de pagamento.
+ * <p>
+ * Com a propriedade de sistema {@code wepayu.journal=true}, cada comando confirmado é registrado
+ * no {@link EmpregadoJournal} e, ao iniciar, o último snapshot é complementado pela reprodução do journal.
+ * <p>
+ * A fachada pode ser usada por várias threads. Lançamentos, consultas e alterações de um empregado
+ * tomam apenas a trava da sua listra no {@link ControleDeConcorrencia}, de modo que empregados
+ * diferentes são atendidos em paralelo; comandos que afetam o sistema todo (criação, remoção,
+ * undo/redo) tomam a trava exclusiva. A folha é calculada sobre um instantâneo e só toma a trava
+ * exclusiva para capturá-lo e para confirmar os pagamentos (ver {@link FolhaPagamentoService}).
  */
 public class Facade {
 
-    private final EmpregadoRepository repository = new EmpregadoRepository();
-    private final CommandHistoryService commandHistoryService = new CommandHistoryService();
-    private final ConsultaService consultaService = new ConsultaService(repository);
-    private final SistemaService sistemaService = new SistemaService(repository, commandHistoryService);
-    private final EmpregadoService empregadoService = new EmpregadoService(repository, commandHistoryService);
-    private final LancamentoService lancamentoService = new LancamentoService(repository, commandHistoryService);
-    private final FolhaPagamentoService folhaPagamentoService = new FolhaPagamentoService(repository, consultaService, commandHistoryService);
+    private final EmpregadoRepository repository;
+    private final ControleDeConcorrencia concorrencia = new ControleDeConcorrencia();
+    private final CommandHistoryService commandHistoryService;
+    private final ConsultaService consultaService;
+    private final SistemaService sistemaService;
+    private final EmpregadoService empregadoService;
+    private final LancamentoService lancamentoService;
+    private final FolhaPagamentoService folhaPagamentoService;
+    private final ImportadorCsv importadorCsv;
+
+    private final EmpregadoJournal journal;
+    private FilaDeLancamentos filaDeLancamentos;
+
+    private volatile boolean sistemaEncerrado = false;
+    private boolean reproduzindoJournal = false;
+
+    /**
+     * Constrói a fachada sobre os dados do diretório de trabalho. Se o modo journal estiver ativo,
+     * reproduz os comandos registrados após o último snapshot salvo.
+     */
+    public Facade() {
+        this(Path.of(""));
+    }
+
+    /**
+     * Constrói a fachada de uma empresa, com os dados (snapshot e journal) guardados no diretório
+     * informado, que é criado se não existir. Cada fachada tem o seu repositório, as suas agendas
+     * e o seu histórico de undo; várias empresas podem ficar abertas na mesma JVM (ver {@link Empresas}).
+     * @param diretorio O diretório de dados da empresa.
+     */
+    public Facade(Path diretorio) {
+        try {
+            Files.createDirectories(diretorio.toAbsolutePath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        repository = new EmpregadoRepository(diretorio);
+        RegistroDeAgendas agendas = new RegistroDeAgendas(repository.getAgendasDisponiveis());
+        commandHistoryService = new CommandHistoryService(repository);
+        consultaService = new ConsultaService(repository);
+        sistemaService = new SistemaService(repository, commandHistoryService, agendas);
+        empregadoService = new EmpregadoService(repository, commandHistoryService, agendas);
+        lancamentoService = new LancamentoService(repository, commandHistoryService);
+        folhaPagamentoService = new FolhaPagamentoService(repository, consultaService, commandHistoryService, concorrencia);
+        importadorCsv = new ImportadorCsv(repository, commandHistoryService, concorrencia);
+
+        if (Boolean.getBoolean("wepayu.journal")) {
+            journal = new EmpregadoJournal(diretorio.resolve("empregados.journal").toFile(), repository.getGeracao());
+            reproduzindoJournal = true;
+            try {
+                journal.reproduzir(this::reproduzir);
+            } finally {
+                reproduzindoJournal = false;
+            }
+        } else {
+            journal = null;
+        }
+    }
+
+    /**
+     * Chamada a um serviço que executa um comando com uma ação de confirmação.
+     */
+    @FunctionalInterface
+    private interface Comando {
+        /**
+         * Executa o comando.
+         * @param aoConfirmar A ação executada junto com a entrada do comando no histórico.
+         * @throws ValidacaoException se ocorrer um erro de validação.
+         * @throws EmpregadoNaoExisteException se o empregado não for encontrado.
+         */
+        void executar(Runnable aoConfirmar) throws ValidacaoException, EmpregadoNaoExisteException;
+    }
+
+    /**
+     * Registra um comando confirmado no journal, se o modo journal estiver ativo.
+     * @param operacao A operação confirmada.
+     * @param argumentos Os argumentos do comando.
+     */
+    private void registrar(Operacao operacao, String... argumentos) {
+        if (journal != null && !reproduzindoJournal) {
+            journal.registrar(operacao, argumentos);
+        }
+    }
+
+    /**
+     * Executa um comando de um serviço e o registra no journal no mesmo bloco que o coloca no
+     * histórico de undo, para que comandos concorrentes, sob travas de empregados diferentes,
+     * cheguem ao journal na ordem do histórico.
+     * @param comando A chamada ao serviço, que recebe o registro como ação de confirmação.
+     * @param operacao A operação a registrar.
+     * @param argumentos Os argumentos do comando.
+     * @throws ValidacaoException se ocorrer um erro de validação.
+     * @throws EmpregadoNaoExisteException se o empregado não for encontrado.
+     */
+    private void executarRegistrando(Comando comando, Operacao operacao, String... argumentos) throws ValidacaoException, EmpregadoNaoExisteException {
+        comando.executar(() -> registrar(operacao, argumentos));
+    }
+
+    /**
+     * Espera o fsync dos registros já acrescentados ao journal, se o modo journal estiver ativo.
+     * Os comandos a chamam depois de liberar as travas, antes de retornar: assim um comando só é
+     * dado como confirmado quando já está em disco, e as threads que esperam juntas dividem o mesmo
+     * fsync (group commit).
+     */
+    private void aguardarJournal() {
+        if (journal != null && !reproduzindoJournal) {
+            journal.aguardarGravacao();
+        }
+    }
 
-    private boolean sistemaEncerrado = false;
+    /**
+     * Reaplica um comando lido do journal.
+     * @param registro O registro a ser reaplicado.
+     */
+    private void reproduzir(EmpregadoJournal.Registro registro) {
+        String[] a = registro.argumentos();
+        try {
+            switch (registro.operacao()) {
+                case ZERAR_SISTEMA -> zerarSistema();
+                case CRIAR_EMPREGADO -> criarEmpregado(a[0], a[1], a[2], a[3]);
+                case CRIAR_EMPREGADO_COMISSIONADO -> criarEmpregado(a[0], a[1], a[2], a[3], a[4]);
+                case CRIAR_AGENDA -> criarAgendaDePagamentos(a[0]);
+                case REMOVER_EMPREGADO -> removerEmpregado(a[0]);
+                case ALTERA_EMPREGADO -> alteraEmpregado(a[0], a[1], a[2]);
+                case ALTERA_EMPREGADO_SINDICALIZADO -> alteraEmpregado(a[0], a[1], Boolean.parseBoolean(a[2]), a[3], a[4]);
+                case ALTERA_EMPREGADO_TIPO -> alteraEmpregado(a[0], a[1], a[2], a[3]);
+                case ALTERA_EMPREGADO_BANCO -> alteraEmpregado(a[0], a[1], a[2], a[3], a[4], a[5]);
+                case LANCA_CARTAO -> lancaCartao(a[0], a[1], a[2]);
+                case LANCA_VENDA -> lancaVenda(a[0], a[1], a[2]);
+                case LANCA_TAXA_SERVICO -> lancaTaxaServico(a[0], a[1], a[2]);
+                case RODA_FOLHA -> folhaPagamentoService.rodaFolha(a[0], null);
+                case UNDO -> undo();
+                case REDO -> redo();
+                case LANCA_LOTE -> reproduzirLote(a);
+                case FOLHA_CONFIRMADA -> folhaPagamentoService.reaplicarPagamentos(a);
+                case IMPORTAR_LINHAS -> importadorCsv.reaplicar(a);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Falha ao reproduzir o journal: " + registro.operacao(), e);
+        }
+    }
+
+    /**
+     * Reaplica um grupo de lançamentos confirmado pela {@link FilaDeLancamentos}.
+     * @param a O ID do empregado seguido de tipo, data e valor de cada lançamento.
+     * @throws Exception se o grupo não puder ser reaplicado.
+     */
+    private void reproduzirLote(String[] a) throws Exception {
+        int n = (a.length - 1) / 3;
+        LancamentoService.TipoLancamento[] tipos = new LancamentoService.TipoLancamento[n];
+        String[] datas = new String[n];
+        String[] valores = new String[n];
+        for (int i = 0; i < n; i++) {
+            tipos[i] = LancamentoService.TipoLancamento.valueOf(a[1 + 3 * i]);
+            datas[i] = a[2 + 3 * i];
+            valores[i] = a[3 + 3 * i];
+        }
+        lancamentoService.lancarEmLote(a[0], tipos, datas, valores);
+    }
+
+    /**
+     * Resolve o ID do empregado dono de um ID de membro do sindicato, para escolher a sua trava.
+     * @param membro O ID de membro.
+     * @return O ID do empregado, ou null se o membro não existir.
+     */
+    private String idDoMembro(String membro) {
+        if (membro == null || membro.isEmpty()) return null;
+        Empregado empregado = repository.findByIdMembro(membro);
+        return empregado == null ? null : empregado.getId();
+    }
 
     /**
      * Verifica se o sistema foi encerrado, lançando uma exceção se for o caso.
@@ -40,16 +220,38 @@ public class Facade {
      */
     public void zerarSistema() throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        sistemaService.zerarSistema();
+        ControleDeConcorrencia.Trava trava = concorrencia.exclusiva();
+        try {
+            sistemaService.zerarSistema();
+            registrar(Operacao.ZERAR_SISTEMA);
+        } finally {
+            trava.liberar();
+        }
+        aguardarJournal();
     }
 
     /**
      * Encerra o sistema, salvando os dados e impedindo novas operações.
      */
     public void encerrarSistema() {
-        if (!sistemaEncerrado) {
-            sistemaService.encerrarSistema();
-            sistemaEncerrado = true;
+        FilaDeLancamentos fila;
+        synchronized (this) {
+            fila = filaDeLancamentos;
+        }
+        if (fila != null) fila.close();
+        ControleDeConcorrencia.Trava trava = concorrencia.exclusiva();
+        try {
+            if (!sistemaEncerrado) {
+                sistemaService.encerrarSistema();
+                if (journal != null) {
+                    // Se o snapshot não pôde ser gravado, a geração não avança e o journal é mantido.
+                    if (repository.getGeracao() > journal.getGeracao()) journal.reiniciar(repository.getGeracao());
+                    journal.close();
+                }
+                sistemaEncerrado = true;
+            }
+        } finally {
+            trava.liberar();
         }
     }
 
@@ -65,7 +267,16 @@ public class Facade {
      */
     public String criarEmpregado(String nome, String endereco, String tipo, String salario) throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        return empregadoService.criarEmpregado(nome, endereco, tipo, salario);
+        ControleDeConcorrencia.Trava trava = concorrencia.exclusiva();
+        String id;
+        try {
+            id = empregadoService.criarEmpregado(nome, endereco, tipo, salario);
+            registrar(Operacao.CRIAR_EMPREGADO, nome, endereco, tipo, salario);
+        } finally {
+            trava.liberar();
+        }
+        aguardarJournal();
+        return id;
     }
 
     /**
@@ -81,7 +292,16 @@ public class Facade {
      */
     public String criarEmpregado(String nome, String endereco, String tipo, String salario, String comissao) throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        return empregadoService.criarEmpregado(nome, endereco, tipo, salario, comissao);
+        ControleDeConcorrencia.Trava trava = concorrencia.exclusiva();
+        String id;
+        try {
+            id = empregadoService.criarEmpregado(nome, endereco, tipo, salario, comissao);
+            registrar(Operacao.CRIAR_EMPREGADO_COMISSIONADO, nome, endereco, tipo, salario, comissao);
+        } finally {
+            trava.liberar();
+        }
+        aguardarJournal();
+        return id;
     }
 
     /**
@@ -91,7 +311,14 @@ public class Facade {
      */
     public void criarAgendaDePagamentos(String descricao) throws ValidacaoException {
         verificarSistemaEncerrado();
-        empregadoService.criarAgendaDePagamentos(descricao);
+        ControleDeConcorrencia.Trava trava = concorrencia.exclusiva();
+        try {
+            empregadoService.criarAgendaDePagamentos(descricao);
+            registrar(Operacao.CRIAR_AGENDA, descricao);
+        } finally {
+            trava.liberar();
+        }
+        aguardarJournal();
     }
 
     /**
@@ -102,7 +329,14 @@ public class Facade {
      */
     public void removerEmpregado(String emp) throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        empregadoService.removerEmpregado(emp);
+        ControleDeConcorrencia.Trava trava = concorrencia.exclusiva();
+        try {
+            empregadoService.removerEmpregado(emp);
+            registrar(Operacao.REMOVER_EMPREGADO, emp);
+        } finally {
+            trava.liberar();
+        }
+        aguardarJournal();
     }
 
     /**
@@ -115,7 +349,13 @@ public class Facade {
      */
     public void alteraEmpregado(String emp, String atributo, String valor) throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        empregadoService.alteraEmpregado(emp, atributo, valor);
+        ControleDeConcorrencia.Trava trava = concorrencia.empregado(emp);
+        try {
+            executarRegistrando(aoConfirmar -> empregadoService.alteraEmpregado(emp, atributo, valor, aoConfirmar), Operacao.ALTERA_EMPREGADO, emp, atributo, valor);
+        } finally {
+            trava.liberar();
+        }
+        aguardarJournal();
     }
 
     /**
@@ -130,7 +370,13 @@ public class Facade {
      */
     public void alteraEmpregado(String emp, String atributo, boolean valor, String idSindicato, String taxaSindical) throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        empregadoService.alteraEmpregado(emp, atributo, valor, idSindicato, taxaSindical);
+        ControleDeConcorrencia.Trava trava = concorrencia.exclusiva();
+        try {
+            executarRegistrando(aoConfirmar -> empregadoService.alteraEmpregado(emp, atributo, valor, idSindicato, taxaSindical, aoConfirmar), Operacao.ALTERA_EMPREGADO_SINDICALIZADO, emp, atributo, String.valueOf(valor), idSindicato, taxaSindical);
+        } finally {
+            trava.liberar();
+        }
+        aguardarJournal();
     }
 
     /**
@@ -144,7 +390,13 @@ public class Facade {
      */
     public void alteraEmpregado(String emp, String atributo, String valor, String salario) throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        empregadoService.alteraEmpregado(emp, atributo, valor, salario);
+        ControleDeConcorrencia.Trava trava = concorrencia.empregado(emp);
+        try {
+            executarRegistrando(aoConfirmar -> empregadoService.alteraEmpregado(emp, atributo, valor, salario, aoConfirmar), Operacao.ALTERA_EMPREGADO_TIPO, emp, atributo, valor, salario);
+        } finally {
+            trava.liberar();
+        }
+        aguardarJournal();
     }
     /**
      * Altera o método de pagamento de um empregado para banco.
@@ -159,7 +411,13 @@ public class Facade {
      */
     public void alteraEmpregado(String emp, String atributo, String valor1, String banco, String agencia, String contaCorrente) throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        empregadoService.alteraEmpregado(emp, atributo, valor1, banco, agencia, contaCorrente);
+        ControleDeConcorrencia.Trava trava = concorrencia.empregado(emp);
+        try {
+            executarRegistrando(aoConfirmar -> empregadoService.alteraEmpregado(emp, atributo, valor1, banco, agencia, contaCorrente, aoConfirmar), Operacao.ALTERA_EMPREGADO_BANCO, emp, atributo, valor1, banco, agencia, contaCorrente);
+        } finally {
+            trava.liberar();
+        }
+        aguardarJournal();
     }
 
     /**
@@ -172,7 +430,12 @@ public class Facade {
      */
     public String getAtributoEmpregado(String emp, String atributo) throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        return empregadoService.getAtributoEmpregado(emp, atributo);
+        ControleDeConcorrencia.Trava trava = concorrencia.empregado(emp);
+        try {
+            return empregadoService.getAtributoEmpregado(emp, atributo);
+        } finally {
+            trava.liberar();
+        }
     }
 
     /**
@@ -186,7 +449,29 @@ public class Facade {
      */
     public String getEmpregadoPorNome(String nome, int indice) throws EmpregadoNaoExisteException, ValidacaoException, EmpregadoNaoEncontradoException {
         verificarSistemaEncerrado();
-        return empregadoService.getEmpregadoPorNome(nome, indice);
+        ControleDeConcorrencia.Trava trava = concorrencia.compartilhada();
+        try {
+            return empregadoService.getEmpregadoPorNome(nome, indice);
+        } finally {
+            trava.liberar();
+        }
+    }
+
+    /**
+     * Lista os nomes de empregados que começam com um prefixo, para autocompletar.
+     * @param prefixo O início do nome.
+     * @param limite A quantidade máxima de nomes retornados.
+     * @return Os nomes distintos encontrados, em ordem alfabética.
+     * @throws ValidacaoException se o sistema estiver encerrado.
+     */
+    public List<String> getNomesPorPrefixo(String prefixo, int limite) throws ValidacaoException {
+        verificarSistemaEncerrado();
+        ControleDeConcorrencia.Trava trava = concorrencia.compartilhada();
+        try {
+            return empregadoService.getNomesPorPrefixo(prefixo, limite);
+        } finally {
+            trava.liberar();
+        }
     }
 
     /**
@@ -199,7 +484,13 @@ public class Facade {
      */
     public void lancaCartao(String emp, String data, String horas) throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        lancamentoService.lancaCartao(emp, data, horas);
+        ControleDeConcorrencia.Trava trava = concorrencia.empregado(emp);
+        try {
+            executarRegistrando(aoConfirmar -> lancamentoService.lancaCartao(emp, data, horas, aoConfirmar), Operacao.LANCA_CARTAO, emp, data, horas);
+        } finally {
+            trava.liberar();
+        }
+        aguardarJournal();
     }
 
     /**
@@ -212,7 +503,13 @@ public class Facade {
      */
     public void lancaVenda(String emp, String data, String valor) throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        lancamentoService.lancaVenda(emp, data, valor);
+        ControleDeConcorrencia.Trava trava = concorrencia.empregado(emp);
+        try {
+            executarRegistrando(aoConfirmar -> lancamentoService.lancaVenda(emp, data, valor, aoConfirmar), Operacao.LANCA_VENDA, emp, data, valor);
+        } finally {
+            trava.liberar();
+        }
+        aguardarJournal();
     }
 
     /**
@@ -225,7 +522,77 @@ public class Facade {
      */
     public void lancaTaxaServico(String membro, String data, String valor) throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        lancamentoService.lancaTaxaServico(membro, data, valor);
+        ControleDeConcorrencia.Trava trava = concorrencia.empregado(() -> idDoMembro(membro));
+        try {
+            executarRegistrando(aoConfirmar -> lancamentoService.lancaTaxaServico(membro, data, valor, aoConfirmar), Operacao.LANCA_TAXA_SERVICO, membro, data, valor);
+        } finally {
+            trava.liberar();
+        }
+        aguardarJournal();
+    }
+
+    /**
+     * Enfileira um cartão de ponto na fila de ingestão, sem esperar a sua aplicação. Os cartões e
+     * vendas enfileirados são agrupados por empregado e aplicados em lote, cada grupo como um único
+     * comando (uma única entrada no histórico de undo).
+     * @param emp O ID do empregado horista.
+     * @param data A data do cartão.
+     * @param horas As horas trabalhadas.
+     * @return O futuro concluído quando o cartão for aplicado, ou com a exceção de validação.
+     * @throws ValidacaoException se o sistema estiver encerrado.
+     * @throws InterruptedException se a thread for interrompida enquanto espera espaço na fila.
+     */
+    public CompletableFuture<Void> lancaCartaoAssincrono(String emp, String data, String horas) throws ValidacaoException, InterruptedException {
+        verificarSistemaEncerrado();
+        return filaDeLancamentos().lancaCartao(emp, data, horas);
+    }
+
+    /**
+     * Enfileira um resultado de venda na fila de ingestão, sem esperar a sua aplicação.
+     * @param emp O ID do empregado comissionado.
+     * @param data A data da venda.
+     * @param valor O valor da venda.
+     * @return O futuro concluído quando a venda for aplicada, ou com a exceção de validação.
+     * @throws ValidacaoException se o sistema estiver encerrado.
+     * @throws InterruptedException se a thread for interrompida enquanto espera espaço na fila.
+     */
+    public CompletableFuture<Void> lancaVendaAssincrono(String emp, String data, String valor) throws ValidacaoException, InterruptedException {
+        verificarSistemaEncerrado();
+        return filaDeLancamentos().lancaVenda(emp, data, valor);
+    }
+
+    /**
+     * Retorna a fila de ingestão, criando-a (e a sua thread consumidora) no primeiro uso.
+     * @return A fila de lançamentos.
+     */
+    private synchronized FilaDeLancamentos filaDeLancamentos() {
+        if (filaDeLancamentos == null) {
+            filaDeLancamentos = new FilaDeLancamentos(lancamentoService, concorrencia,
+                    argumentos -> registrar(Operacao.LANCA_LOTE, argumentos), this::aguardarJournal);
+        }
+        return filaDeLancamentos;
+    }
+
+    /**
+     * Importa em massa empregados, cartões de ponto, vendas e taxas de serviço de arquivos CSV
+     * (o formato está em {@link ImportadorCsv}). As linhas inválidas ficam de fora e são relatadas
+     * no resultado; as válidas são gravadas como um único comando. No modo journal são registrados
+     * os campos das linhas aplicadas, então os arquivos não precisam ser mantidos.
+     * @param empregados O arquivo de empregados (null ou vazio se não houver).
+     * @param cartoes O arquivo de cartões de ponto (null ou vazio se não houver).
+     * @param vendas O arquivo de vendas (null ou vazio se não houver).
+     * @param taxas O arquivo de taxas de serviço (null ou vazio se não houver).
+     * @return As quantidades importadas e os erros por linha.
+     * @throws ValidacaoException se o sistema estiver encerrado.
+     * @throws EmpregadoNaoExisteException se a gravação falhar por falta de um empregado.
+     * @throws IOException se um arquivo não puder ser lido.
+     */
+    public ImportadorCsv.Resultado importarCsv(String empregados, String cartoes, String vendas, String taxas) throws ValidacaoException, EmpregadoNaoExisteException, IOException {
+        verificarSistemaEncerrado();
+        ImportadorCsv.Resultado resultado = importadorCsv.importar(empregados, cartoes, vendas, taxas,
+                linhas -> registrar(Operacao.IMPORTAR_LINHAS, linhas));
+        aguardarJournal();
+        return resultado;
     }
 
     /**
@@ -239,7 +606,12 @@ public class Facade {
      */
     public String getVendasRealizadas(String emp, String dataInicial, String dataFinal) throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        return consultaService.getVendasRealizadas(emp, dataInicial, dataFinal);
+        ControleDeConcorrencia.Trava trava = concorrencia.empregado(emp);
+        try {
+            return consultaService.getVendasRealizadas(emp, dataInicial, dataFinal);
+        } finally {
+            trava.liberar();
+        }
     }
 
     /**
@@ -253,7 +625,12 @@ public class Facade {
      */
     public String getHorasNormaisTrabalhadas(String emp, String dataInicial, String dataFinal) throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        return consultaService.getHorasNormaisTrabalhadas(emp, dataInicial, dataFinal);
+        ControleDeConcorrencia.Trava trava = concorrencia.empregado(emp);
+        try {
+            return consultaService.getHorasNormaisTrabalhadas(emp, dataInicial, dataFinal);
+        } finally {
+            trava.liberar();
+        }
     }
 
     /**
@@ -267,7 +644,12 @@ public class Facade {
      */
     public String getHorasExtrasTrabalhadas(String emp, String dataInicial, String dataFinal) throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        return consultaService.getHorasExtrasTrabalhadas(emp, dataInicial, dataFinal);
+        ControleDeConcorrencia.Trava trava = concorrencia.empregado(emp);
+        try {
+            return consultaService.getHorasExtrasTrabalhadas(emp, dataInicial, dataFinal);
+        } finally {
+            trava.liberar();
+        }
     }
 
     /**
@@ -281,7 +663,12 @@ public class Facade {
      */
     public String getTaxasServico(String emp, String dataInicial, String dataFinal) throws ValidacaoException, EmpregadoNaoExisteException {
         verificarSistemaEncerrado();
-        return consultaService.getTaxasServico(emp, dataInicial, dataFinal);
+        ControleDeConcorrencia.Trava trava = concorrencia.empregado(emp);
+        try {
+            return consultaService.getTaxasServico(emp, dataInicial, dataFinal);
+        } finally {
+            trava.liberar();
+        }
     }
 
     /**
@@ -292,8 +679,7 @@ public class Facade {
      */
     public String totalFolha(String data) throws Exception {
         verificarSistemaEncerrado();
-        // CORREÇÃO: Chamada direcionada para o ConsultaService
-        return consultaService.totalFolha(data);
+        return folhaPagamentoService.consultarTotalFolha(data);
     }
 
     /**
@@ -304,7 +690,37 @@ public class Facade {
      */
     public void rodaFolha(String data, String saida) throws Exception {
         verificarSistemaEncerrado();
-        folhaPagamentoService.rodaFolha(data, saida);
+        folhaPagamentoService.rodaFolha(data, saida, FormatoFolha.TEXTO, null, resultado -> registrar(Operacao.FOLHA_CONFIRMADA, resultado));
+        aguardarJournal();
+    }
+
+    /**
+     * Roda a folha de pagamento e gera o arquivo de saída em um formato escolhido:
+     * "texto" (o relatório), "csv", "jsonl" ou "binario".
+     * @param data A data para processamento da folha.
+     * @param saida O nome do arquivo de saída a ser gerado.
+     * @param formato O nome do formato de saída.
+     * @throws Exception se o formato for inválido ou ocorrer um erro durante o processamento.
+     */
+    public void rodaFolha(String data, String saida, String formato) throws Exception {
+        verificarSistemaEncerrado();
+        folhaPagamentoService.rodaFolha(data, saida, FormatoFolha.de(formato), null, resultado -> registrar(Operacao.FOLHA_CONFIRMADA, resultado));
+        aguardarJournal();
+    }
+
+    /**
+     * Roda a folha de pagamento, gerando o arquivo de saída no formato escolhido e o arquivo de
+     * remessa bancária (layout de largura fixa, com um lote por agência) dos empregados pagos em banco.
+     * @param data A data para processamento da folha.
+     * @param saida O nome do arquivo de saída a ser gerado.
+     * @param formato O nome do formato de saída.
+     * @param remessa O nome do arquivo de remessa bancária a ser gerado.
+     * @throws Exception se o formato for inválido ou ocorrer um erro durante o processamento.
+     */
+    public void rodaFolha(String data, String saida, String formato, String remessa) throws Exception {
+        verificarSistemaEncerrado();
+        folhaPagamentoService.rodaFolha(data, saida, FormatoFolha.de(formato), remessa, resultado -> registrar(Operacao.FOLHA_CONFIRMADA, resultado));
+        aguardarJournal();
     }
 
     /**
@@ -314,7 +730,12 @@ public class Facade {
      */
     public int getNumeroDeEmpregados() throws ValidacaoException {
         verificarSistemaEncerrado();
-        return empregadoService.getNumeroDeEmpregados();
+        ControleDeConcorrencia.Trava trava = concorrencia.compartilhada();
+        try {
+            return empregadoService.getNumeroDeEmpregados();
+        } finally {
+            trava.liberar();
+        }
     }
 
     /**
@@ -323,7 +744,14 @@ public class Facade {
      */
     public void undo() throws ValidacaoException {
         verificarSistemaEncerrado();
-        commandHistoryService.undo();
+        ControleDeConcorrencia.Trava trava = concorrencia.exclusiva();
+        try {
+            commandHistoryService.undo();
+            registrar(Operacao.UNDO);
+        } finally {
+            trava.liberar();
+        }
+        aguardarJournal();
     }
 
     /**
@@ -332,6 +760,13 @@ public class Facade {
      */
     public void redo() throws ValidacaoException {
         verificarSistemaEncerrado();
-        commandHistoryService.redo();
+        ControleDeConcorrencia.Trava trava = concorrencia.exclusiva();
+        try {
+            commandHistoryService.redo();
+            registrar(Operacao.REDO);
+        } finally {
+            trava.liberar();
+        }
+        aguardarJournal();
     }
 }
\ No newline at end of file
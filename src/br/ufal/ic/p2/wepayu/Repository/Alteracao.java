@@ -0,0 +1,21 @@
+package br.ufal.ic.p2.wepayu.Repository;
+
+/**
+ * Alteração mínima do estado do {@link EmpregadoRepository}, como "lançou um cartão de ponto
+ * para o empregado 7 em 3/1/2005" ou "alterou o salário de X para Y".
+ * <p>
+ * Ao ser aplicada, uma alteração devolve a sua inversa, que guarda apenas o necessário para
+ * desfazê-la. O histórico de comandos guarda somente essas inversas, de forma que o custo de
+ * undo/redo, em tempo e memória, é proporcional à alteração e não ao tamanho da folha.
+ * As fábricas das alterações usadas pelos serviços ficam em {@link Alteracoes}.
+ */
+@FunctionalInterface
+public interface Alteracao {
+
+    /**
+     * Aplica a alteração ao repositório.
+     * @param repository O repositório alterado.
+     * @return A alteração inversa, que desfaz esta.
+     */
+    Alteracao aplicar(EmpregadoRepository repository);
+}
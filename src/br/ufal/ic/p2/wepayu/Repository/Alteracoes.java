@@ -0,0 +1,109 @@
+package br.ufal.ic.p2.wepayu.Repository;
+
+import br.ufal.ic.p2.wepayu.models.Empregado;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Fábricas das {@link Alteracao}s aplicadas ao {@link EmpregadoRepository}.
+ * Cada alteração gera a sua inversa no momento em que é aplicada, capturando o valor anterior.
+ */
+public final class Alteracoes {
+
+    /**
+     * Construtor privado: classe utilitária.
+     */
+    private Alteracoes() {}
+
+    /**
+     * Grava uma versão de empregado, incluindo-o ou substituindo a versão atual de mesmo ID.
+     * A inversa restaura a versão anterior ou remove o empregado, se ele não existia.
+     * @param empregado O empregado a ser gravado.
+     * @return A alteração.
+     */
+    public static Alteracao gravar(Empregado empregado) {
+        return repository -> {
+            Empregado anterior = repository.gravar(empregado);
+            return anterior == null ? remover(empregado.getId()) : gravar(anterior);
+        };
+    }
+
+    /**
+     * Remove um empregado. A inversa grava de volta a versão removida.
+     * @param id O ID do empregado.
+     * @return A alteração.
+     */
+    public static Alteracao remover(String id) {
+        return repository -> {
+            Empregado removido = repository.apagar(id);
+            return removido == null ? remover(id) : gravar(removido);
+        };
+    }
+
+    /**
+     * Altera um atributo de um empregado. A inversa guarda apenas o valor anterior do atributo.
+     * @param id O ID do empregado.
+     * @param leitor A função que lê o atributo.
+     * @param escritor A função que escreve o atributo.
+     * @param valor O novo valor.
+     * @param <E> O tipo do empregado.
+     * @param <T> O tipo do atributo.
+     * @return A alteração.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Empregado, T> Alteracao atributo(String id, Function<E, T> leitor, BiConsumer<E, T> escritor, T valor) {
+        return repository -> {
+            E empregado = (E) repository.editar(id);
+            T anterior = leitor.apply(empregado);
+            escritor.accept(empregado, valor);
+            repository.reindexar(empregado);
+            return atributo(id, leitor, escritor, anterior);
+        };
+    }
+
+    /**
+     * Lança (ou, com valor {@code null}, retira) um registro em um dos livros de um empregado,
+     * como os cartões de ponto, as vendas ou as taxas de serviço, indexados pela data.
+     * A inversa guarda apenas o registro substituído naquela data, se houver.
+     * @param id O ID do empregado.
+     * @param livro A função que obtém o livro do empregado.
+     * @param chave A chave do registro (a data, no formato "d/M/yyyy").
+     * @param valor O registro lançado, ou {@code null} para retirá-lo.
+     * @param <E> O tipo do empregado.
+     * @param <T> O tipo do registro.
+     * @return A alteração.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Empregado, T> Alteracao lancamento(String id, Function<E, Map<String, T>> livro, String chave, T valor) {
+        return repository -> {
+            Map<String, T> registros = livro.apply((E) repository.editar(id));
+            T anterior = valor == null ? registros.remove(chave) : registros.put(chave, valor);
+            return lancamento(id, livro, chave, anterior);
+        };
+    }
+
+    /**
+     * Altera o contador de ID. A inversa restaura o valor anterior.
+     * @param valor O novo valor do contador.
+     * @return A alteração.
+     */
+    public static Alteracao contador(int valor) {
+        return repository -> contador(repository.definirContador(valor));
+    }
+
+    /**
+     * Substitui todo o estado do repositório (usado ao zerar o sistema e na importação em massa).
+     * A inversa guarda a raiz anterior, que é exatamente o que foi descartado.
+     * @param estado O novo estado.
+     * @return A alteração.
+     */
+    public static Alteracao estado(EmpregadoRepository.Estado estado) {
+        return repository -> {
+            EmpregadoRepository.Estado anterior = repository.getState();
+            repository.setState(estado);
+            return estado(anterior);
+        };
+    }
+}
@@ -0,0 +1,471 @@
+package br.ufal.ic.p2.wepayu.Repository;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Journal (log de escrita antecipada) apenas de acréscimo para o {@link EmpregadoRepository}.
+ * Cada comando confirmado é gravado como um registro compacto no final do arquivo, de modo que
+ * o custo de durabilidade de um lançamento é proporcional ao próprio lançamento e não à folha inteira.
+ * <p>
+ * O arquivo começa com um cabeçalho (marca, versão e geração). A geração amarra o journal ao
+ * snapshot salvo pelo repositório: um journal de geração anterior à do snapshot já está contido nele
+ * e é descartado na inicialização; um journal de geração posterior indica que o snapshot carregado
+ * é mais antigo do que deveria, e a abertura falha em vez de descartar os registros.
+ * <p>
+ * Cada registro tem o formato {@code [tamanho][crc32][operação][quantidade][argumentos]}. A quantidade
+ * de argumentos ocupa um byte, ou o byte 255 seguido de um int; cada argumento é precedido de uma
+ * marca: 0 (nulo), 1 (texto em {@code writeUTF}) ou 2 (texto longo: um int com o tamanho e os bytes
+ * em UTF-8). Um registro que passaria de {@value #TAMANHO_MAXIMO_REGISTRO} bytes é dividido: as
+ * primeiras partes dos argumentos vão em registros {@link Operacao#CONTINUACAO}, e a leitura as junta
+ * ao registro seguinte. Um registro incompleto ou corrompido no final do arquivo (queda no meio de
+ * uma escrita), assim como partes sem o registro final, é ignorado e truncado.
+ * <p>
+ * O fsync é feito por grupo (group commit): {@link #registrar} apenas acrescenta o registro ao
+ * arquivo, e quem precisa da durabilidade chama {@link #aguardarGravacao()}, de preferência depois
+ * de liberar as suas travas. A primeira thread a esperar faz um único {@code force} que cobre os
+ * registros de todas as threads acrescentados até ali; as que chegam durante esse {@code force}
+ * esperam por ele e, se o seu registro ficou de fora, pelo seguinte. Assim um comando só é dado
+ * como confirmado depois de estar em disco, e o custo do fsync é dividido entre as threads.
+ */
+public class EmpregadoJournal implements AutoCloseable {
+
+    private static final int MARCA = 0x57504A31; // "WPJ1"
+    private static final int VERSAO = 1;
+    private static final int TAMANHO_CABECALHO = 16;
+    private static final int TAMANHO_MAXIMO_REGISTRO = 1 << 20;
+    private static final int QUANTIDADE_LONGA = 0xFF;
+    private static final int NULO = 0;
+    private static final int TEXTO = 1;
+    private static final int TEXTO_LONGO = 2;
+    private static final int LIMITE_UTF = 0xFFFF;
+
+    /**
+     * Operações registradas no journal. A posição de cada constante é o código gravado em disco,
+     * portanto novas operações devem ser adicionadas sempre ao final.
+     */
+    public enum Operacao {
+        ZERAR_SISTEMA,
+        CRIAR_EMPREGADO,
+        CRIAR_EMPREGADO_COMISSIONADO,
+        CRIAR_AGENDA,
+        REMOVER_EMPREGADO,
+        ALTERA_EMPREGADO,
+        ALTERA_EMPREGADO_SINDICALIZADO,
+        ALTERA_EMPREGADO_TIPO,
+        ALTERA_EMPREGADO_BANCO,
+        LANCA_CARTAO,
+        LANCA_VENDA,
+        LANCA_TAXA_SERVICO,
+        RODA_FOLHA,
+        UNDO,
+        REDO,
+        /**
+         * Parte inicial dos argumentos do registro seguinte, usada quando um registro não cabe no
+         * tamanho máximo. Nunca é entregue à reprodução.
+         */
+        CONTINUACAO,
+        /**
+         * Pagamentos confirmados por uma folha: a data, e para cada empregado pago o ID e as taxas
+         * de serviço quitadas. Substitui {@link #RODA_FOLHA}, que recalculava a folha na reprodução
+         * e só continua aceito nos journals antigos.
+         */
+        FOLHA_CONFIRMADA,
+        LANCA_LOTE,
+        /**
+         * Linhas aplicadas por uma importação CSV: as quantidades por arquivo e os campos de cada
+         * linha, para que a reprodução não dependa dos arquivos.
+         */
+        IMPORTAR_LINHAS
+    }
+
+    /**
+     * Registro lido do journal: a operação e seus argumentos, na ordem em que foram passados à fachada.
+     * @param operacao A operação registrada.
+     * @param argumentos Os argumentos da operação (podem conter {@code null}).
+     */
+    public record Registro(Operacao operacao, String[] argumentos) {}
+
+    private final FileChannel canal;
+    private long geracao;
+    private long escritos;
+    private long duraveis;
+    private boolean sincronizando;
+
+    /**
+     * Abre (ou cria) o journal.
+     * Se o arquivo existir com uma geração anterior à informada, os seus registros já estão no
+     * snapshot e ele é reiniciado.
+     * @param arquivo O arquivo do journal.
+     * @param geracao A geração do snapshot atualmente carregado pelo repositório.
+     * @throws IllegalStateException se o arquivo não for um journal ou for de uma geração posterior
+     *                               à do snapshot (os seus registros não se aplicam ao estado carregado).
+     */
+    public EmpregadoJournal(File arquivo, long geracao) {
+        try {
+            this.canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            if (canal.size() < TAMANHO_CABECALHO) {
+                escreverCabecalho(geracao); // arquivo novo, ou queda durante a criação do cabeçalho
+            } else {
+                long doArquivo = lerGeracao();
+                if (doArquivo > geracao) {
+                    throw new IllegalStateException("O journal " + arquivo + " (geracao " + doArquivo
+                            + ") e mais novo que o snapshot carregado (geracao " + geracao + ").");
+                }
+                if (doArquivo < geracao) escreverCabecalho(geracao);
+            }
+            this.geracao = geracao;
+        } catch (IOException | RuntimeException e) {
+            try {
+                canal.close();
+            } catch (IOException suprimida) {
+                e.addSuppressed(suprimida);
+            }
+            if (e instanceof IOException io) throw new UncheckedIOException(io);
+            throw (RuntimeException) e;
+        }
+    }
+
+    /**
+     * Retorna a geração do journal (a mesma do snapshot ao qual ele se aplica).
+     * @return A geração atual.
+     */
+    public synchronized long getGeracao() {
+        return geracao;
+    }
+
+    /**
+     * Acrescenta um registro ao final do journal, sem esperar o fsync (ver {@link #aguardarGravacao()}).
+     * @param operacao A operação confirmada.
+     * @param argumentos Os argumentos da operação.
+     * @throws IllegalArgumentException se um argumento sozinho não couber em um registro.
+     */
+    public synchronized void registrar(Operacao operacao, String... argumentos) {
+        byte[][] codificados = new byte[argumentos.length][];
+        try {
+            for (int i = 0; i < argumentos.length; i++) {
+                codificados[i] = codificar(argumentos[i]);
+                if (6 + codificados[i].length > TAMANHO_MAXIMO_REGISTRO) {
+                    throw new IllegalArgumentException("Argumento grande demais para o journal: " + codificados[i].length + " bytes.");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long fimAnterior = -1;
+        try {
+            fimAnterior = canal.size();
+            // Cada registro leva no máximo TAMANHO_MAXIMO_REGISTRO bytes: operação, quantidade e argumentos.
+            int inicio = 0;
+            long tamanho = 6;
+            for (int i = 0; i < codificados.length; i++) {
+                if (tamanho + codificados[i].length > TAMANHO_MAXIMO_REGISTRO) {
+                    escreverRegistro(Operacao.CONTINUACAO, codificados, inicio, i);
+                    inicio = i;
+                    tamanho = 6;
+                }
+                tamanho += codificados[i].length;
+            }
+            escreverRegistro(operacao, codificados, inicio, codificados.length);
+            escritos++;
+        } catch (IOException e) {
+            // Não deixa partes soltas que seriam juntadas ao próximo registro.
+            try {
+                if (fimAnterior >= 0) canal.truncate(fimAnterior);
+            } catch (IOException suprimida) {
+                e.addSuppressed(suprimida);
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Codifica um argumento com a sua marca (nulo, texto ou texto longo).
+     * @param argumento O argumento.
+     * @return Os bytes do argumento.
+     * @throws IOException se ocorrer um erro de codificação.
+     */
+    private static byte[] codificar(String argumento) throws IOException {
+        if (argumento == null) return new byte[] {NULO};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(argumento.length() + 3);
+        DataOutputStream out = new DataOutputStream(bytes);
+        if (argumento.length() <= LIMITE_UTF / 3) {
+            out.writeByte(TEXTO);
+            out.writeUTF(argumento); // até 3 bytes por caractere: sempre cabe no limite do writeUTF
+        } else {
+            byte[] utf8 = argumento.getBytes(StandardCharsets.UTF_8);
+            out.writeByte(TEXTO_LONGO);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Grava um registro com um trecho dos argumentos já codificados.
+     * @param operacao A operação do registro.
+     * @param codificados Os argumentos codificados.
+     * @param de O primeiro argumento do trecho (inclusivo).
+     * @param ate O último argumento do trecho (exclusivo).
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    private void escreverRegistro(Operacao operacao, byte[][] codificados, int de, int ate) throws IOException {
+        ByteArrayOutputStream corpo = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(corpo);
+        out.writeByte(operacao.ordinal());
+        int quantidade = ate - de;
+        if (quantidade < QUANTIDADE_LONGA) {
+            out.writeByte(quantidade);
+        } else {
+            out.writeByte(QUANTIDADE_LONGA);
+            out.writeInt(quantidade);
+        }
+        for (int i = de; i < ate; i++) out.write(codificados[i]);
+        byte[] bytes = corpo.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        ByteBuffer buffer = ByteBuffer.allocate(8 + bytes.length);
+        buffer.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes).flip();
+        canal.position(canal.size());
+        while (buffer.hasRemaining()) canal.write(buffer);
+    }
+
+    /**
+     * Espera até que todos os registros acrescentados até o momento da chamada estejam gravados em
+     * disco, fazendo o fsync do grupo se nenhuma outra thread o estiver fazendo.
+     */
+    public void aguardarGravacao() {
+        boolean interrompida = false;
+        long alvo;
+        synchronized (this) {
+            alvo = escritos;
+        }
+        try {
+            while (true) {
+                long ate;
+                synchronized (this) {
+                    while (duraveis < alvo && sincronizando) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            interrompida = true;
+                        }
+                    }
+                    if (duraveis >= alvo) return;
+                    sincronizando = true;
+                    ate = escritos;
+                }
+                boolean gravado = false;
+                try {
+                    canal.force(false);
+                    gravado = true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    synchronized (this) {
+                        sincronizando = false;
+                        if (gravado) duraveis = Math.max(duraveis, ate);
+                        notifyAll();
+                    }
+                }
+            }
+        } finally {
+            if (interrompida) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Lê todos os registros válidos do journal, em ordem, entregando-os ao consumidor.
+     * Um final truncado ou corrompido encerra a leitura e é removido do arquivo.
+     * @param consumidor O consumidor que aplicará cada registro.
+     */
+    public synchronized void reproduzir(Consumer<Registro> consumidor) {
+        try {
+            canal.position(TAMANHO_CABECALHO);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal)));
+            long posicaoLida = TAMANHO_CABECALHO;
+            long posicaoValida = TAMANHO_CABECALHO;
+            Operacao[] operacoes = Operacao.values();
+            List<String> partes = new ArrayList<>();
+            while (true) {
+                int tamanho;
+                int crcEsperado;
+                byte[] bytes;
+                try {
+                    tamanho = in.readInt();
+                    crcEsperado = in.readInt();
+                    if (tamanho < 0 || tamanho > TAMANHO_MAXIMO_REGISTRO) break;
+                    bytes = new byte[tamanho];
+                    in.readFully(bytes);
+                } catch (EOFException e) {
+                    break;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                if ((int) crc.getValue() != crcEsperado) break;
+
+                DataInputStream registro = new DataInputStream(new ByteArrayInputStream(bytes));
+                int codigo = registro.readUnsignedByte();
+                if (codigo >= operacoes.length) break;
+                String[] argumentos = lerArgumentos(registro);
+                if (argumentos == null) break;
+                posicaoLida += 8 + tamanho;
+                if (operacoes[codigo] == Operacao.CONTINUACAO) {
+                    partes.addAll(Arrays.asList(argumentos));
+                    continue;
+                }
+                if (!partes.isEmpty()) {
+                    partes.addAll(Arrays.asList(argumentos));
+                    argumentos = partes.toArray(new String[0]);
+                    partes.clear();
+                }
+                posicaoValida = posicaoLida;
+                consumidor.accept(new Registro(operacoes[codigo], argumentos));
+            }
+            if (canal.size() > posicaoValida) {
+                canal.truncate(posicaoValida);
+                canal.force(true);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Lê a quantidade e os argumentos de um registro.
+     * @param registro O corpo do registro, posicionado depois da operação.
+     * @return Os argumentos, ou null se o corpo for inválido.
+     * @throws IOException se ocorrer um erro de leitura.
+     */
+    private static String[] lerArgumentos(DataInputStream registro) throws IOException {
+        try {
+            int quantidade = registro.readUnsignedByte();
+            if (quantidade == QUANTIDADE_LONGA) quantidade = registro.readInt();
+            if (quantidade < 0 || quantidade > TAMANHO_MAXIMO_REGISTRO) return null;
+            String[] argumentos = new String[quantidade];
+            for (int i = 0; i < quantidade; i++) {
+                int marca = registro.readUnsignedByte();
+                if (marca == NULO) {
+                    argumentos[i] = null;
+                } else if (marca == TEXTO) {
+                    argumentos[i] = registro.readUTF();
+                } else if (marca == TEXTO_LONGO) {
+                    int tamanho = registro.readInt();
+                    if (tamanho < 0 || tamanho > TAMANHO_MAXIMO_REGISTRO) return null;
+                    byte[] utf8 = new byte[tamanho];
+                    registro.readFully(utf8);
+                    argumentos[i] = new String(utf8, StandardCharsets.UTF_8);
+                } else {
+                    return null;
+                }
+            }
+            return argumentos;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Descarta todos os registros e reinicia o journal para uma nova geração.
+     * Deve ser chamado logo após o repositório gravar um snapshot com essa geração.
+     * @param novaGeracao A geração do snapshot recém-gravado.
+     * @throws IllegalArgumentException se a geração não for posterior à atual: os registros ainda
+     *                                  não estariam em nenhum snapshot.
+     */
+    public synchronized void reiniciar(long novaGeracao) {
+        if (novaGeracao <= geracao) {
+            throw new IllegalArgumentException("A geracao " + novaGeracao + " nao e posterior a do journal (" + geracao + ").");
+        }
+        try {
+            esperarSincronizacao();
+            escreverCabecalho(novaGeracao);
+            this.geracao = novaGeracao;
+            this.duraveis = this.escritos;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Faz o fsync dos registros pendentes e fecha o journal.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            esperarSincronizacao();
+            if (canal.isOpen()) {
+                canal.force(false);
+                canal.close();
+            }
+            this.duraveis = this.escritos;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Espera o fsync em andamento em outra thread terminar. Deve ser chamado com o monitor do journal.
+     */
+    private void esperarSincronizacao() {
+        boolean interrompida = false;
+        while (sincronizando) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrompida = true;
+            }
+        }
+        if (interrompida) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Lê a geração gravada no cabeçalho do arquivo.
+     * @return A geração do arquivo.
+     * @throws IOException se ocorrer um erro de leitura.
+     * @throws IllegalStateException se o cabeçalho não for de um journal desta versão.
+     */
+    private long lerGeracao() throws IOException {
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+        canal.read(cabecalho, 0);
+        cabecalho.flip();
+        if (cabecalho.getInt() != MARCA || cabecalho.getInt() != VERSAO) {
+            throw new IllegalStateException("Cabecalho de journal invalido.");
+        }
+        return cabecalho.getLong();
+    }
+
+    /**
+     * Trunca o arquivo e grava um cabeçalho novo.
+     * @param novaGeracao A geração a ser gravada.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    private void escreverCabecalho(long novaGeracao) throws IOException {
+        canal.truncate(0);
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+        cabecalho.putInt(MARCA).putInt(VERSAO).putLong(novaGeracao).flip();
+        canal.write(cabecalho, 0);
+        canal.force(true);
+    }
+}
@@ -1,82 +1,284 @@
 package br.ufal.ic.p2.wepayu.Repository;
 
 import br.ufal.ic.p2.wepayu.Services.CommandHistoryService;
+import br.ufal.ic.p2.wepayu.models.Banco;
 import br.ufal.ic.p2.wepayu.models.Empregado;
 import java.beans.*;
 import java.io.*;
-import java.time.LocalDate;
-import java.util.AbstractMap;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Repositório para gerenciar a persistência de dados dos empregados.
  * Esta classe abstrai o acesso aos dados, lendo e salvando o estado
- * dos empregados em um arquivo XML ("empregados.xml").
+ * dos empregados em um snapshot binário ("empregados.bin"). O formato XML
+ * antigo ("empregados.xml") continua sendo importado quando não há snapshot binário.
+ * Os arquivos ficam no diretório de dados da empresa (o diretório de trabalho, por padrão).
+ * <p>
+ * Os empregados ficam em um {@link MapaPersistente}. Um objeto {@link Empregado} guardado no mapa
+ * é uma versão imutável: quem precisar alterá-lo deve obter uma cópia por {@link #editar(String)}.
+ * Assim, um snapshot do repositório ({@link #getState()}) é apenas a referência da raiz do mapa.
+ * <p>
+ * Toda alteração de estado passa por {@link #aplicar(Alteracao)}. Durante a execução de um
+ * comando ({@link #capturar(Runnable)}) as inversas das alterações aplicadas são coletadas e
+ * entregues ao {@link CommandHistoryService}, que as usa para o undo/redo.
+ * <p>
+ * Junto com o mapa são mantidos três {@link IndiceSecundario}: o dos empregados por agenda de pagamento,
+ * usado pela folha para visitar apenas os empregados das agendas que pagam em uma data, o dos
+ * empregados por ID de membro do sindicato, usado no lançamento de taxas de serviço, e o dos
+ * empregados pagos em banco por agência, usado na remessa bancária. Um
+ * {@link IndiceNomes} mantém os empregados por nome, para a busca por nome e por prefixo.
+ * <p>
+ * O mapa, o contador de ID e os índices formam um único {@link Estado} imutável, publicado em uma
+ * referência atômica: cada alteração troca a raiz por compare-and-set, de modo que alterações de
+ * empregados diferentes feitas por threads diferentes não se perdem, e as leituras enxergam sempre
+ * uma raiz consistente, sem trava. A captura de inversas de um comando é por thread. Cabe a quem
+ * chama (a {@code Facade}) garantir que um mesmo empregado não seja alterado por duas threads ao mesmo tempo.
+ * <p>
+ * Leituras longas, como a folha de pagamento, usam um {@link #instantaneo()}: um repositório fixado
+ * em uma raiz, cujas versões de empregados continuam válidas enquanto novas versões são publicadas.
  */
 public class EmpregadoRepository {
 
-    private Map<String, Empregado> empregados;
-    private int idCont;
+    private static final String ARQUIVO_SNAPSHOT = "empregados.bin";
+    private static final String ARQUIVO_LEGADO = "empregados.xml";
+
+    /**
+     * Snapshot imutável do repositório: a raiz do mapa de empregados, o contador de ID e os índices.
+     * @param empregados A versão do mapa de empregados.
+     * @param idCont O valor do contador de ID.
+     * @param agendas A versão do índice de empregados por agenda de pagamento.
+     * @param membros A versão do índice de empregados por ID de membro do sindicato.
+     * @param nomes A versão do índice de empregados por nome.
+     * @param agencias A versão do índice de empregados pagos em banco, por agência.
+     */
+    public record Estado(MapaPersistente<String, Empregado> empregados, int idCont, IndiceSecundario agendas,
+                         IndiceSecundario membros, IndiceNomes nomes, IndiceSecundario agencias) {
+
+        /**
+         * Retorna o estado com uma nova versão de um empregado, atualizando todos os índices.
+         * @param id O ID do empregado.
+         * @param versao A nova versão, ou null para removê-lo.
+         * @return O novo estado.
+         */
+        Estado comVersao(String id, Empregado versao) {
+            return new Estado(versao == null ? empregados.remove(id) : empregados.put(id, versao), idCont,
+                    agendas.atualizar(id, versao), membros.atualizar(id, versao), nomes.atualizar(id, versao),
+                    agencias.atualizar(id, versao));
+        }
+
+        /**
+         * Retorna o estado com outro valor do contador de ID.
+         * @param valor O novo valor do contador.
+         * @return O novo estado.
+         */
+        Estado comContador(int valor) {
+            return new Estado(empregados, valor, agendas, membros, nomes, agencias);
+        }
+    }
+
+    private static final IndiceSecundario AGENDAS_VAZIO = IndiceSecundario.vazio(
+            e -> e.getAgendaPagamento() == null ? null : e.getAgendaPagamento().getDescricao());
+    private static final IndiceSecundario MEMBROS_VAZIO = IndiceSecundario.vazio(
+            e -> e.isSindicalizado() ? e.getMembroSindicato().getIdMembro() : null);
+    private static final IndiceSecundario AGENCIAS_VAZIO = IndiceSecundario.vazio(
+            e -> e.getMetodoPagamento() instanceof Banco banco ? banco.getAgencia() : null);
+    private static final Estado VAZIO = new Estado(MapaPersistente.vazio(), 0, AGENDAS_VAZIO, MEMBROS_VAZIO,
+            IndiceNomes.vazio(), AGENCIAS_VAZIO);
+
+    /**
+     * Comando em execução na thread: as inversas coletadas e os IDs cuja cópia já foi criada nele.
+     */
+    private static final class Captura {
+        final List<Alteracao> inversas = new ArrayList<>();
+        final Set<String> editados = new HashSet<>();
+    }
+
+    private final AtomicReference<Estado> raiz = new AtomicReference<>(VAZIO);
+    private final ThreadLocal<Captura> captura = new ThreadLocal<>();
+    private final Path diretorio;
+    private volatile long geracao;
+    private List<String> agendasDisponiveis;
 
     /**
      * Construtor que inicializa o repositório, carregando os dados existentes
-     * do arquivo de persistência.
+     * do arquivo de persistência no diretório de trabalho.
      */
     public EmpregadoRepository() {
+        this(Path.of(""));
+    }
+
+    /**
+     * Constrói o repositório de uma empresa, carregando os dados existentes do arquivo de
+     * persistência no diretório informado.
+     * @param diretorio O diretório de dados da empresa.
+     */
+    public EmpregadoRepository(Path diretorio) {
+        this.diretorio = diretorio;
         carregarDados();
     }
 
     /**
-     * Carrega os dados dos empregados e o contador de ID do arquivo "empregados.xml".
-     * Se o arquivo não existir ou ocorrer um erro na leitura, inicializa um estado vazio.
+     * Constrói um repositório fixado em um estado, sem ler os arquivos de persistência.
+     * @param estado O estado inicial.
+     * @param geracao A geração do snapshot de origem.
+     * @param diretorio O diretório de dados de origem.
+     */
+    private EmpregadoRepository(Estado estado, long geracao, Path diretorio) {
+        this.diretorio = diretorio;
+        this.raiz.set(estado);
+        this.geracao = geracao;
+    }
+
+    /**
+     * Carrega os dados dos empregados e o contador de ID do snapshot binário "empregados.bin".
+     * Se ele não existir, importa o arquivo legado "empregados.xml" (formato do {@link XMLDecoder}).
+     * Se nenhum arquivo existir, ou o XML legado não puder ser lido, inicializa um estado vazio.
+     * @throws UncheckedIOException se o snapshot binário existir mas não puder ser lido (CRC inválido,
+     *                              arquivo truncado): começar vazio faria o próximo salvamento
+     *                              sobrescrevê-lo e o journal ser descartado, perdendo os dados.
      */
     private void carregarDados() {
-        File arquivo = new File("empregados.xml");
-        if (arquivo.exists()) {
-            try (XMLDecoder decoder = new XMLDecoder(new BufferedInputStream(new FileInputStream(arquivo)))) {
-                this.empregados = (Map<String, Empregado>) decoder.readObject();
-                this.idCont = (int) decoder.readObject();
-            } catch (Exception e) {
-                this.empregados = new HashMap<>();
-                this.idCont = 0;
+        File binario = diretorio.resolve(ARQUIVO_SNAPSHOT).toFile();
+        File legado = diretorio.resolve(ARQUIVO_LEGADO).toFile();
+        this.geracao = 0;
+        if (binario.exists()) {
+            try (InputStream in = new FileInputStream(binario)) {
+                SnapshotCodec.Conteudo conteudo = SnapshotCodec.ler(in);
+                this.raiz.set(indexar(paraMapaPersistente(conteudo.empregados()), conteudo.idCont()));
+                this.geracao = conteudo.geracao();
+                this.agendasDisponiveis = conteudo.agendas();
+            } catch (IOException | RuntimeException e) {
+                // Bytes corrompidos podem falhar na decodificação antes da verificação do CRC.
+                throw new UncheckedIOException("Snapshot ilegivel: " + binario, e instanceof IOException io ? io : new IOException(e));
             }
-        } else {
-            this.empregados = new HashMap<>();
-            this.idCont = 0;
+        } else if (legado.exists()) {
+            importarXml(legado);
+        }
+    }
+
+    /**
+     * Monta o estado de um mapa de empregados carregado, construindo os índices.
+     * @param empregados O mapa de empregados.
+     * @param idCont O contador de ID.
+     * @return O estado.
+     */
+    private static Estado indexar(MapaPersistente<String, Empregado> empregados, int idCont) {
+        IndiceSecundario agendas = AGENDAS_VAZIO, membros = MEMBROS_VAZIO, agencias = AGENCIAS_VAZIO;
+        IndiceNomes nomes = IndiceNomes.vazio();
+        for (Empregado empregado : empregados.valores()) {
+            String id = empregado.getId();
+            agendas = agendas.atualizar(id, empregado);
+            membros = membros.atualizar(id, empregado);
+            nomes = nomes.atualizar(id, empregado);
+            agencias = agencias.atualizar(id, empregado);
         }
+        return new Estado(empregados, idCont, agendas, membros, nomes, agencias);
     }
 
     /**
-     * Salva o estado atual do mapa de empregados e do contador de ID no arquivo "empregados.xml".
-     * Utiliza um PersistenceDelegate para serializar corretamente objetos {@link LocalDate}.
+     * Importa um snapshot no formato XML legado.
+     * @param arquivo O arquivo XML gerado por versões anteriores do sistema.
      */
-    public void salvarDados() {
-        try (XMLEncoder encoder = new XMLEncoder(new BufferedOutputStream(new FileOutputStream("empregados.xml")))) {
-            encoder.setPersistenceDelegate(LocalDate.class,
-                    new PersistenceDelegate() {
-                        @Override
-                        protected Expression instantiate(Object oldInstance, Encoder out) {
-                            LocalDate localDate = (LocalDate) oldInstance;
-                            return new Expression(localDate, LocalDate.class, "of",
-                                    new Object[]{localDate.getYear(), localDate.getMonthValue(), localDate.getDayOfMonth()});
-                        }
-                    });
-            encoder.writeObject(this.empregados);
-            encoder.writeObject(this.idCont);
+    private void importarXml(File arquivo) {
+        try (XMLDecoder decoder = new XMLDecoder(new BufferedInputStream(new FileInputStream(arquivo)))) {
+            MapaPersistente<String, Empregado> empregados = paraMapaPersistente((Map<String, Empregado>) decoder.readObject());
+            int idCont = (int) decoder.readObject();
+            this.geracao = lerGeracao(decoder);
+            this.raiz.set(indexar(empregados, idCont));
         } catch (Exception e) {
+            this.raiz.set(VAZIO);
+            this.geracao = 0;
+        }
+    }
+
+    /**
+     * Converte o mapa lido de um snapshot em um {@link MapaPersistente}.
+     * @param mapa O mapa de empregados lido do arquivo.
+     * @return O mapa persistente equivalente.
+     */
+    private static MapaPersistente<String, Empregado> paraMapaPersistente(Map<String, Empregado> mapa) {
+        MapaPersistente<String, Empregado> resultado = MapaPersistente.vazio();
+        for (Map.Entry<String, Empregado> entry : mapa.entrySet()) {
+            resultado = resultado.put(entry.getKey(), entry.getValue());
+        }
+        return resultado;
+    }
+
+    /**
+     * Lê a geração do snapshot, gravada após o contador de ID.
+     * Arquivos antigos não possuem esse campo e são tratados como geração 0.
+     * @param decoder O decoder posicionado após o contador de ID.
+     * @return A geração do snapshot.
+     */
+    private long lerGeracao(XMLDecoder decoder) {
+        try {
+            return (long) decoder.readObject();
+        } catch (ArrayIndexOutOfBoundsException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Retorna as agendas de pagamento disponíveis gravadas no snapshot carregado.
+     * @return As descrições das agendas, ou null se não houver snapshot ou ele não as tiver.
+     */
+    public List<String> getAgendasDisponiveis() {
+        return this.agendasDisponiveis;
+    }
+
+    /**
+     * Salva o estado atual do mapa de empregados e do contador de ID no snapshot binário "empregados.bin"
+     * (ver {@link SnapshotCodec}), junto com as agendas de pagamento disponíveis da empresa.
+     * O arquivo é escrito em um temporário e depois renomeado, para que uma queda durante a
+     * gravação não destrua o snapshot anterior. Cada gravação incrementa a geração do snapshot.
+     * @param agendas As descrições das agendas de pagamento disponíveis.
+     */
+    public void salvarDados(List<String> agendas) {
+        File arquivo = diretorio.resolve(ARQUIVO_SNAPSHOT).toFile();
+        File temporario = diretorio.resolve(ARQUIVO_SNAPSHOT + ".tmp").toFile();
+        long novaGeracao = this.geracao + 1;
+        try (FileOutputStream saida = new FileOutputStream(temporario)) {
+            Estado estado = this.raiz.get();
+            SnapshotCodec.escrever(saida, estado.empregados(), estado.idCont(), novaGeracao, agendas);
+            saida.getFD().sync();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        try {
+            Files.move(temporario.toPath(), arquivo.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            this.geracao = novaGeracao;
+        } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Retorna a geração do último snapshot carregado ou salvo.
+     * Usada pelo {@link EmpregadoJournal} para saber se o journal em disco se aplica a este snapshot.
+     * @return A geração do snapshot.
+     */
+    public long getGeracao() {
+        return this.geracao;
+    }
+
     /**
      * Limpa todos os dados de empregados e reseta o contador de ID.
      */
     public void zerarDados() {
-        if (this.empregados != null) this.empregados.clear();
-        this.idCont = 0;
+        aplicar(Alteracoes.estado(VAZIO));
     }
 
     /**
@@ -85,15 +287,121 @@ public class EmpregadoRepository {
      * @return O objeto {@link Empregado} correspondente, ou null se não for encontrado.
      */
     public Empregado findById(String id) {
-        return this.empregados.get(id);
+        return this.raiz.get().empregados().get(id);
     }
 
     /**
-     * Retorna uma lista com todos os empregados cadastrados.
-     * @return Uma {@link List} de objetos {@link Empregado}.
+     * Retorna a quantidade de empregados cadastrados, em O(1).
+     * @return O número de empregados.
      */
-    public List<Empregado> findAll() {
-        return new ArrayList<>(this.empregados.values());
+    public int size() {
+        return this.raiz.get().empregados().size();
+    }
+
+    /**
+     * Percorre todos os empregados cadastrados diretamente no mapa, sem copiá-los.
+     * <p>
+     * A iteração acontece sobre a versão do mapa vigente no momento da chamada: alterações
+     * feitas durante o percurso (inclusive pela própria ação) não são vistas por ele.
+     * @param acao A ação aplicada a cada empregado.
+     */
+    public void forEach(Consumer<? super Empregado> acao) {
+        this.raiz.get().empregados().forEach((id, empregado) -> acao.accept(empregado));
+    }
+
+    /**
+     * Retorna um stream de todos os empregados cadastrados, lidos diretamente do mapa, sem cópia.
+     * <p>
+     * O stream é ligado à versão do mapa vigente na chamada: é um snapshot consistente, que não
+     * reflete alterações posteriores, e pode ser consumido mesmo depois delas.
+     * @return O stream dos empregados.
+     */
+    public Stream<Empregado> stream() {
+        return this.raiz.get().empregados().streamValores();
+    }
+
+    /**
+     * Retorna um stream dos empregados de um tipo, com as mesmas garantias de {@link #stream()}.
+     * @param tipo A classe dos empregados desejados (ex.: {@code EmpregadoHorista.class}).
+     * @param <T> O tipo dos empregados.
+     * @return O stream dos empregados do tipo.
+     */
+    public <T extends Empregado> Stream<T> stream(Class<T> tipo) {
+        return stream().filter(tipo::isInstance).map(tipo::cast);
+    }
+
+    /**
+     * Retorna as descrições distintas das agendas de pagamento em uso.
+     * @return A lista de descrições.
+     */
+    public List<String> findAgendas() {
+        return this.raiz.get().agendas().chaves();
+    }
+
+    /**
+     * Retorna os empregados com uma determinada agenda de pagamento.
+     * @param descricao A descrição da agenda.
+     * @return A lista de empregados com essa agenda.
+     */
+    public List<Empregado> findByAgenda(String descricao) {
+        Estado estado = this.raiz.get();
+        List<String> ids = estado.agendas().ids(descricao);
+        List<Empregado> lista = new ArrayList<>(ids.size());
+        for (String id : ids) lista.add(estado.empregados().get(id));
+        return lista;
+    }
+
+    /**
+     * Retorna, em ordem crescente, as agências distintas dos empregados pagos em banco.
+     * @return A lista de agências.
+     */
+    public List<String> findAgencias() {
+        List<String> agencias = this.raiz.get().agencias().chaves();
+        Collections.sort(agencias);
+        return agencias;
+    }
+
+    /**
+     * Retorna os empregados pagos em banco em uma determinada agência.
+     * @param agencia A agência.
+     * @return A lista de empregados da agência.
+     */
+    public List<Empregado> findByAgencia(String agencia) {
+        Estado estado = this.raiz.get();
+        List<String> ids = estado.agencias().ids(agencia);
+        List<Empregado> lista = new ArrayList<>(ids.size());
+        for (String id : ids) lista.add(estado.empregados().get(id));
+        return lista;
+    }
+
+    /**
+     * Busca o empregado sindicalizado com um determinado ID de membro do sindicato.
+     * @param idMembro O ID de membro do sindicato.
+     * @return O {@link Empregado} correspondente, ou null se não houver.
+     */
+    public Empregado findByIdMembro(String idMembro) {
+        Estado estado = this.raiz.get();
+        String id = estado.membros().id(idMembro);
+        return id == null ? null : estado.empregados().get(id);
+    }
+
+    /**
+     * Retorna os IDs dos empregados com um determinado nome, em ordem de criação.
+     * @param nome O nome.
+     * @return A lista de IDs (vazia se não houver empregado com o nome).
+     */
+    public List<String> findIdsByNome(String nome) {
+        return this.raiz.get().nomes().ids(nome);
+    }
+
+    /**
+     * Retorna, em ordem alfabética, os nomes distintos de empregados que começam com um prefixo.
+     * @param prefixo O prefixo.
+     * @param limite A quantidade máxima de nomes.
+     * @return A lista de nomes.
+     */
+    public List<String> findNomesByPrefixo(String prefixo, int limite) {
+        return this.raiz.get().nomes().nomesComPrefixo(prefixo, limite);
     }
 
     /**
@@ -101,7 +409,7 @@ public class EmpregadoRepository {
      * @param empregado O objeto {@link Empregado} a ser salvo.
      */
     public void save(Empregado empregado) {
-        this.empregados.put(empregado.getId(), empregado);
+        aplicar(Alteracoes.gravar(empregado));
     }
 
     /**
@@ -110,41 +418,184 @@ public class EmpregadoRepository {
      * @return O objeto {@link Empregado} que foi removido.
      */
     public Empregado deleteById(String id) {
-        return this.empregados.remove(id);
+        Empregado removido = findById(id);
+        aplicar(Alteracoes.remover(id));
+        return removido;
     }
 
     /**
      * Gera e retorna o próximo ID sequencial para um novo empregado.
+     * O contador é incrementado atomicamente, então duas chamadas nunca recebem o mesmo ID.
      * @return Uma string representando o próximo ID disponível.
      */
     public String getNextId() {
-        return String.valueOf(++this.idCont);
+        int anterior = this.raiz.getAndUpdate(estado -> estado.comContador(estado.idCont() + 1)).idCont();
+        registrarInversa(Alteracoes.contador(anterior));
+        return String.valueOf(anterior + 1);
     }
 
     /**
-     * Cria e retorna um snapshot (cópia profunda) do estado atual do repositório.
-     * Usado pelo {@link CommandHistoryService} para a funcionalidade de undo.
-     * @return Um {@link Map.Entry} contendo a cópia do mapa de empregados e o valor do contador de ID.
+     * Grava de uma vez um lote de versões de empregados (novos ou substituídos) e o contador de ID,
+     * como uma única alteração: o novo estado é montado fora da raiz e publicado em uma só troca,
+     * e a inversa é a raiz anterior, sem uma cópia ou inversa por empregado. Usado pela importação
+     * em massa; cabe a quem chama impedir alterações concorrentes (trava exclusiva).
+     * @param versoes As versões a serem gravadas, que não devem ser alteradas depois.
+     * @param idCont O novo valor do contador de ID.
      */
-    public Map.Entry<Map<String, Empregado>, Integer> getState() {
-        Map<String, Empregado> empregadosCopiaProfunda = new HashMap<>();
-        for (Map.Entry<String, Empregado> entry : this.empregados.entrySet()) {
-            empregadosCopiaProfunda.put(entry.getKey(), entry.getValue().clone());
+    public void gravarEmLote(Collection<Empregado> versoes, int idCont) {
+        Estado estado = this.raiz.get();
+        for (Empregado versao : versoes) {
+            estado = estado.comVersao(versao.getId(), versao);
         }
-        return new AbstractMap.SimpleEntry<>(empregadosCopiaProfunda, this.idCont);
+        aplicar(Alteracoes.estado(estado.comContador(idCont)));
     }
 
     /**
-     * Restaura o estado do repositório a partir de um snapshot.
-     * Usado pelo {@link CommandHistoryService} para a funcionalidade de undo.
-     * @param state O {@link Map.Entry} contendo o estado a ser restaurado.
+     * Aplica uma alteração ao repositório. Se houver um comando em execução,
+     * a inversa da alteração é guardada para o undo.
+     * @param alteracao A alteração a ser aplicada.
      */
-    public void setState(Map.Entry<Map<String, Empregado>, Integer> state) {
-        Map<String, Empregado> deepCopiedMap = new HashMap<>();
-        for (Map.Entry<String, Empregado> entry : state.getKey().entrySet()) {
-            deepCopiedMap.put(entry.getKey(), entry.getValue().clone());
+    public void aplicar(Alteracao alteracao) {
+        registrarInversa(alteracao.aplicar(this));
+    }
+
+    /**
+     * Guarda a inversa de uma alteração já aplicada no comando em execução na thread, se houver.
+     * @param inversa A inversa.
+     */
+    private void registrarInversa(Alteracao inversa) {
+        Captura atual = this.captura.get();
+        if (atual != null) atual.inversas.add(inversa);
+    }
+
+    /**
+     * Executa uma ação coletando as inversas das alterações que ela aplicar na thread atual.
+     * Se a ação falhar, as alterações já aplicadas são desfeitas antes de a exceção ser propagada.
+     * @param acao A ação a ser executada.
+     * @return As inversas das alterações aplicadas, na ordem de aplicação.
+     */
+    public List<Alteracao> capturar(Runnable acao) {
+        Captura atual = new Captura();
+        this.captura.set(atual);
+        try {
+            acao.run();
+        } catch (RuntimeException e) {
+            this.captura.remove();
+            reverter(atual.inversas);
+            throw e;
+        } finally {
+            this.captura.remove();
+        }
+        return atual.inversas;
+    }
+
+    /**
+     * Aplica uma lista de inversas na ordem contrária, desfazendo as alterações que as geraram.
+     * @param inversas As inversas, na ordem em que as alterações originais foram aplicadas.
+     * @return As inversas das inversas, na mesma convenção, prontas para refazer as alterações.
+     */
+    public List<Alteracao> reverter(List<Alteracao> inversas) {
+        List<Alteracao> refazer = new ArrayList<>(inversas.size());
+        for (int i = inversas.size() - 1; i >= 0; i--) {
+            refazer.add(inversas.get(i).aplicar(this));
         }
-        this.empregados = deepCopiedMap;
-        this.idCont = state.getValue();
+        return refazer;
+    }
+
+    /**
+     * Prepara um empregado para alteração (cópia na escrita).
+     * Cria uma cópia da versão atual, grava a cópia no repositório e a retorna; a versão
+     * anterior continua intacta nos snapshots que a referenciam. Dentro de um mesmo comando,
+     * a cópia já criada é reaproveitada, pois nenhum snapshot ou inversa a referencia.
+     * Usado pelas {@link Alteracoes}.
+     * @param id O ID do empregado a ser alterado.
+     * @return A nova versão do empregado, que pode ser modificada livremente, ou null se não existir.
+     */
+    Empregado editar(String id) {
+        Empregado atual = findById(id);
+        if (atual == null) return null;
+        Captura comando = this.captura.get();
+        if (comando != null && comando.editados.contains(id)) return atual;
+        Empregado copia = atual.clone();
+        this.raiz.updateAndGet(estado -> estado.comVersao(id, copia));
+        if (comando != null) comando.editados.add(id);
+        return copia;
+    }
+
+    /**
+     * Grava uma versão de empregado no mapa, sem registrar a alteração.
+     * @param empregado A versão a ser gravada.
+     * @return A versão anterior com o mesmo ID, ou null.
+     */
+    Empregado gravar(Empregado empregado) {
+        String id = empregado.getId();
+        esquecerCopia(id);
+        return this.raiz.getAndUpdate(estado -> estado.comVersao(id, empregado)).empregados().get(id);
+    }
+
+    /**
+     * Remove um empregado do mapa, sem registrar a alteração.
+     * @param id O ID do empregado.
+     * @return A versão removida, ou null.
+     */
+    Empregado apagar(String id) {
+        esquecerCopia(id);
+        return this.raiz.getAndUpdate(estado -> estado.comVersao(id, null)).empregados().get(id);
+    }
+
+    /**
+     * Deixa de reaproveitar, no comando em execução na thread, a cópia editável de um empregado.
+     * @param id O ID do empregado.
+     */
+    private void esquecerCopia(String id) {
+        Captura comando = this.captura.get();
+        if (comando != null) comando.editados.remove(id);
+    }
+
+    /**
+     * Atualiza os índices depois que uma cópia obtida por {@link #editar(String)} foi modificada.
+     * @param empregado A versão modificada.
+     */
+    void reindexar(Empregado empregado) {
+        this.raiz.updateAndGet(estado -> estado.comVersao(empregado.getId(), empregado));
+    }
+
+    /**
+     * Define o contador de ID, sem registrar a alteração.
+     * @param valor O novo valor.
+     * @return O valor anterior.
+     */
+    int definirContador(int valor) {
+        return this.raiz.getAndUpdate(estado -> estado.comContador(valor)).idCont();
+    }
+
+    /**
+     * Retorna um snapshot do estado atual do repositório.
+     * Como as versões dos empregados nunca são alteradas, basta capturar a raiz: O(1).
+     * @return O {@link Estado} atual.
+     */
+    public Estado getState() {
+        Captura comando = this.captura.get();
+        if (comando != null) comando.editados.clear();
+        return this.raiz.get();
+    }
+
+    /**
+     * Retorna uma visão do estado atual que não muda mais: as consultas feitas nela enxergam as
+     * versões dos empregados deste instante, mesmo que o repositório seja alterado em seguida.
+     * Como em {@link #getState()}, custa O(1). Alterações feitas na visão não afetam este repositório.
+     * @return O repositório fixado no estado atual.
+     */
+    public EmpregadoRepository instantaneo() {
+        return new EmpregadoRepository(this.raiz.get(), this.geracao, this.diretorio);
+    }
+
+    /**
+     * Restaura o estado do repositório a partir de um snapshot, trocando a raiz do mapa,
+     * sem registrar a alteração.
+     * @param state O {@link Estado} a ser restaurado.
+     */
+    public void setState(Estado state) {
+        this.raiz.set(state);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,228 @@
+package br.ufal.ic.p2.wepayu.Repository;
+
+import br.ufal.ic.p2.wepayu.models.Empregado;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Índice (imutável) dos empregados por nome, ordenado pelos nomes.
+ * <p>
+ * Os nomes ficam em uma treap persistente: cada nome guarda os IDs dos empregados que o possuem,
+ * em ordem de criação (o ID numérico), o que torna determinístico o índice de
+ * {@code getEmpregadoPorNome} quando há nomes repetidos. A ordem dos nomes permite a busca por
+ * prefixo. Como no {@link MapaPersistente}, cada atualização copia apenas o caminho alterado
+ * (O(log n) nós) e o índice entra no {@link EmpregadoRepository.Estado} sem custo nos snapshots.
+ */
+final class IndiceNomes {
+
+    /**
+     * Ordem de criação dos IDs: os IDs são sequenciais, então o mais curto é o mais antigo.
+     */
+    private static final Comparator<String> ORDEM_DE_CRIACAO =
+            Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+    private static final IndiceNomes VAZIO = new IndiceNomes(null, MapaPersistente.vazio());
+
+    private final No raiz;
+    private final MapaPersistente<String, String> nomePorId;
+
+    /**
+     * Nó da treap: um nome e os IDs que o possuem. A prioridade é derivada do nome,
+     * de modo que a forma da árvore não depende da ordem das inserções.
+     */
+    private static final class No {
+        final String nome;
+        final String[] ids;
+        final int prioridade;
+        final No esquerda;
+        final No direita;
+
+        No(String nome, String[] ids, int prioridade, No esquerda, No direita) {
+            this.nome = nome;
+            this.ids = ids;
+            this.prioridade = prioridade;
+            this.esquerda = esquerda;
+            this.direita = direita;
+        }
+
+        No comFilhos(No esquerda, No direita) {
+            return new No(nome, ids, prioridade, esquerda, direita);
+        }
+    }
+
+    /**
+     * Constrói um índice a partir das suas partes.
+     * @param raiz A raiz da treap de nomes.
+     * @param nomePorId O nome sob o qual cada ID está indexado.
+     */
+    private IndiceNomes(No raiz, MapaPersistente<String, String> nomePorId) {
+        this.raiz = raiz;
+        this.nomePorId = nomePorId;
+    }
+
+    /**
+     * Retorna o índice vazio.
+     * @return O índice vazio.
+     */
+    static IndiceNomes vazio() {
+        return VAZIO;
+    }
+
+    /**
+     * Atualiza a posição de um empregado no índice.
+     * @param id O ID do empregado.
+     * @param versao A versão atual do empregado, ou null se ele foi removido.
+     * @return O índice atualizado (o próprio índice, se o nome não mudou).
+     */
+    IndiceNomes atualizar(String id, Empregado versao) {
+        String novo = versao == null ? null : versao.getNome();
+        String atual = nomePorId.get(id);
+        if (Objects.equals(novo, atual)) return this;
+
+        No r = raiz;
+        MapaPersistente<String, String> porId = nomePorId;
+        if (atual != null) {
+            String[] ids = remover(buscar(r, atual), id);
+            r = ids.length == 0 ? remover(r, atual) : gravar(r, atual, ids);
+            porId = porId.remove(id);
+        }
+        if (novo != null) {
+            r = gravar(r, novo, inserir(buscar(r, novo), id));
+            porId = porId.put(id, novo);
+        }
+        return new IndiceNomes(r, porId);
+    }
+
+    /**
+     * Retorna os IDs dos empregados com um nome, em ordem de criação.
+     * @param nome O nome.
+     * @return A lista de IDs (vazia se não houver empregado com o nome).
+     */
+    List<String> ids(String nome) {
+        String[] ids = buscar(raiz, nome);
+        return ids == null ? List.of() : List.of(ids);
+    }
+
+    /**
+     * Retorna, em ordem alfabética, os nomes distintos que começam com um prefixo.
+     * @param prefixo O prefixo.
+     * @param limite A quantidade máxima de nomes.
+     * @return A lista de nomes.
+     */
+    List<String> nomesComPrefixo(String prefixo, int limite) {
+        List<String> nomes = new ArrayList<>(Math.min(limite, 16));
+        coletar(raiz, prefixo, limite, nomes);
+        return nomes;
+    }
+
+    /**
+     * Percorre em ordem apenas as subárvores que podem conter nomes com o prefixo.
+     * @return {@code false} quando o limite foi atingido ou os nomes já passaram do prefixo.
+     */
+    private static boolean coletar(No no, String prefixo, int limite, List<String> nomes) {
+        if (no == null) return true;
+        int c = no.nome.compareTo(prefixo);
+        if (c > 0 && !coletar(no.esquerda, prefixo, limite, nomes)) return false;
+        if (c >= 0) {
+            if (!no.nome.startsWith(prefixo) || nomes.size() >= limite) return false;
+            nomes.add(no.nome);
+        }
+        return coletar(no.direita, prefixo, limite, nomes);
+    }
+
+    /**
+     * Busca os IDs de um nome na treap.
+     * @return Os IDs, ou null se o nome não estiver indexado.
+     */
+    private static String[] buscar(No no, String nome) {
+        while (no != null) {
+            int c = nome.compareTo(no.nome);
+            if (c == 0) return no.ids;
+            no = c < 0 ? no.esquerda : no.direita;
+        }
+        return null;
+    }
+
+    /**
+     * Grava (insere ou substitui) os IDs de um nome, copiando o caminho até ele.
+     * @return A nova raiz.
+     */
+    private static No gravar(No no, String nome, String[] ids) {
+        if (no == null) return new No(nome, ids, prioridade(nome), null, null);
+        int c = nome.compareTo(no.nome);
+        if (c == 0) return new No(nome, ids, no.prioridade, no.esquerda, no.direita);
+        if (c < 0) {
+            No esquerda = gravar(no.esquerda, nome, ids);
+            if (esquerda.prioridade > no.prioridade) {
+                return esquerda.comFilhos(esquerda.esquerda, no.comFilhos(esquerda.direita, no.direita));
+            }
+            return no.comFilhos(esquerda, no.direita);
+        }
+        No direita = gravar(no.direita, nome, ids);
+        if (direita.prioridade > no.prioridade) {
+            return direita.comFilhos(no.comFilhos(no.esquerda, direita.esquerda), direita.direita);
+        }
+        return no.comFilhos(no.esquerda, direita);
+    }
+
+    /**
+     * Remove um nome da treap, copiando o caminho até ele.
+     * @return A nova raiz.
+     */
+    private static No remover(No no, String nome) {
+        if (no == null) return null;
+        int c = nome.compareTo(no.nome);
+        if (c == 0) return juntar(no.esquerda, no.direita);
+        if (c < 0) return no.comFilhos(remover(no.esquerda, nome), no.direita);
+        return no.comFilhos(no.esquerda, remover(no.direita, nome));
+    }
+
+    /**
+     * Junta duas treaps em que todos os nomes da primeira precedem os da segunda.
+     * @return A raiz da junção.
+     */
+    private static No juntar(No a, No b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.prioridade > b.prioridade) return a.comFilhos(a.esquerda, juntar(a.direita, b));
+        return b.comFilhos(juntar(a, b.esquerda), b.direita);
+    }
+
+    /**
+     * Insere um ID na lista ordenada de IDs de um nome.
+     * @return A nova lista.
+     */
+    private static String[] inserir(String[] ids, String id) {
+        if (ids == null) return new String[] {id};
+        int pos = -Arrays.binarySearch(ids, id, ORDEM_DE_CRIACAO) - 1;
+        String[] novos = new String[ids.length + 1];
+        System.arraycopy(ids, 0, novos, 0, pos);
+        novos[pos] = id;
+        System.arraycopy(ids, pos, novos, pos + 1, ids.length - pos);
+        return novos;
+    }
+
+    /**
+     * Remove um ID da lista ordenada de IDs de um nome.
+     * @return A nova lista (vazia se era o último).
+     */
+    private static String[] remover(String[] ids, String id) {
+        int pos = Arrays.binarySearch(ids, id, ORDEM_DE_CRIACAO);
+        String[] novos = new String[ids.length - 1];
+        System.arraycopy(ids, 0, novos, 0, pos);
+        System.arraycopy(ids, pos + 1, novos, pos, ids.length - pos - 1);
+        return novos;
+    }
+
+    /**
+     * Deriva a prioridade de um nome espalhando os bits do seu hash.
+     */
+    private static int prioridade(String nome) {
+        int h = nome.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
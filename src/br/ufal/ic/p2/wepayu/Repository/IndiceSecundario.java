@@ -0,0 +1,105 @@
+package br.ufal.ic.p2.wepayu.Repository;
+
+import br.ufal.ic.p2.wepayu.models.Empregado;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Índice secundário (imutável) dos empregados por um atributo, como a agenda de pagamento
+ * ou o ID de membro do sindicato.
+ * <p>
+ * Guarda, para cada valor do atributo, o conjunto dos IDs que o possuem, e, para cada ID, o valor
+ * sob o qual ele está indexado. Assim como o {@link MapaPersistente} em que se apoia, toda
+ * atualização devolve um novo índice, e o índice faz parte do {@link EmpregadoRepository.Estado}
+ * sem custo adicional nos snapshots.
+ */
+final class IndiceSecundario {
+
+    private final Function<Empregado, String> chaveDe;
+    private final MapaPersistente<String, String> chavePorId;
+    private final MapaPersistente<String, MapaPersistente<String, Boolean>> idsPorChave;
+
+    /**
+     * Constrói um índice a partir das suas partes.
+     * @param chaveDe A função que extrai a chave de um empregado (null para não indexá-lo).
+     * @param chavePorId A chave de cada ID indexado.
+     * @param idsPorChave Os IDs de cada chave.
+     */
+    private IndiceSecundario(Function<Empregado, String> chaveDe, MapaPersistente<String, String> chavePorId,
+                             MapaPersistente<String, MapaPersistente<String, Boolean>> idsPorChave) {
+        this.chaveDe = chaveDe;
+        this.chavePorId = chavePorId;
+        this.idsPorChave = idsPorChave;
+    }
+
+    /**
+     * Cria um índice vazio.
+     * @param chaveDe A função que extrai a chave de um empregado (null para não indexá-lo).
+     * @return O índice vazio.
+     */
+    static IndiceSecundario vazio(Function<Empregado, String> chaveDe) {
+        return new IndiceSecundario(chaveDe, MapaPersistente.vazio(), MapaPersistente.vazio());
+    }
+
+    /**
+     * Atualiza a posição de um empregado no índice.
+     * @param id O ID do empregado.
+     * @param versao A versão atual do empregado, ou null se ele foi removido.
+     * @return O índice atualizado (o próprio índice, se a chave não mudou).
+     */
+    IndiceSecundario atualizar(String id, Empregado versao) {
+        String nova = versao == null ? null : chaveDe.apply(versao);
+        String atual = chavePorId.get(id);
+        if (Objects.equals(nova, atual)) return this;
+
+        MapaPersistente<String, String> porId = chavePorId;
+        MapaPersistente<String, MapaPersistente<String, Boolean>> porChave = idsPorChave;
+        if (atual != null) {
+            MapaPersistente<String, Boolean> ids = porChave.get(atual).remove(id);
+            porChave = ids.isEmpty() ? porChave.remove(atual) : porChave.put(atual, ids);
+            porId = porId.remove(id);
+        }
+        if (nova != null) {
+            MapaPersistente<String, Boolean> ids = porChave.get(nova);
+            porChave = porChave.put(nova, (ids == null ? MapaPersistente.<String, Boolean>vazio() : ids).put(id, Boolean.TRUE));
+            porId = porId.put(id, nova);
+        }
+        return new IndiceSecundario(chaveDe, porId, porChave);
+    }
+
+    /**
+     * Retorna as chaves distintas presentes no índice.
+     * @return A lista de chaves.
+     */
+    List<String> chaves() {
+        List<String> chaves = new ArrayList<>(idsPorChave.size());
+        idsPorChave.forEach((chave, ids) -> chaves.add(chave));
+        return chaves;
+    }
+
+    /**
+     * Retorna os IDs indexados sob uma chave.
+     * @param chave A chave.
+     * @return A lista de IDs (vazia se a chave não existir).
+     */
+    List<String> ids(String chave) {
+        MapaPersistente<String, Boolean> ids = idsPorChave.get(chave);
+        if (ids == null) return List.of();
+        List<String> lista = new ArrayList<>(ids.size());
+        ids.forEach((id, presente) -> lista.add(id));
+        return lista;
+    }
+
+    /**
+     * Retorna um dos IDs indexados sob uma chave, para atributos que identificam um único empregado.
+     * @param chave A chave.
+     * @return Um ID com essa chave, ou null se a chave não existir.
+     */
+    String id(String chave) {
+        MapaPersistente<String, Boolean> ids = idsPorChave.get(chave);
+        return ids == null ? null : ids.iterator().next().getKey();
+    }
+}
@@ -0,0 +1,498 @@
+package br.ufal.ic.p2.wepayu.Repository;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Mapa persistente (imutável) baseado em uma Hash Array Mapped Trie (HAMT).
+ * <p>
+ * Toda alteração devolve um novo mapa que compartilha com o anterior todos os nós que não
+ * foram tocados: {@link #put} e {@link #remove} copiam apenas o caminho da raiz até a folha
+ * alterada (no máximo 7 nós de até 32 posições). Guardar uma versão do mapa é, portanto,
+ * apenas guardar a referência da raiz — operação O(1) usada pelo {@link EmpregadoRepository}
+ * para os snapshots de undo/redo.
+ *
+ * @param <K> O tipo das chaves.
+ * @param <V> O tipo dos valores.
+ */
+public final class MapaPersistente<K, V> implements Iterable<Map.Entry<K, V>> {
+
+    private static final int BITS = 5;
+    private static final int MASCARA = (1 << BITS) - 1;
+
+    private static final MapaPersistente<?, ?> VAZIO = new MapaPersistente<>(null, 0);
+
+    private final No raiz;
+    private final int tamanho;
+
+    /**
+     * Constrói um mapa a partir de uma raiz já montada.
+     * @param raiz A raiz da trie (ou {@code null} para o mapa vazio).
+     * @param tamanho A quantidade de entradas.
+     */
+    private MapaPersistente(No raiz, int tamanho) {
+        this.raiz = raiz;
+        this.tamanho = tamanho;
+    }
+
+    /**
+     * Retorna o mapa vazio.
+     * @param <K> O tipo das chaves.
+     * @param <V> O tipo dos valores.
+     * @return O mapa vazio (instância compartilhada).
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> MapaPersistente<K, V> vazio() {
+        return (MapaPersistente<K, V>) VAZIO;
+    }
+
+    /**
+     * Retorna o número de entradas do mapa.
+     * @return A quantidade de entradas.
+     */
+    public int size() {
+        return tamanho;
+    }
+
+    /**
+     * Verifica se o mapa está vazio.
+     * @return {@code true} se não houver entradas.
+     */
+    public boolean isEmpty() {
+        return tamanho == 0;
+    }
+
+    /**
+     * Busca o valor associado a uma chave.
+     * @param chave A chave buscada.
+     * @return O valor, ou {@code null} se a chave não existir.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object chave) {
+        if (raiz == null) return null;
+        return (V) raiz.get(chave, hash(chave), 0);
+    }
+
+    /**
+     * Verifica se uma chave existe no mapa.
+     * @param chave A chave buscada.
+     * @return {@code true} se a chave existir.
+     */
+    public boolean containsKey(Object chave) {
+        return raiz != null && raiz.contem(chave, hash(chave), 0);
+    }
+
+    /**
+     * Retorna uma nova versão do mapa com a chave associada ao valor.
+     * @param chave A chave.
+     * @param valor O valor.
+     * @return O novo mapa (ou este mesmo, se a chave já estava associada a este valor).
+     */
+    public MapaPersistente<K, V> put(K chave, V valor) {
+        int h = hash(chave);
+        boolean[] adicionou = new boolean[1];
+        No novaRaiz = raiz == null
+                ? new NoBitmap(bit(h, 0), new Object[]{new Folha(chave, valor, h)})
+                : raiz.put(chave, valor, h, 0, adicionou);
+        if (raiz == null) adicionou[0] = true;
+        if (novaRaiz == raiz) return this;
+        return new MapaPersistente<>(novaRaiz, adicionou[0] ? tamanho + 1 : tamanho);
+    }
+
+    /**
+     * Retorna uma nova versão do mapa sem a chave informada.
+     * @param chave A chave a ser removida.
+     * @return O novo mapa (ou este mesmo, se a chave não existia).
+     */
+    public MapaPersistente<K, V> remove(Object chave) {
+        if (raiz == null) return this;
+        No novaRaiz = raiz.remove(chave, hash(chave), 0);
+        if (novaRaiz == raiz) return this;
+        return novaRaiz == null ? vazio() : new MapaPersistente<>(novaRaiz, tamanho - 1);
+    }
+
+    /**
+     * Percorre todas as entradas do mapa, sem criar objetos intermediários.
+     * @param acao A ação aplicada a cada par chave/valor.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> acao) {
+        if (raiz != null) raiz.forEach((BiConsumer<Object, Object>) acao);
+    }
+
+    /**
+     * Retorna um iterador sobre as entradas desta versão do mapa.
+     * Como o mapa é imutável, a iteração nunca é afetada por alterações posteriores.
+     * @return O iterador.
+     */
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new Iterador<>(raiz, false);
+    }
+
+    /**
+     * Retorna os valores desta versão do mapa, percorridos diretamente na trie, sem criar entradas.
+     * Como o mapa é imutável, a iteração nunca é afetada por alterações posteriores.
+     * @return Os valores, em um {@link Iterable} que pode ser percorrido várias vezes.
+     */
+    public Iterable<V> valores() {
+        return () -> new Iterador<>(raiz, true);
+    }
+
+    /**
+     * Retorna um stream dos valores desta versão do mapa.
+     * @return O stream sequencial dos valores.
+     */
+    public Stream<V> streamValores() {
+        return StreamSupport.stream(new DivisorValores<>(raiz, tamanho), false);
+    }
+
+    /**
+     * Calcula o hash espalhado de uma chave.
+     * @param chave A chave.
+     * @return O hash.
+     */
+    private static int hash(Object chave) {
+        int h = Objects.hashCode(chave);
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Retorna o bit correspondente ao fragmento do hash no nível indicado.
+     * @param hash O hash da chave.
+     * @param deslocamento O deslocamento (nível * 5).
+     * @return O bit da posição.
+     */
+    private static int bit(int hash, int deslocamento) {
+        return 1 << ((hash >>> deslocamento) & MASCARA);
+    }
+
+    /**
+     * Cria o menor nó capaz de conter duas folhas de chaves distintas.
+     * @param a A primeira folha.
+     * @param b A segunda folha.
+     * @param deslocamento O nível onde o nó será inserido.
+     * @return O novo nó.
+     */
+    private static No criarNo(Folha a, Folha b, int deslocamento) {
+        if (a.hash == b.hash) return new NoColisao(a.hash, new Folha[]{a, b});
+        int bitA = bit(a.hash, deslocamento);
+        int bitB = bit(b.hash, deslocamento);
+        if (bitA == bitB) {
+            return new NoBitmap(bitA, new Object[]{criarNo(a, b, deslocamento + BITS)});
+        }
+        return new NoBitmap(bitA | bitB, Integer.compareUnsigned(bitA, bitB) < 0 ? new Object[]{a, b} : new Object[]{b, a});
+    }
+
+    /**
+     * Entrada armazenada na trie.
+     */
+    private static final class Folha {
+        final Object chave;
+        final Object valor;
+        final int hash;
+
+        Folha(Object chave, Object valor, int hash) {
+            this.chave = chave;
+            this.valor = valor;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Contrato dos nós internos da trie.
+     */
+    private interface No {
+        Object get(Object chave, int hash, int deslocamento);
+
+        boolean contem(Object chave, int hash, int deslocamento);
+
+        No put(Object chave, Object valor, int hash, int deslocamento, boolean[] adicionou);
+
+        /**
+         * @return o novo nó, o próprio nó se a chave não existir, ou {@code null} se o nó ficar vazio.
+         */
+        No remove(Object chave, int hash, int deslocamento);
+
+        void forEach(BiConsumer<Object, Object> acao);
+    }
+
+    /**
+     * Nó com até 32 posições, indexadas por um bitmap. Cada posição é uma {@link Folha} ou um {@link No}.
+     */
+    private static final class NoBitmap implements No {
+        final int bitmap;
+        final Object[] filhos;
+
+        NoBitmap(int bitmap, Object[] filhos) {
+            this.bitmap = bitmap;
+            this.filhos = filhos;
+        }
+
+        int indice(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        public Object get(Object chave, int hash, int deslocamento) {
+            int bit = bit(hash, deslocamento);
+            if ((bitmap & bit) == 0) return null;
+            Object filho = filhos[indice(bit)];
+            if (filho instanceof Folha f) return Objects.equals(f.chave, chave) ? f.valor : null;
+            return ((No) filho).get(chave, hash, deslocamento + BITS);
+        }
+
+        @Override
+        public boolean contem(Object chave, int hash, int deslocamento) {
+            int bit = bit(hash, deslocamento);
+            if ((bitmap & bit) == 0) return false;
+            Object filho = filhos[indice(bit)];
+            if (filho instanceof Folha f) return Objects.equals(f.chave, chave);
+            return ((No) filho).contem(chave, hash, deslocamento + BITS);
+        }
+
+        @Override
+        public No put(Object chave, Object valor, int hash, int deslocamento, boolean[] adicionou) {
+            int bit = bit(hash, deslocamento);
+            int i = indice(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] novos = new Object[filhos.length + 1];
+                System.arraycopy(filhos, 0, novos, 0, i);
+                novos[i] = new Folha(chave, valor, hash);
+                System.arraycopy(filhos, i, novos, i + 1, filhos.length - i);
+                adicionou[0] = true;
+                return new NoBitmap(bitmap | bit, novos);
+            }
+            Object filho = filhos[i];
+            Object novoFilho;
+            if (filho instanceof Folha f) {
+                if (Objects.equals(f.chave, chave)) {
+                    if (f.valor == valor) return this;
+                    novoFilho = new Folha(f.chave, valor, hash);
+                } else {
+                    novoFilho = criarNo(f, new Folha(chave, valor, hash), deslocamento + BITS);
+                    adicionou[0] = true;
+                }
+            } else {
+                novoFilho = ((No) filho).put(chave, valor, hash, deslocamento + BITS, adicionou);
+                if (novoFilho == filho) return this;
+            }
+            Object[] novos = filhos.clone();
+            novos[i] = novoFilho;
+            return new NoBitmap(bitmap, novos);
+        }
+
+        @Override
+        public No remove(Object chave, int hash, int deslocamento) {
+            int bit = bit(hash, deslocamento);
+            if ((bitmap & bit) == 0) return this;
+            int i = indice(bit);
+            Object filho = filhos[i];
+            if (filho instanceof Folha f) {
+                if (!Objects.equals(f.chave, chave)) return this;
+                return semPosicao(bit, i);
+            }
+            No novoFilho = ((No) filho).remove(chave, hash, deslocamento + BITS);
+            if (novoFilho == filho) return this;
+            if (novoFilho == null) return semPosicao(bit, i);
+            Object substituto = novoFilho;
+            if (novoFilho instanceof NoBitmap nb && nb.filhos.length == 1 && nb.filhos[0] instanceof Folha unica) {
+                substituto = unica; // sobe a folha solitária para manter a trie rasa
+            }
+            Object[] novos = filhos.clone();
+            novos[i] = substituto;
+            return new NoBitmap(bitmap, novos);
+        }
+
+        private No semPosicao(int bit, int i) {
+            if (filhos.length == 1) return null;
+            Object[] novos = new Object[filhos.length - 1];
+            System.arraycopy(filhos, 0, novos, 0, i);
+            System.arraycopy(filhos, i + 1, novos, i, filhos.length - i - 1);
+            return new NoBitmap(bitmap & ~bit, novos);
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> acao) {
+            for (Object filho : filhos) {
+                if (filho instanceof Folha f) acao.accept(f.chave, f.valor);
+                else ((No) filho).forEach(acao);
+            }
+        }
+    }
+
+    /**
+     * Nó que guarda folhas cujas chaves têm exatamente o mesmo hash.
+     */
+    private static final class NoColisao implements No {
+        final int hash;
+        final Folha[] folhas;
+
+        NoColisao(int hash, Folha[] folhas) {
+            this.hash = hash;
+            this.folhas = folhas;
+        }
+
+        int indice(Object chave) {
+            for (int i = 0; i < folhas.length; i++) {
+                if (Objects.equals(folhas[i].chave, chave)) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public Object get(Object chave, int hash, int deslocamento) {
+            if (hash != this.hash) return null;
+            int i = indice(chave);
+            return i < 0 ? null : folhas[i].valor;
+        }
+
+        @Override
+        public boolean contem(Object chave, int hash, int deslocamento) {
+            return hash == this.hash && indice(chave) >= 0;
+        }
+
+        @Override
+        public No put(Object chave, Object valor, int hash, int deslocamento, boolean[] adicionou) {
+            if (hash != this.hash) {
+                // a nova chave só compartilha o prefixo do hash: separa as duas em um nó bitmap
+                adicionou[0] = true;
+                int bitColisao = bit(this.hash, deslocamento);
+                NoBitmap envoltorio = new NoBitmap(bitColisao, new Object[]{this});
+                boolean[] ignorado = new boolean[1];
+                return envoltorio.put(chave, valor, hash, deslocamento, ignorado);
+            }
+            int i = indice(chave);
+            if (i >= 0) {
+                if (folhas[i].valor == valor) return this;
+                Folha[] novas = folhas.clone();
+                novas[i] = new Folha(chave, valor, hash);
+                return new NoColisao(hash, novas);
+            }
+            Folha[] novas = Arrays.copyOf(folhas, folhas.length + 1);
+            novas[folhas.length] = new Folha(chave, valor, hash);
+            adicionou[0] = true;
+            return new NoColisao(hash, novas);
+        }
+
+        @Override
+        public No remove(Object chave, int hash, int deslocamento) {
+            if (hash != this.hash) return this;
+            int i = indice(chave);
+            if (i < 0) return this;
+            if (folhas.length == 1) return null;
+            if (folhas.length == 2) {
+                return new NoBitmap(bit(hash, deslocamento), new Object[]{folhas[1 - i]});
+            }
+            Folha[] novas = new Folha[folhas.length - 1];
+            System.arraycopy(folhas, 0, novas, 0, i);
+            System.arraycopy(folhas, i + 1, novas, i, folhas.length - i - 1);
+            return new NoColisao(hash, novas);
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> acao) {
+            for (Folha f : folhas) acao.accept(f.chave, f.valor);
+        }
+    }
+
+    /**
+     * Spliterator dos valores: o consumo em bloco ({@link #forEachRemaining}) usa o percurso recursivo
+     * da trie; o consumo um a um recorre ao {@link Iterador}.
+     */
+    private static final class DivisorValores<V> extends Spliterators.AbstractSpliterator<V> {
+        private final No raiz;
+        private Iterador<V> iterador;
+
+        DivisorValores(No raiz, int tamanho) {
+            super(tamanho, Spliterator.SIZED | Spliterator.IMMUTABLE | Spliterator.NONNULL);
+            this.raiz = raiz;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super V> acao) {
+            if (iterador == null) iterador = new Iterador<>(raiz, true);
+            if (!iterador.hasNext()) return false;
+            acao.accept(iterador.next());
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super V> acao) {
+            if (iterador != null) {
+                iterador.forEachRemaining(acao);
+            } else if (raiz != null) {
+                iterador = new Iterador<>(null, true);
+                raiz.forEach((chave, valor) -> acao.accept((V) valor));
+            }
+        }
+    }
+
+    /**
+     * Iterador em profundidade sobre as folhas da trie, usando uma pilha explícita.
+     * Produz as entradas ou, com {@code valores}, apenas os valores das folhas.
+     */
+    private static final class Iterador<T> implements Iterator<T> {
+        private final Deque<Object[]> pilhaArrays = new ArrayDeque<>();
+        private final Deque<Integer> pilhaPosicoes = new ArrayDeque<>();
+        private final boolean valores;
+        private Folha proxima;
+
+        Iterador(No raiz, boolean valores) {
+            this.valores = valores;
+            if (raiz != null) empilhar(raiz);
+            avancar();
+        }
+
+        private void empilhar(No no) {
+            pilhaArrays.push(no instanceof NoBitmap nb ? nb.filhos : ((NoColisao) no).folhas);
+            pilhaPosicoes.push(0);
+        }
+
+        private void avancar() {
+            proxima = null;
+            while (!pilhaArrays.isEmpty()) {
+                Object[] atual = pilhaArrays.peek();
+                int posicao = pilhaPosicoes.pop();
+                if (posicao >= atual.length) {
+                    pilhaArrays.pop();
+                    continue;
+                }
+                pilhaPosicoes.push(posicao + 1);
+                Object item = atual[posicao];
+                if (item instanceof Folha f) {
+                    proxima = f;
+                    return;
+                }
+                empilhar((No) item);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return proxima != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (proxima == null) throw new NoSuchElementException();
+            Folha f = proxima;
+            avancar();
+            return (T) (valores ? f.valor : new AbstractMap.SimpleImmutableEntry<>(f.chave, f.valor));
+        }
+    }
+}
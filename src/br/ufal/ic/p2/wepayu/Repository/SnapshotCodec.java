@@ -0,0 +1,431 @@
+package br.ufal.ic.p2.wepayu.Repository;
+
+import br.ufal.ic.p2.wepayu.models.*;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Codec do snapshot binário do {@link EmpregadoRepository}.
+ * <p>
+ * Formato (versão 2), todos os inteiros em varint:
+ * <pre>
+ * cabeçalho   : marca "WPS1" (int), versão, geração, contador de ID
+ * agendas     : quantidade, descrições (UTF) das agendas de pagamento disponíveis
+ * dicionário  : quantidade, strings (UTF) — nomes, endereços, agendas, dados bancários etc.
+ * empregados  : quantidade, registros [tamanho em bytes][corpo]
+ * rodapé      : CRC32 de tudo o que veio antes (int)
+ * </pre>
+ * Datas são gravadas como dia epoch, valores monetários como centavos ({@code long}) quando
+ * representáveis exatamente, e strings como índices no dicionário. A versão 1 não tem a seção de
+ * agendas e continua sendo lida, com as agendas padrão.
+ */
+public final class SnapshotCodec {
+
+    /**
+     * Estado lido de um snapshot.
+     * @param empregados O mapa de empregados por ID.
+     * @param idCont O contador de ID.
+     * @param geracao A geração do snapshot.
+     * @param agendas As agendas de pagamento disponíveis, ou null se o snapshot não as tiver (versão 1).
+     */
+    public record Conteudo(Map<String, Empregado> empregados, int idCont, long geracao, List<String> agendas) {}
+
+    private static final int MARCA = 0x57505331; // "WPS1"
+    private static final int VERSAO = 2;
+    private static final int VERSAO_SEM_AGENDAS = 1;
+
+    private static final int HORISTA = 0;
+    private static final int ASSALARIADO = 1;
+    private static final int COMISSIONADO = 2;
+
+    private static final int EM_MAOS = 0;
+    private static final int CORREIOS = 1;
+    private static final int BANCO = 2;
+
+    private static final int NUMERO_CENTAVOS = 0;
+    private static final int NUMERO_DOUBLE = 1;
+    private static final int NUMERO_TEXTO = 2;
+
+    private SnapshotCodec() {}
+
+    /**
+     * Grava os empregados no formato binário.
+     * @param saida O fluxo de saída (não é fechado).
+     * @param empregados Os empregados a serem gravados.
+     * @param idCont O contador de ID.
+     * @param geracao A geração do snapshot.
+     * @param agendas As agendas de pagamento disponíveis.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    public static void escrever(OutputStream saida, MapaPersistente<String, Empregado> empregados, int idCont, long geracao,
+                                List<String> agendas) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(saida, 1 << 16), new CRC32());
+        DataOutputStream out = new DataOutputStream(checked);
+
+        out.writeInt(MARCA);
+        escreverVarLong(out, VERSAO);
+        escreverVarLong(out, geracao);
+        escreverVarLong(out, idCont);
+
+        escreverVarLong(out, agendas.size());
+        for (String agenda : agendas) out.writeUTF(agenda);
+
+        Map<String, Integer> dicionario = new LinkedHashMap<>();
+        for (Empregado e : empregados.valores()) coletarStrings(e, dicionario);
+        escreverVarLong(out, dicionario.size());
+        for (String s : dicionario.keySet()) out.writeUTF(s);
+
+        escreverVarLong(out, empregados.size());
+        ByteArrayOutputStream corpo = new ByteArrayOutputStream(256);
+        DataOutputStream registro = new DataOutputStream(corpo);
+        for (Empregado e : empregados.valores()) {
+            corpo.reset();
+            escreverEmpregado(registro, e, dicionario);
+            escreverVarLong(out, corpo.size());
+            corpo.writeTo(out);
+        }
+
+        out.flush();
+        out.writeInt((int) checked.getChecksum().getValue());
+        out.flush();
+    }
+
+    /**
+     * Lê um snapshot binário.
+     * @param entrada O fluxo de entrada (não é fechado).
+     * @return O conteúdo do snapshot.
+     * @throws IOException se o arquivo estiver corrompido, tiver versão desconhecida ou ocorrer um erro de leitura.
+     */
+    public static Conteudo ler(InputStream entrada) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(entrada, 1 << 16), new CRC32());
+        DataInputStream in = new DataInputStream(checked);
+
+        if (in.readInt() != MARCA) throw new IOException("Arquivo nao e um snapshot do WePayU.");
+        long versao = lerVarLong(in);
+        if (versao != VERSAO && versao != VERSAO_SEM_AGENDAS) throw new IOException("Versao de snapshot nao suportada: " + versao);
+        long geracao = lerVarLong(in);
+        int idCont = (int) lerVarLong(in);
+
+        List<String> agendas = null;
+        if (versao != VERSAO_SEM_AGENDAS) {
+            agendas = new ArrayList<>();
+            for (long i = lerVarLong(in); i > 0; i--) agendas.add(in.readUTF());
+        }
+
+        String[] dicionario = new String[(int) lerVarLong(in)];
+        for (int i = 0; i < dicionario.length; i++) dicionario[i] = in.readUTF();
+
+        int quantidade = (int) lerVarLong(in);
+        Map<String, Empregado> empregados = new HashMap<>(quantidade * 4 / 3 + 1);
+        for (int i = 0; i < quantidade; i++) {
+            lerVarLong(in); // tamanho do registro, útil apenas para quem quiser pular registros
+            Empregado e = lerEmpregado(in, dicionario);
+            empregados.put(e.getId(), e);
+        }
+
+        int crcCalculado = (int) checked.getChecksum().getValue();
+        if (in.readInt() != crcCalculado) throw new IOException("Snapshot corrompido (CRC invalido).");
+        return new Conteudo(empregados, idCont, geracao, agendas);
+    }
+
+    /**
+     * Adiciona ao dicionário todas as strings referenciadas por um empregado.
+     * @param e O empregado.
+     * @param dicionario O dicionário em construção.
+     */
+    private static void coletarStrings(Empregado e, Map<String, Integer> dicionario) {
+        adicionar(dicionario, e.getId());
+        adicionar(dicionario, e.getNome());
+        adicionar(dicionario, e.getEndereco());
+        adicionar(dicionario, e.getTipo());
+        adicionarNumeroTexto(dicionario, e.getSalarioSemFormato());
+        if (e.getAgendaPagamento() != null) adicionar(dicionario, e.getAgendaPagamento().getDescricao());
+        if (e.getMetodoPagamento() instanceof Banco b) {
+            adicionar(dicionario, b.getBanco());
+            adicionar(dicionario, b.getAgencia());
+            adicionar(dicionario, b.getContaCorrente());
+        }
+        if (e.getMembroSindicato() != null) adicionar(dicionario, e.getMembroSindicato().getIdMembro());
+        if (e instanceof EmpregadoComissionado c) adicionarNumeroTexto(dicionario, c.getComissaoSemFormato());
+    }
+
+    /**
+     * Adiciona uma string ao dicionário, se ainda não estiver presente.
+     * @param dicionario O dicionário em construção.
+     * @param s A string a ser adicionada.
+     */
+    private static void adicionar(Map<String, Integer> dicionario, String s) {
+        if (s != null) dicionario.putIfAbsent(s, dicionario.size());
+    }
+
+    /**
+     * Adiciona ao dicionário um número mantido como texto, apenas se ele não puder ser gravado em centavos.
+     * @param dicionario O dicionário em construção.
+     * @param texto O número em formato de texto.
+     */
+    private static void adicionarNumeroTexto(Map<String, Integer> dicionario, String texto) {
+        if (centavosExatos(texto) == null) adicionar(dicionario, texto);
+    }
+
+    /**
+     * Grava o corpo do registro de um empregado.
+     * @param out O fluxo do registro.
+     * @param e O empregado.
+     * @param dicionario O dicionário de strings.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    private static void escreverEmpregado(DataOutputStream out, Empregado e, Map<String, Integer> dicionario) throws IOException {
+        int tipo = e instanceof EmpregadoHorista ? HORISTA : e instanceof EmpregadoComissionado ? COMISSIONADO : ASSALARIADO;
+        out.writeByte(tipo);
+        escreverString(out, e.getId(), dicionario);
+        escreverString(out, e.getNome(), dicionario);
+        escreverString(out, e.getEndereco(), dicionario);
+        escreverString(out, e.getTipo(), dicionario);
+        escreverNumeroTexto(out, e.getSalarioSemFormato(), dicionario);
+        escreverString(out, e.getAgendaPagamento() == null ? null : e.getAgendaPagamento().getDescricao(), dicionario);
+
+        MetodoPagamento metodo = e.getMetodoPagamento();
+        if (metodo instanceof Banco b) {
+            out.writeByte(BANCO);
+            escreverString(out, b.getBanco(), dicionario);
+            escreverString(out, b.getAgencia(), dicionario);
+            escreverString(out, b.getContaCorrente(), dicionario);
+        } else {
+            out.writeByte(metodo instanceof Correios ? CORREIOS : EM_MAOS);
+        }
+
+        escreverData(out, e.getDataContratacao());
+        escreverData(out, e.getDataUltimoPagamento());
+
+        MembroSindicato membro = e.getMembroSindicato();
+        out.writeBoolean(membro != null);
+        if (membro != null) {
+            escreverString(out, membro.getIdMembro(), dicionario);
+            escreverNumero(out, membro.getTaxaSindical());
+            escreverLivro(out, membro.getTaxas());
+        }
+
+        if (e instanceof EmpregadoHorista h) {
+            escreverLivro(out, h.getCartoes());
+        } else if (e instanceof EmpregadoComissionado c) {
+            escreverNumeroTexto(out, c.getComissaoSemFormato(), dicionario);
+            escreverLivro(out, c.getResultadosDeVenda());
+        }
+    }
+
+    /**
+     * Lê o corpo do registro de um empregado.
+     * @param in O fluxo de entrada.
+     * @param dicionario O dicionário de strings.
+     * @return O empregado lido.
+     * @throws IOException se o registro for inválido.
+     */
+    private static Empregado lerEmpregado(DataInputStream in, String[] dicionario) throws IOException {
+        int tipo = in.readUnsignedByte();
+        Empregado e = switch (tipo) {
+            case HORISTA -> new EmpregadoHorista();
+            case ASSALARIADO -> new EmpregadoAssalariado();
+            case COMISSIONADO -> new EmpregadoComissionado();
+            default -> throw new IOException("Tipo de empregado desconhecido: " + tipo);
+        };
+        e.setId(lerString(in, dicionario));
+        e.setNome(lerString(in, dicionario));
+        e.setEndereco(lerString(in, dicionario));
+        e.setTipo(lerString(in, dicionario));
+        e.setSalario(lerNumeroTexto(in, dicionario));
+        String agenda = lerString(in, dicionario);
+        if (agenda != null) e.setAgendaPagamento(new AgendaPagamento(agenda));
+
+        int metodo = in.readUnsignedByte();
+        switch (metodo) {
+            case BANCO -> e.setMetodoPagamento(new Banco(lerString(in, dicionario), lerString(in, dicionario), lerString(in, dicionario)));
+            case CORREIOS -> e.setMetodoPagamento(Correios.INSTANCIA);
+            default -> e.setMetodoPagamento(EmMaos.INSTANCIA);
+        }
+
+        e.setDataContratacao(lerData(in));
+        e.setDataUltimoPagamento(lerData(in));
+
+        if (in.readBoolean()) {
+            MembroSindicato membro = new MembroSindicato(lerString(in, dicionario), lerNumero(in));
+            lerLivro(in, membro.getTaxas());
+            e.setMembroSindicato(membro);
+        }
+
+        if (e instanceof EmpregadoHorista h) {
+            lerLivro(in, h.getCartoes());
+        } else if (e instanceof EmpregadoComissionado c) {
+            c.setComissao(lerNumeroTexto(in, dicionario));
+            lerLivro(in, c.getResultadosDeVenda());
+        }
+        return e;
+    }
+
+    /**
+     * Grava uma string como índice no dicionário (0 representa {@code null}).
+     */
+    private static void escreverString(DataOutputStream out, String s, Map<String, Integer> dicionario) throws IOException {
+        escreverVarLong(out, s == null ? 0 : dicionario.get(s) + 1);
+    }
+
+    /**
+     * Lê uma string a partir do seu índice no dicionário.
+     */
+    private static String lerString(DataInputStream in, String[] dicionario) throws IOException {
+        int indice = (int) lerVarLong(in);
+        return indice == 0 ? null : dicionario[indice - 1];
+    }
+
+    /**
+     * Grava um número em centavos quando o valor é representável exatamente, ou como double caso contrário.
+     */
+    private static void escreverNumero(DataOutputStream out, double valor) throws IOException {
+        long centavos = Math.round(valor * 100);
+        if (centavos / 100.0 == valor) {
+            out.writeByte(NUMERO_CENTAVOS);
+            escreverVarLong(out, zigzag(centavos));
+        } else {
+            out.writeByte(NUMERO_DOUBLE);
+            out.writeDouble(valor);
+        }
+    }
+
+    /**
+     * Lê um número gravado por {@link #escreverNumero}.
+     */
+    private static double lerNumero(DataInputStream in) throws IOException {
+        int marca = in.readUnsignedByte();
+        if (marca == NUMERO_CENTAVOS) return unzigzag(lerVarLong(in)) / 100.0;
+        return in.readDouble();
+    }
+
+    /**
+     * Grava um número mantido como texto (salário, comissão). Se o texto representar um valor com
+     * até duas casas decimais, grava os centavos; caso contrário, grava o texto original.
+     */
+    private static void escreverNumeroTexto(DataOutputStream out, String texto, Map<String, Integer> dicionario) throws IOException {
+        Long centavos = centavosExatos(texto);
+        if (centavos != null) {
+            out.writeByte(NUMERO_CENTAVOS);
+            escreverVarLong(out, zigzag(centavos));
+        } else {
+            out.writeByte(NUMERO_TEXTO);
+            escreverString(out, texto, dicionario);
+        }
+    }
+
+    /**
+     * Converte um número em texto ("123,45") para centavos, se ele tiver no máximo duas casas decimais.
+     * @param texto O número em formato de texto.
+     * @return Os centavos, ou {@code null} se o texto não for representável exatamente.
+     */
+    private static Long centavosExatos(String texto) {
+        if (texto == null) return null;
+        try {
+            double valor = Double.parseDouble(texto.replace(',', '.'));
+            long centavos = Math.round(valor * 100);
+            return centavos / 100.0 == valor ? centavos : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Lê um número gravado por {@link #escreverNumeroTexto}, devolvendo-o no formato "0,00".
+     */
+    private static String lerNumeroTexto(DataInputStream in, String[] dicionario) throws IOException {
+        int marca = in.readUnsignedByte();
+        if (marca == NUMERO_CENTAVOS) {
+            long centavos = unzigzag(lerVarLong(in));
+            String sinal = centavos < 0 ? "-" : "";
+            long absoluto = Math.abs(centavos);
+            long resto = absoluto % 100;
+            return sinal + absoluto / 100 + (resto < 10 ? ",0" : ",") + resto;
+        }
+        return lerString(in, dicionario);
+    }
+
+    /**
+     * Grava uma data opcional como dia epoch.
+     */
+    private static void escreverData(DataOutputStream out, LocalDate data) throws IOException {
+        out.writeBoolean(data != null);
+        if (data != null) escreverVarLong(out, zigzag(data.toEpochDay()));
+    }
+
+    /**
+     * Lê uma data opcional gravada como dia epoch.
+     */
+    private static LocalDate lerData(DataInputStream in) throws IOException {
+        return in.readBoolean() ? LocalDate.ofEpochDay(unzigzag(lerVarLong(in))) : null;
+    }
+
+    /**
+     * Grava um livro de lançamentos diários: a quantidade e, para cada lançamento, o dia epoch e o valor.
+     */
+    private static void escreverLivro(DataOutputStream out, LivroDiario<?> livro) throws IOException {
+        escreverVarLong(out, livro.size());
+        for (int i = 0; i < livro.size(); i++) {
+            escreverVarLong(out, zigzag(livro.dia(i)));
+            escreverNumero(out, livro.valor(i));
+        }
+    }
+
+    /**
+     * Lê os lançamentos gravados por {@link #escreverLivro} para dentro de um livro.
+     */
+    private static void lerLivro(DataInputStream in, LivroDiario<?> livro) throws IOException {
+        long quantidade = lerVarLong(in);
+        for (long i = 0; i < quantidade; i++) {
+            int dia = (int) unzigzag(lerVarLong(in));
+            livro.lancar(dia, lerNumero(in));
+        }
+    }
+
+    /**
+     * Codifica um inteiro com sinal para que valores pequenos negativos ocupem poucos bytes no varint.
+     */
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    /**
+     * Inverso de {@link #zigzag}.
+     */
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * Grava um inteiro sem sinal em 7 bits por byte.
+     */
+    private static void escreverVarLong(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    /**
+     * Lê um inteiro gravado por {@link #escreverVarLong}.
+     */
+    private static long lerVarLong(DataInputStream in) throws IOException {
+        long resultado = 0;
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            int b = in.readUnsignedByte();
+            resultado |= (long) (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0) return resultado;
+        }
+        throw new IOException("Varint malformado.");
+    }
+}
@@ -0,0 +1,194 @@
+package br.ufal.ic.p2.wepayu.Server;
+
+import br.ufal.ic.p2.wepayu.Facade;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Cliente de carga do {@link ServidorWePayU}, para medir vazão e latência em localhost.
+ * <p>
+ * Cada conexão cria os seus próprios empregados (um horista e um comissionado) e então envia
+ * lançamentos de cartões e vendas em rajadas de {@code profundidade} requisições, sem esperar as
+ * respostas de uma rajada antes de enviá-la inteira (pipelining). A latência de cada requisição
+ * vai do envio da rajada até a chegada da sua resposta. No fim, são exibidas a vazão total e as
+ * latências p50, p99 e máxima.
+ * <p>
+ * Uso: {@code ClienteDeCarga [porta|embutido] [conexoes] [requisicoes por conexao] [profundidade]}.
+ * Com {@code embutido}, um servidor é iniciado no próprio processo, em uma porta livre.
+ */
+public final class ClienteDeCarga {
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("d/M/yyyy");
+    private static final String[] DATAS = new String[365];
+
+    static {
+        LocalDate inicio = LocalDate.of(2005, 1, 1);
+        for (int i = 0; i < DATAS.length; i++) DATAS[i] = inicio.plusDays(i).format(FORMATO_DATA);
+    }
+
+    /**
+     * Classe utilitária, não instanciável.
+     */
+    private ClienteDeCarga() {
+    }
+
+    /**
+     * Executa a carga e exibe o resultado.
+     * @param args A porta (ou {@code embutido}), o número de conexões, as requisições por conexão
+     *             e a profundidade do pipeline.
+     * @throws Exception se a carga não puder ser executada.
+     */
+    public static void main(String[] args) throws Exception {
+        String alvo = args.length > 0 ? args[0] : "embutido";
+        int conexoes = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int requisicoes = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+        int profundidade = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+
+        ServidorWePayU embutido = null;
+        int porta;
+        if (alvo.equals("embutido")) {
+            Facade facade = new Facade();
+            facade.zerarSistema();
+            embutido = new ServidorWePayU(facade, 0);
+            embutido.iniciar();
+            porta = embutido.getPorta();
+        } else {
+            porta = Integer.parseInt(alvo);
+        }
+
+        try {
+            long[][] latencias = new long[conexoes][];
+            Throwable[] falhas = new Throwable[conexoes];
+            CountDownLatch prontas = new CountDownLatch(conexoes);
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>(conexoes);
+            for (int i = 0; i < conexoes; i++) {
+                int indice = i;
+                Thread thread = new Thread(() -> {
+                    try {
+                        latencias[indice] = executar(porta, indice, requisicoes, profundidade, prontas, largada);
+                    } catch (Throwable e) {
+                        falhas[indice] = e;
+                        prontas.countDown();
+                    }
+                }, "carga-" + i);
+                threads.add(thread);
+                thread.start();
+            }
+            prontas.await();
+            long inicio = System.nanoTime();
+            largada.countDown();
+            for (Thread thread : threads) thread.join();
+            long duracao = System.nanoTime() - inicio;
+
+            for (Throwable falha : falhas) {
+                if (falha != null) throw new IllegalStateException("Falha em uma conexão de carga", falha);
+            }
+            long[] todas = Arrays.stream(latencias).flatMapToLong(Arrays::stream).sorted().toArray();
+            System.out.printf("conexoes=%d requisicoes=%d profundidade=%d%n", conexoes, todas.length, profundidade);
+            System.out.printf("vazao=%.0f req/s p50=%.3f ms p99=%.3f ms max=%.3f ms%n",
+                    todas.length / (duracao / 1e9), percentil(todas, 0.50), percentil(todas, 0.99), todas[todas.length - 1] / 1e6);
+        } finally {
+            if (embutido != null) embutido.close();
+        }
+    }
+
+    /**
+     * Executa a carga de uma conexão.
+     * @param porta A porta do servidor.
+     * @param indice O número da conexão.
+     * @param requisicoes A quantidade de lançamentos.
+     * @param profundidade A quantidade de requisições por rajada.
+     * @param prontas Sinalizado quando a conexão terminou a preparação.
+     * @param largada Aguardado antes de começar a medir.
+     * @return A latência de cada lançamento, em nanossegundos.
+     * @throws Exception se a conexão falhar ou o servidor responder com erro.
+     */
+    private static long[] executar(int porta, int indice, int requisicoes, int profundidade,
+                                   CountDownLatch prontas, CountDownLatch largada) throws Exception {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), porta)) {
+            socket.setTcpNoDelay(true);
+            BufferedReader entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            BufferedWriter saida = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+            String horista = chamar(entrada, saida, "criarEmpregado", "Carga H" + indice, "Rua " + indice, "horista", "20,00");
+            String comissionado = chamar(entrada, saida, "criarEmpregado", "Carga C" + indice, "Rua " + indice, "comissionado", "1000,00", "0,05");
+            prontas.countDown();
+            largada.await();
+
+            long[] latencias = new long[requisicoes];
+            for (int feitas = 0; feitas < requisicoes; ) {
+                int rajada = Math.min(profundidade, requisicoes - feitas);
+                long envio = System.nanoTime();
+                for (int i = 0; i < rajada; i++) {
+                    int n = feitas + i;
+                    String data = DATAS[(n >> 1) % DATAS.length];
+                    saida.write((n & 1) == 0
+                            ? ProtocoloDeLinhas.linha("lancaCartao", horista, data, "8")
+                            : ProtocoloDeLinhas.linha("lancaVenda", comissionado, data, "100,00"));
+                    saida.write('\n');
+                }
+                saida.flush();
+                for (int i = 0; i < rajada; i++) {
+                    verificar(entrada.readLine());
+                    latencias[feitas + i] = System.nanoTime() - envio;
+                }
+                feitas += rajada;
+            }
+            return latencias;
+        }
+    }
+
+    /**
+     * Envia uma requisição e espera a resposta.
+     * @param entrada A entrada da conexão.
+     * @param saida A saída da conexão.
+     * @param campos O comando e os seus argumentos.
+     * @return O resultado do comando (o segundo campo da resposta), ou null se não houver.
+     * @throws IOException se a conexão falhar ou o servidor responder com erro.
+     */
+    private static String chamar(BufferedReader entrada, BufferedWriter saida, String... campos) throws IOException {
+        saida.write(ProtocoloDeLinhas.linha(campos));
+        saida.write('\n');
+        saida.flush();
+        String[] resposta = verificar(entrada.readLine());
+        return resposta.length > 1 ? resposta[1] : null;
+    }
+
+    /**
+     * Confere se uma resposta é de sucesso.
+     * @param linha A linha recebida.
+     * @return Os campos da resposta.
+     * @throws IOException se a conexão foi fechada ou a resposta é de erro.
+     */
+    private static String[] verificar(String linha) throws IOException {
+        if (linha == null) throw new IOException("Conexão fechada pelo servidor.");
+        String[] resposta = ProtocoloDeLinhas.campos(linha);
+        if (!resposta[0].equals(ProtocoloDeLinhas.OK)) throw new IOException("Resposta de erro: " + linha);
+        return resposta;
+    }
+
+    /**
+     * Retorna um percentil das latências, em milissegundos.
+     * @param ordenadas As latências em nanossegundos, em ordem crescente.
+     * @param fracao O percentil, entre 0 e 1.
+     * @return O percentil em milissegundos.
+     */
+    private static double percentil(long[] ordenadas, double fracao) {
+        int posicao = (int) Math.ceil(fracao * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, posicao)] / 1e6;
+    }
+}
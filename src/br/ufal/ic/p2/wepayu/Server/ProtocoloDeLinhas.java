@@ -0,0 +1,80 @@
+package br.ufal.ic.p2.wepayu.Server;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codificação das mensagens do servidor: uma mensagem por linha, com os campos separados por TAB.
+ * <p>
+ * Uma requisição é o nome do comando da {@link br.ufal.ic.p2.wepayu.Facade} seguido dos argumentos,
+ * por exemplo {@code lancaCartao<TAB>7<TAB>3/1/2005<TAB>8}. A resposta é {@code OK}, seguido do
+ * resultado quando o comando devolve algum, ou {@code ERRO} seguido da mensagem da exceção.
+ * Dentro de um campo, a barra invertida, o TAB e as quebras de linha são escritos como
+ * {@code \\}, {@code \t}, {@code \n} e {@code \r}.
+ */
+final class ProtocoloDeLinhas {
+
+    static final String OK = "OK";
+    static final String ERRO = "ERRO";
+
+    private static final char SEPARADOR = '\t';
+
+    /**
+     * Classe utilitária, não instanciável.
+     */
+    private ProtocoloDeLinhas() {
+    }
+
+    /**
+     * Separa os campos de uma linha recebida, desfazendo os escapes.
+     * @param linha A linha, sem a quebra de linha final.
+     * @return Os campos (ao menos um).
+     */
+    static String[] campos(String linha) {
+        List<String> campos = new ArrayList<>(4);
+        StringBuilder campo = new StringBuilder();
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (c == SEPARADOR) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\\' && i + 1 < linha.length()) {
+                char s = linha.charAt(++i);
+                campo.append(switch (s) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> s;
+                });
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString());
+        return campos.toArray(new String[0]);
+    }
+
+    /**
+     * Monta uma linha a partir dos campos, escapando os caracteres especiais.
+     * @param campos Os campos.
+     * @return A linha, sem a quebra de linha final.
+     */
+    static String linha(String... campos) {
+        StringBuilder linha = new StringBuilder();
+        for (int i = 0; i < campos.length; i++) {
+            if (i > 0) linha.append(SEPARADOR);
+            String campo = campos[i] == null ? "" : campos[i];
+            for (int j = 0; j < campo.length(); j++) {
+                char c = campo.charAt(j);
+                switch (c) {
+                    case '\\' -> linha.append("\\\\");
+                    case '\t' -> linha.append("\\t");
+                    case '\n' -> linha.append("\\n");
+                    case '\r' -> linha.append("\\r");
+                    default -> linha.append(c);
+                }
+            }
+        }
+        return linha.toString();
+    }
+}
@@ -0,0 +1,252 @@
+package br.ufal.ic.p2.wepayu.Server;
+
+import br.ufal.ic.p2.wepayu.Facade;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servidor de rede embutido que expõe a {@link Facade} para terminais de ponto e de venda.
+ * <p>
+ * O protocolo é de linhas sobre TCP (ver {@link ProtocoloDeLinhas}), usando apenas o JDK. Cada
+ * conexão é atendida por uma thread própria: uma thread virtual quando a JVM as oferece (Java 21
+ * ou superior, detectado em tempo de execução) ou, senão, uma thread de um pool que cresce sob
+ * demanda. As requisições de uma conexão podem ser enviadas em sequência, sem esperar as
+ * respostas (pipelining): elas são executadas na ordem de chegada, e as respostas são escritas
+ * na mesma ordem e enviadas de uma vez quando não há mais requisições já recebidas.
+ * <p>
+ * Conexões diferentes chamam a fachada em paralelo; a fachada cuida das travas.
+ */
+public final class ServidorWePayU implements AutoCloseable {
+
+    private static final int PORTA_PADRAO = 7070;
+
+    private final Facade facade;
+    private final ServerSocket servidor;
+    private final ExecutorService conexoes = criarExecutor();
+    private final Set<Socket> abertas = ConcurrentHashMap.newKeySet();
+    private volatile boolean encerrado;
+
+    /**
+     * Abre o servidor na interface local, sem ainda aceitar conexões.
+     * @param facade A fachada atendida.
+     * @param porta A porta TCP (0 para escolher uma porta livre).
+     * @throws IOException se a porta não puder ser aberta.
+     */
+    public ServidorWePayU(Facade facade, int porta) throws IOException {
+        this.facade = facade;
+        this.servidor = new ServerSocket();
+        this.servidor.setReuseAddress(true);
+        this.servidor.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta));
+    }
+
+    /**
+     * Retorna a porta em que o servidor está escutando.
+     * @return A porta.
+     */
+    public int getPorta() {
+        return servidor.getLocalPort();
+    }
+
+    /**
+     * Começa a aceitar conexões, em uma thread própria, que mantém o processo vivo até o
+     * servidor ser fechado.
+     */
+    public void iniciar() {
+        new Thread(this::aceitar, "wepayu-servidor").start();
+    }
+
+    /**
+     * Aceita conexões até o servidor ser fechado, entregando cada uma ao executor.
+     */
+    private void aceitar() {
+        while (!encerrado) {
+            try {
+                Socket conexao = servidor.accept();
+                conexao.setTcpNoDelay(true);
+                abertas.add(conexao);
+                conexoes.execute(() -> atender(conexao));
+            } catch (IOException e) {
+                if (!encerrado) e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Atende uma conexão: lê as requisições, executa-as em ordem e escreve as respostas.
+     * @param conexao A conexão.
+     */
+    private void atender(Socket conexao) {
+        try (conexao;
+             BufferedReader entrada = new BufferedReader(new InputStreamReader(conexao.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter saida = new BufferedWriter(new OutputStreamWriter(conexao.getOutputStream(), StandardCharsets.UTF_8))) {
+            String linha;
+            while ((linha = entrada.readLine()) != null) {
+                if (linha.isEmpty()) continue;
+                saida.write(responder(ProtocoloDeLinhas.campos(linha)));
+                saida.write('\n');
+                if (!entrada.ready()) saida.flush();
+            }
+        } catch (SocketException e) {
+            // Conexão encerrada pelo cliente ou pelo fechamento do servidor.
+        } catch (IOException e) {
+            if (!encerrado) e.printStackTrace();
+        } finally {
+            abertas.remove(conexao);
+        }
+    }
+
+    /**
+     * Executa uma requisição e monta a linha de resposta.
+     * @param campos O comando e os seus argumentos.
+     * @return A linha de resposta.
+     */
+    private String responder(String[] campos) {
+        try {
+            return executar(campos);
+        } catch (Exception e) {
+            Throwable causa = e instanceof RuntimeException && e.getCause() != null ? e.getCause() : e;
+            String mensagem = causa.getMessage() == null ? causa.getClass().getSimpleName() : causa.getMessage();
+            return ProtocoloDeLinhas.linha(ProtocoloDeLinhas.ERRO, mensagem);
+        }
+    }
+
+    /**
+     * Chama o comando da fachada correspondente à requisição.
+     * @param c O comando e os seus argumentos.
+     * @return A linha de resposta.
+     * @throws Exception a exceção lançada pela fachada, ou se o comando for desconhecido.
+     */
+    private String executar(String[] c) throws Exception {
+        String comando = c[0];
+        int argumentos = c.length - 1;
+        switch (comando + "/" + argumentos) {
+            case "lancaCartao/3" -> facade.lancaCartao(c[1], c[2], c[3]);
+            case "lancaVenda/3" -> facade.lancaVenda(c[1], c[2], c[3]);
+            case "lancaTaxaServico/3" -> facade.lancaTaxaServico(c[1], c[2], c[3]);
+            case "criarEmpregado/4" -> {
+                return ok(facade.criarEmpregado(c[1], c[2], c[3], c[4]));
+            }
+            case "criarEmpregado/5" -> {
+                return ok(facade.criarEmpregado(c[1], c[2], c[3], c[4], c[5]));
+            }
+            case "getAtributoEmpregado/2" -> {
+                return ok(facade.getAtributoEmpregado(c[1], c[2]));
+            }
+            case "getEmpregadoPorNome/2" -> {
+                return ok(facade.getEmpregadoPorNome(c[1], Integer.parseInt(c[2])));
+            }
+            case "getNomesPorPrefixo/2" -> {
+                List<String> nomes = facade.getNomesPorPrefixo(c[1], Integer.parseInt(c[2]));
+                String[] resposta = new String[nomes.size() + 1];
+                resposta[0] = ProtocoloDeLinhas.OK;
+                for (int i = 0; i < nomes.size(); i++) resposta[i + 1] = nomes.get(i);
+                return ProtocoloDeLinhas.linha(resposta);
+            }
+            case "getHorasNormaisTrabalhadas/3" -> {
+                return ok(facade.getHorasNormaisTrabalhadas(c[1], c[2], c[3]));
+            }
+            case "getHorasExtrasTrabalhadas/3" -> {
+                return ok(facade.getHorasExtrasTrabalhadas(c[1], c[2], c[3]));
+            }
+            case "getVendasRealizadas/3" -> {
+                return ok(facade.getVendasRealizadas(c[1], c[2], c[3]));
+            }
+            case "getTaxasServico/3" -> {
+                return ok(facade.getTaxasServico(c[1], c[2], c[3]));
+            }
+            case "getNumeroDeEmpregados/0" -> {
+                return ok(Integer.toString(facade.getNumeroDeEmpregados()));
+            }
+            case "totalFolha/1" -> {
+                return ok(facade.totalFolha(c[1]));
+            }
+            case "rodaFolha/2" -> facade.rodaFolha(c[1], c[2]);
+            case "rodaFolha/3" -> facade.rodaFolha(c[1], c[2], c[3]);
+            case "rodaFolha/4" -> facade.rodaFolha(c[1], c[2], c[3], c[4]);
+            default -> throw new IllegalArgumentException("Comando desconhecido: " + comando + " com " + argumentos + " argumentos.");
+        }
+        return ProtocoloDeLinhas.OK;
+    }
+
+    /**
+     * Monta uma resposta de sucesso com um resultado.
+     * @param resultado O resultado do comando.
+     * @return A linha de resposta.
+     */
+    private static String ok(String resultado) {
+        return ProtocoloDeLinhas.linha(ProtocoloDeLinhas.OK, resultado);
+    }
+
+    /**
+     * Cria o executor das conexões: uma thread virtual por conexão, se disponível, ou um pool de
+     * threads de plataforma que cresce sob demanda. O método das threads virtuais é obtido por
+     * reflexão para que o código continue compilando e rodando em versões anteriores do Java.
+     * @return O executor.
+     */
+    private static ExecutorService criarExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(tarefa -> {
+                Thread thread = new Thread(tarefa, "wepayu-conexao");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Fecha o servidor e as conexões abertas, esperando as requisições em execução terminarem.
+     * @throws IOException se ocorrer um erro ao fechar a porta.
+     */
+    @Override
+    public void close() throws IOException {
+        encerrado = true;
+        servidor.close();
+        for (Socket conexao : abertas) conexao.shutdownInput();
+        conexoes.shutdown();
+        try {
+            conexoes.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Inicia o servidor sobre os dados do diretório atual, até o processo ser encerrado,
+     * quando os dados são salvos.
+     * @param args A porta (opcional; o padrão é a propriedade {@code wepayu.servidor.porta} ou 7070).
+     * @throws IOException se a porta não puder ser aberta.
+     */
+    public static void main(String[] args) throws IOException {
+        int porta = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("wepayu.servidor.porta", PORTA_PADRAO);
+        Facade facade = new Facade();
+        ServidorWePayU servidor = new ServidorWePayU(facade, porta);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                servidor.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            facade.encerrarSistema();
+        }));
+        servidor.iniciar();
+        System.out.println("WePayU escutando na porta " + servidor.getPorta());
+    }
+}
@@ -6,12 +6,20 @@ import br.ufal.ic.p2.wepayu.models.EmpregadoComissionado;
 import br.ufal.ic.p2.wepayu.models.EmpregadoHorista;
 import br.ufal.ic.p2.wepayu.Repository.EmpregadoRepository;
 
+import java.util.regex.Pattern;
+
 /**
  * Classe base abstrata para os serviços do sistema.
  * Fornece acesso ao repositório de empregados e métodos de validação comuns
  * que são compartilhados entre os diferentes serviços.
  */
 public abstract class BaseService {
+
+    /**
+     * Formato das datas ("d/M/yyyy"), compilado uma única vez: a validação é feita em cada lançamento.
+     */
+    private static final Pattern FORMATO_DATA = Pattern.compile("\\d{1,2}/\\d{1,2}/\\d{4}");
+
     /**
      * Repositório de empregados para acesso aos dados.
      */
@@ -64,7 +72,7 @@ public abstract class BaseService {
      * @return {@code true} se a data for válida, {@code false} caso contrário.
      */
     protected boolean isDataValida(String dataStr) {
-        if (dataStr == null || !dataStr.matches("\\d{1,2}/\\d{1,2}/\\d{4}")) {
+        if (dataStr == null || !FORMATO_DATA.matcher(dataStr).matches()) {
             return false;
         }
         String[] parts = dataStr.split("/");
@@ -85,4 +93,77 @@ public abstract class BaseService {
 
         return dia <= diasNoMes[mes];
     }
+
+    /**
+     * Valida os campos base de um empregado.
+     * @param n Nome.
+     * @param e Endereço.
+     * @param s Salário.
+     * @throws ValidacaoException se algum campo for inválido.
+     */
+    protected void validarCamposBase(String n, String e, String s) throws ValidacaoException {
+        if (n == null || n.isEmpty()) throw new NomeNuloException();
+        if (e == null || e.isEmpty()) throw new EnderecoNuloException();
+        validarSalario(s);
+    }
+
+    /**
+     * Valida o salário.
+     * @param s Salário.
+     * @throws ValidacaoException se o salário for inválido.
+     */
+    protected void validarSalario(String s) throws ValidacaoException {
+        if (s == null || s.isEmpty()) throw new SalarioNuloException();
+        try {
+            if (Double.parseDouble(s.replace(',', '.')) < 0) throw new SalarioNaoNegativoException();
+        } catch (NumberFormatException ex) {
+            throw new SalarioNumericoException();
+        }
+    }
+
+    /**
+     * Valida a comissão.
+     * @param comissao A comissão.
+     * @throws ValidacaoException se a comissão for inválida.
+     */
+    protected void validarComissao(String comissao) throws ValidacaoException {
+        if (comissao == null || comissao.isEmpty()) throw new ComissaoNulaException();
+        try {
+            if (Double.parseDouble(comissao.replace(',', '.')) < 0) throw new ComissaoNaoNegativaException();
+        } catch (NumberFormatException ex) {
+            throw new ComissaoNumericaException();
+        }
+    }
+
+    /**
+     * Valida se a string de horas é um número positivo.
+     * @param horasStr As horas em formato de String.
+     * @return O valor das horas em double.
+     * @throws ValidacaoException Se as horas não forem um número ou não forem positivas.
+     */
+    protected double validarHoras(String horasStr) throws ValidacaoException {
+        try {
+            double horas = Double.parseDouble(horasStr.replace(',', '.'));
+            if (horas <= 0) throw new HorasPositivasException();
+            return horas;
+        } catch (NumberFormatException e) {
+            throw new HorasNumericasException();
+        }
+    }
+
+    /**
+     * Valida se a string de valor é um número positivo.
+     * @param valorStr O valor em formato de String.
+     * @return O valor em double.
+     * @throws ValidacaoException Se o valor não for um número ou não for positivo.
+     */
+    protected double validarValorPositivo(String valorStr) throws ValidacaoException {
+        try {
+            double valor = Double.parseDouble(valorStr.replace(',', '.'));
+            if (valor <= 0) throw new ValorPositivoException();
+            return valor;
+        } catch (NumberFormatException e) {
+            throw new ValorNumericoException();
+        }
+    }
 }
\ No newline at end of file
@@ -2,67 +2,109 @@ package br.ufal.ic.p2.wepayu.Services;
 
 import br.ufal.ic.p2.wepayu.Exception.EmpregadoNaoExisteException;
 import br.ufal.ic.p2.wepayu.Exception.ValidacaoException;
-import java.util.Stack;
+import br.ufal.ic.p2.wepayu.Repository.Alteracao;
+import br.ufal.ic.p2.wepayu.Repository.EmpregadoRepository;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 
 /**
  * Serviço que implementa o padrão de projeto Command para gerenciar o histórico de operações.
  * Permite que as ações que modificam o estado do sistema sejam desfeitas (undo) e refeitas (redo).
  * Utiliza duas pilhas para manter o controle dos comandos executados e desfeitos.
+ * <p>
+ * Cada comando guarda apenas as inversas das {@link Alteracao}s que aplicou ao repositório
+ * (por exemplo, "retirar o cartão de 3/1/2005 do empregado 7"), e não uma cópia do estado.
+ * Desfazer aplica essas inversas, que por sua vez geram as alterações usadas para refazer.
+ * <p>
+ * Comandos sobre empregados diferentes podem ser executados por threads diferentes ao mesmo tempo.
+ * Cada comando entra no histórico, de forma atômica, depois de aplicar todas as suas alterações; como
+ * comandos concorrentes alteram empregados distintos, a ordem das pilhas é uma ordem válida de
+ * execução e desfazer o topo é sempre correto. Undo e redo são serializados com as pilhas.
+ * <p>
+ * A ação de confirmação de um comando (o registro no journal) roda no mesmo bloco que o coloca na
+ * pilha de undo, então o journal recebe os comandos na mesma ordem do histórico, mesmo quando eles
+ * são executados em paralelo sob travas de empregados diferentes.
  */
 public class CommandHistoryService {
 
     /**
-     * Interface interna que define o contrato para um comando executável e reversível.
+     * Comando executado: as alterações que desfazem (ou refazem) o seu efeito.
      */
-    private interface Command {
+    private static final class Command {
         /**
-         * Executa a ação principal do comando.
+         * Inversas do último sentido aplicado, na ordem de aplicação.
          */
-        void execute();
+        private List<Alteracao> inversas;
 
         /**
-         * Reverte a ação executada pelo comando.
+         * Constrói o comando a partir das inversas capturadas na execução.
+         * @param inversas As inversas das alterações aplicadas.
          */
-        void undo();
+        private Command(List<Alteracao> inversas) {
+            this.inversas = inversas;
+        }
+
+        /**
+         * Reverte o último sentido aplicado (desfaz um comando executado ou refaz um comando desfeito).
+         * @param repository O repositório alterado.
+         */
+        private void reverter(EmpregadoRepository repository) {
+            this.inversas = repository.reverter(this.inversas);
+        }
+    }
+
+    private final EmpregadoRepository repository;
+
+    /**
+     * Constrói o serviço de histórico.
+     * @param repository O repositório cujas alterações serão registradas.
+     */
+    public CommandHistoryService(EmpregadoRepository repository) {
+        this.repository = repository;
     }
 
     /**
-     * Pilha de comandos que foram executados e podem ser desfeitos.
+     * Pilha de comandos que foram executados e podem ser desfeitos (protegida pelo monitor do serviço).
      */
-    private final Stack<Command> undoStack = new Stack<>();
+    private final Deque<Command> undoStack = new ArrayDeque<>();
 
     /**
-     * Pilha de comandos que foram desfeitos e podem ser refeitos.
+     * Pilha de comandos que foram desfeitos e podem ser refeitos (protegida pelo monitor do serviço).
      */
-    private final Stack<Command> redoStack = new Stack<>();
+    private final Deque<Command> redoStack = new ArrayDeque<>();
 
     /**
      * Executa uma nova ação, encapsulando-a em um objeto Command e a adicionando ao histórico de undo.
      * Se a ação for executada com sucesso, a pilha de redo é limpa.
-     * Se a ação falhar, a exceção original é propagada e o comando não é adicionado ao histórico.
+     * Se a ação falhar, as alterações que ela já aplicou são desfeitas, a exceção original é
+     * propagada e o comando não é adicionado ao histórico.
      *
-     * @param commandAction A ação a ser executada (lógica principal).
-     * @param undoAction A ação que desfaz a ação principal.
+     * @param commandAction A ação a ser executada; deve alterar o repositório por meio de {@link Alteracao}s.
      * @throws ValidacaoException Se a ação principal lançar uma exceção de validação.
      * @throws EmpregadoNaoExisteException Se a ação principal lançar uma exceção de empregado não existente.
      */
-    public void execute(Runnable commandAction, Runnable undoAction) throws ValidacaoException, EmpregadoNaoExisteException {
-        Command command = new Command() {
-            @Override
-            public void execute() {
-                commandAction.run();
-            }
-
-            @Override
-            public void undo() {
-                undoAction.run();
-            }
-        };
+    public void execute(Runnable commandAction) throws ValidacaoException, EmpregadoNaoExisteException {
+        execute(commandAction, null);
+    }
 
+    /**
+     * Executa uma nova ação como {@link #execute(Runnable)} e, se ela for bem-sucedida, executa a
+     * ação de confirmação no mesmo bloco atômico que adiciona o comando ao histórico.
+     *
+     * @param commandAction A ação a ser executada; deve alterar o repositório por meio de {@link Alteracao}s.
+     * @param aoConfirmar A ação de confirmação, ou null.
+     * @throws ValidacaoException Se a ação principal lançar uma exceção de validação.
+     * @throws EmpregadoNaoExisteException Se a ação principal lançar uma exceção de empregado não existente.
+     */
+    public void execute(Runnable commandAction, Runnable aoConfirmar) throws ValidacaoException, EmpregadoNaoExisteException {
         try {
-            command.execute();
-            undoStack.push(command); // Apenas adiciona à pilha se a execução for bem-sucedida
-            redoStack.clear();
+            Command command = new Command(repository.capturar(commandAction));
+            synchronized (this) {
+                undoStack.push(command); // Apenas adiciona à pilha se a execução for bem-sucedida
+                redoStack.clear();
+                if (aoConfirmar != null) aoConfirmar.run();
+            }
         } catch (Exception e) {
             // Desembrulha a exceção original se ela foi encapsulada em uma RuntimeException
             Throwable cause = e.getCause();
@@ -85,12 +127,12 @@ public class CommandHistoryService {
      *
      * @throws ValidacaoException Se não houver comandos para desfazer.
      */
-    public void undo() throws ValidacaoException {
+    public synchronized void undo() throws ValidacaoException {
         if (undoStack.isEmpty()) {
             throw new ValidacaoException("Nao ha comando a desfazer.");
         }
         Command command = undoStack.pop();
-        command.undo();
+        command.reverter(repository);
         redoStack.push(command);
     }
 
@@ -100,12 +142,12 @@ public class CommandHistoryService {
      *
      * @throws ValidacaoException Se não houver comandos para refazer.
      */
-    public void redo() throws ValidacaoException {
+    public synchronized void redo() throws ValidacaoException {
         if (redoStack.isEmpty()) {
             throw new ValidacaoException("Nao ha comando a refazer.");
         }
         Command command = redoStack.pop();
-        command.execute();
+        command.reverter(repository);
         undoStack.push(command);
     }
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Serviço responsável por consultas e cálculos que não alteram o estado do sistema.
@@ -32,22 +34,13 @@ public class ConsultaService extends BaseService {
      */
     public String totalFolha(String data) throws Exception {
         LocalDate dataFolha = LocalDate.parse(data, DateTimeFormatter.ofPattern("d/M/yyyy"));
-        double calculatedTotal = 0.0;
-        for (Empregado empregado : repository.findAll()) {
+        long calculatedTotal = 0;
+        for (Empregado empregado : getEmpregadosDaAgendaDoDia(dataFolha)) {
             if (isDiaDePagar(empregado, dataFolha)) {
                 calculatedTotal += calcularSalarioBruto(empregado, dataFolha);
             }
         }
-        return String.format("%.2f", calculatedTotal).replace('.', ',');
-    }
-
-    /**
-     * Trunca um valor double para duas casas decimais.
-     * @param value O valor a ser truncado.
-     * @return O valor truncado.
-     */
-    private double truncate(double value) {
-        return Math.floor((value * 100) + 1e-9) / 100.0;
+        return Dinheiro.formatar(calculatedTotal);
     }
 
     /**
@@ -62,13 +55,8 @@ public class ConsultaService extends BaseService {
     public String getHorasNormaisTrabalhadas(String id, String dataInicialStr, String dataFinalStr) throws ValidacaoException, EmpregadoNaoExisteException {
         validarIntervaloDeDatas(dataInicialStr, dataFinalStr);
         EmpregadoHorista horista = (EmpregadoHorista) getEmpregadoValido(id, EmpregadoHorista.class);
-        double horasNormaisTotal = 0.0;
-        for (CartaoDePonto cartao : horista.getCartoesDePonto().values()) {
-            if (isDataNoIntervalo(cartao.getData(), dataInicialStr, dataFinalStr)) {
-                horasNormaisTotal += Math.min(cartao.getHoras(), 8);
-            }
-        }
-        return formatarResultadoNumerico(horasNormaisTotal);
+        double horasNormaisTotal = horista.getCartoes().horasNormais(LivroDiario.paraDia(dataInicialStr), LivroDiario.paraDia(dataFinalStr));
+        return formatarHoras(horasNormaisTotal);
     }
 
     /**
@@ -83,16 +71,8 @@ public class ConsultaService extends BaseService {
     public String getHorasExtrasTrabalhadas(String id, String dataInicialStr, String dataFinalStr) throws ValidacaoException, EmpregadoNaoExisteException {
         validarIntervaloDeDatas(dataInicialStr, dataFinalStr);
         EmpregadoHorista horista = (EmpregadoHorista) getEmpregadoValido(id, EmpregadoHorista.class);
-        double horasExtrasTotal = 0.0;
-        for (CartaoDePonto cartao : horista.getCartoesDePonto().values()) {
-            if (isDataNoIntervalo(cartao.getData(), dataInicialStr, dataFinalStr)) {
-                double horasTrabalhadas = cartao.getHoras();
-                if (horasTrabalhadas > 8) {
-                    horasExtrasTotal += (horasTrabalhadas - 8);
-                }
-            }
-        }
-        return formatarResultadoNumerico(horasExtrasTotal);
+        double horasExtrasTotal = horista.getCartoes().horasExtras(LivroDiario.paraDia(dataInicialStr), LivroDiario.paraDia(dataFinalStr));
+        return formatarHoras(horasExtrasTotal);
     }
 
     /**
@@ -107,13 +87,7 @@ public class ConsultaService extends BaseService {
     public String getVendasRealizadas(String id, String dataInicialStr, String dataFinalStr) throws ValidacaoException, EmpregadoNaoExisteException {
         validarIntervaloDeDatas(dataInicialStr, dataFinalStr);
         EmpregadoComissionado comissionado = (EmpregadoComissionado) getEmpregadoValido(id, EmpregadoComissionado.class);
-        double totalVendas = 0.0;
-        for (ResultadoVenda venda : comissionado.getVendas().values()) {
-            if (isDataNoIntervalo(venda.getData(), dataInicialStr, dataFinalStr)) {
-                totalVendas += venda.getValor();
-            }
-        }
-        return String.format("%.2f", totalVendas).replace('.', ',');
+        return Dinheiro.formatar(comissionado.getResultadosDeVenda().totalCentavos(LivroDiario.paraDia(dataInicialStr), LivroDiario.paraDia(dataFinalStr)));
     }
 
     /**
@@ -132,27 +106,7 @@ public class ConsultaService extends BaseService {
         if (membro == null) {
             throw new EmpregadoNaoSindicalizadoException();
         }
-        double totalTaxas = 0.0;
-        for (TaxaServico taxa : membro.getTaxasDeServico().values()) {
-            if (isDataNoIntervalo(taxa.getData(), dataInicialStr, dataFinalStr)) {
-                totalTaxas += taxa.getValor();
-            }
-        }
-        return String.format("%.2f", totalTaxas).replace('.', ',');
-    }
-
-    /**
-     * Verifica se uma data está dentro de um intervalo de datas.
-     * @param dataStr A data a ser verificada.
-     * @param dataInicialStr A data de início do intervalo.
-     * @param dataFinalStr A data de fim do intervalo.
-     * @return {@code true} se a data estiver no intervalo, {@code false} caso contrário.
-     */
-    private boolean isDataNoIntervalo(String dataStr, String dataInicialStr, String dataFinalStr) {
-        LocalDate data = LocalDate.parse(dataStr, DateTimeFormatter.ofPattern("d/M/yyyy"));
-        LocalDate dataInicial = LocalDate.parse(dataInicialStr, DateTimeFormatter.ofPattern("d/M/yyyy"));
-        LocalDate dataFinal = LocalDate.parse(dataFinalStr, DateTimeFormatter.ofPattern("d/M/yyyy"));
-        return !data.isBefore(dataInicial) && data.isBefore(dataFinal);
+        return Dinheiro.formatar(membro.getTaxas().totalCentavos(LivroDiario.paraDia(dataInicialStr), LivroDiario.paraDia(dataFinalStr)));
     }
 
     /**
@@ -170,27 +124,26 @@ public class ConsultaService extends BaseService {
     }
 
     /**
-     * Formata um resultado numérico como string, com ou sem casas decimais.
-     * @param valor O valor a ser formatado.
-     * @return A string formatada.
+     * Formata uma quantidade de horas para exibição: sem casas decimais se for inteira, ou com uma
+     * casa decimal (arredondada) e vírgula.
+     * @param horas As horas.
+     * @return As horas formatadas ("8" ou "8,5").
      */
-    private String formatarResultadoNumerico(double valor) {
-        if (valor == (long) valor) {
-            return String.format("%d", (long) valor);
-        } else {
-            return String.format("%.1f", valor).replace('.', ',');
-        }
+    public static String formatarHoras(double horas) {
+        if (horas == (long) horas) return Long.toString((long) horas);
+        long decimos = EmpregadoHorista.decimosDeHora(horas);
+        return (decimos / 10) + "," + (decimos % 10);
     }
 
     /**
      * Calcula o salário bruto de um empregado para uma data de folha específica.
      * @param empregado O empregado para o qual o salário será calculado.
      * @param dataFolha A data da folha de pagamento.
-     * @return O valor do salário bruto.
+     * @return O valor do salário bruto, em centavos.
      * @throws ValidacaoException se ocorrer um erro de validação.
      * @throws EmpregadoNaoExisteException se o empregado não for encontrado.
      */
-    public double calcularSalarioBruto(Empregado empregado, LocalDate dataFolha) throws ValidacaoException, EmpregadoNaoExisteException {
+    public long calcularSalarioBruto(Empregado empregado, LocalDate dataFolha) throws ValidacaoException, EmpregadoNaoExisteException {
         return empregado.calcularSalarioBruto(dataFolha, this);
     }
 
@@ -198,32 +151,116 @@ public class ConsultaService extends BaseService {
      * Calcula as deduções totais (taxas sindicais e de serviço) para um empregado.
      * @param empregado O empregado para o qual as deduções serão calculadas.
      * @param dataFolha A data da folha de pagamento.
-     * @return O valor total das deduções.
+     * @return O valor total das deduções, em centavos.
+     * @throws ValidacaoException se ocorrer um erro de validação.
+     * @throws EmpregadoNaoExisteException se o empregado não for encontrado.
+     */
+    public long calcularDeducoes(Empregado empregado, LocalDate dataFolha) throws ValidacaoException, EmpregadoNaoExisteException {
+        if (!empregado.isSindicalizado()) {
+            return 0;
+        }
+        return calcularDeducoes(empregado, dataFolha, calcularSalarioBruto(empregado, dataFolha));
+    }
+
+    /**
+     * Calcula as deduções totais de um empregado cujo salário bruto já foi calculado. As taxas de
+     * serviço são lidas da versão do empregado recebida, sem buscá-lo de novo no repositório.
+     * @param empregado O empregado para o qual as deduções serão calculadas.
+     * @param dataFolha A data da folha de pagamento.
+     * @param salarioBruto O salário bruto do empregado nesta folha, em centavos.
+     * @return O valor total das deduções, em centavos.
      * @throws ValidacaoException se ocorrer um erro de validação.
      * @throws EmpregadoNaoExisteException se o empregado não for encontrado.
      */
-    public double calcularDeducoes(Empregado empregado, LocalDate dataFolha) throws ValidacaoException, EmpregadoNaoExisteException {
-        if (!empregado.isSindicalizado() || calcularSalarioBruto(empregado, dataFolha) <= 0) {
+    private long calcularDeducoes(Empregado empregado, LocalDate dataFolha, long salarioBruto) {
+        if (!empregado.isSindicalizado() || salarioBruto <= 0) {
             return 0;
         }
 
         MembroSindicato membro = empregado.getMembroSindicato();
-        double taxaSindicalDiaria = membro.getTaxaSindical();
-        double taxaSindicalTotal;
+        long taxaSindicalDiaria = membro.getValorTaxaSindical().getCentavos();
+        long taxaSindicalTotal;
 
-        // CORREÇÃO: Lógica que diferencia mensalistas para passar no us7.txt.
-        if (empregado instanceof EmpregadoAssalariado && empregado.getAgendaPagamento().getDescricao().startsWith("mensal")) {
+        if (empregado instanceof EmpregadoAssalariado && empregado.getAgendaPagamento().getRegra().isMensal()) {
             taxaSindicalTotal = taxaSindicalDiaria * dataFolha.lengthOfMonth();
         } else {
             long daysBetween = ChronoUnit.DAYS.between(empregado.getDataUltimoPagamento(), dataFolha);
             taxaSindicalTotal = daysBetween * taxaSindicalDiaria;
         }
 
-        String dataInicialStr = empregado.getDataUltimoPagamento().plusDays(1).format(DateTimeFormatter.ofPattern("d/M/yyyy"));
-        String dataFinalStr = dataFolha.plusDays(1).format(DateTimeFormatter.ofPattern("d/M/yyyy"));
-        double taxasServicoTotal = Double.parseDouble(getTaxasServico(empregado.getId(), dataInicialStr, dataFinalStr).replace(',', '.'));
+        long taxasServicoTotal = membro.getTaxas().totalCentavos(inicioDoPeriodo(empregado), fimDoPeriodo(dataFolha));
 
-        return truncate(taxaSindicalTotal + taxasServicoTotal);
+        return taxaSindicalTotal + taxasServicoTotal;
+    }
+
+    /**
+     * Calcula o contracheque de um empregado em uma única passada: as horas, vendas e taxas do
+     * período são consultadas uma vez e o salário bruto é reaproveitado no cálculo dos descontos.
+     * Tudo é lido da versão do empregado recebida, de modo que o cálculo sobre um instantâneo não
+     * depende do estado atual do repositório.
+     * @param empregado O empregado a ser pago.
+     * @param dataFolha A data da folha de pagamento.
+     * @return O contracheque do empregado.
+     * @throws ValidacaoException se ocorrer um erro de validação.
+     * @throws EmpregadoNaoExisteException se o empregado não for encontrado.
+     */
+    public Contracheque calcularContracheque(Empregado empregado, LocalDate dataFolha) throws ValidacaoException, EmpregadoNaoExisteException {
+        double horasNormais = 0, horasExtras = 0;
+        long salarioFixo = 0, vendas = 0, comissao = 0;
+        long salarioBruto;
+
+        if (empregado instanceof EmpregadoHorista h) {
+            int inicio = inicioDoPeriodo(h), fim = fimDoPeriodo(dataFolha);
+            horasNormais = h.getCartoes().horasNormais(inicio, fim);
+            horasExtras = h.getCartoes().horasExtras(inicio, fim);
+            salarioBruto = h.calcularSalarioBruto(horasNormais, horasExtras);
+        } else if (empregado instanceof EmpregadoComissionado c) {
+            vendas = c.getResultadosDeVenda().totalCentavos(inicioDoPeriodo(c), fimDoPeriodo(dataFolha));
+            comissao = getComissaoSobreVendas(c, vendas);
+            salarioFixo = getSalarioFixoComissionado(c, dataFolha);
+            salarioBruto = c.calcularSalarioBruto(comissao);
+        } else {
+            salarioBruto = calcularSalarioBruto(empregado, dataFolha);
+        }
+
+        long descontos = calcularDeducoes(empregado, dataFolha, salarioBruto);
+        return new Contracheque(empregado, salarioBruto, descontos, horasNormais, horasExtras, salarioFixo, vendas, comissao);
+    }
+
+    /**
+     * Retorna o primeiro dia epoch do período pago (o dia seguinte ao último pagamento).
+     * @param empregado O empregado.
+     * @return O dia epoch inicial (inclusivo).
+     */
+    private static int inicioDoPeriodo(Empregado empregado) {
+        return LivroDiario.paraDia(empregado.getDataUltimoPagamento()) + 1;
+    }
+
+    /**
+     * Retorna o dia epoch seguinte à data da folha, fim exclusivo do período pago.
+     * @param dataFolha A data da folha.
+     * @return O dia epoch final (exclusivo).
+     */
+    private static int fimDoPeriodo(LocalDate dataFolha) {
+        return LivroDiario.paraDia(dataFolha) + 1;
+    }
+
+    /**
+     * Retorna os empregados cujas agendas de pagamento pagam em uma data, usando o índice de
+     * agendas do repositório: cada agenda distinta é avaliada uma única vez e só os empregados
+     * das agendas que pagam nessa data são visitados. A data de contratação ainda deve ser
+     * verificada por {@link #isDiaDePagar(Empregado, LocalDate)}.
+     * @param dataFolha A data da folha.
+     * @return Os empregados das agendas que pagam na data.
+     */
+    public List<Empregado> getEmpregadosDaAgendaDoDia(LocalDate dataFolha) {
+        List<Empregado> empregados = new ArrayList<>();
+        for (String agenda : repository.findAgendas()) {
+            if (RegraAgenda.de(agenda).isDiaDePagamento(dataFolha)) {
+                empregados.addAll(repository.findByAgenda(agenda));
+            }
+        }
+        return empregados;
     }
 
     /**
@@ -258,20 +295,13 @@ public class ConsultaService extends BaseService {
      * Calcula o salário fixo proporcional para um empregado comissionado.
      * @param c O empregado comissionado.
      * @param dataFolha A data da folha de pagamento.
-     * @return O valor do salário fixo proporcional.
+     * @return O valor do salário fixo proporcional, em centavos.
      */
-    public double getSalarioFixoComissionado(EmpregadoComissionado c, LocalDate dataFolha) {
-        double salarioBase = Double.parseDouble(c.getSalarioSemFormato().replace(',', '.'));
-        String agenda = c.getAgendaPagamento().getDescricao();
-        if (agenda.startsWith("semanal")) {
-            int frequencia = 1;
-            if (agenda.split(" ").length == 3) {
-                frequencia = Integer.parseInt(agenda.split(" ")[1]);
-            } else if (agenda.equals("semanal 2 5")) {
-                frequencia = 2; // Quinzenal
-            }
-            double result = (salarioBase * 12 / 52.0) * frequencia;
-            return Math.floor((result * 100) + 1e-9) / 100.0;
+    public long getSalarioFixoComissionado(EmpregadoComissionado c, LocalDate dataFolha) {
+        long salarioBase = c.getValorSalario().getCentavos();
+        RegraAgenda agenda = c.getAgendaPagamento().getRegra();
+        if (agenda.isSemanal()) {
+            return Math.floorDiv(salarioBase * 12 * agenda.getFrequencia(), 52);
         }
         return salarioBase;
     }
@@ -279,11 +309,10 @@ public class ConsultaService extends BaseService {
     /**
      * Calcula o valor da comissão sobre as vendas.
      * @param c O empregado comissionado.
-     * @param vendas O valor total das vendas.
-     * @return O valor da comissão.
+     * @param vendas O valor total das vendas, em centavos.
+     * @return O valor da comissão, em centavos.
      */
-    public double getComissaoSobreVendas(EmpregadoComissionado c, double vendas) {
-        double comissaoPercentual = Double.parseDouble(c.getComissao().replace(',', '.'));
-        return truncate(vendas * comissaoPercentual);
+    public long getComissaoSobreVendas(EmpregadoComissionado c, long vendas) {
+        return c.getValorComissao().aplicar(vendas);
     }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package br.ufal.ic.p2.wepayu.Services;
+
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Travas que permitem que a fachada seja usada por várias threads ao mesmo tempo.
+ * <p>
+ * Há dois níveis. Uma trava de leitura e escrita global separa os comandos que afetam um único
+ * empregado (lançamentos, alterações e consultas de um empregado), que a compartilham, dos comandos
+ * que afetam o sistema inteiro (criar e remover empregados, zerar, undo/redo, folha), que a tomam
+ * com exclusividade. Dentro da parte compartilhada, cada empregado é protegido por uma de
+ * {@code wepayu.travas.listras} travas (o padrão é 64), escolhida pelo hash do ID: comandos sobre o
+ * mesmo empregado são serializados, e comandos sobre empregados de listras diferentes correm em paralelo.
+ * <p>
+ * A folha de pagamento não segura a trava global durante a execução: ela toma a exclusiva apenas
+ * para capturar um instantâneo e, no fim, para confirmar os pagamentos. Entre uma coisa e outra,
+ * execuções de folha são serializadas entre si pela trava {@link #folha()}.
+ * <p>
+ * As travas são reentrantes e sempre tomadas na mesma ordem (global, depois listra), e uma thread
+ * toma no máximo uma listra por vez, o que exclui impasses.
+ */
+public final class ControleDeConcorrencia {
+
+    private static final int LISTRAS = Integer.highestOneBit(Math.max(1, Integer.getInteger("wepayu.travas.listras", 64) * 2 - 1));
+
+    /**
+     * Trava adquirida, que deve ser liberada em um bloco {@code finally}.
+     */
+    @FunctionalInterface
+    public interface Trava {
+        /**
+         * Libera a trava.
+         */
+        void liberar();
+    }
+
+    private final ReentrantReadWriteLock global = new ReentrantReadWriteLock();
+    private final ReentrantLock[] listras = new ReentrantLock[LISTRAS];
+    private final ReentrantLock folha = new ReentrantLock();
+
+    /**
+     * Constrói o controle com todas as travas livres.
+     */
+    public ControleDeConcorrencia() {
+        for (int i = 0; i < listras.length; i++) listras[i] = new ReentrantLock();
+    }
+
+    /**
+     * Toma a trava global com exclusividade, para comandos que afetam o sistema inteiro.
+     * @return A trava adquirida.
+     */
+    public Trava exclusiva() {
+        Lock escrita = global.writeLock();
+        escrita.lock();
+        return escrita::unlock;
+    }
+
+    /**
+     * Toma a trava global de forma compartilhada, para consultas que não leem o conteúdo de um
+     * empregado específico (contagem, índices).
+     * @return A trava adquirida.
+     */
+    public Trava compartilhada() {
+        Lock leitura = global.readLock();
+        leitura.lock();
+        return leitura::unlock;
+    }
+
+    /**
+     * Toma a trava das execuções de folha, que não bloqueia os demais comandos. Deve ser tomada
+     * antes da trava global, nunca com ela.
+     * @return A trava adquirida.
+     */
+    public Trava folha() {
+        folha.lock();
+        return folha::unlock;
+    }
+
+    /**
+     * Toma a trava de um empregado (com a trava global compartilhada).
+     * @param id O ID do empregado (pode ser nulo ou inexistente; a validação fica com o serviço).
+     * @return A trava adquirida.
+     */
+    public Trava empregado(String id) {
+        Lock leitura = global.readLock();
+        leitura.lock();
+        Lock listra = listra(id);
+        listra.lock();
+        return () -> {
+            listra.unlock();
+            leitura.unlock();
+        };
+    }
+
+    /**
+     * Toma a trava de um empregado identificado indiretamente (por exemplo, pelo ID de membro do
+     * sindicato). Como a associação pode mudar até a trava ser obtida, o ID é resolvido de novo
+     * depois de travado, e a operação é repetida até ele não mudar.
+     * @param resolver Função que devolve o ID do empregado, ou null se não houver.
+     * @return A trava adquirida.
+     */
+    public Trava empregado(Supplier<String> resolver) {
+        while (true) {
+            String id = resolver.get();
+            Trava trava = empregado(id);
+            if (Objects.equals(id, resolver.get())) return trava;
+            trava.liberar();
+        }
+    }
+
+    /**
+     * Escolhe a listra de um ID, espalhando os bits do hash.
+     * @param id O ID.
+     * @return A trava da listra.
+     */
+    private ReentrantLock listra(String id) {
+        int h = id == null ? 0 : id.hashCode() * 0x9E3779B9;
+        return listras[(h ^ (h >>> 16)) & (listras.length - 1)];
+    }
+}
@@ -2,13 +2,11 @@ package br.ufal.ic.p2.wepayu.Services;
 
 import br.ufal.ic.p2.wepayu.Exception.*;
 import br.ufal.ic.p2.wepayu.models.*;
+import br.ufal.ic.p2.wepayu.Repository.Alteracoes;
 import br.ufal.ic.p2.wepayu.Repository.EmpregadoRepository;
 import br.ufal.ic.p2.wepayu.models.EmpregadoFactory;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Arrays;
 
 /**
  * Serviço responsável pela lógica de negócio relacionada a empregados.
@@ -16,25 +14,27 @@ import java.util.Arrays;
  */
 public class EmpregadoService extends BaseService {
     private final CommandHistoryService commandHistoryService;
-    // CORREÇÃO: A lista agora não é final para permitir o reset.
-    private static List<String> agendasDisponiveis = new ArrayList<>(Arrays.asList("semanal 5", "mensal $", "semanal 2 5"));
+    private final RegistroDeAgendas agendas;
 
     /**
-     * Constrói uma instância de EmpregadoService.
+     * Constrói uma instância de EmpregadoService com as agendas padrão.
      * @param repository O repositório para acesso aos dados.
      * @param commandHistoryService O serviço de histórico de comandos.
      */
     public EmpregadoService(EmpregadoRepository repository, CommandHistoryService commandHistoryService) {
-        super(repository);
-        this.commandHistoryService = commandHistoryService;
+        this(repository, commandHistoryService, new RegistroDeAgendas());
     }
 
     /**
-     * CORREÇÃO: Novo método estático para resetar a lista de agendas.
+     * Constrói uma instância de EmpregadoService para as agendas de uma empresa.
+     * @param repository O repositório para acesso aos dados.
+     * @param commandHistoryService O serviço de histórico de comandos.
+     * @param agendas As agendas de pagamento disponíveis da empresa.
      */
-    public static void resetAgendasDisponiveis() {
-        agendasDisponiveis.clear();
-        agendasDisponiveis.addAll(Arrays.asList("semanal 5", "mensal $", "semanal 2 5"));
+    public EmpregadoService(EmpregadoRepository repository, CommandHistoryService commandHistoryService, RegistroDeAgendas agendas) {
+        super(repository);
+        this.commandHistoryService = commandHistoryService;
+        this.agendas = agendas;
     }
 
     // ... (resto do código da classe permanece o mesmo) ...
@@ -52,13 +52,17 @@ public class EmpregadoService extends BaseService {
         validarCamposBase(nome, endereco, salario);
         if ("comissionado".equals(tipo)) throw new TipoNaoAplicavelException();
         if (!"horista".equals(tipo) && !"assalariado".equals(tipo)) throw new TipoInvalidoException();
-        Map.Entry<Map<String, Empregado>, Integer> estadoAnterior = repository.getState();
-        Runnable undoAction = () -> repository.setState(estadoAnterior);
-        String id = repository.getNextId();
-        Empregado e = EmpregadoFactory.criarEmpregado(tipo, id, nome, endereco, salario);
-        Runnable commandAction = () -> repository.save(e);
-        commandHistoryService.execute(commandAction, undoAction);
-        return id;
+        String[] id = new String[1];
+        Runnable commandAction = () -> {
+            try {
+                id[0] = repository.getNextId();
+                repository.save(EmpregadoFactory.criarEmpregado(tipo, id[0], nome, endereco, salario));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        };
+        commandHistoryService.execute(commandAction);
+        return id[0];
     }
 
     /**
@@ -76,13 +80,17 @@ public class EmpregadoService extends BaseService {
         validarCamposBase(nome, endereco, salario);
         validarComissao(comissao);
         if (!"comissionado".equals(tipo)) throw new TipoNaoAplicavelException();
-        Map.Entry<Map<String, Empregado>, Integer> estadoAnterior = repository.getState();
-        Runnable undoAction = () -> repository.setState(estadoAnterior);
-        String id = repository.getNextId();
-        Empregado e = EmpregadoFactory.criarEmpregado(tipo, id, nome, endereco, salario, comissao);
-        Runnable commandAction = () -> repository.save(e);
-        commandHistoryService.execute(commandAction, undoAction);
-        return id;
+        String[] id = new String[1];
+        Runnable commandAction = () -> {
+            try {
+                id[0] = repository.getNextId();
+                repository.save(EmpregadoFactory.criarEmpregado(tipo, id[0], nome, endereco, salario, comissao));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        };
+        commandHistoryService.execute(commandAction);
+        return id[0];
     }
 
     /**
@@ -120,10 +128,9 @@ public class EmpregadoService extends BaseService {
             throw new AgendaInvalidaException();
         }
 
-        if (agendasDisponiveis.contains(descricao)) {
+        if (!agendas.adicionar(descricao)) {
             throw new AgendaJaExisteException();
         }
-        agendasDisponiveis.add(descricao);
     }
 
     /**
@@ -134,10 +141,8 @@ public class EmpregadoService extends BaseService {
      */
     public void removerEmpregado(String id) throws ValidacaoException, EmpregadoNaoExisteException {
         getEmpregadoValido(id);
-        Map.Entry<Map<String, Empregado>, Integer> estadoAnterior = repository.getState();
-        Runnable undoAction = () -> repository.setState(estadoAnterior);
         Runnable commandAction = () -> repository.deleteById(id);
-        commandHistoryService.execute(commandAction, undoAction);
+        commandHistoryService.execute(commandAction);
     }
 
     /**
@@ -145,28 +150,28 @@ public class EmpregadoService extends BaseService {
      * @param id O ID do empregado.
      * @param atributo O atributo a ser alterado.
      * @param valor O novo valor do atributo.
+     * @param aoConfirmar Ação executada junto com a entrada do comando no histórico (por exemplo, o
+     *                    registro no journal), ou null.
      * @throws ValidacaoException se os dados forem inválidos.
      * @throws EmpregadoNaoExisteException se o empregado não for encontrado.
      */
-    public void alteraEmpregado(String id, String atributo, String valor) throws ValidacaoException, EmpregadoNaoExisteException {
+    public void alteraEmpregado(String id, String atributo, String valor, Runnable aoConfirmar) throws ValidacaoException, EmpregadoNaoExisteException {
         getEmpregadoValido(id);
-        Map.Entry<Map<String, Empregado>, Integer> estadoAnterior = repository.getState();
-        Runnable undoAction = () -> repository.setState(estadoAnterior);
         Runnable commandAction = () -> {
             try {
                 Empregado empregado = repository.findById(id);
                 switch (atributo.toLowerCase()) {
                     case "nome":
                         if (valor == null || valor.isEmpty()) throw new NomeNuloException();
-                        empregado.setNome(valor);
+                        repository.aplicar(Alteracoes.atributo(id, Empregado::getNome, Empregado::setNome, valor));
                         break;
                     case "endereco":
                         if (valor == null || valor.isEmpty()) throw new EnderecoNuloException();
-                        empregado.setEndereco(valor);
+                        repository.aplicar(Alteracoes.atributo(id, Empregado::getEndereco, Empregado::setEndereco, valor));
                         break;
                     case "salario":
                         validarSalario(valor);
-                        empregado.setSalario(valor);
+                        repository.aplicar(Alteracoes.atributo(id, Empregado::getValorSalario, Empregado::setValorSalario, Dinheiro.de(valor)));
                         break;
                     case "tipo":
                         alterarTipo(id, valor, null, null);
@@ -174,24 +179,24 @@ public class EmpregadoService extends BaseService {
                     case "comissao":
                         if (!(empregado instanceof EmpregadoComissionado)) throw new EmpregadoNaoComissionadoException();
                         validarComissao(valor);
-                        ((EmpregadoComissionado) empregado).setComissao(valor);
+                        repository.aplicar(Alteracoes.atributo(id, EmpregadoComissionado::getValorComissao, EmpregadoComissionado::setValorComissao, Percentual.de(valor)));
                         break;
                     case "metodopagamento":
-                        if ("emmaos".equalsIgnoreCase(valor)) empregado.setMetodoPagamento(new EmMaos());
-                        else if ("correios".equalsIgnoreCase(valor)) empregado.setMetodoPagamento(new Correios());
+                        if ("emmaos".equalsIgnoreCase(valor)) alterarMetodoPagamento(id, EmMaos.INSTANCIA);
+                        else if ("correios".equalsIgnoreCase(valor)) alterarMetodoPagamento(id, Correios.INSTANCIA);
                         else if ("banco".equalsIgnoreCase(valor)) throw new DadosBancariosDevemSerFornecidosException();
                         else throw new MetodoPagamentoInvalidoException();
                         break;
                     case "sindicalizado":
-                        if ("false".equalsIgnoreCase(valor)) empregado.setMembroSindicato(null);
+                        if ("false".equalsIgnoreCase(valor)) alterarMembroSindicato(id, null);
                         else if ("true".equalsIgnoreCase(valor)) throw new IdSindicatoNuloException();
                         else throw new ValorTrueOrFalseException();
                         break;
                     case "agendapagamento":
-                        if (!agendasDisponiveis.contains(valor)) {
+                        if (!agendas.contem(valor)) {
                             throw new AgendaNaoDisponivelException();
                         }
-                        empregado.setAgendaPagamento(new AgendaPagamento(valor));
+                        repository.aplicar(Alteracoes.atributo(id, Empregado::getAgendaPagamento, Empregado::setAgendaPagamento, new AgendaPagamento(valor)));
                         break;
                     default:
                         throw new AtributoNaoExisteException();
@@ -200,7 +205,7 @@ public class EmpregadoService extends BaseService {
                 throw new RuntimeException(e);
             }
         };
-        commandHistoryService.execute(commandAction, undoAction);
+        commandHistoryService.execute(commandAction, aoConfirmar);
     }
 
     /**
@@ -211,21 +216,20 @@ public class EmpregadoService extends BaseService {
      * @param banco O nome do banco.
      * @param agencia O número da agência.
      * @param contaCorrente O número da conta corrente.
+     * @param aoConfirmar Ação executada junto com a entrada do comando no histórico (por exemplo, o
+     *                    registro no journal), ou null.
      * @throws ValidacaoException se os dados forem inválidos.
      * @throws EmpregadoNaoExisteException se o empregado não for encontrado.
      */
-    public void alteraEmpregado(String id, String atributo, String valor, String banco, String agencia, String contaCorrente) throws ValidacaoException, EmpregadoNaoExisteException {
+    public void alteraEmpregado(String id, String atributo, String valor, String banco, String agencia, String contaCorrente, Runnable aoConfirmar) throws ValidacaoException, EmpregadoNaoExisteException {
         getEmpregadoValido(id);
-        Map.Entry<Map<String, Empregado>, Integer> estadoAnterior = repository.getState();
-        Runnable undoAction = () -> repository.setState(estadoAnterior);
         Runnable commandAction = () -> {
             try {
-                Empregado empregado = repository.findById(id);
                 if ("metodopagamento".equalsIgnoreCase(atributo) && "banco".equalsIgnoreCase(valor)) {
                     if (banco == null || banco.isEmpty()) throw new BancoNuloException();
                     if (agencia == null || agencia.isEmpty()) throw new AgenciaNulaException();
                     if (contaCorrente == null || contaCorrente.isEmpty()) throw new ContaCorrenteNulaException();
-                    empregado.setMetodoPagamento(new Banco(banco, agencia, contaCorrente));
+                    alterarMetodoPagamento(id, new Banco(banco, agencia, contaCorrente));
                 } else {
                     throw new AtributoNaoExisteException();
                 }
@@ -233,7 +237,7 @@ public class EmpregadoService extends BaseService {
                 throw new RuntimeException(e);
             }
         };
-        commandHistoryService.execute(commandAction, undoAction);
+        commandHistoryService.execute(commandAction, aoConfirmar);
     }
 
     /**
@@ -243,41 +247,36 @@ public class EmpregadoService extends BaseService {
      * @param status O novo status de sindicalização.
      * @param idSindicato O ID do sindicato.
      * @param taxaSindical A taxa sindical.
+     * @param aoConfirmar Ação executada junto com a entrada do comando no histórico (por exemplo, o
+     *                    registro no journal), ou null.
      * @throws ValidacaoException se os dados forem inválidos.
      * @throws EmpregadoNaoExisteException se o empregado não for encontrado.
      */
-    public void alteraEmpregado(String id, String atributo, boolean status, String idSindicato, String taxaSindical) throws ValidacaoException, EmpregadoNaoExisteException {
+    public void alteraEmpregado(String id, String atributo, boolean status, String idSindicato, String taxaSindical, Runnable aoConfirmar) throws ValidacaoException, EmpregadoNaoExisteException {
         getEmpregadoValido(id);
-        Map.Entry<Map<String, Empregado>, Integer> estadoAnterior = repository.getState();
-        Runnable undoAction = () -> repository.setState(estadoAnterior);
         Runnable commandAction = () -> {
             try {
-                Empregado empregado = repository.findById(id);
                 if (!"sindicalizado".equalsIgnoreCase(atributo)) throw new AtributoNaoExisteException();
                 if (status) {
                     if (idSindicato == null || idSindicato.isEmpty()) throw new IdSindicatoNuloException();
                     if (taxaSindical == null || taxaSindical.isEmpty()) throw new TaxaSindicalNulaException();
-                    for (Empregado e : repository.findAll()) {
-                        if (e.getId().equals(id)) continue;
-                        if (e.isSindicalizado() && e.getMembroSindicato().getIdMembro().equals(idSindicato)) {
-                            throw new SindicatoIdJaExisteException();
-                        }
-                    }
+                    Empregado dono = repository.findByIdMembro(idSindicato);
+                    if (dono != null && !dono.getId().equals(id)) throw new SindicatoIdJaExisteException();
                     try {
                         double taxa = Double.parseDouble(taxaSindical.replace(',', '.'));
                         if (taxa < 0) throw new TaxaSindicalNaoNegativaException();
-                        empregado.setMembroSindicato(new MembroSindicato(idSindicato, taxa));
+                        alterarMembroSindicato(id, new MembroSindicato(idSindicato, Dinheiro.de(taxaSindical)));
                     } catch (NumberFormatException e) {
                         throw new TaxaSindicalNumericaException();
                     }
                 } else {
-                    empregado.setMembroSindicato(null);
+                    alterarMembroSindicato(id, null);
                 }
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
         };
-        commandHistoryService.execute(commandAction, undoAction);
+        commandHistoryService.execute(commandAction, aoConfirmar);
     }
 
     /**
@@ -286,13 +285,13 @@ public class EmpregadoService extends BaseService {
      * @param atributo O atributo (deve ser "tipo").
      * @param tipo O novo tipo do empregado.
      * @param comissaoOuSalario A nova comissão ou salário.
+     * @param aoConfirmar Ação executada junto com a entrada do comando no histórico (por exemplo, o
+     *                    registro no journal), ou null.
      * @throws ValidacaoException se os dados forem inválidos.
      * @throws EmpregadoNaoExisteException se o empregado não for encontrado.
      */
-    public void alteraEmpregado(String id, String atributo, String tipo, String comissaoOuSalario) throws ValidacaoException, EmpregadoNaoExisteException {
+    public void alteraEmpregado(String id, String atributo, String tipo, String comissaoOuSalario, Runnable aoConfirmar) throws ValidacaoException, EmpregadoNaoExisteException {
         getEmpregadoValido(id);
-        Map.Entry<Map<String, Empregado>, Integer> estadoAnterior = repository.getState();
-        Runnable undoAction = () -> repository.setState(estadoAnterior);
         Runnable commandAction = () -> {
             try {
                 if (!"tipo".equalsIgnoreCase(atributo)) throw new AtributoNaoExisteException();
@@ -305,7 +304,7 @@ public class EmpregadoService extends BaseService {
                 throw new RuntimeException(e);
             }
         };
-        commandHistoryService.execute(commandAction, undoAction);
+        commandHistoryService.execute(commandAction, aoConfirmar);
     }
 
     /**
@@ -352,7 +351,7 @@ public class EmpregadoService extends BaseService {
                     MembroSindicato membro = empregado.getMembroSindicato();
                     yield switch (atributo.toLowerCase()) {
                         case "idsindicato" -> membro.getIdMembro();
-                        case "taxasindical" -> String.format("%.2f", membro.getTaxaSindical()).replace('.', ',');
+                        case "taxasindical" -> membro.getValorTaxaSindical().toString();
                         default -> "";
                     };
                 }
@@ -364,23 +363,30 @@ public class EmpregadoService extends BaseService {
 
     /**
      * Busca um empregado pelo nome e índice.
+     * Empregados com o mesmo nome são numerados em ordem de criação.
      * @param nome O nome do empregado.
-     * @param indice O índice (para casos de nomes duplicados).
+     * @param indice O índice (para casos de nomes duplicados), a partir de 1.
      * @return O ID do empregado encontrado.
      * @throws EmpregadoNaoEncontradoException se o empregado não for encontrado.
      */
     public String getEmpregadoPorNome(String nome, int indice) throws EmpregadoNaoEncontradoException {
-        List<Empregado> empregadosEncontrados = new ArrayList<>();
-        for (Empregado e : repository.findAll()) {
-            if (e.getNome().equals(nome)) {
-                empregadosEncontrados.add(e);
-            }
-        }
+        List<String> ids = repository.findIdsByNome(nome);
         int index = indice - 1;
-        if (empregadosEncontrados.isEmpty() || index < 0 || index >= empregadosEncontrados.size()) {
+        if (index < 0 || index >= ids.size()) {
             throw new EmpregadoNaoEncontradoException();
         }
-        return empregadosEncontrados.get(index).getId();
+        return ids.get(index);
+    }
+
+    /**
+     * Lista os nomes de empregados que começam com um prefixo (autocompletar).
+     * @param prefixo O prefixo do nome.
+     * @param limite A quantidade máxima de nomes.
+     * @return Os nomes distintos encontrados, em ordem alfabética.
+     */
+    public List<String> getNomesPorPrefixo(String prefixo, int limite) {
+        if (prefixo == null || limite <= 0) return List.of();
+        return repository.findNomesByPrefixo(prefixo, limite);
     }
 
     /**
@@ -388,7 +394,7 @@ public class EmpregadoService extends BaseService {
      * @return O número de empregados.
      */
     public int getNumeroDeEmpregados() {
-        return repository.findAll().size();
+        return repository.size();
     }
 
     /**
@@ -427,43 +433,20 @@ public class EmpregadoService extends BaseService {
     }
 
     /**
-     * Valida os campos base de um empregado.
-     * @param n Nome.
-     * @param e Endereço.
-     * @param s Salário.
-     * @throws ValidacaoException se algum campo for inválido.
-     */
-    private void validarCamposBase(String n, String e, String s) throws ValidacaoException {
-        if (n == null || n.isEmpty()) throw new NomeNuloException();
-        if (e == null || e.isEmpty()) throw new EnderecoNuloException();
-        validarSalario(s);
-    }
-
-    /**
-     * Valida o salário.
-     * @param s Salário.
-     * @throws ValidacaoException se o salário for inválido.
+     * Altera o método de pagamento de um empregado.
+     * @param id O ID do empregado.
+     * @param metodo O novo método de pagamento.
      */
-    private void validarSalario(String s) throws ValidacaoException {
-        if (s == null || s.isEmpty()) throw new SalarioNuloException();
-        try {
-            if (Double.parseDouble(s.replace(',', '.')) < 0) throw new SalarioNaoNegativoException();
-        } catch (NumberFormatException ex) {
-            throw new SalarioNumericoException();
-        }
+    private void alterarMetodoPagamento(String id, MetodoPagamento metodo) {
+        repository.aplicar(Alteracoes.atributo(id, Empregado::getMetodoPagamento, Empregado::setMetodoPagamento, metodo));
     }
 
     /**
-     * Valida a comissão.
-     * @param comissao A comissão.
-     * @throws ValidacaoException se a comissão for inválida.
+     * Altera os dados de sindicalização de um empregado.
+     * @param id O ID do empregado.
+     * @param membro Os novos dados de sindicalização, ou null para desfiliá-lo.
      */
-    private void validarComissao(String comissao) throws ValidacaoException {
-        if (comissao == null || comissao.isEmpty()) throw new ComissaoNulaException();
-        try {
-            if (Double.parseDouble(comissao.replace(',', '.')) < 0) throw new ComissaoNaoNegativaException();
-        } catch (NumberFormatException ex) {
-            throw new ComissaoNumericaException();
-        }
+    private void alterarMembroSindicato(String id, MembroSindicato membro) {
+        repository.aplicar(Alteracoes.atributo(id, Empregado::getMembroSindicato, Empregado::setMembroSindicato, membro));
     }
 }
\ No newline at end of file
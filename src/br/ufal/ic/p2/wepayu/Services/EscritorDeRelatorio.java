@@ -0,0 +1,270 @@
+package br.ufal.ic.p2.wepayu.Services;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Escritor de relatórios em colunas de largura fixa, usado pela folha de pagamento.
+ * <p>
+ * O texto é montado em um {@link CharBuffer} reaproveitado, codificado no charset padrão (como o
+ * {@code FileWriter}) e gravado em blocos grandes por um {@link FileChannel}. Os números são
+ * formatados à mão, sem {@code String.format}, mas com o mesmo resultado de {@code %N.2f} e
+ * {@code %N.0f}: arredondamento meio para cima sobre a representação decimal do número e os
+ * símbolos decimais do locale padrão de formatação.
+ */
+final class EscritorDeRelatorio implements AutoCloseable {
+
+    private static final int CAPACIDADE_CARACTERES = 1 << 15;
+    private static final int CAPACIDADE_BYTES = 1 << 18;
+    private static final String QUEBRA_DE_LINHA = System.lineSeparator();
+
+    private final FileChannel canal;
+    private final CharsetEncoder codificador;
+    private final CharBuffer caracteres;
+    private final ByteBuffer bytes;
+    private final char separadorDecimal;
+    private final char zero;
+    private final char[] numero = new char[32];
+
+    /**
+     * Abre (criando ou truncando) o arquivo do relatório.
+     * @param arquivo O caminho do arquivo.
+     * @throws IOException se o arquivo não puder ser aberto.
+     */
+    EscritorDeRelatorio(String arquivo) throws IOException {
+        this(arquivo, Charset.defaultCharset(), Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    /**
+     * Abre (criando ou truncando) o arquivo com um charset e um locale fixos, para saídas que
+     * não devem variar com o ambiente (com {@link Locale#ROOT}, o separador decimal é o ponto).
+     * @param arquivo O caminho do arquivo.
+     * @param charset O charset do arquivo.
+     * @param locale O locale dos símbolos numéricos.
+     * @throws IOException se o arquivo não puder ser aberto.
+     */
+    EscritorDeRelatorio(String arquivo, Charset charset, Locale locale) throws IOException {
+        this(arquivo, charset, locale, 0);
+    }
+
+    /**
+     * Abre o arquivo com um charset e um locale fixos para continuar uma escrita interrompida:
+     * o arquivo é truncado na posição informada e a escrita prossegue a partir dela.
+     * @param arquivo O caminho do arquivo.
+     * @param charset O charset do arquivo.
+     * @param locale O locale dos símbolos numéricos.
+     * @param posicao O tamanho já confirmado do arquivo (0 para começar do início).
+     * @throws IOException se o arquivo não puder ser aberto.
+     */
+    EscritorDeRelatorio(String arquivo, Charset charset, Locale locale, long posicao) throws IOException {
+        this.canal = FileChannel.open(Path.of(arquivo), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        canal.truncate(posicao);
+        canal.position(posicao);
+        this.codificador = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.caracteres = CharBuffer.allocate(CAPACIDADE_CARACTERES);
+        this.bytes = ByteBuffer.allocateDirect(CAPACIDADE_BYTES);
+        DecimalFormatSymbols simbolos = DecimalFormatSymbols.getInstance(locale);
+        this.separadorDecimal = simbolos.getDecimalSeparator();
+        this.zero = simbolos.getZeroDigit();
+    }
+
+    /**
+     * Escreve um texto.
+     * @param texto O texto.
+     * @return Este escritor.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    EscritorDeRelatorio texto(String texto) throws IOException {
+        int posicao = 0;
+        int tamanho = texto.length();
+        while (posicao < tamanho) {
+            if (!caracteres.hasRemaining()) descarregar();
+            int fim = Math.min(tamanho, posicao + caracteres.remaining());
+            caracteres.append(texto, posicao, fim);
+            posicao = fim;
+        }
+        return this;
+    }
+
+    /**
+     * Escreve um texto seguido da quebra de linha do sistema (como {@code println}).
+     * @param texto O texto.
+     * @return Este escritor.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    EscritorDeRelatorio linha(String texto) throws IOException {
+        return texto(texto).texto(QUEBRA_DE_LINHA);
+    }
+
+    /**
+     * Escreve um caractere.
+     * @param c O caractere.
+     * @return Este escritor.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    EscritorDeRelatorio caractere(char c) throws IOException {
+        if (!caracteres.hasRemaining()) descarregar();
+        caracteres.put(c);
+        return this;
+    }
+
+    /**
+     * Escreve um texto alinhado à esquerda em uma coluna ({@code %-Ns}).
+     * @param texto O texto.
+     * @param largura A largura mínima da coluna.
+     * @return Este escritor.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    EscritorDeRelatorio esquerda(String texto, int largura) throws IOException {
+        texto(texto);
+        return espacos(largura - texto.length());
+    }
+
+    /**
+     * Escreve um texto alinhado à direita em uma coluna ({@code %Ns}).
+     * @param texto O texto.
+     * @param largura A largura mínima da coluna.
+     * @return Este escritor.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    EscritorDeRelatorio direita(String texto, int largura) throws IOException {
+        espacos(largura - texto.length());
+        return texto(texto);
+    }
+
+    /**
+     * Escreve um valor em centavos com duas casas decimais, alinhado à direita ({@code %N.2f}).
+     * @param centavos O valor em centavos.
+     * @param largura A largura mínima da coluna.
+     * @return Este escritor.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    EscritorDeRelatorio dinheiro(long centavos, int largura) throws IOException {
+        long absoluto = Math.abs(centavos);
+        int inicio = numero.length;
+        numero[--inicio] = digito(absoluto % 10);
+        numero[--inicio] = digito(absoluto / 10 % 10);
+        numero[--inicio] = separadorDecimal;
+        long inteiro = absoluto / 100;
+        do {
+            numero[--inicio] = digito(inteiro % 10);
+            inteiro /= 10;
+        } while (inteiro > 0);
+        if (centavos < 0) numero[--inicio] = '-';
+        return numero(inicio, largura);
+    }
+
+    /**
+     * Escreve um número arredondado para inteiro, alinhado à direita ({@code %N.0f}).
+     * @param valor O número.
+     * @param largura A largura mínima da coluna.
+     * @return Este escritor.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    EscritorDeRelatorio inteiro(double valor, int largura) throws IOException {
+        BigDecimal arredondado = BigDecimal.valueOf(valor).setScale(0, RoundingMode.HALF_UP);
+        String digitos = arredondado.abs().toPlainString();
+        int inicio = numero.length - digitos.length();
+        for (int i = 0; i < digitos.length(); i++) numero[inicio + i] = (char) (zero + (digitos.charAt(i) - '0'));
+        if (Math.copySign(1.0, valor) < 0) numero[--inicio] = '-';
+        return numero(inicio, largura);
+    }
+
+    /**
+     * Escreve o número montado no fim do buffer de dígitos, alinhado à direita.
+     * @param inicio A posição do primeiro caractere do número.
+     * @param largura A largura mínima da coluna.
+     * @return Este escritor.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    private EscritorDeRelatorio numero(int inicio, int largura) throws IOException {
+        int tamanho = numero.length - inicio;
+        espacos(largura - tamanho);
+        if (caracteres.remaining() < tamanho) descarregar();
+        caracteres.put(numero, inicio, tamanho);
+        return this;
+    }
+
+    /**
+     * Converte um algarismo para o dígito do locale.
+     * @param algarismo O algarismo, de 0 a 9.
+     * @return O dígito.
+     */
+    private char digito(long algarismo) {
+        return (char) (zero + algarismo);
+    }
+
+    /**
+     * Escreve espaços de preenchimento.
+     * @param quantidade A quantidade de espaços (nada é escrito se não for positiva).
+     * @return Este escritor.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    private EscritorDeRelatorio espacos(int quantidade) throws IOException {
+        for (int i = 0; i < quantidade; i++) caractere(' ');
+        return this;
+    }
+
+    /**
+     * Codifica os caracteres acumulados e grava os bytes prontos no canal.
+     * Um par substituto incompleto no fim do buffer fica para a próxima vez.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    private void descarregar() throws IOException {
+        caracteres.flip();
+        while (codificador.encode(caracteres, bytes, false) == CoderResult.OVERFLOW) gravarBytes();
+        caracteres.compact();
+    }
+
+    /**
+     * Grava no canal os bytes já codificados.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    private void gravarBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) canal.write(bytes);
+        bytes.clear();
+    }
+
+    /**
+     * Grava no disco tudo o que foi escrito até aqui (com {@code force}), para um ponto de controle.
+     * @return O tamanho do arquivo gravado.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    long sincronizar() throws IOException {
+        descarregar();
+        gravarBytes();
+        canal.force(false);
+        return canal.position();
+    }
+
+    /**
+     * Grava o que resta no buffer e fecha o arquivo.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            caracteres.flip();
+            while (codificador.encode(caracteres, bytes, true) == CoderResult.OVERFLOW) gravarBytes();
+            while (codificador.flush(bytes) == CoderResult.OVERFLOW) gravarBytes();
+            gravarBytes();
+        } finally {
+            canal.close();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package br.ufal.ic.p2.wepayu.Services;
+
+import br.ufal.ic.p2.wepayu.models.Contracheque;
+import br.ufal.ic.p2.wepayu.models.EmpregadoComissionado;
+import br.ufal.ic.p2.wepayu.models.EmpregadoHorista;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Exportação da folha em um arquivo binário colunar compacto.
+ * <p>
+ * Os contracheques são acumulados em grupos de até {@value #TAMANHO_GRUPO} linhas, guardados
+ * em arrays de tamanho fixo, e cada grupo é gravado coluna a coluna, o que permite ler só as
+ * colunas necessárias e mantém a memória constante. Formato (versão 1), big-endian:
+ * <pre>
+ * cabeçalho : marca "WPF1" (int), versão (int), dia epoch da folha (long)
+ * grupo     : quantidade de linhas n (int, maior que zero), seguida das colunas, cada uma com n valores:
+ *             id (UTF), nome (UTF), tipo (byte: 0 horista, 1 assalariado, 2 comissionado),
+ *             salário bruto, descontos, salário líquido (long, centavos),
+ *             horas normais, horas extras (double),
+ *             salário fixo, vendas, comissão (long, centavos), método (UTF)
+ * rodapé    : 0 (int), total de linhas (long), CRC32 de tudo o que veio antes (int)
+ * </pre>
+ * Um ponto de controle fecha o grupo em andamento, de modo que a exportação pode ser retomada
+ * em uma fronteira de grupo; o CRC32 é então recalculado a partir do trecho já gravado.
+ */
+final class ExportadorBinario implements ExportadorDeFolha {
+
+    private static final int MARCA = 0x57504631; // "WPF1"
+    private static final int VERSAO = 1;
+    private static final int TAMANHO_GRUPO = 4096;
+
+    private static final byte HORISTA = 0;
+    private static final byte ASSALARIADO = 1;
+    private static final byte COMISSIONADO = 2;
+
+    private final FileChannel canal;
+    private final CheckedOutputStream verificado;
+    private final DataOutputStream out;
+
+    private final String[] ids = new String[TAMANHO_GRUPO];
+    private final String[] nomes = new String[TAMANHO_GRUPO];
+    private final byte[] tipos = new byte[TAMANHO_GRUPO];
+    private final long[] brutos = new long[TAMANHO_GRUPO];
+    private final long[] descontos = new long[TAMANHO_GRUPO];
+    private final long[] liquidos = new long[TAMANHO_GRUPO];
+    private final double[] horasNormais = new double[TAMANHO_GRUPO];
+    private final double[] horasExtras = new double[TAMANHO_GRUPO];
+    private final long[] fixos = new long[TAMANHO_GRUPO];
+    private final long[] vendas = new long[TAMANHO_GRUPO];
+    private final long[] comissoes = new long[TAMANHO_GRUPO];
+    private final String[] metodos = new String[TAMANHO_GRUPO];
+    private int linhas;
+    private long total;
+
+    /**
+     * Abre o arquivo e grava o cabeçalho, ou continua a partir de um ponto de controle.
+     * @param arquivo O caminho do arquivo.
+     * @param dataFolha A data da folha.
+     * @param posicao O tamanho do arquivo no ponto de controle (0 para um arquivo novo).
+     * @param linhas A quantidade de linhas já gravadas até o ponto de controle.
+     * @throws IOException se o arquivo não puder ser aberto.
+     */
+    ExportadorBinario(String arquivo, LocalDate dataFolha, long posicao, long linhas) throws IOException {
+        this.canal = FileChannel.open(Path.of(arquivo), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        canal.truncate(posicao);
+        CRC32 crc = new CRC32();
+        ByteBuffer trecho = ByteBuffer.allocate(1 << 16);
+        canal.position(0);
+        while (canal.position() < posicao && canal.read(trecho) > 0) {
+            trecho.flip();
+            crc.update(trecho);
+            trecho.clear();
+        }
+        canal.position(posicao);
+        this.verificado = new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(canal), 1 << 16), crc);
+        this.out = new DataOutputStream(verificado);
+        this.total = linhas;
+        if (posicao == 0) {
+            out.writeInt(MARCA);
+            out.writeInt(VERSAO);
+            out.writeLong(dataFolha.toEpochDay());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void escrever(Contracheque contracheque, String metodo) throws IOException {
+        int i = linhas;
+        ids[i] = contracheque.getEmpregado().getId();
+        nomes[i] = contracheque.getEmpregado().getNome();
+        tipos[i] = contracheque.getEmpregado() instanceof EmpregadoHorista ? HORISTA
+                : contracheque.getEmpregado() instanceof EmpregadoComissionado ? COMISSIONADO : ASSALARIADO;
+        brutos[i] = contracheque.getSalarioBruto();
+        descontos[i] = contracheque.getDescontos();
+        liquidos[i] = contracheque.getSalarioLiquido();
+        horasNormais[i] = ExportadorDeFolha.horasExibidas(contracheque.getHorasNormais());
+        horasExtras[i] = ExportadorDeFolha.horasExibidas(contracheque.getHorasExtras());
+        fixos[i] = contracheque.getSalarioFixo();
+        vendas[i] = contracheque.getVendas();
+        comissoes[i] = contracheque.getComissao();
+        metodos[i] = metodo;
+        if (++linhas == TAMANHO_GRUPO) gravarGrupo();
+    }
+
+    /**
+     * Grava o grupo acumulado, coluna a coluna, e libera os arrays para o próximo grupo.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    private void gravarGrupo() throws IOException {
+        int n = linhas;
+        out.writeInt(n);
+        for (int i = 0; i < n; i++) out.writeUTF(ids[i]);
+        for (int i = 0; i < n; i++) out.writeUTF(nomes[i]);
+        out.write(tipos, 0, n);
+        for (int i = 0; i < n; i++) out.writeLong(brutos[i]);
+        for (int i = 0; i < n; i++) out.writeLong(descontos[i]);
+        for (int i = 0; i < n; i++) out.writeLong(liquidos[i]);
+        for (int i = 0; i < n; i++) out.writeDouble(horasNormais[i]);
+        for (int i = 0; i < n; i++) out.writeDouble(horasExtras[i]);
+        for (int i = 0; i < n; i++) out.writeLong(fixos[i]);
+        for (int i = 0; i < n; i++) out.writeLong(vendas[i]);
+        for (int i = 0; i < n; i++) out.writeLong(comissoes[i]);
+        for (int i = 0; i < n; i++) out.writeUTF(metodos[i]);
+        total += n;
+        linhas = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * O grupo em andamento é gravado mesmo incompleto.
+     */
+    @Override
+    public long sincronizar() throws IOException {
+        if (linhas > 0) gravarGrupo();
+        out.flush();
+        canal.force(false);
+        return canal.position();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Grava o último grupo (se incompleto) e o rodapé.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (linhas > 0) gravarGrupo();
+            out.writeInt(0);
+            out.writeLong(total);
+            out.writeInt((int) verificado.getChecksum().getValue());
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package br.ufal.ic.p2.wepayu.Services;
+
+import br.ufal.ic.p2.wepayu.models.Contracheque;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Exportação da folha em CSV (RFC 4180), em UTF-8, com uma linha de cabeçalho.
+ * <p>
+ * Os valores monetários são escritos em reais com ponto decimal ("1234.56") e os textos que
+ * contêm vírgula, aspas ou quebra de linha são delimitados por aspas.
+ */
+final class ExportadorCsv implements ExportadorDeFolha {
+
+    private static final String CABECALHO = "id,nome,tipo,salario_bruto,descontos,salario_liquido,"
+            + "horas_normais,horas_extras,salario_fixo,vendas,comissao,metodo";
+
+    private final EscritorDeRelatorio escritor;
+
+    /**
+     * Abre o arquivo e escreve o cabeçalho, ou continua a partir de um ponto de controle.
+     * @param arquivo O caminho do arquivo.
+     * @param posicao O tamanho do arquivo no ponto de controle (0 para um arquivo novo).
+     * @throws IOException se o arquivo não puder ser aberto.
+     */
+    ExportadorCsv(String arquivo, long posicao) throws IOException {
+        this.escritor = new EscritorDeRelatorio(arquivo, StandardCharsets.UTF_8, Locale.ROOT, posicao);
+        if (posicao == 0) escritor.texto(CABECALHO).texto("\r\n");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void escrever(Contracheque contracheque, String metodo) throws IOException {
+        campo(contracheque.getEmpregado().getId()).caractere(',');
+        campo(contracheque.getEmpregado().getNome()).caractere(',');
+        escritor.texto(ExportadorDeFolha.tipo(contracheque)).caractere(',')
+                .dinheiro(contracheque.getSalarioBruto(), 0).caractere(',')
+                .dinheiro(contracheque.getDescontos(), 0).caractere(',')
+                .dinheiro(contracheque.getSalarioLiquido(), 0).caractere(',')
+                .texto(ExportadorDeFolha.horas(contracheque.getHorasNormais())).caractere(',')
+                .texto(ExportadorDeFolha.horas(contracheque.getHorasExtras())).caractere(',')
+                .dinheiro(contracheque.getSalarioFixo(), 0).caractere(',')
+                .dinheiro(contracheque.getVendas(), 0).caractere(',')
+                .dinheiro(contracheque.getComissao(), 0).caractere(',');
+        campo(metodo).texto("\r\n");
+    }
+
+    /**
+     * Escreve um campo de texto, entre aspas se necessário.
+     * @param valor O valor do campo.
+     * @return O escritor.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    private EscritorDeRelatorio campo(String valor) throws IOException {
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return escritor.texto(valor);
+        }
+        escritor.caractere('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') escritor.caractere('"');
+            escritor.caractere(c);
+        }
+        return escritor.caractere('"');
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long sincronizar() throws IOException {
+        return escritor.sincronizar();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        escritor.close();
+    }
+}
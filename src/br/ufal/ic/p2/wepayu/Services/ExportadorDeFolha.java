@@ -0,0 +1,69 @@
+package br.ufal.ic.p2.wepayu.Services;
+
+import br.ufal.ic.p2.wepayu.models.Contracheque;
+import br.ufal.ic.p2.wepayu.models.EmpregadoComissionado;
+import br.ufal.ic.p2.wepayu.models.EmpregadoHorista;
+
+import java.io.IOException;
+
+/**
+ * Exportação incremental dos contracheques de uma folha.
+ * <p>
+ * Cada contracheque é gravado assim que calculado e não é retido depois disso, de modo que a
+ * memória usada não depende da quantidade de empregados. Os valores monetários são exatos, a
+ * partir dos centavos, e os textos não dependem do locale.
+ */
+interface ExportadorDeFolha extends AutoCloseable {
+
+    /**
+     * Grava o contracheque de um empregado.
+     * @param contracheque O contracheque.
+     * @param metodo O método de pagamento, já formatado.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    void escrever(Contracheque contracheque, String metodo) throws IOException;
+
+    /**
+     * Grava no disco tudo o que foi exportado até aqui, para um ponto de controle da folha.
+     * Uma exportação reaberta nessa posição continua exatamente de onde parou.
+     * @return O tamanho do arquivo gravado.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    long sincronizar() throws IOException;
+
+    /**
+     * Conclui a exportação e fecha o arquivo.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    @Override
+    void close() throws IOException;
+
+    /**
+     * Retorna o tipo do empregado de um contracheque, como gravado nas exportações.
+     * @param contracheque O contracheque.
+     * @return "horista", "comissionado" ou "assalariado".
+     */
+    static String tipo(Contracheque contracheque) {
+        if (contracheque.getEmpregado() instanceof EmpregadoHorista) return "horista";
+        if (contracheque.getEmpregado() instanceof EmpregadoComissionado) return "comissionado";
+        return "assalariado";
+    }
+
+    /**
+     * Formata horas como na folha ("8" ou "8.5"), mas com o ponto decimal.
+     * @param horas As horas.
+     * @return As horas formatadas.
+     */
+    static String horas(double horas) {
+        return ConsultaService.formatarHoras(horas).replace(',', '.');
+    }
+
+    /**
+     * Arredonda horas para a casa decimal exibida na folha.
+     * @param horas As horas.
+     * @return As horas arredondadas para décimos.
+     */
+    static double horasExibidas(double horas) {
+        return horas == (long) horas ? horas : EmpregadoHorista.decimosDeHora(horas) / 10.0;
+    }
+}
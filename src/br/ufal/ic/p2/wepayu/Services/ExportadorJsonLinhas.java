@@ -0,0 +1,92 @@
+package br.ufal.ic.p2.wepayu.Services;
+
+import br.ufal.ic.p2.wepayu.models.Contracheque;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Exportação da folha em JSON Lines, em UTF-8: um objeto JSON por contracheque, um por linha.
+ * <p>
+ * Os valores monetários são números com duas casas decimais, escritos a partir dos centavos
+ * (sem passar por {@code double}), e cada objeto traz a data da folha em ISO-8601.
+ */
+final class ExportadorJsonLinhas implements ExportadorDeFolha {
+
+    private static final char[] HEXADECIMAL = "0123456789abcdef".toCharArray();
+
+    private final EscritorDeRelatorio escritor;
+    private final String data;
+
+    /**
+     * Abre o arquivo, começando do início ou continuando a partir de um ponto de controle.
+     * @param arquivo O caminho do arquivo.
+     * @param dataFolha A data da folha.
+     * @param posicao O tamanho do arquivo no ponto de controle (0 para um arquivo novo).
+     * @throws IOException se o arquivo não puder ser aberto.
+     */
+    ExportadorJsonLinhas(String arquivo, LocalDate dataFolha, long posicao) throws IOException {
+        this.escritor = new EscritorDeRelatorio(arquivo, StandardCharsets.UTF_8, Locale.ROOT, posicao);
+        this.data = dataFolha.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void escrever(Contracheque contracheque, String metodo) throws IOException {
+        escritor.texto("{\"data\":\"").texto(data).texto("\",\"id\":");
+        string(contracheque.getEmpregado().getId()).texto(",\"nome\":");
+        string(contracheque.getEmpregado().getNome()).texto(",\"tipo\":\"")
+                .texto(ExportadorDeFolha.tipo(contracheque))
+                .texto("\",\"salarioBruto\":").dinheiro(contracheque.getSalarioBruto(), 0)
+                .texto(",\"descontos\":").dinheiro(contracheque.getDescontos(), 0)
+                .texto(",\"salarioLiquido\":").dinheiro(contracheque.getSalarioLiquido(), 0)
+                .texto(",\"horasNormais\":").texto(ExportadorDeFolha.horas(contracheque.getHorasNormais()))
+                .texto(",\"horasExtras\":").texto(ExportadorDeFolha.horas(contracheque.getHorasExtras()))
+                .texto(",\"salarioFixo\":").dinheiro(contracheque.getSalarioFixo(), 0)
+                .texto(",\"vendas\":").dinheiro(contracheque.getVendas(), 0)
+                .texto(",\"comissao\":").dinheiro(contracheque.getComissao(), 0)
+                .texto(",\"metodo\":");
+        string(metodo).texto("}\n");
+    }
+
+    /**
+     * Escreve uma string JSON, escapando aspas, barras invertidas e caracteres de controle.
+     * @param valor O valor da string.
+     * @return O escritor.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    private EscritorDeRelatorio string(String valor) throws IOException {
+        escritor.caractere('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"' || c == '\\') {
+                escritor.caractere('\\').caractere(c);
+            } else if (c < 0x20) {
+                escritor.texto("\\u00").caractere(HEXADECIMAL[c >> 4]).caractere(HEXADECIMAL[c & 0xF]);
+            } else {
+                escritor.caractere(c);
+            }
+        }
+        return escritor.caractere('"');
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long sincronizar() throws IOException {
+        return escritor.sincronizar();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        escritor.close();
+    }
+}
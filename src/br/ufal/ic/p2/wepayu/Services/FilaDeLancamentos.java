@@ -0,0 +1,252 @@
+package br.ufal.ic.p2.wepayu.Services;
+
+import br.ufal.ic.p2.wepayu.Services.LancamentoService.TipoLancamento;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Fila de ingestão assíncrona de cartões de ponto e vendas, para rajadas de lançamentos (por
+ * exemplo, na troca de turno).
+ * <p>
+ * Várias threads produtoras enfileiram lançamentos em uma fila limitada de
+ * {@code wepayu.fila.capacidade} posições (o padrão é 8192); quando ela está cheia, o produtor
+ * espera (contrapressão). Uma única thread consumidora retira os lançamentos em lotes de até
+ * {@value #LOTE} e os agrupa por empregado, na ordem de chegada. Cada grupo é validado de uma vez e
+ * aplicado por {@link LancamentoService#lancarEmLote} como um único comando, com uma única entrada
+ * no histórico de undo, sob a trava do empregado no {@link ControleDeConcorrencia}. Um grupo tem
+ * no máximo {@value #GRUPO} lançamentos; um empregado com mais lançamentos no mesmo lote gera
+ * grupos consecutivos.
+ * <p>
+ * Cada lançamento devolve um {@link CompletableFuture}, concluído quando o seu grupo é confirmado
+ * ou, se o lançamento for inválido, concluído com a mesma exceção que a chamada síncrona lançaria.
+ * Os futuros de um lote só são concluídos depois da ação de durabilidade (o fsync do journal), que
+ * é executada uma vez por lote, sem nenhuma trava.
+ * Os lançamentos de um mesmo empregado são aplicados na ordem em que foram enfileirados.
+ */
+public final class FilaDeLancamentos implements AutoCloseable {
+
+    private static final int CAPACIDADE = Integer.getInteger("wepayu.fila.capacidade", 8192);
+    private static final int LOTE = 4096;
+    private static final int GRUPO = 64;
+
+    /**
+     * Um lançamento enfileirado e o futuro do seu resultado.
+     * @param tipo O tipo do lançamento.
+     * @param id O ID do empregado.
+     * @param data A data do lançamento.
+     * @param valor As horas ou o valor do lançamento.
+     * @param resultado O futuro concluído quando o lançamento for processado.
+     */
+    private record Pedido(TipoLancamento tipo, String id, String data, String valor, CompletableFuture<Void> resultado) {}
+
+    /**
+     * Marca o fim da fila, enfileirada pelo {@link #close()}.
+     */
+    private static final Pedido FIM = new Pedido(null, null, null, null, null);
+
+    private final LancamentoService lancamentoService;
+    private final ControleDeConcorrencia concorrencia;
+    private final Consumer<String[]> aoConfirmar;
+    private final Runnable aposConfirmar;
+    private final BlockingQueue<Pedido> fila = new ArrayBlockingQueue<>(CAPACIDADE);
+    private final Thread consumidor;
+    private volatile boolean fechada;
+
+    /**
+     * Cria a fila e inicia a thread consumidora.
+     * @param lancamentoService O serviço que aplica os grupos de lançamentos.
+     * @param concorrencia As travas dos empregados.
+     * @param aoConfirmar Ação executada a cada grupo aplicado, no mesmo bloco que coloca o grupo no
+     *                    histórico de undo; recebe o ID do empregado seguido de tipo, data e valor de
+     *                    cada lançamento aplicado.
+     * @param aposConfirmar Ação executada sem travas depois de aplicar os grupos de um lote e antes de
+     *                      concluir os seus futuros (a espera pelo fsync do journal).
+     */
+    public FilaDeLancamentos(LancamentoService lancamentoService, ControleDeConcorrencia concorrencia, Consumer<String[]> aoConfirmar,
+                             Runnable aposConfirmar) {
+        this.lancamentoService = lancamentoService;
+        this.concorrencia = concorrencia;
+        this.aoConfirmar = aoConfirmar;
+        this.aposConfirmar = aposConfirmar;
+        this.consumidor = new Thread(this::consumir, "wepayu-fila-lancamentos");
+        this.consumidor.setDaemon(true);
+        this.consumidor.start();
+    }
+
+    /**
+     * Enfileira um cartão de ponto, esperando se a fila estiver cheia.
+     * @param id O ID do empregado horista.
+     * @param data A data do registro de ponto.
+     * @param horas As horas trabalhadas no dia.
+     * @return O futuro do lançamento.
+     * @throws InterruptedException se a thread for interrompida enquanto espera espaço na fila.
+     */
+    public CompletableFuture<Void> lancaCartao(String id, String data, String horas) throws InterruptedException {
+        return enfileirar(TipoLancamento.CARTAO, id, data, horas);
+    }
+
+    /**
+     * Enfileira um resultado de venda, esperando se a fila estiver cheia.
+     * @param id O ID do empregado comissionado.
+     * @param data A data da venda.
+     * @param valor O valor da venda.
+     * @return O futuro do lançamento.
+     * @throws InterruptedException se a thread for interrompida enquanto espera espaço na fila.
+     */
+    public CompletableFuture<Void> lancaVenda(String id, String data, String valor) throws InterruptedException {
+        return enfileirar(TipoLancamento.VENDA, id, data, valor);
+    }
+
+    /**
+     * Enfileira um lançamento.
+     * @return O futuro do lançamento.
+     * @throws InterruptedException se a thread for interrompida enquanto espera espaço na fila.
+     */
+    private CompletableFuture<Void> enfileirar(TipoLancamento tipo, String id, String data, String valor) throws InterruptedException {
+        if (fechada) throw new IllegalStateException("Fila de lancamentos encerrada.");
+        Pedido pedido = new Pedido(tipo, id, data, valor, new CompletableFuture<>());
+        fila.put(pedido);
+        if (fechada && !consumidor.isAlive()) descartarPendentes();
+        return pedido.resultado();
+    }
+
+    /**
+     * Laço da thread consumidora: retira lotes, agrupa por empregado e aplica cada grupo.
+     */
+    private void consumir() {
+        List<Pedido> lote = new ArrayList<>(LOTE);
+        List<Runnable> conclusoes = new ArrayList<>();
+        boolean fim = false;
+        while (!fim) {
+            try {
+                lote.add(fila.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            fila.drainTo(lote, LOTE - 1);
+
+            Map<String, List<Pedido>> grupos = new LinkedHashMap<>();
+            for (Pedido pedido : lote) {
+                if (pedido == FIM) {
+                    fim = true;
+                    continue;
+                }
+                grupos.computeIfAbsent(pedido.id(), id -> new ArrayList<>()).add(pedido);
+            }
+            for (Map.Entry<String, List<Pedido>> grupo : grupos.entrySet()) {
+                List<Pedido> pedidos = grupo.getValue();
+                for (int inicio = 0; inicio < pedidos.size(); inicio += GRUPO) {
+                    conclusoes.add(aplicar(grupo.getKey(), pedidos.subList(inicio, Math.min(pedidos.size(), inicio + GRUPO))));
+                }
+            }
+            try {
+                aposConfirmar.run();
+                for (Runnable conclusao : conclusoes) conclusao.run();
+            } catch (RuntimeException | Error e) {
+                for (Pedido pedido : lote) {
+                    if (pedido != FIM) pedido.resultado().completeExceptionally(e);
+                }
+            }
+            conclusoes.clear();
+            lote.clear();
+        }
+    }
+
+    /**
+     * Aplica um grupo de lançamentos de um empregado.
+     * @param id O ID do empregado.
+     * @param pedidos Os lançamentos, na ordem de chegada.
+     * @return A ação que conclui os futuros do grupo, a executar depois da ação de durabilidade.
+     */
+    private Runnable aplicar(String id, List<Pedido> pedidos) {
+        int n = pedidos.size();
+        TipoLancamento[] tipos = new TipoLancamento[n];
+        String[] datas = new String[n];
+        String[] valores = new String[n];
+        for (int i = 0; i < n; i++) {
+            Pedido pedido = pedidos.get(i);
+            tipos[i] = pedido.tipo();
+            datas[i] = pedido.data();
+            valores[i] = pedido.valor();
+        }
+
+        Exception[] falhas;
+        try {
+            ControleDeConcorrencia.Trava trava = concorrencia.empregado(id);
+            try {
+                falhas = lancamentoService.lancarEmLote(id, tipos, datas, valores, falhasDoGrupo -> {
+                    List<String> aplicados = new ArrayList<>(1 + 3 * n);
+                    aplicados.add(id);
+                    for (int i = 0; i < n; i++) {
+                        if (falhasDoGrupo[i] != null) continue;
+                        aplicados.add(tipos[i].name());
+                        aplicados.add(datas[i]);
+                        aplicados.add(valores[i]);
+                    }
+                    aoConfirmar.accept(aplicados.toArray(new String[0]));
+                });
+            } finally {
+                trava.liberar();
+            }
+        } catch (Exception | Error e) {
+            for (Pedido pedido : pedidos) pedido.resultado().completeExceptionally(e);
+            return () -> { };
+        }
+        return () -> {
+            for (int i = 0; i < n; i++) {
+                if (falhas[i] == null) {
+                    pedidos.get(i).resultado().complete(null);
+                } else {
+                    pedidos.get(i).resultado().completeExceptionally(falhas[i]);
+                }
+            }
+        };
+    }
+
+    /**
+     * Deixa de aceitar lançamentos e espera a fila ser esvaziada: todos os lançamentos já
+     * enfileirados são aplicados antes do retorno.
+     */
+    @Override
+    public synchronized void close() {
+        if (fechada) return;
+        fechada = true;
+        boolean interrompida = false;
+        while (true) {
+            try {
+                fila.put(FIM);
+                break;
+            } catch (InterruptedException e) {
+                interrompida = true;
+            }
+        }
+        while (true) {
+            try {
+                consumidor.join();
+                break;
+            } catch (InterruptedException e) {
+                interrompida = true;
+            }
+        }
+        descartarPendentes();
+        if (interrompida) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Conclui com erro os lançamentos que entraram na fila depois do seu encerramento.
+     */
+    private void descartarPendentes() {
+        List<Pedido> pendentes = new ArrayList<>();
+        fila.drainTo(pendentes);
+        for (Pedido pedido : pendentes) {
+            if (pedido != FIM) pedido.resultado().completeExceptionally(new IllegalStateException("Fila de lancamentos encerrada."));
+        }
+    }
+}
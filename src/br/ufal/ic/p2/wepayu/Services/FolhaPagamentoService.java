@@ -2,25 +2,88 @@ package br.ufal.ic.p2.wepayu.Services;
 
 import br.ufal.ic.p2.wepayu.Exception.EmpregadoNaoExisteException;
 import br.ufal.ic.p2.wepayu.Exception.ValidacaoException;
+import br.ufal.ic.p2.wepayu.Repository.Alteracoes;
 import br.ufal.ic.p2.wepayu.Repository.EmpregadoRepository;
 import br.ufal.ic.p2.wepayu.models.*;
 
-import java.io.FileWriter;
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * Serviço responsável pela lógica de negócio da folha de pagamento.
  * Inclui o cálculo do total da folha e a geração de relatórios de pagamento.
+ * <p>
+ * O cálculo de cada empregado é independente dos demais, por isso é feito em paralelo em um
+ * {@link ForkJoinPool} (com {@code wepayu.folha.paralelismo} threads; o padrão é o número de
+ * processadores). Os resultados são reunidos na ordem original dos empregados e o relatório é
+ * escrito sequencialmente, de modo que a saída é idêntica à da execução sequencial.
+ * <p>
+ * O relatório é escrito pelo {@link EscritorDeRelatorio}, direto dos contracheques, com as colunas
+ * de largura fixa de cada seção e os cabeçalhos montados uma única vez. A folha também pode ser
+ * exportada em CSV, JSON Lines ou binário colunar (ver {@link FormatoFolha}), gravados por lotes,
+ * e acompanhada de uma remessa bancária por agência (ver {@link RemessaBancaria}).
+ * <p>
+ * O relatório em texto é gravado em um arquivo temporário e renomeado ao final, de modo que nunca
+ * fica pela metade; as exportações têm pontos de controle por lote e podem ser retomadas
+ * (ver {@link ManifestoFolha}). Em ambos os casos o estado dos empregados só é confirmado,
+ * como um único comando, depois que a saída está completa. A remessa é montada com os mesmos
+ * contracheques da saída e só recebe o nome final depois da confirmação.
+ * <p>
+ * A folha é calculada sobre um instantâneo do repositório ({@link EmpregadoRepository#instantaneo()}),
+ * capturado com a trava exclusiva do {@link ControleDeConcorrencia} e liberado em seguida: enquanto os
+ * contracheques e os arquivos são produzidos, cartões, vendas e taxas continuam sendo lançados nas
+ * versões novas dos empregados. No fim, os pagamentos são confirmados de uma vez, de novo com a trava
+ * exclusiva, sobre as versões atuais: a data do último pagamento avança e apenas as taxas de serviço
+ * vistas no instantâneo são quitadas. O resultado é o mesmo de rodar a folha no instante do
+ * instantâneo e aplicar depois os lançamentos feitos durante a execução.
  */
 public class FolhaPagamentoService extends BaseService {
+    private static final int PARALELISMO = Integer.getInteger("wepayu.folha.paralelismo", Runtime.getRuntime().availableProcessors());
+    private static final int MINIMO_PARALELO = 64;
+    private static final int LOTE_EXPORTACAO = 4096;
+
     private final ConsultaService consultaService;
     private final CommandHistoryService commandHistoryService;
+    private final ControleDeConcorrencia concorrencia;
+
+    /**
+     * Cálculo da folha de um empregado, executado na etapa paralela.
+     * @param <R> O tipo do resultado.
+     */
+    @FunctionalInterface
+    private interface CalculoEmpregado<R> {
+        /**
+         * Calcula o resultado de um empregado.
+         * @param empregado O empregado.
+         * @return O resultado, ou null se o empregado não for pago nesta folha.
+         * @throws Exception se ocorrer um erro durante o cálculo.
+         */
+        R calcular(Empregado empregado) throws Exception;
+    }
+
+    private static final String SEPARADOR = "===============================================================================================================================";
+    private static final String CABECALHO_HORISTAS = String.format("%-36s %5s %5s %13s %9s %15s %s\n", "Nome", "Horas", "Extra", "Salario Bruto", "Descontos", "Salario Liquido", "Metodo");
+    private static final String CABECALHO_ASSALARIADOS = String.format("%-48s %13s %9s %15s %s\n", "Nome", "Salario Bruto", "Descontos", "Salario Liquido", "Metodo");
+    private static final String CABECALHO_COMISSIONADOS = String.format("%-17s %8s %10s %10s %13s %9s %15s %s\n", "Nome", "Fixo", "Vendas", "Comissao", "Salario Bruto", "Descontos", "Salario Liquido", "Metodo");
+
+    /**
+     * Pool compartilhado da etapa paralela, criado apenas quando a primeira folha grande é calculada.
+     */
+    private static final class Pool {
+        static final ForkJoinPool INSTANCIA = new ForkJoinPool(Math.max(1, PARALELISMO));
+    }
 
     /**
      * Constrói uma instância de FolhaPagamentoService.
@@ -29,274 +92,548 @@ public class FolhaPagamentoService extends BaseService {
      * @param commandHistoryService O serviço de histórico de comandos.
      */
     public FolhaPagamentoService(EmpregadoRepository repository, ConsultaService consultaService, CommandHistoryService commandHistoryService) {
+        this(repository, consultaService, commandHistoryService, new ControleDeConcorrencia());
+    }
+
+    /**
+     * Constrói uma instância de FolhaPagamentoService que compartilha as travas de quem a usa.
+     * @param repository O repositório para acesso aos dados.
+     * @param consultaService O serviço de consulta.
+     * @param commandHistoryService O serviço de histórico de comandos.
+     * @param concorrencia As travas usadas para capturar o instantâneo e confirmar os pagamentos.
+     */
+    public FolhaPagamentoService(EmpregadoRepository repository, ConsultaService consultaService, CommandHistoryService commandHistoryService,
+                                 ControleDeConcorrencia concorrencia) {
         super(repository);
         this.consultaService = consultaService;
         this.commandHistoryService = commandHistoryService;
+        this.concorrencia = concorrencia;
     }
 
     /**
-     * CORREÇÃO: totalFolha agora é um comando que altera o estado, simulando um pagamento.
-     * Isso é necessário para passar no us9.txt e us10.txt.
+     * Calcula o total da folha sobre um instantâneo, sem alterar o estado dos empregados.
+     * A consulta não bloqueia os lançamentos feitos enquanto ela é calculada.
      * @param data A data para cálculo do total da folha.
      * @return O valor total da folha formatado como string.
      * @throws Exception se ocorrer um erro durante o cálculo.
      */
-    public String totalFolha(String data) throws Exception {
-        final double[] total = {0.0};
+    public String consultarTotalFolha(String data) throws Exception {
+        return new ConsultaService(instantaneo()).totalFolha(data);
+    }
+
+    /**
+     * Roda a folha de pagamento para uma data específica e gera um arquivo de saída.
+     * @param data A data para processamento da folha.
+     * @param saida O nome do arquivo de saída a ser gerado, ou {@code null} para apenas atualizar
+     *              o estado dos empregados (usado na reprodução do journal).
+     * @throws Exception se ocorrer um erro durante o processamento.
+     */
+    public void rodaFolha(String data, String saida) throws Exception {
+        rodaFolha(data, saida, FormatoFolha.TEXTO);
+    }
 
-        Map.Entry<Map<String, Empregado>, Integer> estadoAnterior = repository.getState();
-        Runnable undoAction = () -> repository.setState(estadoAnterior);
+    /**
+     * Roda a folha de pagamento para uma data específica e gera um arquivo de saída no formato
+     * escolhido. O estado dos empregados é atualizado da mesma forma em todos os formatos.
+     * @param data A data para processamento da folha.
+     * @param saida O nome do arquivo de saída a ser gerado, ou {@code null} para apenas atualizar
+     *              o estado dos empregados (usado na reprodução do journal).
+     * @param formato O formato do arquivo de saída.
+     * @throws Exception se ocorrer um erro durante o processamento.
+     */
+    public void rodaFolha(String data, String saida, FormatoFolha formato) throws Exception {
+        rodaFolha(data, saida, formato, null);
+    }
 
-        Runnable commandAction = () -> {
+    /**
+     * Roda a folha de pagamento para uma data específica, gerando o arquivo de saída no formato
+     * escolhido e, opcionalmente, o arquivo de remessa bancária dos empregados pagos em banco.
+     * @param data A data para processamento da folha.
+     * @param saida O nome do arquivo de saída a ser gerado, ou {@code null} para apenas atualizar
+     *              o estado dos empregados (usado na reprodução do journal).
+     * @param formato O formato do arquivo de saída.
+     * @param remessa O nome do arquivo de remessa bancária, ou {@code null} para não gerá-lo.
+     * @throws Exception se ocorrer um erro durante o processamento.
+     */
+    public void rodaFolha(String data, String saida, FormatoFolha formato, String remessa) throws Exception {
+        rodaFolha(data, saida, formato, remessa, resultado -> { });
+    }
+
+    /**
+     * Roda a folha de pagamento como em {@link #rodaFolha(String, String, FormatoFolha, String)},
+     * executando uma ação junto com a confirmação dos pagamentos, ainda com a trava exclusiva
+     * (usada pela fachada para registrar a folha no journal na mesma ordem do histórico).
+     * @param data A data para processamento da folha.
+     * @param saida O nome do arquivo de saída a ser gerado, ou {@code null} para apenas atualizar
+     *              o estado dos empregados (usado na reprodução do journal).
+     * @param formato O formato do arquivo de saída.
+     * @param remessa O nome do arquivo de remessa bancária, ou {@code null} para não gerá-lo.
+     * @param aoConfirmar A ação executada depois que os pagamentos são confirmados; recebe o resultado
+     *                    da confirmação, no formato aceito por {@link #reaplicarPagamentos}.
+     * @throws Exception se ocorrer um erro durante o processamento.
+     */
+    public void rodaFolha(String data, String saida, FormatoFolha formato, String remessa, Consumer<String[]> aoConfirmar) throws Exception {
+        ControleDeConcorrencia.Trava trava = concorrencia.folha();
+        try {
+            LocalDate dataFolha;
+            List<Empregado> pagos = new ArrayList<>();
+            Path remessaTemporaria = remessa == null ? null : Path.of(remessa + ".tmp");
             try {
-                LocalDate dataFolha = LocalDate.parse(data, DateTimeFormatter.ofPattern("d/M/yyyy"));
-                double calculatedTotal = 0.0;
-                for (Empregado empregado : repository.findAll()) {
-                    if (consultaService.isDiaDePagar(empregado, dataFolha)) {
-                        double salarioBruto = consultaService.calcularSalarioBruto(empregado, dataFolha);
-                        calculatedTotal += salarioBruto;
-
-                        // Simula o pagamento para atualizar o estado para a próxima chamada
-                        double descontos = consultaService.calcularDeducoes(empregado, dataFolha);
-                        if ((salarioBruto - descontos) > 0) {
-                            empregado.setDataUltimoPagamento(dataFolha);
+                try {
+                    dataFolha = LocalDate.parse(data, DateTimeFormatter.ofPattern("d/M/yyyy"));
+                    EmpregadoRepository instantaneo = instantaneo();
+                    ConsultaService consulta = new ConsultaService(instantaneo);
+                    List<Contracheque> pagosEmBanco = remessa == null ? null : new ArrayList<>();
+                    if (saida != null && formato != FormatoFolha.TEXTO) {
+                        exportarFolha(consulta, instantaneo, dataFolha, saida, formato, pagos, pagosEmBanco);
+                    } else {
+                        List<Contracheque> contracheques = calcularEmParalelo(consulta.getEmpregadosDaAgendaDoDia(dataFolha), e -> calcularContracheque(consulta, e, dataFolha));
+                        contracheques.removeIf(contracheque -> contracheque == null);
+                        if (saida != null) {
+                            gerarRelatorio(dataFolha, saida, contracheques);
+                        }
+                        for (Contracheque contracheque : contracheques) {
+                            if (contracheque.isPago()) pagar(contracheque, pagos, pagosEmBanco);
                         }
                     }
+                    if (remessa != null) {
+                        gerarRemessa(dataFolha, remessaTemporaria, pagosEmBanco);
+                    }
+                } catch (ValidacaoException | EmpregadoNaoExisteException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
                 }
-                total[0] = calculatedTotal;
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+                confirmarPagamentos(pagos, dataFolha, true, aoConfirmar);
+            } catch (Exception | Error e) {
+                if (remessaTemporaria != null) Files.deleteIfExists(remessaTemporaria);
+                throw e;
             }
-        };
-
-        commandHistoryService.execute(commandAction, undoAction);
-
-        return String.format("%.2f", total[0]).replace('.', ',');
+            if (remessa != null) {
+                Files.move(remessaTemporaria, Path.of(remessa), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            trava.liberar();
+        }
     }
 
     /**
-     * Roda a folha de pagamento para uma data específica e gera um arquivo de saída.
-     * @param data A data para processamento da folha.
-     * @param saida O nome do arquivo de saída a ser gerado.
-     * @throws Exception se ocorrer um erro durante o processamento.
+     * Separa um contracheque pago para a confirmação e, se o empregado é pago em banco e a remessa
+     * foi pedida, para a remessa bancária.
+     * @param contracheque O contracheque pago.
+     * @param pagos A lista que recebe os empregados pagos, para a confirmação.
+     * @param pagosEmBanco A lista que recebe os contracheques pagos em banco, ou null se não há remessa.
      */
-    public void rodaFolha(String data, String saida) throws Exception {
-        Map.Entry<Map<String, Empregado>, Integer> estadoAnterior = repository.getState();
-        Runnable undoAction = () -> repository.setState(estadoAnterior);
+    private static void pagar(Contracheque contracheque, List<Empregado> pagos, List<Contracheque> pagosEmBanco) {
+        pagos.add(contracheque.getEmpregado());
+        if (pagosEmBanco != null && contracheque.getEmpregado().getMetodoPagamento() instanceof Banco) {
+            pagosEmBanco.add(contracheque);
+        }
+    }
 
-        Runnable commandAction = () -> {
-            try {
-                LocalDate dataFolha = LocalDate.parse(data, DateTimeFormatter.ofPattern("d/M/yyyy"));
-                List<Empregado> empregados = repository.findAll();
+    /**
+     * Escreve o relatório em texto da folha em um arquivo temporário e o renomeia para o nome final,
+     * de modo que o relatório nunca fica pela metade.
+     * @param dataFolha A data da folha.
+     * @param saida O nome do arquivo de saída.
+     * @param contracheques Os contracheques dos empregados pagos nesta folha.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    private void gerarRelatorio(LocalDate dataFolha, String saida, List<Contracheque> contracheques) throws IOException {
+        Path temporario = Path.of(saida + ".tmp");
+        try (EscritorDeRelatorio escritor = new EscritorDeRelatorio(temporario.toString())) {
+            escritor.linha("FOLHA DE PAGAMENTO DO DIA " + dataFolha);
+            escritor.linha("====================================");
+            escritor.linha("");
+
+            long totalHoristas = gerarRelatorioHoristas(escritor, contracheques);
+            long totalAssalariados = gerarRelatorioAssalariados(escritor, contracheques);
+            long totalComissionados = gerarRelatorioComissionados(escritor, contracheques);
+
+            long totalFolha = totalHoristas + totalAssalariados + totalComissionados;
+            escritor.texto("TOTAL FOLHA: ").dinheiro(totalFolha, 0).caractere('\n');
+            escritor.sincronizar();
+        }
+        Files.move(temporario, Path.of(saida), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
 
-                try (PrintWriter writer = new PrintWriter(new FileWriter(saida))) {
-                    writer.println("FOLHA DE PAGAMENTO DO DIA " + dataFolha);
-                    writer.println("====================================");
-                    writer.println();
+    /**
+     * Captura o instantâneo sobre o qual a folha é calculada. A trava exclusiva garante que nenhum
+     * comando esteja no meio das suas alterações; ela é liberada logo em seguida.
+     * @return O repositório fixado no estado atual.
+     */
+    private EmpregadoRepository instantaneo() {
+        ControleDeConcorrencia.Trava trava = concorrencia.exclusiva();
+        try {
+            return repository.instantaneo();
+        } finally {
+            trava.liberar();
+        }
+    }
 
-                    double totalHoristas = gerarRelatorioHoristas(writer, empregados, dataFolha);
-                    double totalAssalariados = gerarRelatorioAssalariados(writer, empregados, dataFolha);
-                    double totalComissionados = gerarRelatorioComissionados(writer, empregados, dataFolha);
+    /**
+     * Confirma, como um único comando e com a trava exclusiva, os pagamentos calculados sobre um
+     * instantâneo, aplicando-os às versões atuais dos empregados.
+     * <p>
+     * O resultado entregue à ação de confirmação descreve exatamente o que foi aplicado: a data da
+     * folha e, para cada empregado pago, o seu ID, a quantidade de taxas quitadas e o dia e o valor
+     * de cada uma. Empregados removidos depois do instantâneo não aparecem.
+     * @param pagos As versões (do instantâneo) dos empregados pagos.
+     * @param dataFolha A data da folha.
+     * @param quitarTaxas Se as taxas de serviço vistas no instantâneo devem ser quitadas.
+     * @param aoConfirmar A ação executada com o resultado, junto com a entrada do comando no histórico.
+     * @throws ValidacaoException se ocorrer um erro de validação.
+     * @throws EmpregadoNaoExisteException se um empregado não for encontrado.
+     */
+    private void confirmarPagamentos(List<Empregado> pagos, LocalDate dataFolha, boolean quitarTaxas, Consumer<String[]> aoConfirmar)
+            throws ValidacaoException, EmpregadoNaoExisteException {
+        List<String> resultado = new ArrayList<>();
+        resultado.add(dataFolha.format(DateTimeFormatter.ofPattern("d/M/yyyy")));
+        ControleDeConcorrencia.Trava trava = concorrencia.exclusiva();
+        try {
+            commandHistoryService.execute(() -> {
+                for (Empregado pago : pagos) registrarPagamento(pago, dataFolha, quitarTaxas, resultado);
+            }, () -> aoConfirmar.accept(resultado.toArray(new String[0])));
+        } finally {
+            trava.liberar();
+        }
+    }
 
-                    double totalFolha = totalHoristas + totalAssalariados + totalComissionados;
-                    writer.printf("TOTAL FOLHA: %.2f\n", totalFolha);
+    /**
+     * Reaplica, como um único comando, os pagamentos confirmados por uma folha, sem recalculá-la
+     * (usado na reprodução do journal).
+     * @param resultado O resultado da confirmação, como entregue à ação de confirmação de
+     *                  {@link #rodaFolha(String, String, FormatoFolha, String, Consumer)}.
+     * @throws ValidacaoException se ocorrer um erro de validação.
+     * @throws EmpregadoNaoExisteException se um empregado não for encontrado.
+     */
+    public void reaplicarPagamentos(String[] resultado) throws ValidacaoException, EmpregadoNaoExisteException {
+        LocalDate dataFolha = LocalDate.parse(resultado[0], DateTimeFormatter.ofPattern("d/M/yyyy"));
+        commandHistoryService.execute(() -> {
+            int i = 1;
+            while (i < resultado.length) {
+                String id = resultado[i];
+                int quantidade = Integer.parseInt(resultado[i + 1]);
+                i += 2;
+                TaxasDeServico quitadas = new TaxasDeServico();
+                for (int k = 0; k < quantidade; k++, i += 2) {
+                    quitadas.lancar(Integer.parseInt(resultado[i]), Double.parseDouble(resultado[i + 1]));
                 }
+                quitar(id, dataFolha, quitadas);
+            }
+        });
+    }
 
-                for (Empregado empregado : empregados) {
-                    if (consultaService.isDiaDePagar(empregado, dataFolha)) {
-                        double salarioBruto = consultaService.calcularSalarioBruto(empregado, dataFolha);
-                        double descontos = consultaService.calcularDeducoes(empregado, dataFolha);
-                        if ((salarioBruto - descontos) > 0) {
-                            empregado.setDataUltimoPagamento(dataFolha);
-                            if (empregado.isSindicalizado()) {
-                                empregado.getMembroSindicato().getTaxasDeServico().clear();
-                            }
+    /**
+     * Exporta a folha em um formato para leitura por programas. Os empregados são calculados em
+     * lotes de {@value #LOTE_EXPORTACAO}: cada lote é gravado e pago antes do próximo ser calculado,
+     * de modo que apenas os contracheques de um lote ficam em memória.
+     * <p>
+     * Ao fim de cada lote, o arquivo é sincronizado com o disco e o lote é registrado no
+     * {@link ManifestoFolha}. Se uma execução anterior da mesma folha foi interrompida, a exportação
+     * continua do último lote registrado, com os pagamentos dos lotes anteriores recuperados do manifesto;
+     * dos lotes já gravados, só os contracheques dos pagos em banco são recalculados, para a remessa.
+     * @param consulta O serviço de consulta sobre o instantâneo.
+     * @param instantaneo O instantâneo sobre o qual a folha é calculada.
+     * @param dataFolha A data da folha.
+     * @param saida O nome do arquivo de saída.
+     * @param formato O formato da exportação.
+     * @param pagos A lista que recebe os empregados pagos, para a confirmação.
+     * @param pagosEmBanco A lista que recebe os contracheques pagos em banco, ou null se não há remessa.
+     * @throws Exception se ocorrer um erro durante o processamento.
+     */
+    private void exportarFolha(ConsultaService consulta, EmpregadoRepository instantaneo, LocalDate dataFolha, String saida,
+                               FormatoFolha formato, List<Empregado> pagos, List<Contracheque> pagosEmBanco) throws Exception {
+        List<Empregado> empregados = consulta.getEmpregadosDaAgendaDoDia(dataFolha);
+        try (ManifestoFolha manifesto = ManifestoFolha.abrir(saida, dataFolha, formato, empregados,
+                id -> pagos.add(instantaneo.findById(id)))) {
+            if (pagosEmBanco != null) {
+                List<Empregado> retomadosEmBanco = pagos.stream().filter(e -> e.getMetodoPagamento() instanceof Banco).collect(Collectors.toList());
+                pagosEmBanco.addAll(calcularEmParalelo(retomadosEmBanco, e -> calcularContracheque(consulta, e, dataFolha)));
+            }
+            ManifestoFolha.PontoDeControle retomada = manifesto.getRetomada();
+            long linhas = retomada.linhas();
+            try (ExportadorDeFolha exportador = formato.abrirExportador(saida, dataFolha, retomada.posicao(), linhas)) {
+                for (int inicio = retomada.lotes() * LOTE_EXPORTACAO; inicio < empregados.size(); inicio += LOTE_EXPORTACAO) {
+                    List<Empregado> lote = empregados.subList(inicio, Math.min(empregados.size(), inicio + LOTE_EXPORTACAO));
+                    List<String> pagosNoLote = new ArrayList<>();
+                    for (Contracheque contracheque : calcularEmParalelo(lote, e -> calcularContracheque(consulta, e, dataFolha))) {
+                        if (contracheque == null) continue;
+                        exportador.escrever(contracheque, consulta.getMetodoPagamentoFormatado(contracheque.getEmpregado()));
+                        linhas++;
+                        if (contracheque.isPago()) {
+                            pagar(contracheque, pagos, pagosEmBanco);
+                            pagosNoLote.add(contracheque.getEmpregado().getId());
                         }
                     }
+                    manifesto.registrarLote(exportador.sincronizar(), linhas, pagosNoLote);
                 }
-            } catch (Exception e) {
-                throw new RuntimeException(e);
             }
-        };
-        commandHistoryService.execute(commandAction, undoAction);
+            manifesto.concluir();
+        }
     }
 
-    // ... O resto da classe continua o mesmo, sem alterações.
     /**
-     * Gera o relatório de pagamento para empregados horistas.
-     * @param writer O PrintWriter para escrever o relatório.
-     * @param empregados A lista de todos os empregados.
-     * @param dataFolha A data da folha de pagamento.
-     * @return O valor total bruto pago aos horistas.
-     * @throws ValidacaoException se ocorrer um erro de validação.
-     * @throws EmpregadoNaoExisteException se um empregado não for encontrado.
+     * Gera o arquivo de remessa bancária da folha a partir dos contracheques já calculados para a
+     * saída, sem recalculá-los. Os pagamentos são agrupados por agência, em ordem, e cada agência
+     * vira um lote ordenado pela conta corrente.
+     * <p>
+     * A remessa é gravada em um arquivo temporário, que só é renomeado para o nome final depois que
+     * os pagamentos são confirmados; uma folha que falha não deixa remessa para o banco.
+     * @param dataFolha A data da folha.
+     * @param arquivo O arquivo temporário da remessa.
+     * @param pagosEmBanco Os contracheques pagos em banco nesta folha.
+     * @throws IOException se ocorrer um erro de escrita.
      */
-    private double gerarRelatorioHoristas(PrintWriter writer, List<Empregado> empregados, LocalDate dataFolha) throws ValidacaoException, EmpregadoNaoExisteException {
-        writer.println("===============================================================================================================================");
-        writer.println("===================== HORISTAS ================================================================================================");
-        writer.println("===============================================================================================================================");
-        writer.printf("%-36s %5s %5s %13s %9s %15s %s\n", "Nome", "Horas", "Extra", "Salario Bruto", "Descontos", "Salario Liquido", "Metodo");
-        writer.println("==================================== ===== ===== ============= ========= =============== ======================================");
-
-        List<Empregado> horistas = empregados.stream()
-                .filter(e -> e instanceof EmpregadoHorista)
-                .sorted(Comparator.comparing(Empregado::getNome))
-                .collect(Collectors.toList());
-
-        double totalBruto = 0, totalDescontos = 0, totalLiquido = 0;
-        double totalHorasNormais = 0, totalHorasExtras = 0;
-
-        for (Empregado empregado : horistas) {
-            if (consultaService.isDiaDePagar(empregado, dataFolha)) {
-                String dataInicialStr = empregado.getDataUltimoPagamento().plusDays(1).format(DateTimeFormatter.ofPattern("d/M/yyyy"));
-                String dataFinalStr = dataFolha.plusDays(1).format(DateTimeFormatter.ofPattern("d/M/yyyy"));
-
-                double horasNormais = 0;
-                double horasExtras = 0;
+    private void gerarRemessa(LocalDate dataFolha, Path arquivo, List<Contracheque> pagosEmBanco) throws IOException {
+        pagosEmBanco.sort(Comparator.comparing((Contracheque c) -> ((Banco) c.getEmpregado().getMetodoPagamento()).getAgencia())
+                .thenComparing(c -> ((Banco) c.getEmpregado().getMetodoPagamento()).getContaCorrente())
+                .thenComparing(c -> c.getEmpregado().getId()));
+        try (RemessaBancaria remessa = new RemessaBancaria(arquivo.toString(), dataFolha)) {
+            String agencia = null;
+            for (Contracheque contracheque : pagosEmBanco) {
+                Empregado empregado = contracheque.getEmpregado();
+                Banco banco = (Banco) empregado.getMetodoPagamento();
+                if (!banco.getAgencia().equals(agencia)) {
+                    if (agencia != null) remessa.fecharLote();
+                    agencia = banco.getAgencia();
+                    remessa.abrirLote(agencia);
+                }
+                remessa.pagamento(banco.getContaCorrente(), empregado.getNome(), empregado.getId(), contracheque.getSalarioLiquido());
+            }
+        }
+    }
 
-                try {
-                    horasNormais = Double.parseDouble(consultaService.getHorasNormaisTrabalhadas(empregado.getId(), dataInicialStr, dataFinalStr).replace(',', '.'));
-                    horasExtras = Double.parseDouble(consultaService.getHorasExtrasTrabalhadas(empregado.getId(), dataInicialStr, dataFinalStr).replace(',', '.'));
-                } catch (NumberFormatException e) {}
+    /**
+     * Registra o pagamento de um empregado na sua versão atual, atualizando a data do último
+     * pagamento e, se solicitado, quitando as taxas de serviço do sindicato que foram cobradas.
+     * Se o empregado foi removido depois do instantâneo, nada é feito.
+     * @param pago A versão do empregado sobre a qual a folha foi calculada.
+     * @param dataFolha A data do pagamento.
+     * @param quitarTaxas Se as taxas de serviço cobradas devem ser retiradas.
+     * @param resultado A lista que recebe o ID do empregado e as taxas quitadas, se ele foi pago.
+     */
+    private void registrarPagamento(Empregado pago, LocalDate dataFolha, boolean quitarTaxas, List<String> resultado) {
+        String id = pago.getId();
+        Empregado atual = repository.findById(id);
+        if (atual == null) return;
+        TaxasDeServico quitadas = new TaxasDeServico();
+        if (quitarTaxas && pago.isSindicalizado() && !pago.getMembroSindicato().getTaxasDeServico().isEmpty() && atual.isSindicalizado()) {
+            quitadas = separarTaxas(atual.getMembroSindicato().getTaxas(), pago.getMembroSindicato().getTaxas(), true);
+        }
+        quitar(id, dataFolha, quitadas);
+        resultado.add(id);
+        resultado.add(Integer.toString(quitadas.size()));
+        for (int i = 0; i < quitadas.size(); i++) {
+            resultado.add(Integer.toString(quitadas.dia(i)));
+            resultado.add(Double.toString(quitadas.valor(i)));
+        }
+    }
 
-                totalHorasNormais += horasNormais;
-                totalHorasExtras += horasExtras;
+    /**
+     * Aplica o pagamento de um empregado: avança a data do último pagamento e retira as taxas de
+     * serviço quitadas.
+     * @param id O ID do empregado.
+     * @param dataFolha A data do pagamento.
+     * @param quitadas As taxas a retirar, todas presentes na versão atual do empregado.
+     */
+    private void quitar(String id, LocalDate dataFolha, TaxasDeServico quitadas) {
+        repository.aplicar(Alteracoes.atributo(id, Empregado::getDataUltimoPagamento, Empregado::setDataUltimoPagamento, dataFolha));
+        if (quitadas.isEmpty()) return;
+        TaxasDeServico restantes = separarTaxas(repository.findById(id).getMembroSindicato().getTaxas(), quitadas, false);
+        repository.aplicar(Alteracoes.atributo(id, (Empregado e) -> e.getMembroSindicato().getTaxasDeServico(),
+                (e, taxas) -> e.getMembroSindicato().setTaxasDeServico(taxas), restantes));
+    }
 
-                writer.print(formatarLinhaRelatorio(empregado, dataFolha));
+    /**
+     * Separa as taxas de serviço atuais entre as cobradas nesta folha e as lançadas depois do
+     * instantâneo, que ficam para a próxima folha.
+     * @param atuais As taxas da versão atual do empregado.
+     * @param cobradas As taxas vistas no instantâneo, cobradas nesta folha.
+     * @param manterCobradas Se o resultado deve conter as taxas cobradas ou as restantes.
+     * @return As taxas atuais que foram cobradas, ou as que não foram.
+     */
+    private static TaxasDeServico separarTaxas(TaxasDeServico atuais, TaxasDeServico cobradas, boolean manterCobradas) {
+        TaxasDeServico separadas = new TaxasDeServico();
+        int j = 0;
+        for (int i = 0; i < atuais.size(); i++) {
+            int dia = atuais.dia(i);
+            while (j < cobradas.size() && cobradas.dia(j) < dia) j++;
+            boolean cobrada = j < cobradas.size() && cobradas.dia(j) == dia && cobradas.valor(j) == atuais.valor(i);
+            if (cobrada == manterCobradas) separadas.lancar(dia, atuais.valor(i));
+        }
+        return separadas;
+    }
 
-                double salarioBruto = consultaService.calcularSalarioBruto(empregado, dataFolha);
-                double descontos = consultaService.calcularDeducoes(empregado, dataFolha);
-                totalBruto += salarioBruto;
-                totalDescontos += descontos;
-                totalLiquido += Math.max(0, salarioBruto - descontos);
-            }
+    /**
+     * Aplica um cálculo a cada empregado, em paralelo quando a folha é grande o suficiente.
+     * @param empregados Os empregados, na ordem em que os resultados devem ser devolvidos.
+     * @param calculo O cálculo de cada empregado.
+     * @param <R> O tipo do resultado.
+     * @return Os resultados, na mesma ordem dos empregados (com null para os não pagos).
+     * @throws Exception a primeira exceção lançada por algum cálculo.
+     */
+    private <R> List<R> calcularEmParalelo(List<Empregado> empregados, CalculoEmpregado<R> calculo) throws Exception {
+        if (PARALELISMO <= 1 || empregados.size() < MINIMO_PARALELO) {
+            List<R> resultados = new ArrayList<>(empregados.size());
+            for (Empregado empregado : empregados) resultados.add(calculo.calcular(empregado));
+            return resultados;
+        }
+        try {
+            return Pool.INSTANCIA.submit(() -> empregados.parallelStream()
+                    .map(empregado -> {
+                        try {
+                            return calculo.calcular(empregado);
+                        } catch (Exception e) {
+                            throw new CompletionException(e);
+                        }
+                    })
+                    .collect(Collectors.toCollection(ArrayList::new))).get();
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof CompletionException && causa.getCause() != null) causa = causa.getCause();
+            if (causa instanceof Exception excecao) throw excecao;
+            throw e;
         }
-        writer.println();
-        writer.printf("TOTAL HORISTAS  %26.0f %5.0f %13.2f %9.2f %15.2f\n\n", totalHorasNormais, totalHorasExtras, totalBruto, totalDescontos, totalLiquido);
-        return totalBruto;
     }
 
     /**
-     * Gera o relatório de pagamento para empregados assalariados.
-     * @param writer O PrintWriter para escrever o relatório.
-     * @param empregados A lista de todos os empregados.
-     * @param dataFolha A data da folha de pagamento.
-     * @return O valor total bruto pago aos assalariados.
+     * Calcula o contracheque de um empregado na folha, com o serviço de consulta do instantâneo:
+     * nada é lido do repositório atual, que continua recebendo comandos durante a folha.
+     * @param consulta O serviço de consulta sobre o instantâneo.
+     * @param e A versão do empregado no instantâneo.
+     * @param dataFolha A data da folha.
+     * @return O contracheque, ou null se não for dia de pagamento do empregado.
      * @throws ValidacaoException se ocorrer um erro de validação.
      * @throws EmpregadoNaoExisteException se um empregado não for encontrado.
      */
-    private double gerarRelatorioAssalariados(PrintWriter writer, List<Empregado> empregados, LocalDate dataFolha) throws ValidacaoException, EmpregadoNaoExisteException {
-        writer.println("===============================================================================================================================");
-        writer.println("===================== ASSALARIADOS ============================================================================================");
-        writer.println("===============================================================================================================================");
-        writer.printf("%-48s %13s %9s %15s %s\n", "Nome", "Salario Bruto", "Descontos", "Salario Liquido", "Metodo");
-        writer.println("================================================ ============= ========= =============== ======================================");
-
-        List<Empregado> assalariados = empregados.stream()
-                .filter(e -> e instanceof EmpregadoAssalariado && !(e instanceof EmpregadoComissionado))
-                .sorted(Comparator.comparing(Empregado::getNome))
+    private static Contracheque calcularContracheque(ConsultaService consulta, Empregado e, LocalDate dataFolha)
+            throws ValidacaoException, EmpregadoNaoExisteException {
+        if (!consulta.isDiaDePagar(e, dataFolha)) return null;
+        return consulta.calcularContracheque(e, dataFolha);
+    }
+
+    /**
+     * Seleciona os contracheques de uma seção do relatório, ordenados pelo nome do empregado.
+     * @param contracheques Os contracheques de todos os empregados pagos.
+     * @param tipo O tipo de empregado da seção.
+     * @return Os contracheques da seção.
+     */
+    private List<Contracheque> contrachequesDaSecao(List<Contracheque> contracheques, Class<? extends Empregado> tipo) {
+        return contracheques.stream()
+                .filter(c -> tipo.isInstance(c.getEmpregado()) && (tipo == EmpregadoComissionado.class || !(c.getEmpregado() instanceof EmpregadoComissionado)))
+                .sorted(Comparator.comparing(c -> c.getEmpregado().getNome()))
                 .collect(Collectors.toList());
+    }
 
-        double totalBruto = 0, totalDescontos = 0, totalLiquido = 0;
+    /**
+     * Gera o relatório de pagamento para empregados horistas.
+     * @param escritor O escritor do relatório.
+     * @param contracheques Os contracheques de todos os empregados pagos.
+     * @return O valor total bruto, em centavos, pago aos horistas.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    private long gerarRelatorioHoristas(EscritorDeRelatorio escritor, List<Contracheque> contracheques) throws IOException {
+        escritor.linha(SEPARADOR).linha("===================== HORISTAS ================================================================================================").linha(SEPARADOR);
+        escritor.texto(CABECALHO_HORISTAS);
+        escritor.linha("==================================== ===== ===== ============= ========= =============== ======================================");
+
+        long totalBruto = 0, totalDescontos = 0, totalLiquido = 0;
+        long decimosNormais = 0, decimosExtras = 0;
+
+        for (Contracheque contracheque : contrachequesDaSecao(contracheques, EmpregadoHorista.class)) {
+            decimosNormais += EmpregadoHorista.decimosDeHora(contracheque.getHorasNormais());
+            decimosExtras += EmpregadoHorista.decimosDeHora(contracheque.getHorasExtras());
+
+            escritor.esquerda(contracheque.getEmpregado().getNome(), 36).caractere(' ')
+                    .direita(ConsultaService.formatarHoras(contracheque.getHorasNormais()), 5).caractere(' ')
+                    .direita(ConsultaService.formatarHoras(contracheque.getHorasExtras()), 5).caractere(' ');
+            escreverValores(escritor, contracheque);
+
+            totalBruto += contracheque.getSalarioBruto();
+            totalDescontos += contracheque.getDescontos();
+            totalLiquido += contracheque.getSalarioLiquido();
+        }
+        escritor.linha("");
+        escritor.texto("TOTAL HORISTAS  ").inteiro(decimosNormais / 10.0, 26).caractere(' ').inteiro(decimosExtras / 10.0, 5).caractere(' ')
+                .dinheiro(totalBruto, 13).caractere(' ').dinheiro(totalDescontos, 9).caractere(' ').dinheiro(totalLiquido, 15).texto("\n\n");
+        return totalBruto;
+    }
 
-        for (Empregado empregado : assalariados) {
-            if (consultaService.isDiaDePagar(empregado, dataFolha)) {
-                writer.print(formatarLinhaRelatorio(empregado, dataFolha));
-                double salarioBruto = consultaService.calcularSalarioBruto(empregado, dataFolha);
-                double descontos = consultaService.calcularDeducoes(empregado, dataFolha);
-                totalBruto += salarioBruto;
-                totalDescontos += descontos;
-                totalLiquido += Math.max(0, salarioBruto - descontos);
-            }
+    /**
+     * Gera o relatório de pagamento para empregados assalariados.
+     * @param escritor O escritor do relatório.
+     * @param contracheques Os contracheques de todos os empregados pagos.
+     * @return O valor total bruto, em centavos, pago aos assalariados.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    private long gerarRelatorioAssalariados(EscritorDeRelatorio escritor, List<Contracheque> contracheques) throws IOException {
+        escritor.linha(SEPARADOR).linha("===================== ASSALARIADOS ============================================================================================").linha(SEPARADOR);
+        escritor.texto(CABECALHO_ASSALARIADOS);
+        escritor.linha("================================================ ============= ========= =============== ======================================");
+
+        long totalBruto = 0, totalDescontos = 0, totalLiquido = 0;
+
+        for (Contracheque contracheque : contrachequesDaSecao(contracheques, EmpregadoAssalariado.class)) {
+            escritor.esquerda(contracheque.getEmpregado().getNome(), 48).caractere(' ');
+            escreverValores(escritor, contracheque);
+            totalBruto += contracheque.getSalarioBruto();
+            totalDescontos += contracheque.getDescontos();
+            totalLiquido += contracheque.getSalarioLiquido();
         }
-        writer.println();
-        writer.printf("TOTAL ASSALARIADOS %43.2f %9.2f %15.2f\n\n", totalBruto, totalDescontos, totalLiquido);
+        escritor.linha("");
+        escritor.texto("TOTAL ASSALARIADOS ").dinheiro(totalBruto, 43).caractere(' ').dinheiro(totalDescontos, 9).caractere(' ')
+                .dinheiro(totalLiquido, 15).texto("\n\n");
         return totalBruto;
     }
 
     /**
      * Gera o relatório de pagamento para empregados comissionados.
-     * @param writer O PrintWriter para escrever o relatório.
-     * @param empregados A lista de todos os empregados.
-     * @param dataFolha A data da folha de pagamento.
-     * @return O valor total bruto pago aos comissionados.
-     * @throws ValidacaoException se ocorrer um erro de validação.
-     * @throws EmpregadoNaoExisteException se um empregado não for encontrado.
+     * @param escritor O escritor do relatório.
+     * @param contracheques Os contracheques de todos os empregados pagos.
+     * @return O valor total bruto, em centavos, pago aos comissionados.
+     * @throws IOException se ocorrer um erro de escrita.
      */
-    private double gerarRelatorioComissionados(PrintWriter writer, List<Empregado> empregados, LocalDate dataFolha) throws ValidacaoException, EmpregadoNaoExisteException {
-        writer.println("===============================================================================================================================");
-        writer.println("===================== COMISSIONADOS ===========================================================================================");
-        writer.println("===============================================================================================================================");
-        writer.printf("%-17s %8s %10s %10s %13s %9s %15s %s\n", "Nome", "Fixo", "Vendas", "Comissao", "Salario Bruto", "Descontos", "Salario Liquido", "Metodo");
-        writer.println("===================== ======== ======== ======== ============= ========= =============== ======================================");
-
-        List<Empregado> comissionados = empregados.stream()
-                .filter(e -> e instanceof EmpregadoComissionado)
-                .sorted(Comparator.comparing(Empregado::getNome))
-                .collect(Collectors.toList());
-
-        double totalBruto = 0, totalDescontos = 0, totalLiquido = 0;
-        double totalFixo = 0, totalVendas = 0, totalComissao = 0;
-
-        for (Empregado empregado : comissionados) {
-            if (consultaService.isDiaDePagar(empregado, dataFolha)) {
-                writer.print(formatarLinhaRelatorio(empregado, dataFolha));
-
-                String dataInicialStr = empregado.getDataUltimoPagamento().plusDays(1).format(DateTimeFormatter.ofPattern("d/M/yyyy"));
-                String dataFinalStr = dataFolha.plusDays(1).format(DateTimeFormatter.ofPattern("d/M/yyyy"));
-
-                double salarioBruto = consultaService.calcularSalarioBruto(empregado, dataFolha);
-                double descontos = consultaService.calcularDeducoes(empregado, dataFolha);
-                totalBruto += salarioBruto;
-                totalDescontos += descontos;
-                totalLiquido += Math.max(0, salarioBruto - descontos);
-
-                EmpregadoComissionado c = (EmpregadoComissionado) empregado;
-                totalFixo += consultaService.getSalarioFixoComissionado(c, dataFolha);
-                double vendas = Double.parseDouble(consultaService.getVendasRealizadas(c.getId(), dataInicialStr, dataFinalStr).replace(',', '.'));
-                totalVendas += vendas;
-                totalComissao += consultaService.getComissaoSobreVendas(c, vendas);
-            }
+    private long gerarRelatorioComissionados(EscritorDeRelatorio escritor, List<Contracheque> contracheques) throws IOException {
+        escritor.linha(SEPARADOR).linha("===================== COMISSIONADOS ===========================================================================================").linha(SEPARADOR);
+        escritor.texto(CABECALHO_COMISSIONADOS);
+        escritor.linha("===================== ======== ======== ======== ============= ========= =============== ======================================");
+
+        long totalBruto = 0, totalDescontos = 0, totalLiquido = 0;
+        long totalFixo = 0, totalVendas = 0, totalComissao = 0;
+
+        for (Contracheque contracheque : contrachequesDaSecao(contracheques, EmpregadoComissionado.class)) {
+            escritor.esquerda(contracheque.getEmpregado().getNome(), 21).caractere(' ')
+                    .dinheiro(contracheque.getSalarioFixo(), 8).caractere(' ')
+                    .dinheiro(contracheque.getVendas(), 8).caractere(' ')
+                    .dinheiro(contracheque.getComissao(), 8).caractere(' ');
+            escreverValores(escritor, contracheque);
+
+            totalBruto += contracheque.getSalarioBruto();
+            totalDescontos += contracheque.getDescontos();
+            totalLiquido += contracheque.getSalarioLiquido();
+
+            totalFixo += contracheque.getSalarioFixo();
+            totalVendas += contracheque.getVendas();
+            totalComissao += contracheque.getComissao();
         }
-        writer.println();
-        writer.printf("TOTAL COMISSIONADOS %10.2f %8.2f %8.2f %13.2f %9.2f %15.2f\n\n", totalFixo, totalVendas, totalComissao, totalBruto, totalDescontos, totalLiquido);
+        escritor.linha("");
+        escritor.texto("TOTAL COMISSIONADOS ").dinheiro(totalFixo, 10).caractere(' ').dinheiro(totalVendas, 8).caractere(' ')
+                .dinheiro(totalComissao, 8).caractere(' ').dinheiro(totalBruto, 13).caractere(' ').dinheiro(totalDescontos, 9).caractere(' ')
+                .dinheiro(totalLiquido, 15).texto("\n\n");
         return totalBruto;
     }
 
     /**
-     * Formata uma linha do relatório de pagamento para um empregado.
-     * @param e O empregado.
-     * @param data A data da folha de pagamento.
-     * @return A linha formatada do relatório.
-     * @throws ValidacaoException se ocorrer um erro de validação.
-     * @throws EmpregadoNaoExisteException se um empregado não for encontrado.
+     * Escreve as colunas comuns a todas as seções: salário bruto, descontos, salário líquido e método de pagamento.
+     * @param escritor O escritor do relatório.
+     * @param contracheque O contracheque já calculado.
+     * @throws IOException se ocorrer um erro de escrita.
      */
-    private String formatarLinhaRelatorio(Empregado e, LocalDate data) throws ValidacaoException, EmpregadoNaoExisteException {
-        double salarioBruto = consultaService.calcularSalarioBruto(e, data);
-        double descontos = consultaService.calcularDeducoes(e, data);
-        double salarioLiquido = Math.max(0, salarioBruto - descontos);
-        String metodoPagamento = consultaService.getMetodoPagamentoFormatado(e);
-        String dataInicialStr = e.getDataUltimoPagamento().plusDays(1).format(DateTimeFormatter.ofPattern("d/M/yyyy"));
-        String dataFinalStr = data.plusDays(1).format(DateTimeFormatter.ofPattern("d/M/yyyy"));
-
-        if (e instanceof EmpregadoHorista h) {
-            String horasNormais = "0";
-            String horasExtras = "0";
-            try {
-                horasNormais = consultaService.getHorasNormaisTrabalhadas(h.getId(), dataInicialStr, dataFinalStr);
-                horasExtras = consultaService.getHorasExtrasTrabalhadas(h.getId(), dataInicialStr, dataFinalStr);
-            } catch (NumberFormatException ex) {}
-            return String.format("%-36s %5s %5s %13.2f %9.2f %15.2f %s\n", e.getNome(), horasNormais, horasExtras, salarioBruto, descontos, salarioLiquido, metodoPagamento);
-        }
-        if (e instanceof EmpregadoAssalariado && !(e instanceof EmpregadoComissionado)) {
-            return String.format("%-48s %13.2f %9.2f %15.2f %s\n", e.getNome(), salarioBruto, descontos, salarioLiquido, metodoPagamento);
-        }
-        if (e instanceof EmpregadoComissionado c) {
-            double salarioFixo = consultaService.getSalarioFixoComissionado(c, data);
-            double vendas = Double.parseDouble(consultaService.getVendasRealizadas(c.getId(), dataInicialStr, dataFinalStr).replace(',', '.'));
-            double comissao = consultaService.getComissaoSobreVendas(c, vendas);
-            return String.format("%-21s %8.2f %8.2f %8.2f %13.2f %9.2f %15.2f %s\n", e.getNome(), salarioFixo, vendas, comissao, salarioBruto, descontos, salarioLiquido, metodoPagamento);
-        }
-        return "";
+    private void escreverValores(EscritorDeRelatorio escritor, Contracheque contracheque) throws IOException {
+        escritor.dinheiro(contracheque.getSalarioBruto(), 13).caractere(' ')
+                .dinheiro(contracheque.getDescontos(), 9).caractere(' ')
+                .dinheiro(contracheque.getSalarioLiquido(), 15).caractere(' ')
+                .texto(consultaService.getMetodoPagamentoFormatado(contracheque.getEmpregado())).caractere('\n');
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package br.ufal.ic.p2.wepayu.Services;
+
+import br.ufal.ic.p2.wepayu.Exception.FormatoFolhaInvalidoException;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Formatos de saída da folha de pagamento.
+ * <p>
+ * O {@link #TEXTO} é o relatório em colunas de largura fixa, separado por tipo de empregado e
+ * ordenado por nome. Os demais são exportações para leitura por programas, com um registro por
+ * contracheque na ordem em que os empregados são processados, gravados à medida que são calculados.
+ */
+public enum FormatoFolha {
+    TEXTO("texto"),
+    CSV("csv"),
+    JSONL("jsonl"),
+    BINARIO("binario");
+
+    private final String nome;
+
+    /**
+     * Constrói um formato.
+     * @param nome O nome do formato, como informado pelo usuário.
+     */
+    FormatoFolha(String nome) {
+        this.nome = nome;
+    }
+
+    /**
+     * Retorna o formato com um nome.
+     * @param nome O nome do formato ("texto", "csv", "jsonl" ou "binario").
+     * @return O formato.
+     * @throws FormatoFolhaInvalidoException se o nome for nulo ou desconhecido.
+     */
+    public static FormatoFolha de(String nome) throws FormatoFolhaInvalidoException {
+        if (nome != null) {
+            for (FormatoFolha formato : values()) {
+                if (formato.nome.equalsIgnoreCase(nome.trim())) return formato;
+            }
+        }
+        throw new FormatoFolhaInvalidoException();
+    }
+
+    /**
+     * Abre o exportador deste formato, começando um arquivo novo ou continuando de um ponto de controle.
+     * @param arquivo O caminho do arquivo de saída.
+     * @param dataFolha A data da folha.
+     * @param posicao O tamanho do arquivo no ponto de controle (0 para um arquivo novo).
+     * @param linhas A quantidade de contracheques já exportados até o ponto de controle.
+     * @return O exportador.
+     * @throws IOException se o arquivo não puder ser aberto.
+     * @throws UnsupportedOperationException se o formato for o relatório em texto.
+     */
+    ExportadorDeFolha abrirExportador(String arquivo, LocalDate dataFolha, long posicao, long linhas) throws IOException {
+        return switch (this) {
+            case CSV -> new ExportadorCsv(arquivo, posicao);
+            case JSONL -> new ExportadorJsonLinhas(arquivo, dataFolha, posicao);
+            case BINARIO -> new ExportadorBinario(arquivo, dataFolha, posicao, linhas);
+            case TEXTO -> throw new UnsupportedOperationException("O relatorio em texto nao e uma exportacao.");
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return nome;
+    }
+}
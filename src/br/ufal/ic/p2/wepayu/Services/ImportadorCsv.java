@@ -0,0 +1,579 @@
+package br.ufal.ic.p2.wepayu.Services;
+
+import br.ufal.ic.p2.wepayu.Exception.*;
+import br.ufal.ic.p2.wepayu.models.*;
+import br.ufal.ic.p2.wepayu.Repository.EmpregadoRepository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Importação em massa de empregados, cartões de ponto, vendas e taxas de serviço a partir de
+ * arquivos CSV, para cadastrar de uma vez a folha de uma empresa inteira.
+ * <p>
+ * Os arquivos são em UTF-8, com um registro por linha e os campos separados por ponto e vírgula
+ * (a vírgula é o separador decimal dos valores). A primeira linha é o cabeçalho e é ignorada, assim
+ * como as linhas em branco. Um campo pode vir entre aspas duplas, com {@code ""} para uma aspa.
+ * As colunas de cada arquivo são:
+ * <ul>
+ * <li>empregados: {@code chave;nome;endereco;tipo;salario;comissao;idSindicato;taxaSindical};</li>
+ * <li>cartões de ponto: {@code empregado;data;horas};</li>
+ * <li>vendas: {@code empregado;data;valor};</li>
+ * <li>taxas de serviço: {@code idMembro;data;valor}.</li>
+ * </ul>
+ * A comissão fica vazia para quem não é comissionado, e o ID e a taxa do sindicato ficam vazios
+ * para quem não é sindicalizado. Nos cartões e vendas, o empregado é a chave de uma linha do
+ * arquivo de empregados ou, se nenhuma linha tiver essa chave, o ID de um empregado já cadastrado.
+ * <p>
+ * Cada arquivo é mapeado em memória e dividido em trechos de até {@value #TAMANHO_TRECHO} bytes,
+ * terminados em quebra de linha, que são lidos e validados em paralelo com as mesmas regras dos
+ * comandos da fachada. Uma linha inválida não interrompe a importação: o erro é guardado com o
+ * nome do arquivo e o número da linha, e a linha fica de fora. Em seguida, com a trava exclusiva,
+ * as linhas válidas são aplicadas em ordem sobre versões dos empregados montadas fora do
+ * repositório e gravadas de uma vez por {@link EmpregadoRepository#gravarEmLote}: a importação é
+ * um único comando, com uma única entrada no histórico de undo, sem cópias e inversas por registro.
+ * <p>
+ * A ação de confirmação recebe os campos das linhas aplicadas, e {@link #reaplicar(String[])} os
+ * aplica de novo sem ler os arquivos: no modo journal, a importação não depende de os arquivos
+ * continuarem existindo.
+ */
+public class ImportadorCsv extends BaseService {
+
+    private static final int TAMANHO_TRECHO = 1 << 22;
+    private static final char SEPARADOR = ';';
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("d/M/yyyy");
+    private static final int[] COLUNAS = {8, 3, 3, 3};
+    private static final String[] ARQUIVOS_REAPLICADOS = {"empregados", "cartoes", "vendas", "taxas"};
+
+    private final CommandHistoryService commandHistoryService;
+    private final ControleDeConcorrencia concorrencia;
+
+    /**
+     * Resultado de uma importação.
+     * @param empregados A quantidade de empregados criados.
+     * @param cartoes A quantidade de cartões de ponto lançados.
+     * @param vendas A quantidade de vendas lançadas.
+     * @param taxas A quantidade de taxas de serviço lançadas.
+     * @param erros Os erros das linhas que ficaram de fora, no formato "arquivo:linha: mensagem".
+     */
+    public record Resultado(int empregados, int cartoes, int vendas, int taxas, List<String> erros) {
+
+        /**
+         * Retorna o resumo da importação.
+         * @return As quantidades importadas e a quantidade de erros.
+         */
+        @Override
+        public String toString() {
+            return empregados + " empregados, " + cartoes + " cartoes, " + vendas + " vendas, "
+                    + taxas + " taxas, " + erros.size() + " erros";
+        }
+    }
+
+    /**
+     * Uma linha lida de um arquivo.
+     * @param numero O número da linha no arquivo (no trecho, enquanto ele é lido).
+     * @param campos Os campos, ou null se a quantidade de campos estiver errada.
+     * @param valor As horas ou o valor já convertidos, quando a linha tiver um.
+     * @param erro A mensagem do erro de validação dos campos, ou null se eles forem válidos.
+     */
+    private record Linha(int numero, String[] campos, double valor, String erro) {}
+
+    /**
+     * As linhas lidas de um trecho e a quantidade de linhas que ele contém.
+     * @param linhas As linhas com conteúdo, numeradas a partir do início do trecho.
+     * @param quantidade A quantidade de linhas do trecho, incluindo as ignoradas.
+     */
+    private record Trecho(List<Linha> linhas, int quantidade) {}
+
+    /**
+     * Validação dos campos de uma linha, independente do estado do repositório.
+     */
+    @FunctionalInterface
+    private interface Validador {
+        /**
+         * Valida os campos.
+         * @param campos Os campos da linha.
+         * @return As horas ou o valor da linha, se houver.
+         * @throws ValidacaoException se algum campo for inválido.
+         */
+        double validar(String[] campos) throws ValidacaoException;
+    }
+
+    /**
+     * Aplicação de uma linha válida aos empregados da importação.
+     */
+    @FunctionalInterface
+    private interface Aplicador {
+        /**
+         * Aplica a linha.
+         * @param linha A linha.
+         * @throws ValidacaoException se a linha for inválida.
+         * @throws EmpregadoNaoExisteException se o empregado da linha não existir.
+         */
+        void aplicar(Linha linha) throws ValidacaoException, EmpregadoNaoExisteException;
+    }
+
+    /**
+     * Constrói o importador.
+     * @param repository O repositório de empregados.
+     * @param commandHistoryService O serviço de histórico de comandos.
+     * @param concorrencia O controle de concorrência da fachada, cuja trava exclusiva é tomada para gravar.
+     */
+    public ImportadorCsv(EmpregadoRepository repository, CommandHistoryService commandHistoryService, ControleDeConcorrencia concorrencia) {
+        super(repository);
+        this.commandHistoryService = commandHistoryService;
+        this.concorrencia = concorrencia;
+    }
+
+    /**
+     * Importa os arquivos. Qualquer um deles pode ser omitido (null ou vazio).
+     * @param empregados O arquivo de empregados.
+     * @param cartoes O arquivo de cartões de ponto.
+     * @param vendas O arquivo de vendas.
+     * @param taxas O arquivo de taxas de serviço.
+     * @param aoConfirmar Ação executada, junto com a entrada do comando no histórico, se algo tiver
+     *                    sido gravado; recebe as linhas aplicadas, no formato aceito por {@link #reaplicar}.
+     * @return As quantidades importadas e os erros por linha.
+     * @throws IOException se um arquivo não puder ser lido.
+     * @throws ValidacaoException se a gravação falhar com um erro de validação.
+     * @throws EmpregadoNaoExisteException se a gravação falhar por falta de um empregado.
+     */
+    public Resultado importar(String empregados, String cartoes, String vendas, String taxas, Consumer<String[]> aoConfirmar)
+            throws IOException, ValidacaoException, EmpregadoNaoExisteException {
+        Validador[] validadores = validadores();
+        String[] arquivos = {empregados, cartoes, vendas, taxas};
+        List<List<Linha>> linhas = new ArrayList<>(arquivos.length);
+        for (int i = 0; i < arquivos.length; i++) linhas.add(ler(arquivos[i], COLUNAS[i], validadores[i]));
+        return gravar(arquivos, linhas, aoConfirmar);
+    }
+
+    /**
+     * Aplica de novo, como um único comando, as linhas de uma importação já confirmada (usado na
+     * reprodução do journal). Aplicadas sobre o mesmo estado, elas geram os mesmos IDs.
+     * @param registro As quantidades de linhas de empregados, cartões, vendas e taxas, seguidas dos
+     *                 campos de cada linha, como entregues à ação de confirmação de {@link #importar}.
+     * @throws ValidacaoException se alguma linha não puder ser aplicada.
+     * @throws EmpregadoNaoExisteException se a gravação falhar por falta de um empregado.
+     */
+    public void reaplicar(String[] registro) throws ValidacaoException, EmpregadoNaoExisteException {
+        Validador[] validadores = validadores();
+        List<List<Linha>> linhas = new ArrayList<>(COLUNAS.length);
+        int posicao = COLUNAS.length;
+        for (int i = 0; i < COLUNAS.length; i++) {
+            int quantidade = Integer.parseInt(registro[i]);
+            List<Linha> doArquivo = new ArrayList<>(quantidade);
+            for (int numero = 1; numero <= quantidade; numero++, posicao += COLUNAS[i]) {
+                String[] campos = Arrays.copyOfRange(registro, posicao, posicao + COLUNAS[i]);
+                doArquivo.add(lerLinha(numero, campos, COLUNAS[i], validadores[i]));
+            }
+            linhas.add(doArquivo);
+        }
+        Resultado resultado = gravar(ARQUIVOS_REAPLICADOS, linhas, aplicadas -> { });
+        if (!resultado.erros().isEmpty()) throw new ValidacaoException(resultado.erros().get(0));
+    }
+
+    /**
+     * Retorna a validação dos campos de cada arquivo, na ordem empregados, cartões, vendas e taxas.
+     * @return As validações.
+     */
+    private Validador[] validadores() {
+        return new Validador[] {this::validarEmpregado, this::validarCartao, this::validarLancamento, this::validarLancamento};
+    }
+
+    /**
+     * Aplica as linhas lidas com a trava exclusiva e grava o lote como um único comando.
+     * @param arquivos Os nomes dos arquivos, para as mensagens de erro.
+     * @param linhas As linhas de empregados, cartões, vendas e taxas.
+     * @param aoConfirmar Ação executada com as linhas aplicadas, se algo tiver sido gravado.
+     * @return As quantidades importadas e os erros por linha.
+     * @throws ValidacaoException se a gravação falhar com um erro de validação.
+     * @throws EmpregadoNaoExisteException se a gravação falhar por falta de um empregado.
+     */
+    private Resultado gravar(String[] arquivos, List<List<Linha>> linhas, Consumer<String[]> aoConfirmar)
+            throws ValidacaoException, EmpregadoNaoExisteException {
+        List<String> erros = new ArrayList<>();
+        List<String> aplicadas = new ArrayList<>();
+        int[] quantidades = new int[COLUNAS.length];
+        ControleDeConcorrencia.Trava trava = concorrencia.exclusiva();
+        try {
+            Lote lote = new Lote(repository.getState().idCont());
+            Aplicador[] aplicadores = {lote::criarEmpregado, lote::lancarCartao, lote::lancarVenda, lote::lancarTaxa};
+            for (int i = 0; i < aplicadores.length; i++) {
+                quantidades[i] = aplicar(arquivos[i], linhas.get(i), aplicadores[i], erros, aplicadas);
+            }
+            if (!lote.versoes.isEmpty()) {
+                commandHistoryService.execute(() -> repository.gravarEmLote(lote.versoes.values(), lote.idCont), () -> {
+                    String[] registro = new String[quantidades.length + aplicadas.size()];
+                    for (int i = 0; i < quantidades.length; i++) registro[i] = Integer.toString(quantidades[i]);
+                    for (int i = 0; i < aplicadas.size(); i++) registro[quantidades.length + i] = aplicadas.get(i);
+                    aoConfirmar.accept(registro);
+                });
+            }
+            return new Resultado(quantidades[0], quantidades[1], quantidades[2], quantidades[3], erros);
+        } finally {
+            trava.liberar();
+        }
+    }
+
+    /**
+     * Valida os campos de uma linha de empregado como {@code criarEmpregado} e
+     * {@code alteraEmpregado(..., "sindicalizado", ...)}, exceto a unicidade do ID do sindicato.
+     * @param c Os campos da linha.
+     * @return Sempre 0.
+     * @throws ValidacaoException se algum campo for inválido.
+     */
+    private double validarEmpregado(String[] c) throws ValidacaoException {
+        validarCamposBase(c[1], c[2], c[4]);
+        if (c[5].isEmpty()) {
+            if ("comissionado".equals(c[3])) throw new TipoNaoAplicavelException();
+            if (!"horista".equals(c[3]) && !"assalariado".equals(c[3])) throw new TipoInvalidoException();
+        } else {
+            validarComissao(c[5]);
+            if (!"comissionado".equals(c[3])) throw new TipoNaoAplicavelException();
+        }
+        if (!c[6].isEmpty() || !c[7].isEmpty()) {
+            if (c[6].isEmpty()) throw new IdSindicatoNuloException();
+            if (c[7].isEmpty()) throw new TaxaSindicalNulaException();
+            try {
+                if (Double.parseDouble(c[7].replace(',', '.')) < 0) throw new TaxaSindicalNaoNegativaException();
+            } catch (NumberFormatException e) {
+                throw new TaxaSindicalNumericaException();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Valida a data e as horas de um cartão de ponto.
+     * @param campos Os campos da linha.
+     * @return As horas.
+     * @throws ValidacaoException se a data ou as horas forem inválidas.
+     */
+    private double validarCartao(String[] campos) throws ValidacaoException {
+        if (!isDataValida(campos[1])) throw new DataInvalidaException();
+        return validarHoras(campos[2]);
+    }
+
+    /**
+     * Valida a data e o valor de uma venda ou taxa de serviço.
+     * @param campos Os campos da linha.
+     * @return O valor.
+     * @throws ValidacaoException se a data ou o valor forem inválidos.
+     */
+    private double validarLancamento(String[] campos) throws ValidacaoException {
+        if (!isDataValida(campos[1])) throw new DataInvalidaException();
+        return validarValorPositivo(campos[2]);
+    }
+
+    /**
+     * Aplica as linhas de um arquivo, guardando os erros das que ficarem de fora.
+     * @param arquivo O caminho do arquivo, para as mensagens de erro.
+     * @param linhas As linhas lidas.
+     * @param aplicador A aplicação de cada linha.
+     * @param erros A lista de erros.
+     * @param campos A lista que recebe os campos das linhas aplicadas.
+     * @return A quantidade de linhas aplicadas.
+     */
+    private static int aplicar(String arquivo, List<Linha> linhas, Aplicador aplicador, List<String> erros, List<String> campos) {
+        int aplicadas = 0;
+        for (Linha linha : linhas) {
+            try {
+                aplicador.aplicar(linha);
+                campos.addAll(Arrays.asList(linha.campos()));
+                aplicadas++;
+            } catch (ValidacaoException | EmpregadoNaoExisteException e) {
+                erros.add(Path.of(arquivo).getFileName() + ":" + linha.numero() + ": " + e.getMessage());
+            }
+        }
+        return aplicadas;
+    }
+
+    /**
+     * Lê e valida em paralelo as linhas de um arquivo.
+     * @param arquivo O caminho do arquivo, ou null ou vazio se não houver.
+     * @param colunas A quantidade de campos de cada linha.
+     * @param validador A validação dos campos.
+     * @return As linhas, em ordem, numeradas a partir do início do arquivo.
+     * @throws IOException se o arquivo não puder ser lido.
+     */
+    private List<Linha> ler(String arquivo, int colunas, Validador validador) throws IOException {
+        if (arquivo == null || arquivo.isEmpty()) return List.of();
+        List<ByteBuffer> trechos = new ArrayList<>();
+        try (FileChannel canal = FileChannel.open(Path.of(arquivo), StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            long inicio = 0;
+            while (inicio < tamanho) {
+                long fim = Math.min(tamanho, inicio + TAMANHO_TRECHO);
+                if (fim < tamanho) fim = fimDaLinha(canal, fim, tamanho);
+                trechos.add(canal.map(FileChannel.MapMode.READ_ONLY, inicio, fim - inicio));
+                inicio = fim;
+            }
+        }
+
+        List<Trecho> lidos = IntStream.range(0, trechos.size()).parallel()
+                .mapToObj(i -> lerTrecho(trechos.get(i), i == 0, colunas, validador))
+                .toList();
+        List<Linha> linhas = new ArrayList<>(lidos.stream().mapToInt(t -> t.linhas().size()).sum());
+        int anteriores = 0;
+        for (Trecho trecho : lidos) {
+            for (Linha linha : trecho.linhas()) {
+                linhas.add(anteriores == 0 ? linha
+                        : new Linha(anteriores + linha.numero(), linha.campos(), linha.valor(), linha.erro()));
+            }
+            anteriores += trecho.quantidade();
+        }
+        return linhas;
+    }
+
+    /**
+     * Encontra o fim da linha que contém uma posição do arquivo.
+     * @param canal O canal do arquivo.
+     * @param posicao A posição.
+     * @param tamanho O tamanho do arquivo.
+     * @return A posição logo após a próxima quebra de linha, ou o tamanho do arquivo.
+     * @throws IOException se o arquivo não puder ser lido.
+     */
+    private static long fimDaLinha(FileChannel canal, long posicao, long tamanho) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (posicao < tamanho) {
+            buffer.clear();
+            int lidos = canal.read(buffer, posicao);
+            if (lidos < 0) break;
+            for (int i = 0; i < lidos; i++) {
+                if (buffer.get(i) == '\n') return posicao + i + 1;
+            }
+            posicao += lidos;
+        }
+        return tamanho;
+    }
+
+    /**
+     * Lê e valida as linhas de um trecho do arquivo.
+     * @param bytes O trecho mapeado.
+     * @param cabecalho Se o trecho começa com a linha de cabeçalho, que é ignorada.
+     * @param colunas A quantidade de campos de cada linha.
+     * @param validador A validação dos campos.
+     * @return As linhas do trecho.
+     */
+    private static Trecho lerTrecho(ByteBuffer bytes, boolean cabecalho, int colunas, Validador validador) {
+        String texto = StandardCharsets.UTF_8.decode(bytes).toString();
+        List<Linha> linhas = new ArrayList<>();
+        int numero = 0;
+        int inicio = 0;
+        while (inicio < texto.length()) {
+            int quebra = texto.indexOf('\n', inicio);
+            int fim = quebra < 0 ? texto.length() : quebra;
+            numero++;
+            int ultimo = fim > inicio && texto.charAt(fim - 1) == '\r' ? fim - 1 : fim;
+            if (ultimo > inicio && !(cabecalho && numero == 1)) {
+                linhas.add(lerLinha(numero, campos(texto, inicio, ultimo, colunas), colunas, validador));
+            }
+            inicio = fim + 1;
+        }
+        return new Trecho(linhas, numero);
+    }
+
+    /**
+     * Valida os campos de uma linha.
+     * @param numero O número da linha.
+     * @param campos Os campos, ou null se a quantidade estiver errada.
+     * @param colunas A quantidade de campos esperada.
+     * @param validador A validação dos campos.
+     * @return A linha lida.
+     */
+    private static Linha lerLinha(int numero, String[] campos, int colunas, Validador validador) {
+        if (campos == null) return new Linha(numero, null, 0, "Linha deve ter " + colunas + " campos.");
+        try {
+            return new Linha(numero, campos, validador.validar(campos), null);
+        } catch (ValidacaoException e) {
+            return new Linha(numero, campos, 0, e.getMessage());
+        }
+    }
+
+    /**
+     * Separa os campos de uma linha, desfazendo as aspas.
+     * @param texto O texto do trecho.
+     * @param inicio O início da linha.
+     * @param fim O fim da linha, sem a quebra.
+     * @param colunas A quantidade de campos esperada.
+     * @return Os campos, ou null se a linha não tiver exatamente essa quantidade.
+     */
+    private static String[] campos(String texto, int inicio, int fim, int colunas) {
+        String[] campos = new String[colunas];
+        int quantidade = 0;
+        StringBuilder campo = new StringBuilder();
+        boolean aspas = false;
+        for (int i = inicio; i < fim; i++) {
+            char c = texto.charAt(i);
+            if (aspas) {
+                if (c != '"') {
+                    campo.append(c);
+                } else if (i + 1 < fim && texto.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else {
+                    aspas = false;
+                }
+            } else if (c == '"') {
+                aspas = true;
+            } else if (c == SEPARADOR) {
+                if (quantidade == colunas - 1) return null;
+                campos[quantidade++] = campo.toString();
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        if (quantidade != colunas - 1) return null;
+        campos[quantidade] = campo.toString();
+        return campos;
+    }
+
+    /**
+     * Versões dos empregados montadas durante uma importação, ainda fora do repositório.
+     * Só é usado com a trava exclusiva.
+     */
+    private final class Lote {
+        final Map<String, Empregado> versoes = new LinkedHashMap<>();
+        final Map<String, String> chaves = new HashMap<>();
+        final Map<String, Empregado> membros = new HashMap<>();
+        int idCont;
+
+        /**
+         * Começa um lote vazio.
+         * @param idCont O valor atual do contador de ID.
+         */
+        Lote(int idCont) {
+            this.idCont = idCont;
+        }
+
+        /**
+         * Cria o empregado de uma linha do arquivo de empregados.
+         * @param linha A linha.
+         * @throws ValidacaoException se a linha for inválida ou repetir uma chave ou um ID do sindicato.
+         */
+        void criarEmpregado(Linha linha) throws ValidacaoException {
+            String[] c = campos(linha);
+            validar(linha);
+            if (!c[0].isEmpty() && chaves.containsKey(c[0])) throw new ValidacaoException("Chave de empregado repetida.");
+            if (!c[6].isEmpty() && (membros.containsKey(c[6]) || repository.findByIdMembro(c[6]) != null)) {
+                throw new SindicatoIdJaExisteException();
+            }
+            String id = String.valueOf(idCont + 1);
+            Empregado empregado = c[5].isEmpty()
+                    ? EmpregadoFactory.criarEmpregado(c[3], id, c[1], c[2], c[4])
+                    : EmpregadoFactory.criarEmpregado(c[3], id, c[1], c[2], c[4], c[5]);
+            if (!c[6].isEmpty()) {
+                empregado.setMembroSindicato(new MembroSindicato(c[6], Dinheiro.de(c[7])));
+                membros.put(c[6], empregado);
+            }
+            idCont++;
+            versoes.put(id, empregado);
+            if (!c[0].isEmpty()) chaves.put(c[0], id);
+        }
+
+        /**
+         * Lança o cartão de ponto de uma linha, definindo a data de contratação se for o primeiro.
+         * @param linha A linha.
+         * @throws ValidacaoException se a linha for inválida ou o empregado não for horista.
+         * @throws EmpregadoNaoExisteException se o empregado não existir.
+         */
+        void lancarCartao(Linha linha) throws ValidacaoException, EmpregadoNaoExisteException {
+            String[] c = campos(linha);
+            if (!(empregado(c[0]) instanceof EmpregadoHorista)) throw new EmpregadoNaoHoristaException();
+            validar(linha);
+            EmpregadoHorista horista = (EmpregadoHorista) editavel(empregado(c[0]));
+            if (horista.getDataContratacao() == null) {
+                LocalDate dataContratacao = LocalDate.parse(c[1], FORMATO_DATA);
+                horista.setDataContratacao(dataContratacao);
+                horista.setDataUltimoPagamento(dataContratacao.minusDays(1));
+            }
+            horista.getCartoesDePonto().put(c[1], new CartaoDePonto(c[1], linha.valor()));
+        }
+
+        /**
+         * Lança a venda de uma linha.
+         * @param linha A linha.
+         * @throws ValidacaoException se a linha for inválida ou o empregado não for comissionado.
+         * @throws EmpregadoNaoExisteException se o empregado não existir.
+         */
+        void lancarVenda(Linha linha) throws ValidacaoException, EmpregadoNaoExisteException {
+            String[] c = campos(linha);
+            if (!(empregado(c[0]) instanceof EmpregadoComissionado)) throw new EmpregadoNaoComissionadoException();
+            validar(linha);
+            EmpregadoComissionado comissionado = (EmpregadoComissionado) editavel(empregado(c[0]));
+            comissionado.getVendas().put(c[1], new ResultadoVenda(c[1], linha.valor()));
+        }
+
+        /**
+         * Lança a taxa de serviço de uma linha.
+         * @param linha A linha.
+         * @throws ValidacaoException se a linha for inválida ou o membro não existir.
+         */
+        void lancarTaxa(Linha linha) throws ValidacaoException {
+            String[] c = campos(linha);
+            if (c[0].isEmpty()) throw new MembroNuloException();
+            Empregado dono = membros.get(c[0]);
+            if (dono == null) dono = repository.findByIdMembro(c[0]);
+            if (dono == null) throw new MembroNaoExisteException();
+            validar(linha);
+            editavel(dono).getMembroSindicato().getTaxasDeServico().put(c[1], new TaxaServico(c[1], linha.valor()));
+        }
+
+        /**
+         * Retorna os campos de uma linha, se a quantidade estiver certa.
+         * @param linha A linha.
+         * @return Os campos.
+         * @throws ValidacaoException se a quantidade de campos estiver errada.
+         */
+        private String[] campos(Linha linha) throws ValidacaoException {
+            if (linha.campos() == null) throw new ValidacaoException(linha.erro());
+            return linha.campos();
+        }
+
+        /**
+         * Lança o erro de validação dos campos de uma linha, se houver.
+         * @param linha A linha.
+         * @throws ValidacaoException se os campos forem inválidos.
+         */
+        private void validar(Linha linha) throws ValidacaoException {
+            if (linha.erro() != null) throw new ValidacaoException(linha.erro());
+        }
+
+        /**
+         * Busca um empregado pela chave do arquivo de empregados ou pelo ID.
+         * @param chave A chave ou o ID.
+         * @return A versão do lote, se houver, ou a do repositório.
+         * @throws ValidacaoException se a chave for vazia.
+         * @throws EmpregadoNaoExisteException se o empregado não existir.
+         */
+        private Empregado empregado(String chave) throws ValidacaoException, EmpregadoNaoExisteException {
+            String id = chaves.getOrDefault(chave, chave);
+            Empregado versao = versoes.get(id);
+            return versao != null ? versao : getEmpregadoValido(id);
+        }
+
+        /**
+         * Retorna a versão editável de um empregado no lote, copiando a do repositório na primeira vez.
+         * @param empregado A versão atual do empregado.
+         * @return A versão do lote.
+         */
+        private Empregado editavel(Empregado empregado) {
+            return versoes.computeIfAbsent(empregado.getId(), id -> empregado.clone());
+        }
+    }
+}
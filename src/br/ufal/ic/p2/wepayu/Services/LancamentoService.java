@@ -2,10 +2,12 @@ package br.ufal.ic.p2.wepayu.Services;
 
 import br.ufal.ic.p2.wepayu.Exception.*;
 import br.ufal.ic.p2.wepayu.models.*;
+import br.ufal.ic.p2.wepayu.Repository.Alteracoes;
 import br.ufal.ic.p2.wepayu.Repository.EmpregadoRepository;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.function.Consumer;
 
 /**
  * Serviço responsável por gerenciar a lógica de negócio de lançamentos no sistema,
@@ -15,6 +17,14 @@ import java.util.Map;
 public class LancamentoService extends BaseService {
     private final CommandHistoryService commandHistoryService;
 
+    /**
+     * Tipos de lançamento aceitos em {@link #lancarEmLote}.
+     */
+    public enum TipoLancamento {
+        CARTAO,
+        VENDA
+    }
+
     /**
      * Constrói uma instância de LancamentoService com as dependências necessárias.
      * @param repository O repositório para acesso aos dados dos empregados.
@@ -31,33 +41,41 @@ public class LancamentoService extends BaseService {
      * @param id O ID do empregado horista.
      * @param data A data do registro de ponto (formato "d/M/yyyy").
      * @param horasStr As horas trabalhadas no dia.
+     * @param aoConfirmar Ação executada junto com a entrada do comando no histórico (por exemplo, o
+     *                    registro no journal), ou null.
      * @throws ValidacaoException Se os dados de entrada forem inválidos (data, horas).
      * @throws EmpregadoNaoExisteException Se o empregado não for encontrado ou não for horista.
      */
-    public void lancaCartao(String id, String data, String horasStr) throws ValidacaoException, EmpregadoNaoExisteException {
+    public void lancaCartao(String id, String data, String horasStr, Runnable aoConfirmar) throws ValidacaoException, EmpregadoNaoExisteException {
         getEmpregadoValido(id, EmpregadoHorista.class);
-        Map.Entry<Map<String, Empregado>, Integer> estadoAnterior = repository.getState();
-        Runnable undoAction = () -> repository.setState(estadoAnterior);
 
         Runnable commandAction = () -> {
             try {
-                EmpregadoHorista original = (EmpregadoHorista) repository.findById(id);
-                EmpregadoHorista modificado = (EmpregadoHorista) original.clone();
                 if (!isDataValida(data)) throw new DataInvalidaException();
                 double horas = validarHoras(horasStr);
-                if (modificado.getDataContratacao() == null) {
-                    LocalDate dataContratacao = LocalDate.parse(data, DateTimeFormatter.ofPattern("d/M/yyyy"));
-                    modificado.setDataContratacao(dataContratacao);
-                    modificado.setDataUltimoPagamento(dataContratacao.minusDays(1));
-                }
-                CartaoDePonto novoCartao = new CartaoDePonto(data, horas);
-                modificado.lancaCartao(novoCartao);
-                repository.save(modificado);
+                aplicarCartao(id, data, horas);
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
         };
-        commandHistoryService.execute(commandAction, undoAction);
+        commandHistoryService.execute(commandAction, aoConfirmar);
+    }
+
+    /**
+     * Aplica um cartão de ponto já validado, definindo a data de contratação se for o primeiro.
+     * @param id O ID do empregado horista.
+     * @param data A data do registro de ponto.
+     * @param horas As horas trabalhadas no dia.
+     */
+    private void aplicarCartao(String id, String data, double horas) {
+        EmpregadoHorista empregado = (EmpregadoHorista) repository.findById(id);
+        if (empregado.getDataContratacao() == null) {
+            LocalDate dataContratacao = LocalDate.parse(data, DateTimeFormatter.ofPattern("d/M/yyyy"));
+            repository.aplicar(Alteracoes.atributo(id, Empregado::getDataContratacao, Empregado::setDataContratacao, dataContratacao));
+            repository.aplicar(Alteracoes.atributo(id, Empregado::getDataUltimoPagamento, Empregado::setDataUltimoPagamento, dataContratacao.minusDays(1)));
+        }
+        CartaoDePonto novoCartao = new CartaoDePonto(data, horas);
+        repository.aplicar(Alteracoes.lancamento(id, EmpregadoHorista::getCartoesDePonto, data, novoCartao));
     }
 
     /**
@@ -65,28 +83,109 @@ public class LancamentoService extends BaseService {
      * @param id O ID do empregado comissionado.
      * @param data A data da venda (formato "d/M/yyyy").
      * @param valorStr O valor da venda.
+     * @param aoConfirmar Ação executada junto com a entrada do comando no histórico (por exemplo, o
+     *                    registro no journal), ou null.
      * @throws ValidacaoException Se os dados de entrada forem inválidos (data, valor).
      * @throws EmpregadoNaoExisteException Se o empregado não for encontrado ou não for comissionado.
      */
-    public void lancaVenda(String id, String data, String valorStr) throws ValidacaoException, EmpregadoNaoExisteException {
+    public void lancaVenda(String id, String data, String valorStr, Runnable aoConfirmar) throws ValidacaoException, EmpregadoNaoExisteException {
         getEmpregadoValido(id, EmpregadoComissionado.class);
-        Map.Entry<Map<String, Empregado>, Integer> estadoAnterior = repository.getState();
-        Runnable undoAction = () -> repository.setState(estadoAnterior);
 
         Runnable commandAction = () -> {
             try {
-                EmpregadoComissionado original = (EmpregadoComissionado) repository.findById(id);
-                EmpregadoComissionado modificado = (EmpregadoComissionado) original.clone();
                 if (!isDataValida(data)) throw new DataInvalidaException();
                 double valor = validarValorPositivo(valorStr);
                 ResultadoVenda novaVenda = new ResultadoVenda(data, valor);
-                modificado.lancaVenda(novaVenda);
-                repository.save(modificado);
+                repository.aplicar(Alteracoes.lancamento(id, EmpregadoComissionado::getVendas, data, novaVenda));
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
         };
-        commandHistoryService.execute(commandAction, undoAction);
+        commandHistoryService.execute(commandAction, aoConfirmar);
+    }
+
+    /**
+     * Lança, em um único comando (uma única entrada no histórico de undo), um grupo de cartões de
+     * ponto e vendas de um mesmo empregado. O empregado é buscado uma vez; cada lançamento é então
+     * validado como em {@link #lancaCartao} e {@link #lancaVenda}, e os inválidos ficam de fora
+     * sem impedir os demais. Os válidos são aplicados na ordem do grupo, com o mesmo efeito de
+     * lançá-los um a um. Se nenhum for válido, nenhum comando é registrado.
+     * @param id O ID do empregado.
+     * @param tipos O tipo de cada lançamento.
+     * @param datas A data de cada lançamento (formato "d/M/yyyy").
+     * @param valores As horas (cartões) ou o valor (vendas) de cada lançamento.
+     * @return Para cada lançamento, null se ele foi aplicado, ou a exceção de validação que o impediu.
+     * @throws ValidacaoException se a aplicação do grupo falhar com um erro de validação.
+     * @throws EmpregadoNaoExisteException se a aplicação do grupo falhar por falta do empregado.
+     */
+    public Exception[] lancarEmLote(String id, TipoLancamento[] tipos, String[] datas, String[] valores) throws ValidacaoException, EmpregadoNaoExisteException {
+        return lancarEmLote(id, tipos, datas, valores, null);
+    }
+
+    /**
+     * Lança um grupo como {@link #lancarEmLote(String, TipoLancamento[], String[], String[])}.
+     * A nova versão do empregado é montada uma vez, com todos os lançamentos válidos, e gravada por
+     * uma única {@link br.ufal.ic.p2.wepayu.Repository.Alteracao}.
+     * @param id O ID do empregado.
+     * @param tipos O tipo de cada lançamento.
+     * @param datas A data de cada lançamento (formato "d/M/yyyy").
+     * @param valores As horas (cartões) ou o valor (vendas) de cada lançamento.
+     * @param aoConfirmar Ação executada, junto com a entrada do comando no histórico, com as falhas
+     *                    do grupo; ou null. Não é executada se nenhum lançamento for válido.
+     * @return Para cada lançamento, null se ele foi aplicado, ou a exceção de validação que o impediu.
+     * @throws ValidacaoException se a aplicação do grupo falhar com um erro de validação.
+     * @throws EmpregadoNaoExisteException se a aplicação do grupo falhar por falta do empregado.
+     */
+    public Exception[] lancarEmLote(String id, TipoLancamento[] tipos, String[] datas, String[] valores,
+                                    Consumer<Exception[]> aoConfirmar) throws ValidacaoException, EmpregadoNaoExisteException {
+        Exception[] falhas = new Exception[tipos.length];
+        Empregado empregado;
+        try {
+            empregado = getEmpregadoValido(id);
+        } catch (ValidacaoException | EmpregadoNaoExisteException e) {
+            Arrays.fill(falhas, e);
+            return falhas;
+        }
+
+        double[] validos = new double[tipos.length];
+        boolean algumValido = false;
+        for (int i = 0; i < tipos.length; i++) {
+            try {
+                if (tipos[i] == TipoLancamento.CARTAO) {
+                    if (!(empregado instanceof EmpregadoHorista)) throw new EmpregadoNaoHoristaException();
+                    if (!isDataValida(datas[i])) throw new DataInvalidaException();
+                    validos[i] = validarHoras(valores[i]);
+                } else {
+                    if (!(empregado instanceof EmpregadoComissionado)) throw new EmpregadoNaoComissionadoException();
+                    if (!isDataValida(datas[i])) throw new DataInvalidaException();
+                    validos[i] = validarValorPositivo(valores[i]);
+                }
+                algumValido = true;
+            } catch (ValidacaoException e) {
+                falhas[i] = e;
+            }
+        }
+        if (!algumValido) return falhas;
+
+        commandHistoryService.execute(() -> {
+            Empregado versao = repository.findById(id).clone();
+            for (int i = 0; i < tipos.length; i++) {
+                if (falhas[i] != null) continue;
+                if (tipos[i] == TipoLancamento.CARTAO) {
+                    EmpregadoHorista horista = (EmpregadoHorista) versao;
+                    if (horista.getDataContratacao() == null) {
+                        LocalDate dataContratacao = LocalDate.parse(datas[i], DateTimeFormatter.ofPattern("d/M/yyyy"));
+                        horista.setDataContratacao(dataContratacao);
+                        horista.setDataUltimoPagamento(dataContratacao.minusDays(1));
+                    }
+                    horista.getCartoesDePonto().put(datas[i], new CartaoDePonto(datas[i], validos[i]));
+                } else {
+                    ((EmpregadoComissionado) versao).getVendas().put(datas[i], new ResultadoVenda(datas[i], validos[i]));
+                }
+            }
+            repository.aplicar(Alteracoes.gravar(versao));
+        }, aoConfirmar == null ? null : () -> aoConfirmar.accept(falhas));
+        return falhas;
     }
 
     /**
@@ -94,66 +193,26 @@ public class LancamentoService extends BaseService {
      * @param idMembro O ID de membro do sindicato.
      * @param data A data da cobrança da taxa (formato "d/M/yyyy").
      * @param valorStr O valor da taxa de serviço.
+     * @param aoConfirmar Ação executada junto com a entrada do comando no histórico (por exemplo, o
+     *                    registro no journal), ou null.
      * @throws ValidacaoException Se os dados de entrada forem inválidos.
      * @throws EmpregadoNaoExisteException Se nenhum empregado corresponder ao ID de membro do sindicato.
      */
-    public void lancaTaxaServico(String idMembro, String data, String valorStr) throws ValidacaoException, EmpregadoNaoExisteException {
+    public void lancaTaxaServico(String idMembro, String data, String valorStr, Runnable aoConfirmar) throws ValidacaoException, EmpregadoNaoExisteException {
         if (idMembro == null || idMembro.isEmpty()) throw new MembroNuloException();
-        Map.Entry<Map<String, Empregado>, Integer> estadoAnterior = repository.getState();
-        Runnable undoAction = () -> repository.setState(estadoAnterior);
 
         Runnable commandAction = () -> {
             try {
-                Empregado empregadoAlvo = null;
-                for (Empregado e : repository.findAll()) {
-                    if (e.isSindicalizado() && e.getMembroSindicato().getIdMembro().equals(idMembro)) {
-                        empregadoAlvo = e;
-                        break;
-                    }
-                }
+                Empregado empregadoAlvo = repository.findByIdMembro(idMembro);
                 if (empregadoAlvo == null) throw new MembroNaoExisteException();
-                Empregado modificado = empregadoAlvo.clone();
                 if (!isDataValida(data)) throw new DataInvalidaException();
                 double valor = validarValorPositivo(valorStr);
                 TaxaServico novaTaxa = new TaxaServico(data, valor);
-                modificado.getMembroSindicato().lancaTaxaServico(novaTaxa);
-                repository.save(modificado);
+                repository.aplicar(Alteracoes.lancamento(empregadoAlvo.getId(), (Empregado e) -> e.getMembroSindicato().getTaxasDeServico(), data, novaTaxa));
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
         };
-        commandHistoryService.execute(commandAction, undoAction);
-    }
-
-    /**
-     * Valida se a string de horas é um número positivo.
-     * @param horasStr As horas em formato de String.
-     * @return O valor das horas em double.
-     * @throws ValidacaoException Se as horas não forem um número ou não forem positivas.
-     */
-    private double validarHoras(String horasStr) throws ValidacaoException {
-        try {
-            double horas = Double.parseDouble(horasStr.replace(',', '.'));
-            if (horas <= 0) throw new HorasPositivasException();
-            return horas;
-        } catch (NumberFormatException e) {
-            throw new HorasNumericasException();
-        }
-    }
-
-    /**
-     * Valida se a string de valor é um número positivo.
-     * @param valorStr O valor em formato de String.
-     * @return O valor em double.
-     * @throws ValidacaoException Se o valor não for um número ou não for positivo.
-     */
-    private double validarValorPositivo(String valorStr) throws ValidacaoException {
-        try {
-            double valor = Double.parseDouble(valorStr.replace(',', '.'));
-            if (valor <= 0) throw new ValorPositivoException();
-            return valor;
-        } catch (NumberFormatException e) {
-            throw new ValorNumericoException();
-        }
+        commandHistoryService.execute(commandAction, aoConfirmar);
     }
 }
\ No newline at end of file
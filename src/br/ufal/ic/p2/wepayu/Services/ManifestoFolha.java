@@ -0,0 +1,307 @@
+package br.ufal.ic.p2.wepayu.Services;
+
+import br.ufal.ic.p2.wepayu.models.Banco;
+import br.ufal.ic.p2.wepayu.models.Empregado;
+import br.ufal.ic.p2.wepayu.models.EmpregadoComissionado;
+import br.ufal.ic.p2.wepayu.models.EmpregadoHorista;
+import br.ufal.ic.p2.wepayu.models.LivroDiario;
+import br.ufal.ic.p2.wepayu.models.MembroSindicato;
+import br.ufal.ic.p2.wepayu.models.MetodoPagamento;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Manifesto de uma exportação da folha em andamento, gravado ao lado do arquivo de saída
+ * ({@code <saida>.manifesto}), que permite retomar uma execução interrompida.
+ * <p>
+ * O cabeçalho identifica a execução (marca, versão, data da folha, formato, quantidade de empregados
+ * a processar e impressão digital das suas versões no instantâneo, na ordem de processamento). A
+ * impressão digital cobre tudo o que determina as linhas exportadas de cada empregado (cadastro,
+ * método de pagamento, agenda, datas, sindicato e os totais de horas, vendas e taxas do período), de
+ * modo que uma alteração feita entre a queda e a retomada faz a exportação recomeçar em vez de
+ * misturar lotes calculados sobre estados diferentes. Depois, a cada lote
+ * concluído, é acrescentado um registro {@code [tamanho][crc32][posição][linhas][IDs pagos]} com o
+ * tamanho do arquivo de saída já gravado e os empregados pagos no lote, e o manifesto é sincronizado
+ * com o disco. Um registro incompleto ou corrompido no final (queda no meio de uma escrita) é
+ * descartado, como no journal.
+ * <p>
+ * O estado dos empregados não é gravado aos poucos: ao retomar, os pagamentos dos lotes concluídos
+ * são reaplicados a partir do manifesto sobre o estado anterior à folha, e a folha inteira continua
+ * sendo confirmada como um único comando quando termina. O manifesto é apagado ao final da exportação.
+ */
+final class ManifestoFolha implements AutoCloseable {
+
+    private static final int MARCA = 0x57504D31; // "WPM1"
+    private static final int VERSAO = 2;
+    private static final int TAMANHO_CABECALHO = 32;
+    private static final int TAMANHO_MAXIMO_REGISTRO = 1 << 24;
+
+    /**
+     * Ponto de controle de uma exportação: quantos lotes foram concluídos e até onde o arquivo foi gravado.
+     * @param lotes A quantidade de lotes concluídos.
+     * @param posicao O tamanho do arquivo de saída depois do último lote concluído.
+     * @param linhas A quantidade de contracheques exportados até lá.
+     */
+    record PontoDeControle(int lotes, long posicao, long linhas) {
+        static final PontoDeControle INICIO = new PontoDeControle(0, 0, 0);
+    }
+
+    private final Path arquivo;
+    private final FileChannel canal;
+    private final PontoDeControle retomada;
+    private int lotes;
+
+    /**
+     * Constrói um manifesto aberto.
+     * @param arquivo O caminho do manifesto.
+     * @param canal O canal do manifesto, posicionado no final dos registros válidos.
+     * @param retomada O ponto de controle a partir do qual a exportação continua.
+     */
+    private ManifestoFolha(Path arquivo, FileChannel canal, PontoDeControle retomada) {
+        this.arquivo = arquivo;
+        this.canal = canal;
+        this.retomada = retomada;
+        this.lotes = retomada.lotes();
+    }
+
+    /**
+     * Abre o manifesto de uma exportação. Se já houver um manifesto da mesma execução (mesma data,
+     * formato e versões dos empregados) e o arquivo de saída contiver tudo o que ele registra, a exportação será
+     * retomada: os pagamentos dos lotes concluídos são reaplicados por {@code pagar}. Caso contrário,
+     * um manifesto novo é criado e a exportação começa do início.
+     * @param saida O caminho do arquivo de saída.
+     * @param dataFolha A data da folha.
+     * @param formato O formato da exportação.
+     * @param empregados Os empregados a processar, na ordem de processamento.
+     * @param pagar Ação que reaplica o pagamento de um empregado, pelo ID.
+     * @return O manifesto aberto.
+     * @throws IOException se o manifesto não puder ser lido ou gravado.
+     */
+    static ManifestoFolha abrir(String saida, LocalDate dataFolha, FormatoFolha formato, List<Empregado> empregados,
+                                Consumer<String> pagar) throws IOException {
+        Path arquivo = Path.of(saida + ".manifesto");
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO)
+                .putInt(MARCA).putInt(VERSAO).putLong(dataFolha.toEpochDay()).putInt(formato.ordinal())
+                .putInt(empregados.size()).putLong(impressaoDigital(empregados, dataFolha));
+        cabecalho.flip();
+
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            PontoDeControle retomada = lerPontoDeControle(canal, cabecalho, Path.of(saida));
+            if (retomada != null) {
+                canal.truncate(canal.position());
+                reaplicarPagamentos(canal, pagar);
+            } else {
+                retomada = PontoDeControle.INICIO;
+                canal.truncate(0);
+                canal.position(0);
+                while (cabecalho.hasRemaining()) canal.write(cabecalho);
+                canal.force(false);
+            }
+            return new ManifestoFolha(arquivo, canal, retomada);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Retorna o ponto de controle a partir do qual a exportação continua.
+     * @return O ponto de controle ({@link PontoDeControle#INICIO} para uma execução nova).
+     */
+    PontoDeControle getRetomada() {
+        return retomada;
+    }
+
+    /**
+     * Registra a conclusão de um lote e sincroniza o manifesto com o disco.
+     * O arquivo de saída já deve ter sido sincronizado até {@code posicao}.
+     * @param posicao O tamanho do arquivo de saída depois do lote.
+     * @param linhas A quantidade de contracheques exportados até o fim do lote.
+     * @param pagos Os IDs dos empregados pagos no lote.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    void registrarLote(long posicao, long linhas, List<String> pagos) throws IOException {
+        ByteArrayOutputStream corpo = new ByteArrayOutputStream(16 + pagos.size() * 8);
+        DataOutputStream out = new DataOutputStream(corpo);
+        out.writeLong(posicao);
+        out.writeLong(linhas);
+        out.writeInt(pagos.size());
+        for (String id : pagos) out.writeUTF(id);
+        byte[] bytes = corpo.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ByteBuffer registro = ByteBuffer.allocate(8 + bytes.length).putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+        registro.flip();
+        while (registro.hasRemaining()) canal.write(registro);
+        canal.force(false);
+        lotes++;
+    }
+
+    /**
+     * Marca a exportação como concluída, apagando o manifesto.
+     * @throws IOException se o manifesto não puder ser apagado.
+     */
+    void concluir() throws IOException {
+        canal.close();
+        Files.deleteIfExists(arquivo);
+    }
+
+    /**
+     * Fecha o manifesto, mantendo-o no disco se a exportação não foi concluída.
+     * @throws IOException se ocorrer um erro ao fechar.
+     */
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * Lê o manifesto existente, se for da mesma execução, até o último registro válido.
+     * @param canal O canal do manifesto.
+     * @param cabecalho O cabeçalho esperado.
+     * @param saida O caminho do arquivo de saída.
+     * @return O último ponto de controle, com o canal posicionado logo após ele, ou null se a
+     *         exportação deve recomeçar (manifesto vazio, de outra execução, sem lotes ou com um
+     *         arquivo de saída menor do que o registrado).
+     * @throws IOException se ocorrer um erro de leitura.
+     */
+    private static PontoDeControle lerPontoDeControle(FileChannel canal, ByteBuffer cabecalho, Path saida) throws IOException {
+        if (canal.size() < TAMANHO_CABECALHO) return null;
+        ByteBuffer lido = ByteBuffer.allocate(TAMANHO_CABECALHO);
+        canal.position(0);
+        while (lido.hasRemaining() && canal.read(lido) > 0) {}
+        lido.flip();
+        if (!lido.equals(cabecalho)) return null;
+
+        int lotes = 0;
+        long posicao = 0, linhas = 0, fim = TAMANHO_CABECALHO;
+        byte[] corpo;
+        while ((corpo = lerRegistro(canal)) != null) {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(corpo));
+            posicao = in.readLong();
+            linhas = in.readLong();
+            lotes++;
+            fim = canal.position();
+        }
+        if (lotes == 0 || !Files.exists(saida) || Files.size(saida) < posicao) return null;
+        canal.position(fim);
+        return new PontoDeControle(lotes, posicao, linhas);
+    }
+
+    /**
+     * Reaplica os pagamentos de todos os registros válidos do manifesto.
+     * O canal é devolvido na posição em que estava.
+     * @param canal O canal do manifesto.
+     * @param pagar Ação que reaplica o pagamento de um empregado, pelo ID.
+     * @throws IOException se ocorrer um erro de leitura.
+     */
+    private static void reaplicarPagamentos(FileChannel canal, Consumer<String> pagar) throws IOException {
+        long fim = canal.position();
+        canal.position(TAMANHO_CABECALHO);
+        while (canal.position() < fim) {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(lerRegistro(canal)));
+            in.readLong();
+            in.readLong();
+            for (int i = in.readInt(); i > 0; i--) pagar.accept(in.readUTF());
+        }
+    }
+
+    /**
+     * Lê o próximo registro do manifesto, verificando o CRC.
+     * @param canal O canal do manifesto, posicionado no início do registro.
+     * @return O corpo do registro, ou null se não houver um registro completo e íntegro.
+     * @throws IOException se ocorrer um erro de leitura.
+     */
+    private static byte[] lerRegistro(FileChannel canal) throws IOException {
+        ByteBuffer prefixo = ByteBuffer.allocate(8);
+        while (prefixo.hasRemaining() && canal.read(prefixo) > 0) {}
+        if (prefixo.hasRemaining()) return null;
+        prefixo.flip();
+        int tamanho = prefixo.getInt();
+        int crcEsperado = prefixo.getInt();
+        if (tamanho < 20 || tamanho > TAMANHO_MAXIMO_REGISTRO || tamanho > canal.size() - canal.position()) return null;
+        ByteBuffer corpo = ByteBuffer.allocate(tamanho);
+        while (corpo.hasRemaining() && canal.read(corpo) > 0) {}
+        CRC32 crc = new CRC32();
+        crc.update(corpo.array());
+        return (int) crc.getValue() == crcEsperado ? corpo.array() : null;
+    }
+
+    /**
+     * Calcula a impressão digital das versões dos empregados de uma execução (CRC32, em ordem).
+     * @param empregados Os empregados, como estão no instantâneo.
+     * @param dataFolha A data da folha, que fecha o período dos totais.
+     * @return A impressão digital.
+     */
+    private static long impressaoDigital(List<Empregado> empregados, LocalDate dataFolha) {
+        CRC32 crc = new CRC32();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            for (Empregado empregado : empregados) {
+                bytes.reset();
+                escreverVersao(out, empregado, LivroDiario.paraDia(dataFolha) + 1);
+                crc.update(bytes.toByteArray());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Escreve os dados de um empregado que determinam as suas linhas na exportação.
+     * @param out A saída.
+     * @param e O empregado.
+     * @param fim O dia epoch seguinte à data da folha, fim exclusivo do período pago.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    private static void escreverVersao(DataOutputStream out, Empregado e, int fim) throws IOException {
+        out.writeUTF(e.getId());
+        out.writeUTF(e.getClass().getSimpleName());
+        out.writeUTF(String.valueOf(e.getNome()));
+        out.writeUTF(String.valueOf(e.getEndereco()));
+        out.writeLong(e.getValorSalario() == null ? -1 : e.getValorSalario().getCentavos());
+        if (e instanceof EmpregadoComissionado c) out.writeLong(c.getValorComissao().getPontosBase());
+        MetodoPagamento metodo = e.getMetodoPagamento();
+        out.writeUTF(metodo == null ? "" : metodo.getClass().getSimpleName());
+        if (metodo instanceof Banco b) {
+            out.writeUTF(b.getBanco());
+            out.writeUTF(b.getAgencia());
+            out.writeUTF(b.getContaCorrente());
+        }
+        out.writeUTF(e.getAgendaPagamento() == null ? "" : e.getAgendaPagamento().getDescricao());
+        out.writeLong(e.getDataContratacao() == null ? Long.MIN_VALUE : e.getDataContratacao().toEpochDay());
+        LocalDate ultimo = e.getDataUltimoPagamento();
+        out.writeLong(ultimo == null ? Long.MIN_VALUE : ultimo.toEpochDay());
+        int inicio = ultimo == null ? fim : LivroDiario.paraDia(ultimo) + 1;
+        if (e instanceof EmpregadoHorista h) {
+            out.writeDouble(h.getCartoes().horasNormais(inicio, fim));
+            out.writeDouble(h.getCartoes().horasExtras(inicio, fim));
+        }
+        if (e instanceof EmpregadoComissionado c) out.writeLong(c.getResultadosDeVenda().totalCentavos(inicio, fim));
+        MembroSindicato membro = e.getMembroSindicato();
+        if (membro != null) {
+            out.writeUTF(membro.getIdMembro());
+            out.writeLong(membro.getValorTaxaSindical().getCentavos());
+            out.writeLong(membro.getTaxas().totalCentavos(inicio, fim));
+        }
+        out.writeByte(0);
+    }
+}
@@ -0,0 +1,73 @@
+package br.ufal.ic.p2.wepayu.Services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Agendas de pagamento disponíveis de uma empresa: as três agendas padrão e as criadas por
+ * {@code criarAgendaDePagamentos}.
+ * <p>
+ * Cada fachada tem o seu registro, gravado junto com o snapshot dos empregados e recarregado dele:
+ * fachadas abertas sobre o mesmo diretório, uma depois da outra, enxergam as mesmas agendas, e
+ * empresas em diretórios diferentes não enxergam as agendas umas das outras. As regras compiladas das agendas continuam compartilhadas por todas as empresas
+ * ({@link br.ufal.ic.p2.wepayu.models.RegraAgenda}).
+ */
+public final class RegistroDeAgendas {
+
+    private static final List<String> PADRAO = List.of("semanal 5", "mensal $", "semanal 2 5");
+
+    private final List<String> disponiveis = new ArrayList<>(PADRAO);
+
+    /**
+     * Cria um registro com as agendas padrão.
+     */
+    public RegistroDeAgendas() {
+    }
+
+    /**
+     * Cria um registro com as agendas gravadas em um snapshot.
+     * @param disponiveis As descrições das agendas, ou null para as agendas padrão.
+     */
+    public RegistroDeAgendas(List<String> disponiveis) {
+        if (disponiveis != null) {
+            this.disponiveis.clear();
+            this.disponiveis.addAll(disponiveis);
+        }
+    }
+
+    /**
+     * Retorna as agendas disponíveis, para gravá-las no snapshot.
+     * @return Uma cópia das descrições, na ordem em que foram criadas.
+     */
+    public synchronized List<String> getDisponiveis() {
+        return new ArrayList<>(disponiveis);
+    }
+
+    /**
+     * Verifica se uma agenda está disponível.
+     * @param descricao A descrição da agenda.
+     * @return {@code true} se a agenda existir.
+     */
+    public synchronized boolean contem(String descricao) {
+        return disponiveis.contains(descricao);
+    }
+
+    /**
+     * Torna uma agenda disponível.
+     * @param descricao A descrição da agenda.
+     * @return {@code false} se a agenda já existia.
+     */
+    public synchronized boolean adicionar(String descricao) {
+        if (disponiveis.contains(descricao)) return false;
+        disponiveis.add(descricao);
+        return true;
+    }
+
+    /**
+     * Volta às agendas padrão (usado ao zerar o sistema).
+     */
+    public synchronized void reiniciar() {
+        disponiveis.clear();
+        disponiveis.addAll(PADRAO);
+    }
+}
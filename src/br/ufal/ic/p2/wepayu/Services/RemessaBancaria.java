@@ -0,0 +1,197 @@
+package br.ufal.ic.p2.wepayu.Services;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Arquivo de remessa bancária dos pagamentos em banco, em registros de largura fixa no estilo
+ * CNAB 240: 240 caracteres ASCII por registro, terminados por CRLF.
+ * <p>
+ * Os pagamentos são agrupados em um lote por agência. Os campos alfanuméricos são alinhados à
+ * esquerda e completados com espaços (sem acentos, em maiúsculas, truncados na largura); os
+ * numéricos são alinhados à direita e completados com zeros. Posições (a partir de 1):
+ * <pre>
+ * comuns            : 1-3 banco "001", 4-7 lote ("0000" no header e "9999" no trailer do arquivo), 8 tipo
+ * header de arquivo : 9-38 empresa, 39-46 data de pagamento (ddMMaaaa), 47-54 data de geração
+ * header de lote    : 9-28 agência, 29-36 data de pagamento
+ * detalhe           : 9-13 sequencial no lote, 14-33 agência, 34-53 conta corrente, 54-83 favorecido,
+ *                     84-103 ID do empregado, 104-111 data de pagamento, 112-126 valor líquido (centavos)
+ * trailer de lote   : 9-14 quantidade de registros do lote (com header e trailer), 15-32 soma dos valores
+ * trailer de arquivo: 9-14 quantidade de lotes, 15-20 quantidade de registros, 21-38 soma dos valores
+ * </pre>
+ * O arquivo é gravado à medida que os lotes são fechados; só os totais ficam em memória.
+ */
+final class RemessaBancaria implements AutoCloseable {
+
+    private static final int TAMANHO_REGISTRO = 240;
+    private static final String BANCO = "001";
+    private static final String EMPRESA = "WEPAYU";
+    private static final DateTimeFormatter DATA = DateTimeFormatter.ofPattern("ddMMyyyy");
+
+    private final EscritorDeRelatorio escritor;
+    private final char[] registro = new char[TAMANHO_REGISTRO];
+    private final String dataPagamento;
+
+    private int lotes;
+    private int registros;
+    private long total;
+
+    private String agencia;
+    private int detalhesDoLote;
+    private long totalDoLote;
+
+    /**
+     * Abre o arquivo e grava o header de arquivo.
+     * @param arquivo O caminho do arquivo.
+     * @param dataFolha A data da folha, usada como data de pagamento.
+     * @throws IOException se o arquivo não puder ser aberto.
+     */
+    RemessaBancaria(String arquivo, LocalDate dataFolha) throws IOException {
+        this.escritor = new EscritorDeRelatorio(arquivo, StandardCharsets.US_ASCII, Locale.ROOT);
+        this.dataPagamento = dataFolha.format(DATA);
+        iniciar("0000", '0');
+        alfanumerico(8, 30, EMPRESA);
+        alfanumerico(38, 8, dataPagamento);
+        alfanumerico(46, 8, LocalDate.now().format(DATA));
+        gravar();
+    }
+
+    /**
+     * Abre o lote de uma agência, gravando o header de lote.
+     * @param agencia A agência.
+     * @throws IOException se ocorrer um erro de escrita.
+     * @throws IllegalStateException se houver um lote aberto.
+     */
+    void abrirLote(String agencia) throws IOException {
+        if (this.agencia != null) throw new IllegalStateException("Lote da agencia " + this.agencia + " ainda aberto.");
+        this.agencia = agencia;
+        this.detalhesDoLote = 0;
+        this.totalDoLote = 0;
+        lotes++;
+        iniciar(lote(), '1');
+        alfanumerico(8, 20, agencia);
+        alfanumerico(28, 8, dataPagamento);
+        gravar();
+    }
+
+    /**
+     * Grava o detalhe de um pagamento no lote aberto.
+     * @param contaCorrente A conta corrente do favorecido.
+     * @param favorecido O nome do favorecido.
+     * @param id O ID do empregado.
+     * @param centavos O valor líquido, em centavos.
+     * @throws IOException se ocorrer um erro de escrita.
+     * @throws IllegalStateException se não houver lote aberto.
+     */
+    void pagamento(String contaCorrente, String favorecido, String id, long centavos) throws IOException {
+        if (agencia == null) throw new IllegalStateException("Nenhum lote aberto.");
+        detalhesDoLote++;
+        totalDoLote += centavos;
+        iniciar(lote(), '3');
+        numerico(8, 5, detalhesDoLote);
+        alfanumerico(13, 20, agencia);
+        alfanumerico(33, 20, contaCorrente);
+        alfanumerico(53, 30, favorecido);
+        alfanumerico(83, 20, id);
+        alfanumerico(103, 8, dataPagamento);
+        numerico(111, 15, centavos);
+        gravar();
+    }
+
+    /**
+     * Fecha o lote aberto, gravando o trailer de lote com a quantidade de registros e a soma dos valores.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    void fecharLote() throws IOException {
+        iniciar(lote(), '5');
+        numerico(8, 6, detalhesDoLote + 2);
+        numerico(14, 18, totalDoLote);
+        gravar();
+        total += totalDoLote;
+        agencia = null;
+    }
+
+    /**
+     * Preenche o registro com espaços e os campos comuns a todos os registros.
+     * @param lote O número do lote, já formatado.
+     * @param tipo O tipo do registro.
+     */
+    private void iniciar(String lote, char tipo) {
+        Arrays.fill(registro, ' ');
+        alfanumerico(0, 3, BANCO);
+        alfanumerico(3, 4, lote);
+        registro[7] = tipo;
+    }
+
+    /**
+     * Retorna o número do lote aberto com quatro dígitos.
+     * @return O número do lote.
+     */
+    private String lote() {
+        return String.format("%04d", lotes);
+    }
+
+    /**
+     * Escreve um campo alfanumérico: sem acentos, em maiúsculas, truncado e completado com espaços.
+     * @param inicio A posição inicial (a partir de 0).
+     * @param largura A largura do campo.
+     * @param valor O valor.
+     */
+    private void alfanumerico(int inicio, int largura, String valor) {
+        String ascii = Normalizer.normalize(valor, Normalizer.Form.NFD);
+        int j = inicio;
+        for (int i = 0; i < ascii.length() && j < inicio + largura; i++) {
+            char c = ascii.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+            registro[j++] = c >= 0x20 && c < 0x7F ? Character.toUpperCase(c) : ' ';
+        }
+    }
+
+    /**
+     * Escreve um campo numérico, completado com zeros à esquerda.
+     * @param inicio A posição inicial (a partir de 0).
+     * @param largura A largura do campo.
+     * @param valor O valor (não negativo e com no máximo {@code largura} dígitos).
+     * @throws IllegalArgumentException se o valor não couber no campo.
+     */
+    private void numerico(int inicio, int largura, long valor) {
+        long resto = valor;
+        for (int j = inicio + largura - 1; j >= inicio; j--) {
+            registro[j] = (char) ('0' + resto % 10);
+            resto /= 10;
+        }
+        if (valor < 0 || resto != 0) throw new IllegalArgumentException("Valor " + valor + " nao cabe em " + largura + " posicoes.");
+    }
+
+    /**
+     * Grava o registro montado.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    private void gravar() throws IOException {
+        escritor.texto(String.valueOf(registro)).texto("\r\n");
+        registros++;
+    }
+
+    /**
+     * Fecha o lote aberto (se houver), grava o trailer de arquivo e fecha o arquivo.
+     * @throws IOException se ocorrer um erro de escrita.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (agencia != null) fecharLote();
+            iniciar("9999", '9');
+            numerico(8, 6, lotes);
+            numerico(14, 6, registros + 1);
+            numerico(20, 18, total);
+            gravar();
+        } finally {
+            escritor.close();
+        }
+    }
+}
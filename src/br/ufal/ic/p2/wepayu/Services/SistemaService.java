@@ -3,9 +3,6 @@ package br.ufal.ic.p2.wepayu.Services;
 import br.ufal.ic.p2.wepayu.Exception.EmpregadoNaoExisteException;
 import br.ufal.ic.p2.wepayu.Exception.ValidacaoException;
 import br.ufal.ic.p2.wepayu.Repository.EmpregadoRepository;
-import br.ufal.ic.p2.wepayu.models.Empregado;
-
-import java.util.Map;
 
 /**
  * Serviço responsável por operações globais do sistema, como zerar e encerrar.
@@ -13,15 +10,27 @@ import java.util.Map;
 public class SistemaService extends BaseService {
 
     private final CommandHistoryService commandHistoryService;
+    private final RegistroDeAgendas agendas;
 
     /**
-     * Constrói uma instância de SistemaService.
+     * Constrói uma instância de SistemaService com as agendas padrão.
      * @param repository O repositório para acesso aos dados.
      * @param commandHistoryService O serviço de histórico de comandos.
      */
     public SistemaService(EmpregadoRepository repository, CommandHistoryService commandHistoryService) {
+        this(repository, commandHistoryService, new RegistroDeAgendas());
+    }
+
+    /**
+     * Constrói uma instância de SistemaService para as agendas de uma empresa.
+     * @param repository O repositório para acesso aos dados.
+     * @param commandHistoryService O serviço de histórico de comandos.
+     * @param agendas As agendas de pagamento disponíveis da empresa.
+     */
+    public SistemaService(EmpregadoRepository repository, CommandHistoryService commandHistoryService, RegistroDeAgendas agendas) {
         super(repository);
         this.commandHistoryService = commandHistoryService;
+        this.agendas = agendas;
     }
 
     /**
@@ -30,21 +39,18 @@ public class SistemaService extends BaseService {
      * @throws EmpregadoNaoExisteException se um empregado esperado não for encontrado.
      */
     public void zerarSistema() throws ValidacaoException, EmpregadoNaoExisteException {
-        Map.Entry<Map<String, Empregado>, Integer> estadoAnterior = repository.getState();
-        Runnable undoAction = () -> repository.setState(estadoAnterior);
-
         Runnable commandAction = () -> {
             repository.zerarDados();
-            EmpregadoService.resetAgendasDisponiveis();
+            agendas.reiniciar();
         };
 
-        commandHistoryService.execute(commandAction, undoAction);
+        commandHistoryService.execute(commandAction);
     }
 
     /**
-     * Encerra o sistema, salvando os dados.
+     * Encerra o sistema, salvando os dados e as agendas de pagamento disponíveis.
      */
     public void encerrarSistema() {
-        repository.salvarDados();
+        repository.salvarDados(agendas.getDisponiveis());
     }
 }
\ No newline at end of file
@@ -1,17 +1,15 @@
 package br.ufal.ic.p2.wepayu.models;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-import java.time.temporal.TemporalAdjusters;
-import java.util.Objects;
 
 /**
  * Representa a agenda de pagamento de um empregado, definindo a frequência e o dia do pagamento.
+ * As verificações de datas são delegadas à {@link RegraAgenda} compilada da descrição.
  */
 public class AgendaPagamento {
 
     private String descricao;
+    private transient RegraAgenda regra;
 
     /**
      * Construtor padrão.
@@ -40,6 +38,20 @@ public class AgendaPagamento {
      */
     public void setDescricao(String descricao) {
         this.descricao = descricao;
+        this.regra = null;
+    }
+
+    /**
+     * Retorna a regra compilada desta agenda, compartilhada por todas as agendas com a mesma descrição.
+     * @return A regra da agenda.
+     */
+    public RegraAgenda getRegra() {
+        RegraAgenda atual = this.regra;
+        if (atual == null) {
+            atual = RegraAgenda.de(descricao);
+            this.regra = atual;
+        }
+        return atual;
     }
 
     /**
@@ -47,48 +59,17 @@ public class AgendaPagamento {
      * @param data A data a ser verificada.
      * @return {@code true} se for um dia de pagamento, {@code false} caso contrário.
      */
-    public boolean isDiaDePagamento(LocalDate data) { // LÓGICA ATUALIZADA
-        String[] parts = descricao.split(" ");
-        String tipo = parts[0];
-
-        if (tipo.equalsIgnoreCase("mensal")) {
-            String dia = parts[1];
-            if (dia.equals("$")) {
-                LocalDate ultimoDiaUtil = data.with(TemporalAdjusters.lastDayOfMonth());
-                while (ultimoDiaUtil.getDayOfWeek() == DayOfWeek.SATURDAY || ultimoDiaUtil.getDayOfWeek() == DayOfWeek.SUNDAY) {
-                    ultimoDiaUtil = ultimoDiaUtil.minusDays(1);
-                }
-                return data.equals(ultimoDiaUtil);
-            } else {
-                return data.getDayOfMonth() == Integer.parseInt(dia);
-            }
-        } else if (tipo.equalsIgnoreCase("semanal")) {
-            int frequencia, diaDaSemana;
-            if (parts.length == 2) { // Ex: "semanal 5"
-                frequencia = 1;
-                diaDaSemana = Integer.parseInt(parts[1]);
-            } else { // Ex: "semanal 2 5"
-                frequencia = Integer.parseInt(parts[1]);
-                diaDaSemana = Integer.parseInt(parts[2]);
-            }
-
-            if (data.getDayOfWeek().getValue() != diaDaSemana) {
-                return false;
-            }
-
-            // Lógica Unificada: usa uma data de referência consistente
-            LocalDate dataReferencia = LocalDate.of(2005, 1, 7).with(TemporalAdjusters.previousOrSame(DayOfWeek.of(diaDaSemana)));
-
-            if (frequencia > 1) {
-                dataReferencia = dataReferencia.plusWeeks(frequencia - 1);
-            }
-
-            if (data.isBefore(dataReferencia)) return false;
+    public boolean isDiaDePagamento(LocalDate data) {
+        return getRegra().isDiaDePagamento(data);
+    }
 
-            long semanasDesdeReferencia = ChronoUnit.WEEKS.between(dataReferencia, data);
-            return semanasDesdeReferencia % frequencia == 0;
-        }
-        return false;
+    /**
+     * Retorna o primeiro dia de pagamento a partir de uma data (inclusive).
+     * @param data A data inicial.
+     * @return O próximo dia de pagamento, ou null se a agenda nunca paga.
+     */
+    public LocalDate proximoDiaDePagamento(LocalDate data) {
+        return getRegra().proximoDiaDePagamento(data);
     }
 
     /**
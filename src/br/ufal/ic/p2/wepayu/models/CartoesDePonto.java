@@ -0,0 +1,85 @@
+package br.ufal.ic.p2.wepayu.models;
+
+/**
+ * Cartões de ponto de um empregado horista, ordenados por data (ver {@link LivroDiario}).
+ * Mantém somas acumuladas separadas para as horas normais (até 8 por dia) e as horas extras,
+ * de modo que o total de cada uma em um período custa O(log n).
+ */
+public class CartoesDePonto extends LivroDiario<CartaoDePonto> {
+
+    private static final double JORNADA_NORMAL = 8;
+    private static final int HORAS_NORMAIS = 0;
+    private static final int HORAS_EXTRAS = 1;
+
+    /**
+     * Soma as horas normais (até 8 por dia) no período [inicio, fim).
+     * @param inicio O dia epoch inicial (inclusivo).
+     * @param fim O dia epoch final (exclusivo).
+     * @return O total de horas normais.
+     */
+    public double horasNormais(int inicio, int fim) {
+        return somar(HORAS_NORMAIS, inicio, fim);
+    }
+
+    /**
+     * Soma as horas extras (acima de 8 por dia) no período [inicio, fim).
+     * @param inicio O dia epoch inicial (inclusivo).
+     * @param fim O dia epoch final (exclusivo).
+     * @return O total de horas extras.
+     */
+    public double horasExtras(int inicio, int fim) {
+        return somar(HORAS_EXTRAS, inicio, fim);
+    }
+
+    /**
+     * Retorna as horas do cartão na posição informada (em ordem de data).
+     * @param i A posição.
+     * @return As horas trabalhadas.
+     */
+    public double horas(int i) {
+        return valor(i);
+    }
+
+    /**
+     * Cria uma cópia independente dos cartões.
+     * @return A cópia.
+     */
+    public CartoesDePonto copia() {
+        CartoesDePonto copia = new CartoesDePonto();
+        copia.copiarDe(this);
+        return copia;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int colunas() {
+        return 2;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double parcela(int coluna, double horas) {
+        if (coluna == HORAS_NORMAIS) return Math.min(horas, JORNADA_NORMAL);
+        return horas > JORNADA_NORMAL ? horas - JORNADA_NORMAL : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected CartaoDePonto criarRegistro(String data, double horas) {
+        return new CartaoDePonto(data, horas);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double valorDe(CartaoDePonto cartao) {
+        return cartao.getHoras();
+    }
+}
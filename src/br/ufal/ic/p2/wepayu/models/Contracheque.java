@@ -0,0 +1,121 @@
+package br.ufal.ic.p2.wepayu.models;
+
+/**
+ * Contracheque de um empregado em uma folha de pagamento.
+ * Reúne os valores calculados uma única vez por empregado e reutilizados pelo relatório,
+ * pelos totais e pela atualização do último pagamento. Os valores monetários estão em centavos.
+ */
+public class Contracheque {
+
+    private final Empregado empregado;
+    private final long salarioBruto;
+    private final long descontos;
+    private final double horasNormais;
+    private final double horasExtras;
+    private final long salarioFixo;
+    private final long vendas;
+    private final long comissao;
+
+    /**
+     * Constrói um contracheque.
+     * @param empregado O empregado pago.
+     * @param salarioBruto O salário bruto, em centavos.
+     * @param descontos O total de descontos (taxas sindicais e de serviço), em centavos.
+     * @param horasNormais As horas normais do período (horistas).
+     * @param horasExtras As horas extras do período (horistas).
+     * @param salarioFixo O salário fixo proporcional, em centavos (comissionados).
+     * @param vendas O total de vendas do período, em centavos (comissionados).
+     * @param comissao A comissão sobre as vendas, em centavos (comissionados).
+     */
+    public Contracheque(Empregado empregado, long salarioBruto, long descontos, double horasNormais, double horasExtras,
+                        long salarioFixo, long vendas, long comissao) {
+        this.empregado = empregado;
+        this.salarioBruto = salarioBruto;
+        this.descontos = descontos;
+        this.horasNormais = horasNormais;
+        this.horasExtras = horasExtras;
+        this.salarioFixo = salarioFixo;
+        this.vendas = vendas;
+        this.comissao = comissao;
+    }
+
+    /**
+     * Retorna o empregado pago.
+     * @return O empregado.
+     */
+    public Empregado getEmpregado() {
+        return empregado;
+    }
+
+    /**
+     * Retorna o salário bruto.
+     * @return O salário bruto.
+     */
+    public long getSalarioBruto() {
+        return salarioBruto;
+    }
+
+    /**
+     * Retorna o total de descontos.
+     * @return Os descontos.
+     */
+    public long getDescontos() {
+        return descontos;
+    }
+
+    /**
+     * Retorna o salário líquido (nunca negativo).
+     * @return O salário líquido.
+     */
+    public long getSalarioLiquido() {
+        return Math.max(0, salarioBruto - descontos);
+    }
+
+    /**
+     * Verifica se o empregado recebe algum valor nesta folha.
+     * @return {@code true} se o salário bruto superar os descontos.
+     */
+    public boolean isPago() {
+        return (salarioBruto - descontos) > 0;
+    }
+
+    /**
+     * Retorna as horas normais do período.
+     * @return As horas normais.
+     */
+    public double getHorasNormais() {
+        return horasNormais;
+    }
+
+    /**
+     * Retorna as horas extras do período.
+     * @return As horas extras.
+     */
+    public double getHorasExtras() {
+        return horasExtras;
+    }
+
+    /**
+     * Retorna o salário fixo proporcional.
+     * @return O salário fixo.
+     */
+    public long getSalarioFixo() {
+        return salarioFixo;
+    }
+
+    /**
+     * Retorna o total de vendas do período.
+     * @return As vendas.
+     */
+    public long getVendas() {
+        return vendas;
+    }
+
+    /**
+     * Retorna a comissão sobre as vendas.
+     * @return A comissão.
+     */
+    public long getComissao() {
+        return comissao;
+    }
+}
@@ -0,0 +1,117 @@
+package br.ufal.ic.p2.wepayu.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Valor monetário em ponto fixo, guardado como um número inteiro de centavos.
+ * <p>
+ * Os valores de entrada ("1300,00", "23,32", "1500") são interpretados uma única vez;
+ * a partir daí os cálculos da folha usam apenas aritmética de {@code long} sobre os centavos,
+ * exata e sem alocação. A conversão para texto acontece só na apresentação.
+ */
+public final class Dinheiro {
+
+    private final long centavos;
+
+    /**
+     * Constrói um valor a partir dos centavos.
+     * @param centavos O valor em centavos.
+     */
+    private Dinheiro(long centavos) {
+        this.centavos = centavos;
+    }
+
+    /**
+     * Cria um valor a partir dos centavos.
+     * @param centavos O valor em centavos.
+     * @return O valor monetário.
+     */
+    public static Dinheiro deCentavos(long centavos) {
+        return new Dinheiro(centavos);
+    }
+
+    /**
+     * Interpreta um valor em texto, com vírgula ou ponto decimal.
+     * Casas além dos centavos são arredondadas (meio para cima), como na formatação com duas casas.
+     * @param texto O valor em texto.
+     * @return O valor monetário.
+     * @throws NumberFormatException se o texto não for numérico.
+     */
+    public static Dinheiro de(String texto) {
+        return new Dinheiro(paraEscala(texto, 2));
+    }
+
+    /**
+     * Converte um valor em texto para um inteiro na escala decimal informada.
+     * Aceita as mesmas formas de {@link Double#parseDouble(String)}.
+     * @param texto O valor em texto.
+     * @param casas A quantidade de casas decimais da escala.
+     * @return O valor escalado, arredondado meio para cima.
+     * @throws NumberFormatException se o texto não for numérico.
+     */
+    static long paraEscala(String texto, int casas) {
+        String normalizado = texto.replace(',', '.').trim();
+        BigDecimal valor;
+        try {
+            valor = new BigDecimal(normalizado);
+        } catch (NumberFormatException e) {
+            valor = BigDecimal.valueOf(Double.parseDouble(normalizado));
+        }
+        return valor.setScale(casas, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Retorna o valor em centavos.
+     * @return Os centavos.
+     */
+    public long getCentavos() {
+        return centavos;
+    }
+
+    /**
+     * Converte centavos para reais, para uso em formatação ({@code %.2f}).
+     * @param centavos O valor em centavos.
+     * @return O valor em reais.
+     */
+    public static double emReais(long centavos) {
+        return centavos / 100.0;
+    }
+
+    /**
+     * Formata um valor em centavos no padrão "1234,56".
+     * @param centavos O valor em centavos.
+     * @return O valor formatado.
+     */
+    public static String formatar(long centavos) {
+        long absoluto = Math.abs(centavos);
+        long resto = absoluto % 100;
+        return (centavos < 0 ? "-" : "") + absoluto / 100 + (resto < 10 ? ",0" : ",") + resto;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * O valor é formatado no padrão "1234,56".
+     */
+    @Override
+    public String toString() {
+        return formatar(centavos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Dinheiro outro && outro.centavos == centavos;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(centavos);
+    }
+}
@@ -5,5 +5,10 @@ package br.ufal.ic.p2.wepayu.models;
  * Esta classe atua como um marcador de tipo e não possui atributos próprios.
  */
 public class EmMaos extends MetodoPagamento {
-    // A classe pode ser vazia
+
+    /**
+     * Instância compartilhada: a classe não tem estado, então todos os empregados (de todas as
+     * empresas) pagos por cheque em mãos podem usar o mesmo objeto.
+     */
+    public static final EmMaos INSTANCIA = new EmMaos();
 }
\ No newline at end of file
@@ -16,7 +16,7 @@ public abstract class Empregado {
     private String nome;
     private String endereco;
     private String tipo;
-    private String salario;
+    private Dinheiro salario;
     private MetodoPagamento metodoPagamento;
     private MembroSindicato membroSindicato;
     private AgendaPagamento agendaPagamento;
@@ -41,19 +41,19 @@ public abstract class Empregado {
         this.nome = nome;
         this.endereco = endereco;
         this.tipo = tipo;
-        this.salario = salario;
-        this.metodoPagamento = new EmMaos(); // Padrão
+        setSalario(salario);
+        this.metodoPagamento = EmMaos.INSTANCIA; // Padrão
     }
 
     /**
      * Método abstrato para calcular o salário bruto de um empregado.
      * @param dataFolha A data da folha de pagamento.
      * @param consultaService O serviço de consulta para obter dados necessários.
-     * @return O valor do salário bruto.
+     * @return O valor do salário bruto, em centavos.
      * @throws ValidacaoException se ocorrer um erro de validação.
      * @throws EmpregadoNaoExisteException se o empregado não for encontrado.
      */
-    public abstract double calcularSalarioBruto(LocalDate dataFolha, ConsultaService consultaService) throws ValidacaoException, EmpregadoNaoExisteException;
+    public abstract long calcularSalarioBruto(LocalDate dataFolha, ConsultaService consultaService) throws ValidacaoException, EmpregadoNaoExisteException;
 
     /**
      * Copia os atributos de um empregado para outro (usado no padrão Prototype).
@@ -64,7 +64,7 @@ public abstract class Empregado {
         cloned.setNome(this.nome);
         cloned.setEndereco(this.endereco);
         cloned.setTipo(this.tipo);
-        cloned.setSalario(this.salario);
+        cloned.setValorSalario(this.salario);
 
         // CORREÇÃO: Garante a cópia profunda dos objetos mutáveis.
         if (this.metodoPagamento instanceof Banco) {
@@ -141,20 +141,31 @@ public abstract class Empregado {
      * @return O salário formatado.
      */
     public String getSalario() {
-        if (this.salario == null) return "0,00";
+        return this.salario == null ? "0,00" : this.salario.toString();
+    }
+
+    /**
+     * Define o salário do empregado, interpretando o texto uma única vez.
+     * Um texto não numérico deixa o salário indefinido (exibido como "0,00").
+     * @param salario O novo salário.
+     */
+    public void setSalario(String salario) {
         try {
-            double valorNumerico = Double.parseDouble(this.salario.replace(',', '.'));
-            return String.format("%.2f", valorNumerico).replace('.', ',');
-        } catch (NumberFormatException e) {
-            return "0,00";
+            this.salario = salario == null ? null : Dinheiro.de(salario);
+        } catch (NumberFormatException | ArithmeticException e) {
+            this.salario = null;
         }
     }
-
     /**
-     * Define o salário do empregado.
+     * Retorna o salário como valor monetário.
+     * @return O salário, ou null se indefinido.
+     */
+    public Dinheiro getValorSalario() { return salario; }
+    /**
+     * Define o salário como valor monetário.
      * @param salario O novo salário.
      */
-    public void setSalario(String salario) { this.salario = salario; }
+    public void setValorSalario(Dinheiro salario) { this.salario = salario; }
     /**
      * Retorna o método de pagamento.
      * @return O método de pagamento.
@@ -216,6 +227,6 @@ public abstract class Empregado {
      * @return O salário sem formatação.
      */
     public String getSalarioSemFormato() {
-        return this.salario;
+        return this.salario == null ? null : this.salario.toString();
     }
 }
\ No newline at end of file
@@ -35,20 +35,13 @@ public class EmpregadoAssalariado extends Empregado implements Serializable {
      * Calcula o salário bruto com base na agenda de pagamento (mensal ou semanal).
      */
     @Override
-    public double calcularSalarioBruto(LocalDate dataFolha, ConsultaService consultaService) {
-        String agenda = getAgendaPagamento().getDescricao();
-        double salarioBase = Double.parseDouble(getSalarioSemFormato().replace(',', '.'));
+    public long calcularSalarioBruto(LocalDate dataFolha, ConsultaService consultaService) {
+        RegraAgenda agenda = getAgendaPagamento().getRegra();
+        long salarioBase = getValorSalario().getCentavos();
 
-        if (agenda.startsWith("semanal")) {
-            int frequencia = 1;
-            if (agenda.split(" ").length == 3) {
-                frequencia = Integer.parseInt(agenda.split(" ")[1]);
-            } else if (getAgendaPagamento().getDescricao().equals("semanal 2 5")) {
-                frequencia = 2;
-            }
-
-            double result = (salarioBase * 12 / 52.0) * frequencia;
-            return Math.floor(result * 100) / 100.0;
+        if (agenda.isSemanal()) {
+            int frequencia = agenda.getFrequencia();
+            return Math.floorDiv(salarioBase * 12 * frequencia, 52);
         }
 
         return salarioBase;
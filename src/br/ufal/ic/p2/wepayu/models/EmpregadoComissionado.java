@@ -1,25 +1,21 @@
 package br.ufal.ic.p2.wepayu.models;
 
-import br.ufal.ic.p2.wepayu.Exception.EmpregadoNaoExisteException;
-import br.ufal.ic.p2.wepayu.Exception.ValidacaoException;
 import br.ufal.ic.p2.wepayu.Services.ConsultaService;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Representa um empregado comissionado, que recebe um salário fixo mais uma comissão sobre as vendas.
  */
 public class EmpregadoComissionado extends Empregado {
-    private Map<String, ResultadoVenda> vendas;
-    private String comissao;
+    private ResultadosDeVenda vendas;
+    private Percentual comissao;
 
     /**
      * Construtor padrão que inicializa a lista de vendas.
      */
     public EmpregadoComissionado() {
-        this.vendas = new HashMap<>();
+        this.vendas = new ResultadosDeVenda();
     }
 
     /**
@@ -33,8 +29,8 @@ public class EmpregadoComissionado extends Empregado {
      */
     public EmpregadoComissionado(String id, String nome, String endereco, String tipo, String salario, String comissao) {
         super(id, nome, endereco, tipo, salario);
-        this.comissao = comissao;
-        this.vendas = new HashMap<>();
+        setComissao(comissao);
+        this.vendas = new ResultadosDeVenda();
         // CORREÇÃO: Define a data de contratação e o último pagamento inicial.
         setDataContratacao(LocalDate.of(2005, 1, 1));
         setDataUltimoPagamento(LocalDate.of(2004, 12, 31));
@@ -46,33 +42,36 @@ public class EmpregadoComissionado extends Empregado {
      * Calcula o salário bruto com base no salário fixo proporcional e na comissão sobre as vendas do período.
      */
     @Override
-    public double calcularSalarioBruto(LocalDate dataFolha, ConsultaService consultaService) throws ValidacaoException, EmpregadoNaoExisteException {
-        String agenda = getAgendaPagamento().getDescricao();
-        double salarioBase = Double.parseDouble(getSalarioSemFormato().replace(',', '.'));
-
-        LocalDate dataInicialPagamento = getDataUltimoPagamento().plusDays(1);
-        LocalDate dataFinalPagamento = dataFolha.plusDays(1);
+    public long calcularSalarioBruto(LocalDate dataFolha, ConsultaService consultaService) {
+        int inicio = ResultadosDeVenda.paraDia(getDataUltimoPagamento()) + 1;
+        int fim = ResultadosDeVenda.paraDia(dataFolha) + 1;
 
-        double valorDasVendas = Double.parseDouble(consultaService.getVendasRealizadas(getId(), dataInicialPagamento.format(DateTimeFormatter.ofPattern("d/M/yyyy")), dataFinalPagamento.format(DateTimeFormatter.ofPattern("d/M/yyyy"))).replace(',', '.'));
-        double valorDaComissao = consultaService.getComissaoSobreVendas(this, valorDasVendas);
+        long valorDasVendas = vendas.totalCentavos(inicio, fim);
+        long valorDaComissao = consultaService.getComissaoSobreVendas(this, valorDasVendas);
+        return calcularSalarioBruto(valorDaComissao);
+    }
 
-        double salarioBruto;
+    /**
+     * Calcula o salário bruto a partir da comissão já apurada no período.
+     * O fixo proporcional é truncado nos centavos antes de somado à comissão.
+     * @param valorDaComissao O valor da comissão sobre as vendas do período, em centavos.
+     * @return O valor do salário bruto, em centavos.
+     */
+    public long calcularSalarioBruto(long valorDaComissao) {
+        RegraAgenda agenda = getAgendaPagamento().getRegra();
+        long salarioBase = getValorSalario().getCentavos();
+        long salarioBruto;
 
-        if (agenda.startsWith("semanal")) {
+        if (agenda.isSemanal()) {
             // CORREÇÃO: Cálculo do salário fixo proporcional à frequência semanal.
-            int frequencia = 1;
-            if (agenda.split(" ").length == 3) {
-                frequencia = Integer.parseInt(agenda.split(" ")[1]);
-            } else if (getAgendaPagamento().getDescricao().equals("semanal 2 5")) {
-                frequencia = 2; // Caso específico da agenda padrão quinzenal
-            }
-            double fixoProporcional = (salarioBase * 12 / 52.0) * frequencia;
+            int frequencia = agenda.getFrequencia();
+            long fixoProporcional = Math.floorDiv(salarioBase * 12 * frequencia, 52);
             salarioBruto = fixoProporcional + valorDaComissao;
         } else { // mensal
             salarioBruto = salarioBase + valorDaComissao;
         }
 
-        return Math.floor((salarioBruto * 100) + 1e-9) / 100.0;
+        return salarioBruto;
     }
 
     /**
@@ -80,7 +79,7 @@ public class EmpregadoComissionado extends Empregado {
      * @param venda O objeto {@link ResultadoVenda} a ser adicionado.
      */
     public void lancaVenda(ResultadoVenda venda) {
-        this.vendas.put(venda.getData(), venda);
+        this.vendas.lancar(ResultadosDeVenda.paraDia(venda.getData()), venda.getValor());
     }
 
     /**
@@ -91,12 +90,25 @@ public class EmpregadoComissionado extends Empregado {
         return vendas;
     }
 
+    /**
+     * Retorna os resultados de venda ordenados por data, para consultas por período.
+     * @return Os resultados de venda.
+     */
+    public ResultadosDeVenda getResultadosDeVenda() {
+        return vendas;
+    }
+
     /**
      * Define o mapa de resultados de venda.
      * @param vendas O novo mapa de vendas.
      */
     public void setVendas(Map<String, ResultadoVenda> vendas) {
-        this.vendas = vendas;
+        if (vendas instanceof ResultadosDeVenda resultados) {
+            this.vendas = resultados;
+        } else {
+            this.vendas = new ResultadosDeVenda();
+            if (vendas != null) this.vendas.putAll(vendas);
+        }
     }
 
     /**
@@ -104,17 +116,43 @@ public class EmpregadoComissionado extends Empregado {
      * @return A taxa de comissão como string.
      */
     public String getComissao() {
-        if (this.comissao == null) return "0,00";
-        String comissaoParaParse = this.comissao.replace(',', '.');
-        double valorNumerico = Double.parseDouble(comissaoParaParse);
-        return String.format("%.2f", valorNumerico).replace('.', ',');
+        return this.comissao == null ? "0,00" : this.comissao.formatar();
     }
 
     /**
-     * Define a taxa de comissão.
+     * Retorna a taxa de comissão sem arredondamento ("0,055").
+     * @return A taxa de comissão, ou null se indefinida.
+     */
+    public String getComissaoSemFormato() {
+        return this.comissao == null ? null : this.comissao.toString();
+    }
+
+    /**
+     * Define a taxa de comissão, interpretando o texto uma única vez.
+     * Um texto não numérico deixa a taxa indefinida (exibida como "0,00").
      * @param comissao A nova taxa de comissão.
      */
     public void setComissao(String comissao) {
+        try {
+            this.comissao = comissao == null ? null : Percentual.de(comissao);
+        } catch (NumberFormatException | ArithmeticException e) {
+            this.comissao = null;
+        }
+    }
+
+    /**
+     * Retorna a taxa de comissão em pontos-base.
+     * @return A taxa de comissão, ou null se indefinida.
+     */
+    public Percentual getValorComissao() {
+        return this.comissao;
+    }
+
+    /**
+     * Define a taxa de comissão.
+     * @param comissao A nova taxa de comissão.
+     */
+    public void setValorComissao(Percentual comissao) {
         this.comissao = comissao;
     }
 
@@ -125,12 +163,8 @@ public class EmpregadoComissionado extends Empregado {
     public Empregado clone() {
         EmpregadoComissionado cloned = new EmpregadoComissionado();
         super.copy(cloned);
-        cloned.setComissao(this.getComissao());
-        Map<String, ResultadoVenda> clonedVendas = new HashMap<>();
-        for (Map.Entry<String, ResultadoVenda> entry : this.vendas.entrySet()) {
-            clonedVendas.put(entry.getKey(), entry.getValue().clone());
-        }
-        cloned.setVendas(clonedVendas);
+        cloned.setValorComissao(this.comissao);
+        cloned.setVendas(this.vendas.copia());
         return cloned;
     }
 }
\ No newline at end of file
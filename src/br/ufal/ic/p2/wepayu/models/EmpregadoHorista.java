@@ -1,27 +1,23 @@
 package br.ufal.ic.p2.wepayu.models;
 
-import br.ufal.ic.p2.wepayu.Exception.EmpregadoNaoExisteException;
-import br.ufal.ic.p2.wepayu.Exception.ValidacaoException;
 import br.ufal.ic.p2.wepayu.Services.ConsultaService;
 import java.io.Serializable;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Classe que representa um empregado que recebe por hora trabalhada.
- * Armazena os cartões de ponto associados a este empregado.
+ * Armazena os cartões de ponto associados a este empregado, ordenados por data ({@link CartoesDePonto}).
  */
 public class EmpregadoHorista extends Empregado implements Serializable {
 
-    private Map<String, CartaoDePonto> cartoesDePonto;
+    private CartoesDePonto cartoesDePonto;
 
     /**
      * Construtor padrão que inicializa a lista de cartões de ponto.
      */
     public EmpregadoHorista() {
-        this.cartoesDePonto = new HashMap<>();
+        this.cartoesDePonto = new CartoesDePonto();
     }
 
     /**
@@ -34,7 +30,7 @@ public class EmpregadoHorista extends Empregado implements Serializable {
      */
     public EmpregadoHorista(String id, String nome, String endereco, String tipo, String salario) {
         super(id, nome, endereco, tipo, salario);
-        this.cartoesDePonto = new HashMap<>();
+        this.cartoesDePonto = new CartoesDePonto();
     }
 
     /**
@@ -44,17 +40,34 @@ public class EmpregadoHorista extends Empregado implements Serializable {
      * Horas extras são pagas com um adicional de 50%.
      */
     @Override
-    public double calcularSalarioBruto(LocalDate dataFolha, ConsultaService consultaService) throws ValidacaoException, EmpregadoNaoExisteException {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("d/M/yyyy");
-        String dataInicialStr = getDataUltimoPagamento().plusDays(1).format(formatter);
-        String dataFinalStr = dataFolha.plusDays(1).format(formatter);
+    public long calcularSalarioBruto(LocalDate dataFolha, ConsultaService consultaService) {
+        int inicio = CartoesDePonto.paraDia(getDataUltimoPagamento()) + 1;
+        int fim = CartoesDePonto.paraDia(dataFolha) + 1;
+        return calcularSalarioBruto(cartoesDePonto.horasNormais(inicio, fim), cartoesDePonto.horasExtras(inicio, fim));
+    }
 
-        double horasNormais = Double.parseDouble(consultaService.getHorasNormaisTrabalhadas(getId(), dataInicialStr, dataFinalStr).replace(',', '.'));
-        double horasExtras = Double.parseDouble(consultaService.getHorasExtrasTrabalhadas(getId(), dataInicialStr, dataFinalStr).replace(',', '.'));
-        double taxaHoraria = Double.parseDouble(getSalarioSemFormato().replace(',', '.'));
+    /**
+     * Calcula o salário bruto a partir das horas já apuradas no período, arredondadas para
+     * décimos de hora, como são exibidas. Horas extras são pagas com um adicional de 50%;
+     * o resultado é truncado nos centavos.
+     * @param horasNormais O total de horas normais.
+     * @param horasExtras O total de horas extras.
+     * @return O valor do salário bruto, em centavos.
+     */
+    public long calcularSalarioBruto(double horasNormais, double horasExtras) {
+        long taxaHoraria = getValorSalario().getCentavos();
+        // Em centésimos de centavo: cada décimo de hora normal vale 10x a taxa, e o de hora extra 15x.
+        long centesimosDeCentavo = decimosDeHora(horasNormais) * taxaHoraria * 10 + decimosDeHora(horasExtras) * taxaHoraria * 15;
+        return Math.floorDiv(centesimosDeCentavo, 100);
+    }
 
-        double salario = (horasNormais * taxaHoraria) + (horasExtras * taxaHoraria * 1.5);
-        return Math.floor((salario * 100) + 1e-9) / 100.0;
+    /**
+     * Arredonda uma quantidade de horas para décimos de hora.
+     * @param horas As horas.
+     * @return As horas em décimos.
+     */
+    public static long decimosDeHora(double horas) {
+        return Math.round(horas * 10);
     }
 
     /**
@@ -62,24 +75,37 @@ public class EmpregadoHorista extends Empregado implements Serializable {
      * @param cartao O objeto {@link CartaoDePonto} a ser adicionado.
      */
     public void lancaCartao(CartaoDePonto cartao) {
-        this.cartoesDePonto.put(cartao.getData(), cartao);
+        this.cartoesDePonto.lancar(CartoesDePonto.paraDia(cartao.getData()), cartao.getHoras());
     }
 
     // Getters e Setters
     /**
-     * Retorna o mapa de cartões de ponto.
+     * Retorna o mapa de cartões de ponto, indexado pela data ("d/M/yyyy").
      * @return O mapa de cartões de ponto.
      */
     public Map<String, CartaoDePonto> getCartoesDePonto() {
         return this.cartoesDePonto;
     }
 
+    /**
+     * Retorna os cartões de ponto ordenados por data, para consultas por período.
+     * @return Os cartões de ponto.
+     */
+    public CartoesDePonto getCartoes() {
+        return this.cartoesDePonto;
+    }
+
     /**
      * Define o mapa de cartões de ponto.
      * @param cartoesDePonto O novo mapa de cartões de ponto.
      */
     public void setCartoesDePonto(Map<String, CartaoDePonto> cartoesDePonto) {
-        this.cartoesDePonto = cartoesDePonto;
+        if (cartoesDePonto instanceof CartoesDePonto cartoes) {
+            this.cartoesDePonto = cartoes;
+        } else {
+            this.cartoesDePonto = new CartoesDePonto();
+            if (cartoesDePonto != null) this.cartoesDePonto.putAll(cartoesDePonto);
+        }
     }
 
     /**
@@ -89,14 +115,7 @@ public class EmpregadoHorista extends Empregado implements Serializable {
     public Empregado clone() {
         EmpregadoHorista cloned = new EmpregadoHorista(this.getId(), this.getNome(), this.getEndereco(), this.getTipo(), this.getSalario());
         super.copy(cloned);
-        Map<String, CartaoDePonto> newCartoesMap = new HashMap<>();
-        if (this.cartoesDePonto != null) {
-            for (Map.Entry<String, CartaoDePonto> entry : this.cartoesDePonto.entrySet()) {
-                CartaoDePonto originalCartao = entry.getValue();
-                newCartoesMap.put(entry.getKey(), new CartaoDePonto(originalCartao.getData(), originalCartao.getHoras()));
-            }
-        }
-        cloned.setCartoesDePonto(newCartoesMap);
+        cloned.setCartoesDePonto(this.cartoesDePonto.copia());
         return cloned;
     }
 }
\ No newline at end of file
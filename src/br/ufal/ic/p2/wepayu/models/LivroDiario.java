@@ -0,0 +1,531 @@
+package br.ufal.ic.p2.wepayu.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Livro de lançamentos diários de um empregado (cartões de ponto, vendas ou taxas de serviço),
+ * com no máximo um lançamento por dia.
+ * <p>
+ * Os lançamentos ficam em blocos de tamanho fixo ({@value #BLOCO} lançamentos), cada um com arrays
+ * primitivos paralelos (dia epoch e valor), em ordem de data. Para cada coluna somável o livro mantém
+ * a soma acumulada (prefix sum) dos lançamentos: dentro de cada bloco e, na espinha, a soma anterior
+ * a cada bloco. A soma em qualquer período é feita com duas buscas binárias e uma subtração.
+ * As somas acumuladas são guardadas em ponto fixo (1/10000), o que as mantém exatas; se algum valor
+ * não couber nessa escala, o livro passa a somar o período diretamente.
+ * <p>
+ * Os blocos são compartilhados entre as versões do livro: {@link #copiarDe(LivroDiario)} copia apenas
+ * as referências, e um bloco só é copiado quando a cópia, que não é sua dona, precisa alterá-lo
+ * (cópia na escrita); a versão copiada nunca é escrita. Assim, lançar um cartão na cópia de um empregado custa O(1) amortizado mais a
+ * cópia da espinha (uma referência por bloco), em vez de copiar todos os lançamentos; lançamentos fora
+ * de ordem ou retiradas no meio ainda deslocam os lançamentos seguintes.
+ * <p>
+ * Para compatibilidade, o livro também é um {@link java.util.Map} da data ("d/M/yyyy") para o
+ * registro correspondente, criado sob demanda (usado pela importação do XML legado e pelo undo).
+ *
+ * @param <T> O tipo do registro exposto pela visão de mapa.
+ */
+public abstract class LivroDiario<T> extends AbstractMap<String, T> {
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("d/M/yyyy");
+    private static final double ESCALA = 10_000;
+    private static final long CENTAVO = 100; // um centavo na escala das somas acumuladas
+    private static final int BITS_BLOCO = 6;
+    private static final int BLOCO = 1 << BITS_BLOCO;
+    private static final int MASCARA_BLOCO = BLOCO - 1;
+
+    /**
+     * Bloco de lançamentos consecutivos. Só a versão do livro dona do bloco pode alterá-lo no lugar.
+     */
+    private static final class Bloco {
+        final int[] dias;
+        final double[] valores;
+        final long[][] acumulados;
+        final Object dono;
+
+        Bloco(int colunas, Object dono) {
+            this.dias = new int[BLOCO];
+            this.valores = new double[BLOCO];
+            this.acumulados = new long[colunas][BLOCO + 1];
+            this.dono = dono;
+        }
+
+        Bloco(Bloco origem, Object dono) {
+            this.dias = origem.dias.clone();
+            this.valores = origem.valores.clone();
+            this.acumulados = new long[origem.acumulados.length][];
+            for (int c = 0; c < acumulados.length; c++) this.acumulados[c] = origem.acumulados[c].clone();
+            this.dono = dono;
+        }
+    }
+
+    private Bloco[] blocos;
+    private long[][] bases;
+    private int tamanho;
+    private int inexatos;
+    private Object dono;
+    private boolean espinhaPropria;
+
+    /**
+     * Constrói um livro vazio.
+     */
+    protected LivroDiario() {
+        this.dono = new Object();
+        this.blocos = new Bloco[4];
+        this.bases = new long[colunas()][4];
+        this.espinhaPropria = true;
+    }
+
+    /**
+     * Faz deste livro uma cópia de outro, compartilhando os blocos (cópia na escrita).
+     * <p>
+     * A origem não é escrita: ela pode ser uma versão já publicada, lida por outras threads sem trava.
+     * Só a cópia ganha um novo dono, e por isso só ela deixa de alterar no lugar os blocos compartilhados;
+     * a origem não deve mais receber lançamentos depois de copiada, o que vale para as versões guardadas
+     * no repositório (toda alteração é feita em uma cópia nova).
+     * @param origem O livro copiado.
+     */
+    protected void copiarDe(LivroDiario<T> origem) {
+        this.blocos = origem.blocos;
+        this.bases = origem.bases;
+        this.tamanho = origem.tamanho;
+        this.inexatos = origem.inexatos;
+        this.dono = new Object();
+        this.espinhaPropria = false;
+    }
+
+    /**
+     * Retorna a quantidade de colunas somáveis do livro.
+     * @return A quantidade de colunas.
+     */
+    protected abstract int colunas();
+
+    /**
+     * Retorna a parcela de um lançamento que entra na soma de uma coluna.
+     * @param coluna A coluna.
+     * @param valor O valor lançado.
+     * @return A parcela somada.
+     */
+    protected abstract double parcela(int coluna, double valor);
+
+    /**
+     * Cria o registro exposto pela visão de mapa.
+     * @param data A data do lançamento ("d/M/yyyy").
+     * @param valor O valor lançado.
+     * @return O registro.
+     */
+    protected abstract T criarRegistro(String data, double valor);
+
+    /**
+     * Extrai o valor de um registro recebido pela visão de mapa.
+     * @param registro O registro.
+     * @return O valor a ser lançado.
+     */
+    protected abstract double valorDe(T registro);
+
+    /**
+     * Converte uma data no formato "d/M/yyyy" para o dia epoch.
+     * @param data A data.
+     * @return O dia epoch.
+     */
+    public static int paraDia(String data) {
+        return (int) LocalDate.parse(data, FORMATO_DATA).toEpochDay();
+    }
+
+    /**
+     * Converte uma data para o dia epoch.
+     * @param data A data.
+     * @return O dia epoch.
+     */
+    public static int paraDia(LocalDate data) {
+        return (int) data.toEpochDay();
+    }
+
+    /**
+     * Converte um dia epoch para o formato "d/M/yyyy".
+     * @param dia O dia epoch.
+     * @return A data formatada.
+     */
+    public static String paraTexto(int dia) {
+        return LocalDate.ofEpochDay(dia).format(FORMATO_DATA);
+    }
+
+    /**
+     * Lança um valor em um dia, substituindo o lançamento existente nesse dia.
+     * @param dia O dia epoch.
+     * @param valor O valor lançado.
+     * @return O valor substituído, ou null se não havia lançamento nesse dia.
+     */
+    public Double lancar(int dia, double valor) {
+        int i = buscar(dia);
+        if (i >= 0) {
+            double anterior = valor(i);
+            if (!exato(anterior)) inexatos--;
+            gravar(i, dia, valor);
+            if (!exato(valor)) inexatos++;
+            recalcularBloco(i >> BITS_BLOCO, i & MASCARA_BLOCO);
+            recalcularBases(i >> BITS_BLOCO);
+            return anterior;
+        }
+        i = -i - 1;
+        if ((tamanho & MASCARA_BLOCO) == 0) abrirBloco(tamanho >> BITS_BLOCO);
+        tamanho++;
+        for (int j = tamanho - 1; j > i; j--) gravar(j, dia(j - 1), valor(j - 1));
+        gravar(i, dia, valor);
+        if (!exato(valor)) inexatos++;
+        recalcularAPartirDe(i);
+        return null;
+    }
+
+    /**
+     * Retira o lançamento de um dia.
+     * @param dia O dia epoch.
+     * @return O valor retirado, ou null se não havia lançamento nesse dia.
+     */
+    public Double retirar(int dia) {
+        int i = buscar(dia);
+        if (i < 0) return null;
+        double anterior = valor(i);
+        if (!exato(anterior)) inexatos--;
+        for (int j = i; j < tamanho - 1; j++) gravar(j, dia(j + 1), valor(j + 1));
+        tamanho--;
+        if (i < tamanho) recalcularAPartirDe(i);
+        return anterior;
+    }
+
+    /**
+     * Retorna o dia epoch do lançamento na posição informada (em ordem de data).
+     * @param i A posição.
+     * @return O dia epoch.
+     */
+    public int dia(int i) {
+        return blocos[i >> BITS_BLOCO].dias[i & MASCARA_BLOCO];
+    }
+
+    /**
+     * Retorna o valor do lançamento na posição informada (em ordem de data).
+     * @param i A posição.
+     * @return O valor lançado.
+     */
+    public double valor(int i) {
+        return blocos[i >> BITS_BLOCO].valores[i & MASCARA_BLOCO];
+    }
+
+    /**
+     * Soma uma coluna no período [inicio, fim).
+     * @param coluna A coluna somada.
+     * @param inicio O dia epoch inicial (inclusivo).
+     * @param fim O dia epoch final (exclusivo).
+     * @return A soma da coluna no período.
+     */
+    protected double somar(int coluna, int inicio, int fim) {
+        int de = primeiroAPartirDe(inicio);
+        int ate = primeiroAPartirDe(fim);
+        if (ate <= de) return 0;
+        if (inexatos == 0) {
+            return (acumuladoAte(coluna, ate) - acumuladoAte(coluna, de)) / ESCALA;
+        }
+        double total = 0;
+        for (int i = de; i < ate; i++) total += parcela(coluna, valor(i));
+        return total;
+    }
+
+    /**
+     * Soma uma coluna no período [inicio, fim) em centavos, arredondando meio para cima como na
+     * formatação com duas casas. Com as somas acumuladas exatas, o total sai da subtração em ponto
+     * fixo, sem passar por {@code double} nem por texto.
+     * @param coluna A coluna somada.
+     * @param inicio O dia epoch inicial (inclusivo).
+     * @param fim O dia epoch final (exclusivo).
+     * @return A soma da coluna no período, em centavos.
+     */
+    protected long somarCentavos(int coluna, int inicio, int fim) {
+        int de = primeiroAPartirDe(inicio);
+        int ate = primeiroAPartirDe(fim);
+        if (ate <= de) return 0;
+        if (inexatos == 0) {
+            long soma = acumuladoAte(coluna, ate) - acumuladoAte(coluna, de);
+            long centavos = (Math.abs(soma) + CENTAVO / 2) / CENTAVO;
+            return soma < 0 ? -centavos : centavos;
+        }
+        return BigDecimal.valueOf(somar(coluna, inicio, fim)).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Retorna a soma acumulada de uma coluna nos lançamentos das posições [0, fim).
+     * @param coluna A coluna.
+     * @param fim A posição final (exclusiva).
+     * @return A soma em ponto fixo.
+     */
+    private long acumuladoAte(int coluna, int fim) {
+        if (fim == 0) return 0;
+        int ultimo = fim - 1;
+        int b = ultimo >> BITS_BLOCO;
+        return bases[coluna][b] + blocos[b].acumulados[coluna][(ultimo & MASCARA_BLOCO) + 1];
+    }
+
+    /**
+     * Grava um lançamento em uma posição, copiando o bloco se ele não pertencer a este livro.
+     * @param i A posição.
+     * @param dia O dia epoch.
+     * @param valor O valor.
+     */
+    private void gravar(int i, int dia, double valor) {
+        Bloco bloco = blocoEditavel(i >> BITS_BLOCO);
+        bloco.dias[i & MASCARA_BLOCO] = dia;
+        bloco.valores[i & MASCARA_BLOCO] = valor;
+    }
+
+    /**
+     * Retorna um bloco que este livro pode alterar no lugar, copiando-o se for compartilhado.
+     * @param b O índice do bloco.
+     * @return O bloco próprio.
+     */
+    private Bloco blocoEditavel(int b) {
+        prepararEspinha();
+        Bloco bloco = blocos[b];
+        if (bloco.dono != dono) {
+            bloco = new Bloco(bloco, dono);
+            blocos[b] = bloco;
+        }
+        return bloco;
+    }
+
+    /**
+     * Garante que a espinha (a lista de blocos e as somas anteriores a cada bloco) pertença a este livro.
+     */
+    private void prepararEspinha() {
+        if (espinhaPropria) return;
+        blocos = blocos.clone();
+        long[][] copia = new long[bases.length][];
+        for (int c = 0; c < copia.length; c++) copia[c] = bases[c].clone();
+        bases = copia;
+        espinhaPropria = true;
+    }
+
+    /**
+     * Abre o bloco seguinte ao último lançamento, reaproveitando-o se já existir na espinha.
+     * @param b O índice do bloco.
+     */
+    private void abrirBloco(int b) {
+        prepararEspinha();
+        if (b == blocos.length) {
+            blocos = Arrays.copyOf(blocos, b * 2);
+            for (int c = 0; c < bases.length; c++) bases[c] = Arrays.copyOf(bases[c], b * 2);
+        }
+        if (blocos[b] == null || blocos[b].dono != dono) blocos[b] = new Bloco(bases.length, dono);
+        for (int c = 0; c < bases.length; c++) bases[c][b] = acumuladoAte(c, b << BITS_BLOCO);
+    }
+
+    /**
+     * Recalcula as somas acumuladas depois que os lançamentos a partir de uma posição mudaram de lugar.
+     * @param inicio A primeira posição alterada.
+     */
+    private void recalcularAPartirDe(int inicio) {
+        int primeiro = inicio >> BITS_BLOCO;
+        int quantidade = quantidadeDeBlocos();
+        for (int b = primeiro; b < quantidade; b++) recalcularBloco(b, b == primeiro ? inicio & MASCARA_BLOCO : 0);
+        recalcularBases(primeiro);
+    }
+
+    /**
+     * Recalcula as somas acumuladas internas de um bloco a partir de uma posição do bloco
+     * (O(1) para lançamentos em ordem).
+     * @param b O índice do bloco.
+     * @param inicio A primeira posição alterada dentro do bloco.
+     */
+    private void recalcularBloco(int b, int inicio) {
+        Bloco bloco = blocoEditavel(b);
+        int fim = Math.min(BLOCO, tamanho - (b << BITS_BLOCO));
+        for (int c = 0; c < bloco.acumulados.length; c++) {
+            long[] acumulado = bloco.acumulados[c];
+            for (int i = inicio; i < fim; i++) {
+                acumulado[i + 1] = acumulado[i] + Math.round(parcela(c, bloco.valores[i]) * ESCALA);
+            }
+        }
+    }
+
+    /**
+     * Recalcula as somas anteriores aos blocos seguintes a um bloco.
+     * @param b O índice do último bloco cuja soma não mudou.
+     */
+    private void recalcularBases(int b) {
+        int quantidade = quantidadeDeBlocos();
+        if (b + 1 >= quantidade) return;
+        prepararEspinha();
+        for (int c = 0; c < bases.length; c++) {
+            for (int k = b + 1; k < quantidade; k++) {
+                bases[c][k] = bases[c][k - 1] + blocos[k - 1].acumulados[c][BLOCO];
+            }
+        }
+    }
+
+    /**
+     * Retorna a quantidade de blocos em uso.
+     * @return A quantidade de blocos.
+     */
+    private int quantidadeDeBlocos() {
+        return (tamanho + MASCARA_BLOCO) >> BITS_BLOCO;
+    }
+
+    /**
+     * Verifica se todas as parcelas de um valor são representáveis exatamente na escala de ponto fixo.
+     * @param valor O valor lançado.
+     * @return {@code true} se as parcelas forem exatas.
+     */
+    private boolean exato(double valor) {
+        for (int c = 0; c < bases.length; c++) {
+            double p = parcela(c, valor);
+            if (Math.round(p * ESCALA) / ESCALA != p) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Busca binária por um dia.
+     * @param dia O dia epoch.
+     * @return A posição do dia, ou {@code -(ponto de inserção) - 1} se não existir.
+     */
+    private int buscar(int dia) {
+        if (tamanho > 0 && dia(tamanho - 1) < dia) return -tamanho - 1; // lançamentos costumam vir em ordem
+        int baixo = 0, alto = tamanho - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            int atual = dia(meio);
+            if (atual < dia) baixo = meio + 1;
+            else if (atual > dia) alto = meio - 1;
+            else return meio;
+        }
+        return -(baixo + 1);
+    }
+
+    /**
+     * Retorna a posição do primeiro lançamento com dia maior ou igual ao informado.
+     * @param dia O dia epoch.
+     * @return A posição (igual ao tamanho se não houver).
+     */
+    private int primeiroAPartirDe(int dia) {
+        int i = buscar(dia);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /**
+     * Converte uma chave do mapa para o dia epoch.
+     * @param chave A chave ("d/M/yyyy").
+     * @return O dia epoch, ou null se a chave não for uma data válida.
+     */
+    private static Integer diaDaChave(Object chave) {
+        if (!(chave instanceof String texto)) return null;
+        try {
+            return paraDia(texto);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return tamanho;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(Object chave) {
+        Integer dia = diaDaChave(chave);
+        return dia != null && buscar(dia) >= 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(Object chave) {
+        Integer dia = diaDaChave(chave);
+        if (dia == null) return null;
+        int i = buscar(dia);
+        return i < 0 ? null : criarRegistro(paraTexto(dia), valor(i));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T put(String chave, T registro) {
+        int dia = paraDia(chave);
+        Double anterior = lancar(dia, valorDe(registro));
+        return anterior == null ? null : criarRegistro(paraTexto(dia), anterior);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T remove(Object chave) {
+        Integer dia = diaDaChave(chave);
+        if (dia == null) return null;
+        Double anterior = retirar(dia);
+        return anterior == null ? null : criarRegistro(paraTexto(dia), anterior);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        tamanho = 0;
+        inexatos = 0;
+        blocos = new Bloco[4];
+        bases = new long[bases.length][4];
+        espinhaPropria = true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * As entradas são criadas sob demanda, em ordem de data.
+     */
+    @Override
+    public Set<Entry<String, T>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, T>> iterator() {
+                return new Iterator<>() {
+                    private int i = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < tamanho;
+                    }
+
+                    @Override
+                    public Entry<String, T> next() {
+                        if (i >= tamanho) throw new NoSuchElementException();
+                        String data = paraTexto(dia(i));
+                        T registro = criarRegistro(data, valor(i));
+                        i++;
+                        return new SimpleImmutableEntry<>(data, registro);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return tamanho;
+            }
+        };
+    }
+}
@@ -1,6 +1,5 @@
 package br.ufal.ic.p2.wepayu.models;
 
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -9,23 +8,36 @@ import java.util.Map;
  */
 public class MembroSindicato {
     private String idMembro;
-    private double taxaSindical;
-    private Map<String, TaxaServico> taxasDeServico;
+    private Dinheiro taxaSindical;
+    private TaxasDeServico taxasDeServico;
 
     /**
      * Construtor padrão que inicializa a lista de taxas de serviço.
      */
-    public MembroSindicato() { this.taxasDeServico = new HashMap<>(); }
+    public MembroSindicato() {
+        this.taxaSindical = Dinheiro.deCentavos(0);
+        this.taxasDeServico = new TaxasDeServico();
+    }
 
     /**
      * Constrói uma instância de MembroSindicato.
      * @param idMembro O ID único do membro no sindicato.
      * @param taxaSindical A taxa sindical a ser cobrada.
      */
-    public MembroSindicato(String idMembro, double taxaSindical) {
+    public MembroSindicato(String idMembro, Dinheiro taxaSindical) {
         this.idMembro = idMembro;
         this.taxaSindical = taxaSindical;
-        this.taxasDeServico = new HashMap<>();
+        this.taxasDeServico = new TaxasDeServico();
+    }
+
+    /**
+     * Constrói uma instância de MembroSindicato a partir de uma taxa em reais.
+     * @param idMembro O ID único do membro no sindicato.
+     * @param taxaSindical A taxa sindical a ser cobrada, em reais.
+     */
+    public MembroSindicato(String idMembro, double taxaSindical) {
+        this(idMembro, (Dinheiro) null);
+        setTaxaSindical(taxaSindical);
     }
 
     /**
@@ -34,13 +46,7 @@ public class MembroSindicato {
      */
     public MembroSindicato clone() {
         MembroSindicato cloned = new MembroSindicato(this.idMembro, this.taxaSindical);
-        // Cópia profunda do mapa de taxas de serviço
-        Map<String, TaxaServico> taxasCopia = new HashMap<>();
-        for (Map.Entry<String, TaxaServico> entry : this.taxasDeServico.entrySet()) {
-            TaxaServico original = entry.getValue();
-            taxasCopia.put(entry.getKey(), new TaxaServico(original.getData(), original.getValor()));
-        }
-        cloned.setTaxasDeServico(taxasCopia);
+        cloned.setTaxasDeServico(this.taxasDeServico.copia());
         return cloned;
     }
 
@@ -49,7 +55,7 @@ public class MembroSindicato {
      * @param taxa O objeto {@link TaxaServico} a ser adicionado.
      */
     public void lancaTaxaServico(TaxaServico taxa) {
-        this.taxasDeServico.put(taxa.getData(), taxa);
+        this.taxasDeServico.lancar(TaxasDeServico.paraDia(taxa.getData()), taxa.getValor());
     }
 
     // Getters e Setters
@@ -67,20 +73,37 @@ public class MembroSindicato {
      * Retorna a taxa sindical.
      * @return A taxa sindical.
      */
-    public double getTaxaSindical() { return taxaSindical; }
+    public double getTaxaSindical() { return taxaSindical == null ? 0 : Dinheiro.emReais(taxaSindical.getCentavos()); }
     /**
-     * Define a taxa sindical.
+     * Define a taxa sindical, em reais (arredondada nos centavos).
      * @param taxaSindical A nova taxa sindical.
      */
-    public void setTaxaSindical(double taxaSindical) { this.taxaSindical = taxaSindical; }
+    public void setTaxaSindical(double taxaSindical) { this.taxaSindical = Dinheiro.de(Double.toString(taxaSindical)); }
+    /**
+     * Retorna a taxa sindical como valor monetário.
+     * @return A taxa sindical.
+     */
+    public Dinheiro getValorTaxaSindical() { return taxaSindical; }
     /**
      * Retorna o mapa de taxas de serviço.
      * @return O mapa de taxas de serviço.
      */
     public Map<String, TaxaServico> getTaxasDeServico() { return taxasDeServico; }
+    /**
+     * Retorna as taxas de serviço ordenadas por data, para consultas por período.
+     * @return As taxas de serviço.
+     */
+    public TaxasDeServico getTaxas() { return taxasDeServico; }
     /**
      * Define o mapa de taxas de serviço.
      * @param taxasDeServico O novo mapa de taxas de serviço.
      */
-    public void setTaxasDeServico(Map<String, TaxaServico> taxasDeServico) { this.taxasDeServico = taxasDeServico; }
+    public void setTaxasDeServico(Map<String, TaxaServico> taxasDeServico) {
+        if (taxasDeServico instanceof TaxasDeServico taxas) {
+            this.taxasDeServico = taxas;
+        } else {
+            this.taxasDeServico = new TaxasDeServico();
+            if (taxasDeServico != null) this.taxasDeServico.putAll(taxasDeServico);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package br.ufal.ic.p2.wepayu.models;
+
+/**
+ * Taxa em ponto fixo, guardada em pontos-base (1/10000), usada para a taxa de comissão.
+ * Uma taxa de "0,05" (5%) é guardada como 500 pontos-base.
+ */
+public final class Percentual {
+
+    private static final long ESCALA = 10_000;
+
+    private final long pontosBase;
+
+    /**
+     * Constrói uma taxa a partir dos pontos-base.
+     * @param pontosBase A taxa em pontos-base.
+     */
+    private Percentual(long pontosBase) {
+        this.pontosBase = pontosBase;
+    }
+
+    /**
+     * Interpreta uma taxa em texto ("0,05"), com vírgula ou ponto decimal.
+     * Casas além dos pontos-base são arredondadas (meio para cima).
+     * @param texto A taxa em texto.
+     * @return A taxa.
+     * @throws NumberFormatException se o texto não for numérico.
+     */
+    public static Percentual de(String texto) {
+        return new Percentual(Dinheiro.paraEscala(texto, 4));
+    }
+
+    /**
+     * Retorna a taxa em pontos-base.
+     * @return Os pontos-base.
+     */
+    public long getPontosBase() {
+        return pontosBase;
+    }
+
+    /**
+     * Aplica a taxa a um valor, truncando o resultado nos centavos.
+     * @param centavos O valor em centavos.
+     * @return A parcela do valor, em centavos.
+     */
+    public long aplicar(long centavos) {
+        return Math.floorDiv(centavos * pontosBase, ESCALA);
+    }
+
+    /**
+     * Formata a taxa com duas casas decimais ("0,05"), arredondando meio para cima.
+     * @return A taxa formatada.
+     */
+    public String formatar() {
+        long centesimos = (Math.abs(pontosBase) + 50) / 100;
+        return Dinheiro.formatar(pontosBase < 0 ? -centesimos : centesimos);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A taxa é escrita sem perda de precisão, com duas a quatro casas decimais ("0,05", "0,055").
+     */
+    @Override
+    public String toString() {
+        long absoluto = Math.abs(pontosBase);
+        String texto = (pontosBase < 0 ? "-" : "") + absoluto / ESCALA + "," + String.format("%04d", absoluto % ESCALA);
+        while (texto.endsWith("0") && texto.length() - texto.indexOf(',') > 3) {
+            texto = texto.substring(0, texto.length() - 1);
+        }
+        return texto;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Percentual outro && outro.pontosBase == pontosBase;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(pontosBase);
+    }
+}
@@ -0,0 +1,196 @@
+package br.ufal.ic.p2.wepayu.models;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Regra compilada de uma agenda de pagamento ("semanal 5", "mensal $", "semanal 2 5", ...).
+ * <p>
+ * A descrição é interpretada uma única vez: cada descrição distinta tem uma única instância,
+ * compartilhada por todos os empregados e agendas que a usam (flyweight, ver {@link #de(String)}).
+ * As verificações trabalham com o dia epoch da data e não alocam objetos.
+ */
+public final class RegraAgenda {
+
+    /**
+     * Tipo da agenda.
+     */
+    public enum Tipo { SEMANAL, MENSAL, DESCONHECIDO }
+
+    private static final int ULTIMO_DIA_UTIL = -1;
+    private static final LocalDate REFERENCIA = LocalDate.of(2005, 1, 7);
+    private static final Map<String, RegraAgenda> CACHE = new ConcurrentHashMap<>();
+
+    private final Tipo tipo;
+    private final int frequencia;
+    private final int diaDaSemana;
+    private final int diaDoMes;
+    private final long ancora;
+
+    /**
+     * Constrói uma regra já interpretada.
+     * @param tipo O tipo da agenda.
+     * @param frequencia A frequência em semanas (agendas semanais).
+     * @param diaDaSemana O dia da semana, de 1 (segunda) a 7 (domingo) (agendas semanais).
+     * @param diaDoMes O dia do mês, ou {@link #ULTIMO_DIA_UTIL} (agendas mensais).
+     * @param ancora O dia epoch do primeiro pagamento (agendas semanais).
+     */
+    private RegraAgenda(Tipo tipo, int frequencia, int diaDaSemana, int diaDoMes, long ancora) {
+        this.tipo = tipo;
+        this.frequencia = frequencia;
+        this.diaDaSemana = diaDaSemana;
+        this.diaDoMes = diaDoMes;
+        this.ancora = ancora;
+    }
+
+    /**
+     * Retorna a regra compilada de uma descrição, interpretando-a apenas na primeira vez.
+     * @param descricao A descrição da agenda.
+     * @return A regra compartilhada.
+     * @throws RuntimeException se a descrição estiver malformada (como na interpretação direta).
+     */
+    public static RegraAgenda de(String descricao) {
+        RegraAgenda regra = CACHE.get(descricao);
+        if (regra == null) {
+            regra = compilar(descricao);
+            RegraAgenda existente = CACHE.putIfAbsent(descricao, regra);
+            if (existente != null) regra = existente;
+        }
+        return regra;
+    }
+
+    /**
+     * Interpreta uma descrição de agenda.
+     * @param descricao A descrição.
+     * @return A regra correspondente.
+     */
+    private static RegraAgenda compilar(String descricao) {
+        String[] parts = descricao.split(" ");
+        String tipo = parts[0];
+
+        if (tipo.equalsIgnoreCase("mensal")) {
+            int dia = parts[1].equals("$") ? ULTIMO_DIA_UTIL : Integer.parseInt(parts[1]);
+            return new RegraAgenda(Tipo.MENSAL, 1, 0, dia, 0);
+        }
+        if (tipo.equalsIgnoreCase("semanal")) {
+            int frequencia, diaDaSemana;
+            if (parts.length == 2) { // Ex: "semanal 5"
+                frequencia = 1;
+                diaDaSemana = Integer.parseInt(parts[1]);
+            } else { // Ex: "semanal 2 5"
+                frequencia = Integer.parseInt(parts[1]);
+                diaDaSemana = Integer.parseInt(parts[2]);
+            }
+            // Um dia da semana inexistente nunca coincide com a data: a agenda nunca paga.
+            if (diaDaSemana < 1 || diaDaSemana > 7) return new RegraAgenda(Tipo.SEMANAL, frequencia, diaDaSemana, 0, Long.MAX_VALUE);
+            // Data de referência consistente: o dia da semana da agenda na semana de 7/1/2005,
+            // deslocado para o primeiro pagamento quando a frequência é maior que 1.
+            LocalDate referencia = REFERENCIA.with(TemporalAdjusters.previousOrSame(DayOfWeek.of(diaDaSemana)));
+            if (frequencia > 1) referencia = referencia.plusWeeks(frequencia - 1);
+            return new RegraAgenda(Tipo.SEMANAL, frequencia, diaDaSemana, 0, referencia.toEpochDay());
+        }
+        return new RegraAgenda(Tipo.DESCONHECIDO, 1, 0, 0, 0);
+    }
+
+    /**
+     * Retorna o tipo da agenda.
+     * @return O tipo.
+     */
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * Verifica se a agenda é semanal.
+     * @return {@code true} se for semanal.
+     */
+    public boolean isSemanal() {
+        return tipo == Tipo.SEMANAL;
+    }
+
+    /**
+     * Verifica se a agenda é mensal.
+     * @return {@code true} se for mensal.
+     */
+    public boolean isMensal() {
+        return tipo == Tipo.MENSAL;
+    }
+
+    /**
+     * Retorna a frequência da agenda em semanas (1 para agendas mensais).
+     * @return A frequência.
+     */
+    public int getFrequencia() {
+        return frequencia;
+    }
+
+    /**
+     * Verifica se uma data é dia de pagamento de acordo com esta regra.
+     * @param data A data a ser verificada.
+     * @return {@code true} se for um dia de pagamento, {@code false} caso contrário.
+     */
+    public boolean isDiaDePagamento(LocalDate data) {
+        long dia = data.toEpochDay();
+        if (tipo == Tipo.MENSAL) {
+            int diaDoMesData = data.getDayOfMonth();
+            if (diaDoMes != ULTIMO_DIA_UTIL) return diaDoMesData == diaDoMes;
+            return diaDoMesData == ultimoDiaUtil(dia, diaDoMesData, data.lengthOfMonth());
+        }
+        if (tipo == Tipo.SEMANAL) {
+            if (diaDaSemana(dia) != diaDaSemana || dia < ancora) return false;
+            return ((dia - ancora) / 7) % frequencia == 0;
+        }
+        return false;
+    }
+
+    /**
+     * Retorna o primeiro dia de pagamento a partir de uma data (inclusive).
+     * @param data A data inicial.
+     * @return O próximo dia de pagamento, ou null se a agenda nunca paga.
+     */
+    public LocalDate proximoDiaDePagamento(LocalDate data) {
+        if (tipo == Tipo.SEMANAL) {
+            if (ancora == Long.MAX_VALUE || frequencia < 1) return null;
+            long dia = data.toEpochDay();
+            if (dia <= ancora) return LocalDate.ofEpochDay(ancora);
+            long periodo = 7L * frequencia;
+            long periodos = (dia - ancora + periodo - 1) / periodo;
+            return LocalDate.ofEpochDay(ancora + periodos * periodo);
+        }
+        if (tipo == Tipo.MENSAL) {
+            LocalDate mes = data.withDayOfMonth(1);
+            for (int i = 0; i < 48; i++, mes = mes.plusMonths(1)) {
+                int tamanho = mes.lengthOfMonth();
+                int pagamento = diaDoMes == ULTIMO_DIA_UTIL ? ultimoDiaUtil(mes.toEpochDay(), 1, tamanho) : diaDoMes;
+                if (pagamento >= 1 && pagamento <= tamanho && (i > 0 || pagamento >= data.getDayOfMonth())) return mes.withDayOfMonth(pagamento);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Calcula o último dia útil (segunda a sexta) do mês de uma data.
+     * @param dia O dia epoch da data.
+     * @param diaDoMesData O dia do mês da data.
+     * @param tamanhoDoMes A quantidade de dias do mês.
+     * @return O dia do mês do último dia útil.
+     */
+    private static int ultimoDiaUtil(long dia, int diaDoMesData, int tamanhoDoMes) {
+        int diaDaSemanaDoUltimo = diaDaSemana(dia + (tamanhoDoMes - diaDoMesData));
+        if (diaDaSemanaDoUltimo == 6) return tamanhoDoMes - 1;
+        if (diaDaSemanaDoUltimo == 7) return tamanhoDoMes - 2;
+        return tamanhoDoMes;
+    }
+
+    /**
+     * Calcula o dia da semana de um dia epoch.
+     * @param dia O dia epoch.
+     * @return O dia da semana, de 1 (segunda) a 7 (domingo).
+     */
+    private static int diaDaSemana(long dia) {
+        return (int) Math.floorMod(dia + 3, 7L) + 1;
+    }
+}
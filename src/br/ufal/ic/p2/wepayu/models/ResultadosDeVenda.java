@@ -0,0 +1,70 @@
+package br.ufal.ic.p2.wepayu.models;
+
+/**
+ * Resultados de venda de um empregado comissionado, ordenados por data (ver {@link LivroDiario}).
+ * Mantém a soma acumulada dos valores, de modo que o total vendido em um período custa O(log n).
+ */
+public class ResultadosDeVenda extends LivroDiario<ResultadoVenda> {
+
+    /**
+     * Soma o valor das vendas no período [inicio, fim).
+     * @param inicio O dia epoch inicial (inclusivo).
+     * @param fim O dia epoch final (exclusivo).
+     * @return O total vendido.
+     */
+    public double total(int inicio, int fim) {
+        return somar(0, inicio, fim);
+    }
+
+    /**
+     * Retorna o total do período [inicio, fim) em centavos, arredondado meio para cima.
+     * @param inicio O dia epoch inicial (inclusivo).
+     * @param fim O dia epoch final (exclusivo).
+     * @return O total vendido, em centavos.
+     */
+    public long totalCentavos(int inicio, int fim) {
+        return somarCentavos(0, inicio, fim);
+    }
+
+    /**
+     * Cria uma cópia independente das vendas.
+     * @return A cópia.
+     */
+    public ResultadosDeVenda copia() {
+        ResultadosDeVenda copia = new ResultadosDeVenda();
+        copia.copiarDe(this);
+        return copia;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int colunas() {
+        return 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double parcela(int coluna, double valor) {
+        return valor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected ResultadoVenda criarRegistro(String data, double valor) {
+        return new ResultadoVenda(data, valor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double valorDe(ResultadoVenda venda) {
+        return venda.getValor();
+    }
+}
@@ -0,0 +1,70 @@
+package br.ufal.ic.p2.wepayu.models;
+
+/**
+ * Taxas de serviço de um membro do sindicato, ordenadas por data (ver {@link LivroDiario}).
+ * Mantém a soma acumulada dos valores, de modo que o total cobrado em um período custa O(log n).
+ */
+public class TaxasDeServico extends LivroDiario<TaxaServico> {
+
+    /**
+     * Soma o valor das taxas no período [inicio, fim).
+     * @param inicio O dia epoch inicial (inclusivo).
+     * @param fim O dia epoch final (exclusivo).
+     * @return O total das taxas.
+     */
+    public double total(int inicio, int fim) {
+        return somar(0, inicio, fim);
+    }
+
+    /**
+     * Retorna o total do período [inicio, fim) em centavos, arredondado meio para cima.
+     * @param inicio O dia epoch inicial (inclusivo).
+     * @param fim O dia epoch final (exclusivo).
+     * @return O total das taxas, em centavos.
+     */
+    public long totalCentavos(int inicio, int fim) {
+        return somarCentavos(0, inicio, fim);
+    }
+
+    /**
+     * Cria uma cópia independente das taxas.
+     * @return A cópia.
+     */
+    public TaxasDeServico copia() {
+        TaxasDeServico copia = new TaxasDeServico();
+        copia.copiarDe(this);
+        return copia;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int colunas() {
+        return 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double parcela(int coluna, double valor) {
+        return valor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected TaxaServico criarRegistro(String data, double valor) {
+        return new TaxaServico(data, valor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double valorDe(TaxaServico taxa) {
+        return taxa.getValor();
+    }
+}
@@ -0,0 +1,71 @@
+import br.ufal.ic.p2.wepayu.FolhaConcorrenteTeste;
+import br.ufal.ic.p2.wepayu.Repository.AlteracoesTeste;
+import br.ufal.ic.p2.wepayu.Repository.EmpregadoJournalTeste;
+import br.ufal.ic.p2.wepayu.Repository.IndiceNomesTeste;
+import br.ufal.ic.p2.wepayu.Repository.MapaPersistenteTeste;
+import br.ufal.ic.p2.wepayu.Repository.SnapshotCodecTeste;
+import br.ufal.ic.p2.wepayu.Services.FilaDeLancamentosTeste;
+import br.ufal.ic.p2.wepayu.Services.ImportadorCsvTeste;
+import br.ufal.ic.p2.wepayu.Services.ManifestoFolhaTeste;
+import br.ufal.ic.p2.wepayu.models.DinheiroTeste;
+import br.ufal.ic.p2.wepayu.models.LivroDiarioTeste;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Executa os testes de unidade das estruturas de dados do WePayU (os testes de aceitação são os
+ * scripts do EasyAccept executados por {@code Main}).
+ * <p>
+ * Cada teste é uma classe com um {@code main} que lança {@link AssertionError} na primeira
+ * verificação que falha. O processo termina com status 1 se algum teste falhar.
+ */
+public class TestesDeUnidade {
+
+    /**
+     * Ponto de entrada dos testes.
+     * @param args Argumentos de linha de comando (não utilizados).
+     */
+    public static void main(String[] args) {
+        Map<String, Teste> testes = new LinkedHashMap<>();
+        testes.put("SnapshotCodec", SnapshotCodecTeste::main);
+        testes.put("MapaPersistente", MapaPersistenteTeste::main);
+        testes.put("Alteracoes", AlteracoesTeste::main);
+        testes.put("LivroDiario", LivroDiarioTeste::main);
+        testes.put("Dinheiro", DinheiroTeste::main);
+        testes.put("IndiceNomes", IndiceNomesTeste::main);
+        testes.put("ManifestoFolha", ManifestoFolhaTeste::main);
+        testes.put("EmpregadoJournal", EmpregadoJournalTeste::main);
+        testes.put("FolhaConcorrente", FolhaConcorrenteTeste::main);
+        testes.put("FilaDeLancamentos", FilaDeLancamentosTeste::main);
+        testes.put("ImportadorCsv", ImportadorCsvTeste::main);
+
+        int falhas = 0;
+        for (Map.Entry<String, Teste> teste : testes.entrySet()) {
+            long inicio = System.nanoTime();
+            try {
+                teste.getValue().executar(new String[0]);
+                System.out.printf("ok    %-20s %6d ms%n", teste.getKey(), (System.nanoTime() - inicio) / 1_000_000);
+            } catch (Throwable e) {
+                falhas++;
+                System.out.printf("FALHA %-20s %s%n", teste.getKey(), e);
+                e.printStackTrace(System.out);
+            }
+        }
+        System.out.println(testes.size() - falhas + "/" + testes.size() + " testes passaram.");
+        if (falhas > 0) System.exit(1);
+    }
+
+    /**
+     * O {@code main} de uma classe de teste.
+     */
+    @FunctionalInterface
+    private interface Teste {
+        /**
+         * Executa o teste.
+         * @param args Os argumentos do teste.
+         * @throws Exception se o teste falhar.
+         */
+        void executar(String[] args) throws Exception;
+    }
+}
@@ -0,0 +1,128 @@
+package br.ufal.ic.p2.wepayu;
+
+import br.ufal.ic.p2.wepayu.Exception.TipoInvalidoException;
+import br.ufal.ic.p2.wepayu.models.*;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Empregados de exemplo para os testes e benchmarks, gerados de forma determinística a partir de
+ * uma semente e cobrindo os três tipos, os três métodos de pagamento, a sindicalização, as agendas
+ * customizadas e os livros de cartões, vendas e taxas.
+ */
+public final class Amostras {
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("d/M/yyyy");
+    private static final LocalDate INICIO = LocalDate.of(2005, 1, 1);
+    private static final String[] AGENDAS = {"semanal 5", "mensal $", "semanal 2 5", "mensal 15", "semanal 3"};
+
+    /**
+     * Classe utilitária, não instanciável.
+     */
+    private Amostras() {
+    }
+
+    /**
+     * Gera empregados com IDs de 1 a {@code quantidade}.
+     * @param quantidade A quantidade de empregados.
+     * @param lancamentos A quantidade de cartões ou vendas de cada empregado que os tiver.
+     * @param semente A semente dos valores aleatórios.
+     * @return Os empregados, em ordem de ID.
+     */
+    public static List<Empregado> empregados(int quantidade, int lancamentos, long semente) {
+        Random aleatorio = new Random(semente);
+        List<Empregado> empregados = new ArrayList<>(quantidade);
+        for (int i = 1; i <= quantidade; i++) empregados.add(empregado(i, lancamentos, aleatorio));
+        return empregados;
+    }
+
+    /**
+     * Gera um empregado.
+     * @param numero O número do empregado, que é também o seu ID.
+     * @param lancamentos A quantidade de cartões ou vendas, se ele for horista ou comissionado.
+     * @param aleatorio A fonte dos valores aleatórios.
+     * @return O empregado.
+     */
+    public static Empregado empregado(int numero, int lancamentos, Random aleatorio) {
+        String id = Integer.toString(numero);
+        String salario = (500 + aleatorio.nextInt(5000)) + "," + String.format("%02d", aleatorio.nextInt(100));
+        Empregado empregado;
+        try {
+            empregado = switch (numero % 3) {
+                case 0 -> EmpregadoFactory.criarEmpregado("horista", id, "Horista " + numero, "Rua " + numero, salario);
+                case 1 -> EmpregadoFactory.criarEmpregado("assalariado", id, "Assalariado " + numero, "Rua " + numero, salario);
+                default -> EmpregadoFactory.criarEmpregado("comissionado", id, "Comissionado " + numero, "Av. " + numero, salario,
+                        "0," + (1 + aleatorio.nextInt(9)));
+            };
+        } catch (TipoInvalidoException e) {
+            throw new IllegalStateException(e);
+        }
+        switch (numero % 5) {
+            case 0 -> empregado.setMetodoPagamento(new Banco("Banco " + numero % 7, "A" + numero % 40, "C-" + numero));
+            case 1 -> empregado.setMetodoPagamento(Correios.INSTANCIA);
+            default -> empregado.setMetodoPagamento(EmMaos.INSTANCIA);
+        }
+        if (numero % 11 == 0) empregado.setAgendaPagamento(new AgendaPagamento(AGENDAS[numero % AGENDAS.length]));
+        if (empregado instanceof EmpregadoHorista horista) {
+            horista.setDataContratacao(INICIO);
+            horista.setDataUltimoPagamento(INICIO.minusDays(1));
+            for (int k = 0; k < lancamentos; k++) {
+                double horas = 1 + aleatorio.nextInt(12) + (aleatorio.nextBoolean() ? 0.5 : 0);
+                horista.lancaCartao(new CartaoDePonto(data(k), horas));
+            }
+        } else if (empregado instanceof EmpregadoComissionado comissionado) {
+            for (int k = 0; k < lancamentos; k++) {
+                comissionado.lancaVenda(new ResultadoVenda(data(k), 10 + aleatorio.nextInt(100_000) / 100.0));
+            }
+        }
+        if (numero % 4 == 0) {
+            MembroSindicato membro = new MembroSindicato("s" + numero, Dinheiro.de("1," + aleatorio.nextInt(10)));
+            for (int k = 0; k < lancamentos / 4; k++) membro.lancaTaxaServico(new TaxaServico(data(3 * k), 1 + aleatorio.nextInt(20)));
+            empregado.setMembroSindicato(membro);
+        }
+        return empregado;
+    }
+
+    /**
+     * Retorna a data de um lançamento.
+     * @param dia O número de dias depois de 1/1/2005.
+     * @return A data no formato "d/M/yyyy".
+     */
+    public static String data(int dia) {
+        return INICIO.plusDays(dia).format(FORMATO_DATA);
+    }
+
+    /**
+     * Descreve todos os dados de um empregado, para comparar versões.
+     * @param e O empregado.
+     * @return A descrição; duas versões com os mesmos dados têm a mesma descrição.
+     */
+    public static String descrever(Empregado e) {
+        StringBuilder s = new StringBuilder();
+        s.append(e.getClass().getSimpleName()).append('|').append(e.getId()).append('|').append(e.getNome())
+                .append('|').append(e.getEndereco()).append('|').append(e.getTipo()).append('|').append(e.getSalarioSemFormato());
+        if (e instanceof EmpregadoComissionado c) s.append("|comissao=").append(c.getComissaoSemFormato());
+        MetodoPagamento metodo = e.getMetodoPagamento();
+        s.append("|metodo=").append(metodo == null ? null : metodo.getClass().getSimpleName());
+        if (metodo instanceof Banco b) s.append(':').append(b.getBanco()).append(':').append(b.getAgencia()).append(':').append(b.getContaCorrente());
+        s.append("|agenda=").append(e.getAgendaPagamento() == null ? null : e.getAgendaPagamento().getDescricao());
+        s.append("|contratacao=").append(e.getDataContratacao()).append("|ultimo=").append(e.getDataUltimoPagamento());
+        if (e instanceof EmpregadoHorista h) {
+            for (Map.Entry<String, CartaoDePonto> c : h.getCartoesDePonto().entrySet()) s.append("|c:").append(c.getKey()).append('=').append(c.getValue().getHoras());
+        }
+        if (e instanceof EmpregadoComissionado c) {
+            for (Map.Entry<String, ResultadoVenda> v : c.getVendas().entrySet()) s.append("|v:").append(v.getKey()).append('=').append(v.getValue().getValor());
+        }
+        MembroSindicato m = e.getMembroSindicato();
+        if (m != null) {
+            s.append("|sindicato=").append(m.getIdMembro()).append(':').append(m.getValorTaxaSindical().getCentavos());
+            for (Map.Entry<String, TaxaServico> t : m.getTaxasDeServico().entrySet()) s.append("|t:").append(t.getKey()).append('=').append(t.getValue().getValor());
+        }
+        return s.toString();
+    }
+}
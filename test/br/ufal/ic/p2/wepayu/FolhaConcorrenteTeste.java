@@ -0,0 +1,209 @@
+package br.ufal.ic.p2.wepayu;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Testes da folha rodando enquanto a fachada recebe comandos em outra thread: uma sequência fixa de
+ * remoções de comissionados e de vendas lançadas é dada durante {@code rodaFolha}. A folha não pode
+ * falhar por causa de um empregado removido depois do instantâneo, e o relatório tem de ser o de um
+ * prefixo da sequência: as remoções e vendas vistas no relatório são exatamente os primeiros
+ * comandos, e o relatório é idêntico ao de uma fachada nova com apenas esses comandos aplicados.
+ * A remessa bancária só aparece, com o nome final, depois que a folha é confirmada.
+ */
+public final class FolhaConcorrenteTeste {
+
+    private static final int COMISSIONADOS = 3_000;
+    private static final int COMANDOS = 600;
+    private static final String DATA_FOLHA = "14/1/2005";
+    private static final String DATA_VENDA = "10/1/2005";
+    private static final String DATA_VENDA_CONCORRENTE = "11/1/2005";
+    private static final String VENDA_CONCORRENTE = "1000,00";
+
+    /**
+     * Classe de testes, não instanciável.
+     */
+    private FolhaConcorrenteTeste() {
+    }
+
+    /**
+     * Executa os testes.
+     * @param args Não utilizados.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    public static void main(String[] args) throws Exception {
+        folhaComRemocoesConcorrentes();
+        folhaQueFalhaNaoDeixaRemessa();
+    }
+
+    /**
+     * Roda a folha enquanto outra thread remove comissionados e lança vendas, e compara o relatório
+     * com o de uma fachada nova com o prefixo dos comandos que ele mostra.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static void folhaComRemocoesConcorrentes() throws Exception {
+        Path diretorio = Files.createTempDirectory("wepayu-teste");
+        Facade facade = new Facade(diretorio);
+        List<String> ids = popular(facade);
+        Path saida = diretorio.resolve("folha.txt");
+        Path remessa = diretorio.resolve("folha.rem");
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> folha = executor.submit(() -> {
+                facade.rodaFolha(DATA_FOLHA, saida.toString(), "texto", remessa.toString());
+                return null;
+            });
+            for (int k = 0; k < COMANDOS; k++) comando(facade, ids, k);
+            folha.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<String, String> vendas = vendasNoRelatorio(Files.readAllLines(saida));
+        int prefixo = 0;
+        while (prefixo < COMANDOS && visto(vendas, prefixo)) prefixo++;
+        for (int k = prefixo; k < COMANDOS; k++) {
+            Verifica.verdadeiro(!visto(vendas, k), "o comando " + k + " aparece no relatorio, mas o " + prefixo + " nao");
+        }
+
+        Facade referencia = new Facade(Files.createTempDirectory("wepayu-teste"));
+        List<String> idsReferencia = popular(referencia);
+        for (int k = 0; k < prefixo; k++) comando(referencia, idsReferencia, k);
+        Path saidaReferencia = diretorio.resolve("referencia.txt");
+        Path remessaReferencia = diretorio.resolve("referencia.rem");
+        referencia.rodaFolha(DATA_FOLHA, saidaReferencia.toString(), "texto", remessaReferencia.toString());
+        Verifica.igual(Files.readString(saidaReferencia), Files.readString(saida), "relatorio com " + prefixo + " comandos antes do instantaneo");
+        Verifica.igual(registros(remessaReferencia), registros(remessa), "remessa com " + prefixo + " comandos antes do instantaneo");
+        Verifica.verdadeiro(!Files.exists(Path.of(remessa + ".tmp")), "a remessa temporaria foi renomeada");
+
+        for (int k = prefixo; k < COMANDOS; k += 2) {
+            String id = ids.get(indiceDaVenda(k));
+            Verifica.igual(VENDA_CONCORRENTE, facade.getVendasRealizadas(id, DATA_VENDA_CONCORRENTE, "12/1/2005"),
+                    "venda lancada depois do instantaneo continua no empregado " + id);
+        }
+        facade.encerrarSistema();
+        referencia.encerrarSistema();
+    }
+
+    /**
+     * Uma folha cujo relatório não pode ser gravado falha sem criar a remessa nem o arquivo
+     * temporário, e uma remessa anterior com o mesmo nome fica intacta.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static void folhaQueFalhaNaoDeixaRemessa() throws Exception {
+        Path diretorio = Files.createTempDirectory("wepayu-teste");
+        Facade facade = new Facade(diretorio);
+        String id = facade.criarEmpregado("Ana", "Rua 1", "assalariado", "2000,00");
+        facade.alteraEmpregado(id, "metodoPagamento", "banco", "Banco do Brasil", "1234", "5678-9");
+        Path remessa = diretorio.resolve("folha.rem");
+        Files.writeString(remessa, "anterior");
+
+        String saidaInvalida = diretorio.resolve("inexistente").resolve("folha.txt").toString();
+        Verifica.lanca(Exception.class, () -> facade.rodaFolha("31/1/2005", saidaInvalida, "texto", remessa.toString()), "relatorio em diretorio inexistente");
+        Verifica.igual("anterior", Files.readString(remessa), "remessa anterior");
+        Verifica.verdadeiro(!Files.exists(Path.of(remessa + ".tmp")), "nenhuma remessa temporaria sobra");
+
+        facade.rodaFolha("31/1/2005", diretorio.resolve("folha.txt").toString(), "texto", remessa.toString());
+        Verifica.igual(5, registros(remessa).size(), "remessa com um pagamento (headers, detalhe e trailers)");
+        facade.encerrarSistema();
+    }
+
+    /**
+     * Cria os comissionados, com uma venda cada e metade deles pagos em banco.
+     * @param facade A fachada.
+     * @return Os IDs, na ordem de criação.
+     * @throws Exception se um comando falhar.
+     */
+    private static List<String> popular(Facade facade) throws Exception {
+        List<String> ids = new ArrayList<>(COMISSIONADOS);
+        for (int i = 0; i < COMISSIONADOS; i++) {
+            String id = facade.criarEmpregado(String.format("C%05d", i), "Rua " + i, "comissionado", (1000 + i) + ",00", "0,05");
+            facade.lancaVenda(id, DATA_VENDA, (i % 97) + ",25");
+            if (i % 2 == 0) facade.alteraEmpregado(id, "metodoPagamento", "banco", "Banco do Brasil", "ag" + i % 7, "cc" + i);
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Dá o comando k da sequência concorrente: os pares lançam uma venda, os ímpares removem um
+     * comissionado (empregados diferentes, espalhados pela folha).
+     * @param facade A fachada.
+     * @param ids Os IDs dos comissionados.
+     * @param k A posição do comando na sequência.
+     * @throws Exception se o comando falhar.
+     */
+    private static void comando(Facade facade, List<String> ids, int k) throws Exception {
+        if (k % 2 == 0) {
+            facade.lancaVenda(ids.get(indiceDaVenda(k)), DATA_VENDA_CONCORRENTE, VENDA_CONCORRENTE);
+        } else {
+            facade.removerEmpregado(ids.get(indiceDaRemocao(k)));
+        }
+    }
+
+    /**
+     * Retorna o comissionado que recebe a venda do comando k.
+     * @param k A posição do comando (par).
+     * @return O índice do comissionado.
+     */
+    private static int indiceDaVenda(int k) {
+        return (k / 2) * 10;
+    }
+
+    /**
+     * Retorna o comissionado removido pelo comando k.
+     * @param k A posição do comando (ímpar).
+     * @return O índice do comissionado.
+     */
+    private static int indiceDaRemocao(int k) {
+        return (k / 2) * 10 + 5;
+    }
+
+    /**
+     * Verifica se o efeito do comando k aparece no relatório.
+     * @param vendas As vendas de cada comissionado no relatório, por nome.
+     * @param k A posição do comando.
+     * @return {@code true} se a venda foi somada ou o empregado não foi pago.
+     */
+    private static boolean visto(Map<String, String> vendas, int k) {
+        if (k % 2 == 1) return !vendas.containsKey(String.format("C%05d", indiceDaRemocao(k)));
+        int i = indiceDaVenda(k);
+        String vendaOriginal = (i % 97) + ",25";
+        return !vendas.get(String.format("C%05d", i)).equals(vendaOriginal);
+    }
+
+    /**
+     * Lê a coluna de vendas da seção de comissionados do relatório, com vírgula decimal em qualquer locale.
+     * @param linhas As linhas do relatório.
+     * @return As vendas de cada comissionado, por nome.
+     */
+    private static Map<String, String> vendasNoRelatorio(List<String> linhas) {
+        Map<String, String> vendas = new HashMap<>();
+        for (String linha : linhas) {
+            if (!linha.startsWith("C0")) continue;
+            String[] campos = linha.trim().split(" +");
+            vendas.put(campos[0], campos[2].replace('.', ','));
+        }
+        return vendas;
+    }
+
+    /**
+     * Lê os registros de uma remessa, sem a data de geração do header de arquivo.
+     * @param remessa O arquivo de remessa.
+     * @return Os registros.
+     * @throws Exception se o arquivo não puder ser lido.
+     */
+    private static List<String> registros(Path remessa) throws Exception {
+        List<String> registros = new ArrayList<>(List.of(Files.readString(remessa).split("\r\n")));
+        registros.set(0, registros.get(0).substring(0, 46));
+        return registros;
+    }
+}
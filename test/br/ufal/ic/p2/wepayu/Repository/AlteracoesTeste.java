@@ -0,0 +1,229 @@
+package br.ufal.ic.p2.wepayu.Repository;
+
+import br.ufal.ic.p2.wepayu.Amostras;
+import br.ufal.ic.p2.wepayu.Verifica;
+import br.ufal.ic.p2.wepayu.Exception.ValidacaoException;
+import br.ufal.ic.p2.wepayu.Services.CommandHistoryService;
+import br.ufal.ic.p2.wepayu.models.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Testes das {@link Alteracoes} e do histórico de undo/redo: cada alteração gera a sua inversa,
+ * desfazer uma sequência aleatória de comandos volta exatamente por todos os estados anteriores
+ * (incluindo os índices), refazer volta por eles na ordem inversa, e os estados já publicados nunca
+ * são alterados pelos comandos seguintes.
+ */
+public final class AlteracoesTeste {
+
+    /**
+     * Classe de testes, não instanciável.
+     */
+    private AlteracoesTeste() {
+    }
+
+    /**
+     * Executa os testes.
+     * @param args Não utilizados.
+     * @throws Exception se um teste falhar.
+     */
+    public static void main(String[] args) throws Exception {
+        inversaDeCadaAlteracao();
+        undoERedoDeComandosAleatorios(1);
+        undoERedoDeComandosAleatorios(2);
+        undoERedoDeComandosAleatorios(3);
+        estadosPublicadosNaoMudam();
+        comandoQueFalhaEDesfeito();
+    }
+
+    /**
+     * Aplica cada tipo de alteração e a sua inversa, e verifica que o estado volta ao original.
+     * @throws Exception se o repositório não puder ser criado.
+     */
+    private static void inversaDeCadaAlteracao() throws Exception {
+        EmpregadoRepository repository = repositorio();
+        List<Empregado> iniciais = Amostras.empregados(12, 4, 5);
+        repository.gravarEmLote(iniciais, 12);
+        String original = descrever(repository);
+
+        List<Alteracao> alteracoes = List.of(
+                Alteracoes.gravar(Amostras.empregado(13, 4, new Random(1))),
+                Alteracoes.gravar(Amostras.empregado(3, 9, new Random(2))),
+                Alteracoes.remover("4"),
+                Alteracoes.atributo("5", Empregado::getNome, Empregado::setNome, "Outro Nome"),
+                Alteracoes.atributo("8", Empregado::getMembroSindicato, Empregado::setMembroSindicato, null),
+                Alteracoes.lancamento("6", EmpregadoHorista::getCartoesDePonto, "1/1/2005", null),
+                Alteracoes.lancamento("6", EmpregadoHorista::getCartoesDePonto, "9/9/2009", new CartaoDePonto("9/9/2009", 3.5)),
+                Alteracoes.lancamento("2", EmpregadoComissionado::getVendas, "2/1/2005", new ResultadoVenda("2/1/2005", 77)),
+                Alteracoes.contador(99));
+        for (Alteracao alteracao : alteracoes) {
+            Alteracao inversa = alteracao.aplicar(repository);
+            Verifica.verdadeiro(!descrever(repository).equals(original), "a alteracao nao mudou nada: " + alteracao);
+            Alteracao refeita = inversa.aplicar(repository);
+            Verifica.igual(original, descrever(repository), "estado depois da inversa");
+            verificarIndices(repository);
+            refeita.aplicar(repository).aplicar(repository);
+            Verifica.igual(original, descrever(repository), "estado depois de refazer e desfazer");
+        }
+    }
+
+    /**
+     * Executa comandos aleatórios com uma a três alterações cada, desfaz todos e refaz todos,
+     * comparando cada estado com o registrado durante a execução.
+     * @param semente A semente dos comandos.
+     * @throws Exception se um comando falhar.
+     */
+    private static void undoERedoDeComandosAleatorios(long semente) throws Exception {
+        Random aleatorio = new Random(semente);
+        EmpregadoRepository repository = repositorio();
+        CommandHistoryService historico = new CommandHistoryService(repository);
+        List<String> estados = new ArrayList<>();
+        estados.add(descrever(repository));
+        for (int comando = 0; comando < 400; comando++) {
+            int quantidade = 1 + aleatorio.nextInt(3);
+            historico.execute(() -> {
+                for (int i = 0; i < quantidade; i++) alteracaoAleatoria(repository, aleatorio);
+            });
+            estados.add(descrever(repository));
+            verificarIndices(repository);
+        }
+        for (int i = estados.size() - 2; i >= 0; i--) {
+            historico.undo();
+            Verifica.igual(estados.get(i), descrever(repository), "estado depois de desfazer ate o comando " + i);
+            verificarIndices(repository);
+        }
+        Verifica.lanca(ValidacaoException.class, historico::undo, "undo sem comandos");
+        for (int i = 1; i < estados.size(); i++) {
+            historico.redo();
+            Verifica.igual(estados.get(i), descrever(repository), "estado depois de refazer ate o comando " + i);
+        }
+        Verifica.lanca(ValidacaoException.class, historico::redo, "redo sem comandos");
+    }
+
+    /**
+     * Verifica que um estado capturado antes de um comando não é afetado por ele (cópia na escrita).
+     * @throws Exception se um comando falhar.
+     */
+    private static void estadosPublicadosNaoMudam() throws Exception {
+        EmpregadoRepository repository = repositorio();
+        CommandHistoryService historico = new CommandHistoryService(repository);
+        repository.gravarEmLote(Amostras.empregados(30, 6, 17), 30);
+        Random aleatorio = new Random(17);
+        for (int i = 0; i < 100; i++) {
+            EmpregadoRepository.Estado antes = repository.getState();
+            String descricaoAntes = descrever(antes);
+            historico.execute(() -> alteracaoAleatoria(repository, aleatorio));
+            Verifica.igual(descricaoAntes, descrever(antes), "estado publicado antes do comando " + i);
+        }
+    }
+
+    /**
+     * Verifica que as alterações de um comando que lança uma exceção são desfeitas e que ele não
+     * entra no histórico.
+     * @throws Exception se o repositório não puder ser criado.
+     */
+    private static void comandoQueFalhaEDesfeito() throws Exception {
+        EmpregadoRepository repository = repositorio();
+        CommandHistoryService historico = new CommandHistoryService(repository);
+        repository.gravarEmLote(Amostras.empregados(5, 2, 23), 5);
+        String original = descrever(repository);
+        Verifica.lanca(IllegalStateException.class, () -> historico.execute(() -> {
+            repository.aplicar(Alteracoes.atributo("1", Empregado::getNome, Empregado::setNome, "Temporario"));
+            repository.aplicar(Alteracoes.remover("2"));
+            throw new IllegalStateException("falha no meio do comando");
+        }), "comando que falha");
+        Verifica.igual(original, descrever(repository), "estado depois da falha");
+        Verifica.lanca(ValidacaoException.class, historico::undo, "a falha nao entra no historico");
+    }
+
+    /**
+     * Aplica uma alteração aleatória: inclusão, remoção, troca de nome ou de sindicato, lançamento
+     * ou retirada de cartão ou venda, ou mudança do contador. Os IDs de membro do sindicato
+     * sorteados são únicos por empregado, como o sistema garante ao validar a alteração.
+     * @param repository O repositório.
+     * @param aleatorio A fonte dos valores aleatórios.
+     */
+    private static void alteracaoAleatoria(EmpregadoRepository repository, Random aleatorio) {
+        List<Empregado> empregados = repository.stream().sorted(Comparator.comparing(Empregado::getId)).toList();
+        int tipo = empregados.isEmpty() ? 0 : aleatorio.nextInt(7);
+        Empregado alvo = empregados.isEmpty() ? null : empregados.get(aleatorio.nextInt(empregados.size()));
+        String data = Amostras.data(aleatorio.nextInt(60));
+        switch (tipo) {
+            case 0 -> {
+                int id = repository.getState().idCont() + 1;
+                repository.aplicar(Alteracoes.gravar(Amostras.empregado(id, aleatorio.nextInt(5), aleatorio)));
+                repository.aplicar(Alteracoes.contador(id));
+            }
+            case 1 -> repository.aplicar(Alteracoes.remover(alvo.getId()));
+            case 2 -> repository.aplicar(Alteracoes.atributo(alvo.getId(), Empregado::getNome, Empregado::setNome, "Nome " + aleatorio.nextInt(20)));
+            case 3 -> repository.aplicar(Alteracoes.atributo(alvo.getId(), Empregado::getMembroSindicato, Empregado::setMembroSindicato,
+                    aleatorio.nextBoolean() ? null : new MembroSindicato("m" + alvo.getId() + "-" + aleatorio.nextInt(100), Dinheiro.de("2,5"))));
+            case 4 -> repository.aplicar(Alteracoes.contador(repository.getState().idCont() + aleatorio.nextInt(3)));
+            default -> {
+                if (alvo instanceof EmpregadoHorista) {
+                    CartaoDePonto cartao = aleatorio.nextInt(4) == 0 ? null : new CartaoDePonto(data, 1.0 + aleatorio.nextInt(10));
+                    repository.aplicar(Alteracoes.lancamento(alvo.getId(), EmpregadoHorista::getCartoesDePonto, data, cartao));
+                } else if (alvo instanceof EmpregadoComissionado) {
+                    ResultadoVenda venda = aleatorio.nextInt(4) == 0 ? null : new ResultadoVenda(data, aleatorio.nextInt(1000));
+                    repository.aplicar(Alteracoes.lancamento(alvo.getId(), EmpregadoComissionado::getVendas, data, venda));
+                } else {
+                    repository.aplicar(Alteracoes.atributo(alvo.getId(), Empregado::getEndereco, Empregado::setEndereco, "Rua " + data));
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifica que os índices de nomes e de membros do sindicato apontam para os empregados atuais.
+     * @param repository O repositório.
+     */
+    private static void verificarIndices(EmpregadoRepository repository) {
+        repository.forEach(e -> {
+            Verifica.verdadeiro(repository.findIdsByNome(e.getNome()).contains(e.getId()), "indice de nomes de " + e.getId());
+            if (e.isSindicalizado()) {
+                Empregado membro = repository.findByIdMembro(e.getMembroSindicato().getIdMembro());
+                Verifica.verdadeiro(membro != null && membro.getId().equals(e.getId()), "indice de membros de " + e.getId());
+            }
+        });
+        Verifica.igual(repository.size(), (int) repository.stream().count(), "tamanho do repositorio");
+    }
+
+    /**
+     * Descreve todos os empregados e o contador de ID do estado atual.
+     * @param repository O repositório.
+     * @return A descrição.
+     */
+    private static String descrever(EmpregadoRepository repository) {
+        return descrever(repository.getState());
+    }
+
+    /**
+     * Descreve todos os empregados e o contador de ID de um estado.
+     * @param estado O estado.
+     * @return A descrição.
+     */
+    private static String descrever(EmpregadoRepository.Estado estado) {
+        List<Empregado> empregados = new ArrayList<>();
+        for (Empregado e : estado.empregados().valores()) empregados.add(e);
+        return empregados.stream()
+                .sorted(Comparator.comparing(Empregado::getId))
+                .map(Amostras::descrever)
+                .collect(Collectors.joining("\n", "", "\nidCont=" + estado.idCont()));
+    }
+
+    /**
+     * Cria um repositório vazio em um diretório temporário.
+     * @return O repositório.
+     * @throws Exception se o diretório não puder ser criado.
+     */
+    private static EmpregadoRepository repositorio() throws Exception {
+        Path diretorio = Files.createTempDirectory("wepayu-teste");
+        return new EmpregadoRepository(diretorio);
+    }
+}
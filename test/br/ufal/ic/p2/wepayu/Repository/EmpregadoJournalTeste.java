@@ -0,0 +1,301 @@
+package br.ufal.ic.p2.wepayu.Repository;
+
+import br.ufal.ic.p2.wepayu.Facade;
+import br.ufal.ic.p2.wepayu.Verifica;
+import br.ufal.ic.p2.wepayu.Repository.EmpregadoJournal.Operacao;
+import br.ufal.ic.p2.wepayu.Repository.EmpregadoJournal.Registro;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Testes do {@link EmpregadoJournal}: registros gravados são reproduzidos iguais depois de reabrir o
+ * arquivo (inclusive nulos, textos longos, muitos argumentos e registros divididos em
+ * {@link Operacao#CONTINUACAO}); um final rasgado por uma queda no meio da escrita é ignorado e
+ * truncado; a geração amarra o journal ao snapshot; e a fachada em modo journal recupera, depois de
+ * uma queda, os comandos confirmados que não chegaram ao snapshot.
+ */
+public final class EmpregadoJournalTeste {
+
+    /**
+     * Classe de testes, não instanciável.
+     */
+    private EmpregadoJournalTeste() {
+    }
+
+    /**
+     * Executa os testes.
+     * @param args Não utilizados.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    public static void main(String[] args) throws Exception {
+        reproduzRegistros();
+        ignoraFinalRasgado();
+        ignoraLixoNoFinal();
+        descartaContinuacaoSemRegistroFinal();
+        geracoes();
+        snapshotIlegivel();
+        recuperaComandosDaFachada();
+    }
+
+    /**
+     * Grava registros de todos os formatos, reabre o journal e compara a reprodução.
+     * @throws Exception se o arquivo não puder ser criado.
+     */
+    private static void reproduzRegistros() throws Exception {
+        File arquivo = arquivo();
+        List<Registro> gravados = registrosVariados();
+        try (EmpregadoJournal journal = new EmpregadoJournal(arquivo, 3)) {
+            for (Registro r : gravados) journal.registrar(r.operacao(), r.argumentos());
+            journal.aguardarGravacao();
+        }
+        try (EmpregadoJournal journal = new EmpregadoJournal(arquivo, 3)) {
+            comparar(gravados, reproduzir(journal), "reproducao");
+            Verifica.igual(3L, journal.getGeracao(), "geracao");
+        }
+        long tamanho = arquivo.length();
+        try (EmpregadoJournal journal = new EmpregadoJournal(arquivo, 3)) {
+            reproduzir(journal);
+        }
+        Verifica.igual(tamanho, arquivo.length(), "um journal integro nao e truncado");
+    }
+
+    /**
+     * Corta o último registro em cada posição possível e verifica que os anteriores são reproduzidos,
+     * que o final é truncado e que os registros seguintes são gravados depois dele.
+     * @throws Exception se o arquivo não puder ser criado.
+     */
+    private static void ignoraFinalRasgado() throws Exception {
+        File arquivo = arquivo();
+        List<Registro> gravados = new ArrayList<>();
+        try (EmpregadoJournal journal = new EmpregadoJournal(arquivo, 1)) {
+            for (int i = 0; i < 5; i++) gravados.add(registrar(journal, Operacao.LANCA_CARTAO, Integer.toString(i), "1/1/2005", "8"));
+        }
+        long integro = arquivo.length();
+        try (EmpregadoJournal journal = new EmpregadoJournal(arquivo, 1)) {
+            registrar(journal, Operacao.LANCA_VENDA, "9", "2/1/2005", "100,00");
+        }
+        long completo = arquivo.length();
+        byte[] bytes = Files.readAllBytes(arquivo.toPath());
+        for (long corte = integro + 1; corte < completo; corte++) {
+            Files.write(arquivo.toPath(), Arrays.copyOf(bytes, (int) corte));
+            try (EmpregadoJournal journal = new EmpregadoJournal(arquivo, 1)) {
+                comparar(gravados, reproduzir(journal), "corte em " + corte);
+                Verifica.igual(integro, arquivo.length(), "tamanho depois do corte em " + corte);
+                Registro novo = registrar(journal, Operacao.REDO);
+                List<Registro> esperados = new ArrayList<>(gravados);
+                esperados.add(novo);
+                comparar(esperados, reproduzir(journal), "registro gravado depois do corte em " + corte);
+            }
+        }
+    }
+
+    /**
+     * Acrescenta bytes aleatórios ao final do journal e verifica que eles são ignorados e removidos.
+     * @throws Exception se o arquivo não puder ser criado.
+     */
+    private static void ignoraLixoNoFinal() throws Exception {
+        Random aleatorio = new Random(7);
+        for (int tentativa = 0; tentativa < 50; tentativa++) {
+            File arquivo = arquivo();
+            List<Registro> gravados = new ArrayList<>();
+            try (EmpregadoJournal journal = new EmpregadoJournal(arquivo, 1)) {
+                gravados.add(registrar(journal, Operacao.CRIAR_EMPREGADO, "Joao", "Rua 1", "horista", "10,00"));
+                gravados.add(registrar(journal, Operacao.UNDO));
+            }
+            long integro = arquivo.length();
+            byte[] lixo = new byte[1 + aleatorio.nextInt(64)];
+            aleatorio.nextBytes(lixo);
+            Files.write(arquivo.toPath(), lixo, StandardOpenOption.APPEND);
+            try (EmpregadoJournal journal = new EmpregadoJournal(arquivo, 1)) {
+                comparar(gravados, reproduzir(journal), "lixo " + tentativa);
+            }
+            Verifica.igual(integro, arquivo.length(), "tamanho depois do lixo " + tentativa);
+        }
+    }
+
+    /**
+     * Corta o registro final de um registro dividido e verifica que as partes de
+     * {@link Operacao#CONTINUACAO} já gravadas não são reproduzidas nem juntadas ao registro seguinte.
+     * @throws Exception se o arquivo não puder ser criado.
+     */
+    private static void descartaContinuacaoSemRegistroFinal() throws Exception {
+        File arquivo = arquivo();
+        Registro anterior;
+        try (EmpregadoJournal journal = new EmpregadoJournal(arquivo, 1)) {
+            anterior = registrar(journal, Operacao.LANCA_CARTAO, "1", "1/1/2005", "8");
+        }
+        long integro = arquivo.length();
+        try (EmpregadoJournal journal = new EmpregadoJournal(arquivo, 1)) {
+            registrar(journal, Operacao.IMPORTAR_LINHAS, textos(4, 400_000, 'x'));
+        }
+        try (RandomAccessFile acesso = new RandomAccessFile(arquivo, "rw")) {
+            acesso.setLength(acesso.length() - 10);
+        }
+        try (EmpregadoJournal journal = new EmpregadoJournal(arquivo, 1)) {
+            comparar(List.of(anterior), reproduzir(journal), "continuacao sem registro final");
+            Verifica.igual(integro, arquivo.length(), "partes removidas");
+            Registro seguinte = registrar(journal, Operacao.LANCA_VENDA, "2", "1/1/2005", "5");
+            comparar(List.of(anterior, seguinte), reproduzir(journal), "registro seguinte sem as partes");
+        }
+    }
+
+    /**
+     * Verifica a amarração com o snapshot: um journal de geração anterior é reiniciado, um de
+     * geração posterior é recusado, e a reinicialização só aceita uma geração posterior.
+     * @throws Exception se o arquivo não puder ser criado.
+     */
+    private static void geracoes() throws Exception {
+        File arquivo = arquivo();
+        try (EmpregadoJournal journal = new EmpregadoJournal(arquivo, 5)) {
+            registrar(journal, Operacao.UNDO);
+            Verifica.lanca(IllegalArgumentException.class, () -> journal.reiniciar(5), "reiniciar na mesma geracao");
+        }
+        Verifica.lanca(IllegalStateException.class, () -> new EmpregadoJournal(arquivo, 4).close(), "journal mais novo que o snapshot");
+        try (EmpregadoJournal journal = new EmpregadoJournal(arquivo, 6)) {
+            comparar(List.of(), reproduzir(journal), "journal de geracao anterior");
+            registrar(journal, Operacao.REDO);
+            journal.reiniciar(7);
+            comparar(List.of(), reproduzir(journal), "journal reiniciado");
+        }
+        try (EmpregadoJournal journal = new EmpregadoJournal(arquivo, 7)) {
+            Verifica.igual(7L, journal.getGeracao(), "geracao depois de reiniciar");
+        }
+    }
+
+    /**
+     * Verifica que um snapshot binário ilegível impede a abertura do repositório, em vez de ser
+     * tratado como um repositório vazio.
+     * @throws Exception se o diretório não puder ser criado.
+     */
+    private static void snapshotIlegivel() throws Exception {
+        Path diretorio = Files.createTempDirectory("wepayu-teste");
+        Files.write(diretorio.resolve("empregados.bin"), new byte[] {0x57, 0x50, 0x53, 0x31, 2, 0, 0});
+        Verifica.lanca(UncheckedIOException.class, () -> new EmpregadoRepository(diretorio), "snapshot truncado");
+    }
+
+    /**
+     * Dá comandos a uma fachada em modo journal sem encerrá-la (como em uma queda) e verifica que
+     * uma nova fachada sobre o mesmo diretório os recupera, inclusive depois de rasgar o último registro.
+     * @throws Exception se um comando falhar.
+     */
+    private static void recuperaComandosDaFachada() throws Exception {
+        String anterior = System.setProperty("wepayu.journal", "true");
+        try {
+            Path diretorio = Files.createTempDirectory("wepayu-teste");
+            Facade facade = new Facade(diretorio);
+            String horista = facade.criarEmpregado("Maria", "Rua 2", "horista", "20,00");
+            String comissionado = facade.criarEmpregado("Jose", "Rua 3", "comissionado", "1000,00", "0,10");
+            facade.lancaCartao(horista, "1/1/2005", "9");
+            facade.lancaCartao(horista, "2/1/2005", "6");
+            facade.lancaVenda(comissionado, "3/1/2005", "250,50");
+            facade.alteraEmpregado(horista, "nome", "Maria Silva");
+            facade.lancaCartao(horista, "3/1/2005", "4");
+            facade.undo();
+
+            Facade recuperada = new Facade(diretorio);
+            Verifica.igual(2, recuperada.getNumeroDeEmpregados(), "empregados recuperados");
+            Verifica.igual("Maria Silva", recuperada.getAtributoEmpregado(horista, "nome"), "nome recuperado");
+            Verifica.igual("14", recuperada.getHorasNormaisTrabalhadas(horista, "1/1/2005", "8/1/2005"), "horas normais recuperadas");
+            Verifica.igual("1", recuperada.getHorasExtrasTrabalhadas(horista, "1/1/2005", "8/1/2005"), "horas extras recuperadas");
+            Verifica.igual("250,50", recuperada.getVendasRealizadas(comissionado, "1/1/2005", "8/1/2005"), "vendas recuperadas");
+
+            recuperada.lancaCartao(horista, "4/1/2005", "2");
+            Path journal = diretorio.resolve("empregados.journal");
+            try (RandomAccessFile acesso = new RandomAccessFile(journal.toFile(), "rw")) {
+                acesso.setLength(acesso.length() - 3);
+            }
+            Facade depoisDaQueda = new Facade(diretorio);
+            Verifica.igual("14", depoisDaQueda.getHorasNormaisTrabalhadas(horista, "1/1/2005", "8/1/2005"), "registro rasgado ignorado");
+            depoisDaQueda.encerrarSistema();
+        } finally {
+            if (anterior == null) System.clearProperty("wepayu.journal");
+            else System.setProperty("wepayu.journal", anterior);
+        }
+    }
+
+    /**
+     * Registros com nulos, acentos, textos longos (acima do limite do {@code writeUTF}), mais de 255
+     * argumentos e um registro maior que o tamanho máximo, dividido em partes.
+     * @return Os registros.
+     */
+    private static List<Registro> registrosVariados() {
+        List<Registro> registros = new ArrayList<>();
+        registros.add(new Registro(Operacao.ZERAR_SISTEMA, new String[0]));
+        registros.add(new Registro(Operacao.CRIAR_EMPREGADO, new String[] {"João Ção", "Rua €", "horista", "10,00"}));
+        registros.add(new Registro(Operacao.ALTERA_EMPREGADO_SINDICALIZADO, new String[] {"1", "sindicalizado", "false", null, null}));
+        registros.add(new Registro(Operacao.ALTERA_EMPREGADO, new String[] {"1", "endereco", "é".repeat(30_000)}));
+        registros.add(new Registro(Operacao.LANCA_LOTE, textos(300, 5, 'a')));
+        registros.add(new Registro(Operacao.IMPORTAR_LINHAS, textos(5, 400_000, 'b')));
+        registros.add(new Registro(Operacao.FOLHA_CONFIRMADA, new String[] {"7/1/2005", "1", "0"}));
+        registros.add(new Registro(Operacao.UNDO, new String[0]));
+        return registros;
+    }
+
+    /**
+     * Gera argumentos de texto.
+     * @param quantidade A quantidade de argumentos.
+     * @param tamanho O tamanho de cada um.
+     * @param letra A letra repetida (o índice do argumento é acrescentado ao final).
+     * @return Os argumentos.
+     */
+    private static String[] textos(int quantidade, int tamanho, char letra) {
+        String[] textos = new String[quantidade];
+        for (int i = 0; i < quantidade; i++) textos[i] = String.valueOf(letra).repeat(tamanho) + i;
+        return textos;
+    }
+
+    /**
+     * Grava um registro.
+     * @param journal O journal.
+     * @param operacao A operação.
+     * @param argumentos Os argumentos.
+     * @return O registro gravado.
+     */
+    private static Registro registrar(EmpregadoJournal journal, Operacao operacao, String... argumentos) {
+        journal.registrar(operacao, argumentos);
+        return new Registro(operacao, argumentos);
+    }
+
+    /**
+     * Reproduz o journal.
+     * @param journal O journal.
+     * @return Os registros lidos.
+     */
+    private static List<Registro> reproduzir(EmpregadoJournal journal) {
+        List<Registro> lidos = new ArrayList<>();
+        journal.reproduzir(lidos::add);
+        return lidos;
+    }
+
+    /**
+     * Compara registros, operação e argumentos.
+     * @param esperados Os registros esperados.
+     * @param lidos Os registros lidos.
+     * @param contexto A descrição do ponto da verificação.
+     */
+    private static void comparar(List<Registro> esperados, List<Registro> lidos, String contexto) {
+        Verifica.igual(esperados.size(), lidos.size(), "quantidade de registros na " + contexto);
+        for (int i = 0; i < esperados.size(); i++) {
+            Verifica.igual(esperados.get(i).operacao(), lidos.get(i).operacao(), "operacao " + i + " na " + contexto);
+            Verifica.verdadeiro(Arrays.equals(esperados.get(i).argumentos(), lidos.get(i).argumentos()), "argumentos " + i + " na " + contexto);
+        }
+    }
+
+    /**
+     * Cria o caminho de um journal novo em um diretório temporário.
+     * @return O arquivo, ainda inexistente.
+     * @throws Exception se o diretório não puder ser criado.
+     */
+    private static File arquivo() throws Exception {
+        return Files.createTempDirectory("wepayu-teste").resolve("empregados.journal").toFile();
+    }
+}
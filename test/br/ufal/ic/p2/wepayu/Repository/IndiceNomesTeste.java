@@ -0,0 +1,159 @@
+package br.ufal.ic.p2.wepayu.Repository;
+
+import br.ufal.ic.p2.wepayu.Amostras;
+import br.ufal.ic.p2.wepayu.Verifica;
+import br.ufal.ic.p2.wepayu.models.Empregado;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Teste de propriedade do {@link IndiceNomes}: criações, renomeações e remoções aleatórias de
+ * empregados com poucos nomes (muitos repetidos, e alguns prefixos uns dos outros) são aplicadas ao
+ * índice e a um modelo ordenado. Os IDs de um nome repetido ficam sempre em ordem de criação, também
+ * quando os IDs mudam de quantidade de dígitos ("9" antes de "10") e quando um empregado volta a um
+ * nome que já teve; a busca por prefixo respeita a ordem alfabética e o limite; e as versões
+ * anteriores do índice não mudam.
+ */
+public final class IndiceNomesTeste {
+
+    private static final String[] NOMES = {"Ana", "Ana Maria", "Ana Paula", "Anabela", "Bruno", "Bruna", "Caio", "Ção", "ana"};
+    private static final String[] PREFIXOS = {"", "A", "Ana", "Ana ", "Ana M", "Br", "C", "Ç", "Z", "a", "Anabela X"};
+    private static final int IDS = 300;
+
+    /**
+     * Classe de testes, não instanciável.
+     */
+    private IndiceNomesTeste() {
+    }
+
+    /**
+     * Executa os testes.
+     * @param args Não utilizados.
+     * @throws Exception se o repositório não puder ser criado.
+     */
+    public static void main(String[] args) throws Exception {
+        for (long semente = 1; semente <= 3; semente++) operacoesAleatorias(semente);
+        mesmoNomeNaoCriaVersao();
+        ordemNoRepositorio();
+    }
+
+    /**
+     * Compara o índice com o modelo ao longo de operações aleatórias, e depois confere cada versão.
+     * @param semente A semente das operações.
+     */
+    private static void operacoesAleatorias(long semente) {
+        Random aleatorio = new Random(semente);
+        Map<String, String> nomePorId = new HashMap<>();
+        IndiceNomes indice = IndiceNomes.vazio();
+        List<IndiceNomes> versoes = new ArrayList<>();
+        List<Map<String, String>> esperados = new ArrayList<>();
+        for (int passo = 0; passo < 4000; passo++) {
+            String id = Integer.toString(1 + aleatorio.nextInt(IDS));
+            if (nomePorId.containsKey(id) && aleatorio.nextInt(4) == 0) {
+                indice = indice.atualizar(id, null);
+                nomePorId.remove(id);
+            } else {
+                String nome = NOMES[aleatorio.nextInt(NOMES.length)];
+                indice = indice.atualizar(id, empregado(id, nome));
+                nomePorId.put(id, nome);
+            }
+            comparar(nomePorId, indice, "semente " + semente + ", passo " + passo);
+            if (passo % 200 == 0) {
+                versoes.add(indice);
+                esperados.add(new HashMap<>(nomePorId));
+            }
+        }
+        for (int v = 0; v < versoes.size(); v++) comparar(esperados.get(v), versoes.get(v), "semente " + semente + ", versao " + v);
+
+        for (String id : new ArrayList<>(nomePorId.keySet())) indice = indice.atualizar(id, null);
+        for (String nome : NOMES) Verifica.igual(List.of(), indice.ids(nome), "indice esvaziado: " + nome);
+        Verifica.igual(List.of(), indice.nomesComPrefixo("", 100), "nomes do indice esvaziado");
+    }
+
+    /**
+     * Atualizar um empregado sem mudar o nome devolve o próprio índice.
+     */
+    private static void mesmoNomeNaoCriaVersao() {
+        IndiceNomes indice = IndiceNomes.vazio().atualizar("1", empregado("1", "Ana"));
+        Verifica.verdadeiro(indice.atualizar("1", empregado("1", "Ana")) == indice, "mesmo nome");
+        Verifica.verdadeiro(indice.atualizar("2", null) == indice, "remocao de ID ausente");
+        Verifica.verdadeiro(IndiceNomes.vazio().atualizar("1", null) == IndiceNomes.vazio(), "remocao no indice vazio");
+    }
+
+    /**
+     * No repositório, os homônimos ficam em ordem de criação depois de renomeações e do undo de
+     * uma remoção, como na busca linear que o índice substituiu.
+     * @throws Exception se o repositório não puder ser criado.
+     */
+    private static void ordemNoRepositorio() throws Exception {
+        EmpregadoRepository repository = new EmpregadoRepository(Files.createTempDirectory("wepayu-teste"));
+        for (int i = 1; i <= 12; i++) {
+            Empregado empregado = Amostras.empregado(i, 0, new Random(i));
+            empregado.setNome(i % 3 == 0 ? "Outro" : "Ana");
+            repository.save(empregado);
+        }
+        Verifica.igual(List.of("1", "2", "4", "5", "7", "8", "10", "11"), repository.findIdsByNome("Ana"), "homonimos em ordem de criacao");
+
+        Empregado renomeado = repository.findById("2").clone();
+        renomeado.setNome("Outro");
+        repository.save(renomeado);
+        Verifica.igual(List.of("2", "3", "6", "9", "12"), repository.findIdsByNome("Outro"), "renomeado entra na sua posicao");
+        renomeado = renomeado.clone();
+        renomeado.setNome("Ana");
+        repository.save(renomeado);
+        Verifica.igual(List.of("1", "2", "4", "5", "7", "8", "10", "11"), repository.findIdsByNome("Ana"), "volta ao nome anterior");
+
+        List<Alteracao> inversas = repository.capturar(() -> repository.deleteById("4"));
+        Verifica.igual(List.of("1", "2", "5", "7", "8", "10", "11"), repository.findIdsByNome("Ana"), "depois da remocao");
+        repository.reverter(inversas);
+        Verifica.igual(List.of("1", "2", "4", "5", "7", "8", "10", "11"), repository.findIdsByNome("Ana"), "depois do undo da remocao");
+        Verifica.igual(List.of("Ana", "Outro"), repository.findNomesByPrefixo("", 10), "nomes distintos");
+    }
+
+    /**
+     * Compara o índice com o modelo: os IDs de cada nome e a busca por prefixo com vários limites.
+     * @param nomePorId O modelo: o nome de cada ID.
+     * @param indice O índice.
+     * @param contexto O passo, para a mensagem de erro.
+     */
+    private static void comparar(Map<String, String> nomePorId, IndiceNomes indice, String contexto) {
+        TreeMap<String, TreeSet<Integer>> modelo = new TreeMap<>();
+        for (Map.Entry<String, String> e : nomePorId.entrySet()) {
+            modelo.computeIfAbsent(e.getValue(), nome -> new TreeSet<>()).add(Integer.parseInt(e.getKey()));
+        }
+        for (String nome : NOMES) {
+            List<String> esperados = new ArrayList<>();
+            for (int id : modelo.getOrDefault(nome, new TreeSet<>())) esperados.add(Integer.toString(id));
+            Verifica.igual(esperados, indice.ids(nome), contexto + ", ids de " + nome);
+        }
+        for (String prefixo : PREFIXOS) {
+            for (int limite : new int[] {0, 1, 2, 100}) {
+                List<String> esperados = new ArrayList<>();
+                for (String nome : modelo.tailMap(prefixo).keySet()) {
+                    if (!nome.startsWith(prefixo) || esperados.size() == limite) break;
+                    esperados.add(nome);
+                }
+                Verifica.igual(esperados, indice.nomesComPrefixo(prefixo, limite), contexto + ", prefixo '" + prefixo + "' ate " + limite);
+            }
+        }
+    }
+
+    /**
+     * Cria um empregado com um ID e um nome.
+     * @param id O ID.
+     * @param nome O nome.
+     * @return O empregado.
+     */
+    private static Empregado empregado(String id, String nome) {
+        Empregado empregado = Amostras.empregado(Integer.parseInt(id), 0, new Random(0));
+        empregado.setNome(nome);
+        return empregado;
+    }
+}
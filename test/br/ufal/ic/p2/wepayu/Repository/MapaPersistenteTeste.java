@@ -0,0 +1,120 @@
+package br.ufal.ic.p2.wepayu.Repository;
+
+import br.ufal.ic.p2.wepayu.Verifica;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Teste de propriedade do {@link MapaPersistente}: uma sequência aleatória de inclusões e remoções
+ * é aplicada ao mapa e a um {@link HashMap} de referência, e os dois são comparados depois de cada
+ * operação. As chaves incluem grupos de strings com o mesmo {@code hashCode} ("Aa" e "BB"), para
+ * exercitar os nós de colisão, e todas as versões anteriores são conferidas no final, já que nenhuma
+ * operação pode alterá-las.
+ */
+public final class MapaPersistenteTeste {
+
+    /**
+     * Classe de testes, não instanciável.
+     */
+    private MapaPersistenteTeste() {
+    }
+
+    /**
+     * Executa os testes.
+     * @param args Não utilizados.
+     */
+    public static void main(String[] args) {
+        Verifica.igual(0, MapaPersistente.vazio().size(), "tamanho do mapa vazio");
+        Verifica.verdadeiro(MapaPersistente.vazio().remove("x").isEmpty(), "remocao no mapa vazio");
+        for (long semente = 1; semente <= 3; semente++) operacoesAleatorias(semente);
+        mesmoValorNaoCriaVersao();
+    }
+
+    /**
+     * Compara o mapa com o modelo ao longo de operações aleatórias, e depois confere cada versão.
+     * @param semente A semente das operações.
+     */
+    private static void operacoesAleatorias(long semente) {
+        Random aleatorio = new Random(semente);
+        List<String> chaves = chaves();
+        Map<String, Integer> modelo = new HashMap<>();
+        MapaPersistente<String, Integer> mapa = MapaPersistente.vazio();
+        List<MapaPersistente<String, Integer>> versoes = new ArrayList<>();
+        List<Map<String, Integer>> esperados = new ArrayList<>();
+        for (int passo = 0; passo < 5000; passo++) {
+            String chave = chaves.get(aleatorio.nextInt(chaves.size()));
+            if (aleatorio.nextInt(3) == 0) {
+                mapa = mapa.remove(chave);
+                modelo.remove(chave);
+            } else {
+                int valor = aleatorio.nextInt(1000);
+                mapa = mapa.put(chave, valor);
+                modelo.put(chave, valor);
+            }
+            comparar(modelo, mapa, chaves, "passo " + passo);
+            if (passo % 250 == 0) {
+                versoes.add(mapa);
+                esperados.add(new HashMap<>(modelo));
+            }
+        }
+        for (String chave : chaves) mapa = mapa.remove(chave);
+        Verifica.verdadeiro(mapa.isEmpty(), "mapa depois de remover todas as chaves");
+        for (int i = 0; i < versoes.size(); i++) comparar(esperados.get(i), versoes.get(i), chaves, "versao " + i);
+    }
+
+    /**
+     * Verifica que gravar o valor já presente devolve o próprio mapa.
+     */
+    private static void mesmoValorNaoCriaVersao() {
+        Integer valor = 7;
+        MapaPersistente<String, Integer> mapa = MapaPersistente.<String, Integer>vazio().put("Aa", valor).put("BB", 8);
+        Verifica.verdadeiro(mapa.put("Aa", valor) == mapa, "put do mesmo valor");
+        Verifica.verdadeiro(mapa.remove("CC") == mapa, "remove de chave ausente");
+    }
+
+    /**
+     * Compara o mapa com o modelo: tamanho, consulta de todas as chaves possíveis e iteração.
+     * @param modelo O mapa de referência.
+     * @param mapa O mapa persistente.
+     * @param chaves Todas as chaves usadas no teste.
+     * @param contexto A descrição do ponto da verificação.
+     */
+    private static void comparar(Map<String, Integer> modelo, MapaPersistente<String, Integer> mapa,
+                                 List<String> chaves, String contexto) {
+        Verifica.igual(modelo.size(), mapa.size(), "tamanho no " + contexto);
+        for (String chave : chaves) {
+            Verifica.igual(modelo.get(chave), mapa.get(chave), "valor de " + chave + " no " + contexto);
+            Verifica.igual(modelo.containsKey(chave), mapa.containsKey(chave), "presenca de " + chave + " no " + contexto);
+        }
+        Map<String, Integer> iterados = new TreeMap<>();
+        for (Map.Entry<String, Integer> entrada : mapa) {
+            Verifica.verdadeiro(iterados.put(entrada.getKey(), entrada.getValue()) == null, "chave repetida no " + contexto);
+        }
+        Verifica.igual(new TreeMap<>(modelo), iterados, "iteracao no " + contexto);
+        Map<String, Integer> percorridos = new TreeMap<>();
+        mapa.forEach(percorridos::put);
+        Verifica.igual(iterados, percorridos, "forEach no " + contexto);
+        Verifica.igual((long) modelo.size(), mapa.streamValores().count(), "stream no " + contexto);
+    }
+
+    /**
+     * Gera as chaves do teste: 300 chaves comuns e 32 chaves que colidem entre si, formadas por
+     * cinco blocos "Aa" ou "BB".
+     * @return As chaves.
+     */
+    private static List<String> chaves() {
+        List<String> chaves = new ArrayList<>();
+        for (int i = 0; i < 300; i++) chaves.add(Integer.toString(i));
+        for (int bits = 0; bits < 32; bits++) {
+            StringBuilder chave = new StringBuilder();
+            for (int bloco = 0; bloco < 5; bloco++) chave.append((bits >> bloco & 1) == 0 ? "Aa" : "BB");
+            chaves.add(chave.toString());
+        }
+        return chaves;
+    }
+}
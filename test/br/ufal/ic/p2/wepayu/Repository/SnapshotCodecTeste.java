@@ -0,0 +1,146 @@
+package br.ufal.ic.p2.wepayu.Repository;
+
+import br.ufal.ic.p2.wepayu.Amostras;
+import br.ufal.ic.p2.wepayu.Verifica;
+import br.ufal.ic.p2.wepayu.models.Empregado;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Testes do {@link SnapshotCodec}: ida e volta de todos os dados dos empregados, das agendas e do
+ * cabeçalho, leitura do formato da versão 1 e rejeição de arquivos corrompidos ou truncados.
+ */
+public final class SnapshotCodecTeste {
+
+    /**
+     * Classe de testes, não instanciável.
+     */
+    private SnapshotCodecTeste() {
+    }
+
+    /**
+     * Executa os testes.
+     * @param args Não utilizados.
+     * @throws Exception se um teste falhar.
+     */
+    public static void main(String[] args) throws Exception {
+        idaEVoltaPreservaTodosOsDados();
+        idaEVoltaDeSnapshotVazio();
+        leSnapshotDaVersaoSemAgendas();
+        rejeitaCrcInvalido();
+        rejeitaArquivoTruncado();
+    }
+
+    /**
+     * Grava e lê de volta empregados de todos os tipos, com livros, sindicato e agendas.
+     * @throws IOException se o codec falhar.
+     */
+    private static void idaEVoltaPreservaTodosOsDados() throws IOException {
+        List<Empregado> empregados = Amostras.empregados(600, 40, 7);
+        List<String> agendas = List.of("semanal 5", "mensal $", "semanal 2 5", "mensal 15", "semanal 3");
+        byte[] bytes = escrever(mapa(empregados), 600, 42, agendas);
+
+        SnapshotCodec.Conteudo lido = SnapshotCodec.ler(new ByteArrayInputStream(bytes));
+        Verifica.igual(600, lido.idCont(), "contador de ID");
+        Verifica.igual(42L, lido.geracao(), "geracao");
+        Verifica.igual(agendas, lido.agendas(), "agendas");
+        Verifica.igual(empregados.size(), lido.empregados().size(), "quantidade de empregados");
+        for (Empregado original : empregados) {
+            Empregado copia = lido.empregados().get(original.getId());
+            Verifica.verdadeiro(copia != null, "empregado " + original.getId() + " ausente");
+            Verifica.igual(Amostras.descrever(original), Amostras.descrever(copia), "empregado " + original.getId());
+        }
+    }
+
+    /**
+     * Grava e lê de volta um snapshot sem empregados nem agendas customizadas.
+     * @throws IOException se o codec falhar.
+     */
+    private static void idaEVoltaDeSnapshotVazio() throws IOException {
+        byte[] bytes = escrever(MapaPersistente.vazio(), 0, 1, List.of());
+        SnapshotCodec.Conteudo lido = SnapshotCodec.ler(new ByteArrayInputStream(bytes));
+        Verifica.verdadeiro(lido.empregados().isEmpty(), "snapshot vazio");
+        Verifica.igual(List.of(), lido.agendas(), "agendas");
+    }
+
+    /**
+     * Monta um snapshot da versão 1 (sem a seção de agendas) e verifica que ele é lido, sem agendas.
+     * @throws IOException se o codec falhar.
+     */
+    private static void leSnapshotDaVersaoSemAgendas() throws IOException {
+        List<Empregado> empregados = Amostras.empregados(30, 5, 3);
+        // Geração 3 e contador 30 cabem em um byte: a quantidade de agendas fica no byte 7.
+        byte[] atual = escrever(mapa(empregados), 30, 3, List.of());
+        Verifica.igual(2, (int) atual[4], "versao gravada");
+        Verifica.igual(0, (int) atual[7], "quantidade de agendas");
+
+        byte[] corpo = new byte[atual.length - 4 - 1];
+        System.arraycopy(atual, 0, corpo, 0, 7);
+        System.arraycopy(atual, 8, corpo, 7, atual.length - 4 - 8);
+        corpo[4] = 1;
+        byte[] v1 = Arrays.copyOf(corpo, corpo.length + 4);
+        CRC32 crc = new CRC32();
+        crc.update(corpo);
+        int valor = (int) crc.getValue();
+        for (int i = 0; i < 4; i++) v1[corpo.length + i] = (byte) (valor >>> (24 - 8 * i));
+
+        SnapshotCodec.Conteudo lido = SnapshotCodec.ler(new ByteArrayInputStream(v1));
+        Verifica.igual(null, lido.agendas(), "agendas da versao 1");
+        Verifica.igual(30, lido.empregados().size(), "quantidade de empregados");
+        for (Empregado original : empregados) {
+            Verifica.igual(Amostras.descrever(original), Amostras.descrever(lido.empregados().get(original.getId())), "empregado " + original.getId());
+        }
+    }
+
+    /**
+     * Altera um byte do corpo e verifica que a leitura falha.
+     * @throws IOException se o codec falhar ao gravar.
+     */
+    private static void rejeitaCrcInvalido() throws IOException {
+        byte[] bytes = escrever(mapa(Amostras.empregados(50, 5, 11)), 50, 1, List.of("semanal 5"));
+        bytes[bytes.length - 1] ^= 0x01;
+        IOException e = Verifica.lanca(IOException.class, () -> SnapshotCodec.ler(new ByteArrayInputStream(bytes)), "CRC alterado");
+        Verifica.verdadeiro(e.getMessage().contains("CRC"), "mensagem de CRC: " + e.getMessage());
+    }
+
+    /**
+     * Corta o arquivo pela metade e verifica que a leitura falha.
+     * @throws IOException se o codec falhar ao gravar.
+     */
+    private static void rejeitaArquivoTruncado() throws IOException {
+        byte[] bytes = escrever(mapa(Amostras.empregados(50, 5, 13)), 50, 1, List.of("semanal 5"));
+        byte[] metade = Arrays.copyOf(bytes, bytes.length / 2);
+        Verifica.lanca(IOException.class, () -> SnapshotCodec.ler(new ByteArrayInputStream(metade)), "arquivo truncado");
+    }
+
+    /**
+     * Monta o mapa persistente de uma lista de empregados.
+     * @param empregados Os empregados.
+     * @return O mapa por ID.
+     */
+    static MapaPersistente<String, Empregado> mapa(List<Empregado> empregados) {
+        MapaPersistente<String, Empregado> mapa = MapaPersistente.vazio();
+        for (Empregado e : empregados) mapa = mapa.put(e.getId(), e);
+        return mapa;
+    }
+
+    /**
+     * Grava um snapshot em memória.
+     * @param empregados Os empregados.
+     * @param idCont O contador de ID.
+     * @param geracao A geração.
+     * @param agendas As agendas disponíveis.
+     * @return Os bytes do snapshot.
+     * @throws IOException se o codec falhar.
+     */
+    private static byte[] escrever(MapaPersistente<String, Empregado> empregados, int idCont, long geracao, List<String> agendas) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        SnapshotCodec.escrever(saida, empregados, idCont, geracao, agendas);
+        return saida.toByteArray();
+    }
+}
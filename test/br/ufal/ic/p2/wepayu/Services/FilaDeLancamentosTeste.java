@@ -0,0 +1,285 @@
+package br.ufal.ic.p2.wepayu.Services;
+
+import br.ufal.ic.p2.wepayu.Amostras;
+import br.ufal.ic.p2.wepayu.Exception.DataInvalidaException;
+import br.ufal.ic.p2.wepayu.Exception.EmpregadoNaoExisteException;
+import br.ufal.ic.p2.wepayu.Exception.EmpregadoNaoHoristaException;
+import br.ufal.ic.p2.wepayu.Repository.EmpregadoRepository;
+import br.ufal.ic.p2.wepayu.Verifica;
+import br.ufal.ic.p2.wepayu.models.Empregado;
+import br.ufal.ic.p2.wepayu.models.EmpregadoComissionado;
+import br.ufal.ic.p2.wepayu.models.EmpregadoHorista;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Testes da {@link FilaDeLancamentos}: com várias threads produtoras, os lançamentos de cada
+ * empregado são confirmados na ordem em que foram enfileirados, em grupos de no máximo 64; os
+ * futuros dos lançamentos inválidos falham com a exceção da chamada síncrona, e os dos válidos só
+ * são concluídos depois da ação de durabilidade; e o {@code close} aplica tudo o que já estava
+ * enfileirado antes de retornar, recusando lançamentos depois dele.
+ */
+public final class FilaDeLancamentosTeste {
+
+    private static final int EMPREGADOS = 12;
+    private static final int PRODUTORES = 3;
+    private static final int POR_EMPREGADO = 150;
+    private static final int GRUPO = 64;
+    private static final long ESPERA = 10;
+
+    /**
+     * Classe de testes, não instanciável.
+     */
+    private FilaDeLancamentosTeste() {
+    }
+
+    /**
+     * Os serviços de uma fila de teste.
+     * @param repository O repositório dos empregados.
+     * @param lancamentoService O serviço que aplica os grupos.
+     * @param confirmados Os grupos confirmados, na ordem de confirmação.
+     */
+    private record Ambiente(EmpregadoRepository repository, LancamentoService lancamentoService, List<String[]> confirmados) {
+
+        /**
+         * Cria uma fila sobre os serviços do ambiente.
+         * @param aposConfirmar A ação de durabilidade.
+         * @return A fila.
+         */
+        FilaDeLancamentos fila(Runnable aposConfirmar) {
+            return new FilaDeLancamentos(lancamentoService, new ControleDeConcorrencia(), confirmados::add, aposConfirmar);
+        }
+    }
+
+    /**
+     * Executa os testes.
+     * @param args Não utilizados.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    public static void main(String[] args) throws Exception {
+        ordemPorEmpregado();
+        futurosDepoisDaDurabilidade();
+        falhaNaDurabilidade();
+        closeEsvaziaAFila();
+    }
+
+    /**
+     * Várias threads enfileiram cartões e vendas para os seus empregados; os grupos confirmados de
+     * cada empregado, concatenados, reproduzem a ordem de enfileiramento, e os lançamentos inválidos
+     * ficam de fora com a exceção da chamada síncrona.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static void ordemPorEmpregado() throws Exception {
+        Ambiente ambiente = ambiente();
+        Map<String, CompletableFuture<Void>> futuros = Collections.synchronizedMap(new HashMap<>());
+        try (FilaDeLancamentos fila = ambiente.fila(() -> { })) {
+            List<Thread> produtores = new ArrayList<>();
+            for (int p = 0; p < PRODUTORES; p++) {
+                int produtor = p;
+                Thread thread = new Thread(() -> {
+                    try {
+                        for (int k = 0; k < POR_EMPREGADO; k++) {
+                            for (int numero = 1 + produtor; numero <= EMPREGADOS; numero += PRODUTORES) {
+                                String id = Integer.toString(numero);
+                                futuros.put(id + "/" + k, numero % 3 == 2
+                                        ? fila.lancaVenda(id, Amostras.data(k), valor(k))
+                                        : fila.lancaCartao(id, Amostras.data(k), horas(k)));
+                            }
+                        }
+                        futuros.put("999/0", fila.lancaVenda("999", Amostras.data(0), "1,00"));
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                produtores.add(thread);
+                thread.start();
+            }
+            for (Thread thread : produtores) thread.join();
+            for (Map.Entry<String, CompletableFuture<Void>> futuro : futuros.entrySet()) {
+                futuro.getValue().handle((r, e) -> null).get(ESPERA, TimeUnit.SECONDS);
+            }
+        }
+
+        Map<String, List<String>> aplicados = new HashMap<>();
+        for (String[] grupo : ambiente.confirmados()) {
+            Verifica.verdadeiro((grupo.length - 1) / 3 <= GRUPO, "grupo de " + (grupo.length - 1) / 3 + " lancamentos");
+            aplicados.computeIfAbsent(grupo[0], id -> new ArrayList<>()).addAll(Arrays.asList(grupo).subList(1, grupo.length));
+        }
+        for (int numero = 1; numero <= EMPREGADOS; numero++) {
+            String id = Integer.toString(numero);
+            Empregado empregado = ambiente.repository().findById(id);
+            if (numero % 3 == 1) {
+                Verifica.igual(null, aplicados.get(id), "assalariado " + id + " sem grupos confirmados");
+                for (int k = 0; k < POR_EMPREGADO; k++) falha(EmpregadoNaoHoristaException.class, futuros.get(id + "/" + k), "cartao do assalariado " + id);
+                continue;
+            }
+            List<String> esperados = new ArrayList<>();
+            for (int k = 0; k < POR_EMPREGADO; k++) {
+                esperados.addAll(numero % 3 == 2
+                        ? List.of("VENDA", Amostras.data(k), valor(k))
+                        : List.of("CARTAO", Amostras.data(k), horas(k)));
+                futuros.get(id + "/" + k).get();
+            }
+            Verifica.igual(esperados, aplicados.get(id), "ordem dos lancamentos do empregado " + id);
+            int lancados = empregado instanceof EmpregadoComissionado c ? c.getVendas().size() : ((EmpregadoHorista) empregado).getCartoesDePonto().size();
+            Verifica.igual(POR_EMPREGADO, lancados, "lancamentos gravados no empregado " + id);
+        }
+        falha(EmpregadoNaoExisteException.class, futuros.get("999/0"), "empregado inexistente");
+    }
+
+    /**
+     * Os futuros de um lote só são concluídos depois da ação de durabilidade, embora o lote já
+     * esteja aplicado; um lançamento inválido no mesmo grupo falha sem impedir os demais.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static void futurosDepoisDaDurabilidade() throws Exception {
+        Ambiente ambiente = ambiente();
+        CountDownLatch emDurabilidade = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        try (FilaDeLancamentos fila = ambiente.fila(() -> {
+            emDurabilidade.countDown();
+            aguardar(liberar);
+        })) {
+            CompletableFuture<Void> valido = fila.lancaVenda("2", "3/1/2005", "10,00");
+            CompletableFuture<Void> invalido = fila.lancaVenda("2", "31/2/2005", "10,00");
+            Verifica.verdadeiro(emDurabilidade.await(ESPERA, TimeUnit.SECONDS), "a acao de durabilidade foi chamada");
+            Verifica.igual(1, ambiente.confirmados().size(), "grupo aplicado antes da durabilidade");
+            Verifica.verdadeiro(!valido.isDone() && !invalido.isDone(), "futuros pendentes durante a durabilidade");
+
+            liberar.countDown();
+            valido.get(ESPERA, TimeUnit.SECONDS);
+            falha(DataInvalidaException.class, invalido, "data invalida");
+            Verifica.igual(List.of("2", "VENDA", "3/1/2005", "10,00"), Arrays.asList(ambiente.confirmados().get(0)), "grupo confirmado");
+        }
+    }
+
+    /**
+     * Se a ação de durabilidade falha, os futuros do lote falham com a mesma exceção.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static void falhaNaDurabilidade() throws Exception {
+        Ambiente ambiente = ambiente();
+        IllegalStateException erro = new IllegalStateException("fsync");
+        try (FilaDeLancamentos fila = ambiente.fila(() -> { throw erro; })) {
+            CompletableFuture<Void> futuro = fila.lancaCartao("3", "3/1/2005", "8");
+            try {
+                futuro.get(ESPERA, TimeUnit.SECONDS);
+                throw new AssertionError("o futuro foi concluido apesar da falha de durabilidade");
+            } catch (ExecutionException e) {
+                Verifica.igual(erro, e.getCause(), "falha de durabilidade");
+            }
+        }
+    }
+
+    /**
+     * O {@code close} espera a fila esvaziar: com a consumidora parada na durabilidade do primeiro
+     * lote, milhares de lançamentos ficam enfileirados, e todos estão aplicados e concluídos quando
+     * o {@code close} retorna. Depois dele, a fila recusa lançamentos.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static void closeEsvaziaAFila() throws Exception {
+        Ambiente ambiente = ambiente();
+        CountDownLatch emDurabilidade = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        FilaDeLancamentos fila = ambiente.fila(() -> {
+            emDurabilidade.countDown();
+            aguardar(liberar);
+        });
+        List<CompletableFuture<Void>> futuros = new ArrayList<>();
+        futuros.add(fila.lancaVenda("2", Amostras.data(0), "1,00"));
+        Verifica.verdadeiro(emDurabilidade.await(ESPERA, TimeUnit.SECONDS), "primeiro lote em durabilidade");
+        List<String> comissionados = List.of("2", "5", "8", "11");
+        int dias = 1_250;
+        for (int k = 1; k <= dias; k++) {
+            for (String id : comissionados) futuros.add(fila.lancaVenda(id, Amostras.data(k), valor(k)));
+        }
+
+        Thread fechamento = new Thread(fila::close);
+        fechamento.start();
+        fechamento.join(100);
+        Verifica.verdadeiro(fechamento.isAlive(), "close espera a fila esvaziar");
+        liberar.countDown();
+        fechamento.join(TimeUnit.SECONDS.toMillis(ESPERA));
+        Verifica.verdadeiro(!fechamento.isAlive(), "close retornou");
+
+        for (CompletableFuture<Void> futuro : futuros) {
+            Verifica.verdadeiro(futuro.isDone() && !futuro.isCompletedExceptionally(), "lancamento enfileirado antes do close concluido");
+        }
+        for (String id : comissionados) {
+            int esperadas = id.equals("2") ? dias + 1 : dias;
+            Verifica.igual(esperadas, ((EmpregadoComissionado) ambiente.repository().findById(id)).getVendas().size(), "vendas do empregado " + id);
+        }
+        Verifica.lanca(IllegalStateException.class, () -> fila.lancaVenda("2", Amostras.data(0), "1,00"), "lancamento depois do close");
+        fila.close();
+    }
+
+    /**
+     * Cria um repositório com os empregados de 1 a {@value #EMPREGADOS}, sem lançamentos, e os
+     * serviços da fila.
+     * @return O ambiente.
+     * @throws Exception se o diretório não puder ser criado.
+     */
+    private static Ambiente ambiente() throws Exception {
+        EmpregadoRepository repository = new EmpregadoRepository(Files.createTempDirectory("wepayu-teste"));
+        for (Empregado empregado : Amostras.empregados(EMPREGADOS, 0, 23)) repository.save(empregado);
+        LancamentoService lancamentoService = new LancamentoService(repository, new CommandHistoryService(repository));
+        return new Ambiente(repository, lancamentoService, Collections.synchronizedList(new ArrayList<>()));
+    }
+
+    /**
+     * Verifica que um futuro falhou com uma exceção de um tipo.
+     * @param tipo O tipo esperado.
+     * @param futuro O futuro.
+     * @param contexto O que está sendo verificado, para a mensagem de erro.
+     * @throws Exception se a espera for interrompida ou esgotada.
+     */
+    private static void falha(Class<? extends Exception> tipo, CompletableFuture<Void> futuro, String contexto) throws Exception {
+        try {
+            futuro.get(ESPERA, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            Verifica.verdadeiro(tipo.isInstance(e.getCause()), contexto + ": esperado " + tipo.getSimpleName() + " mas foi " + e.getCause());
+            return;
+        }
+        throw new AssertionError(contexto + ": esperado " + tipo.getSimpleName() + ", o futuro foi concluido");
+    }
+
+    /**
+     * Espera uma trava ser liberada, dentro da ação de durabilidade.
+     * @param trava A trava.
+     */
+    private static void aguardar(CountDownLatch trava) {
+        try {
+            trava.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Retorna o valor da venda do dia k.
+     * @param k O dia.
+     * @return O valor, com vírgula decimal.
+     */
+    private static String valor(int k) {
+        return (k + 1) + ",00";
+    }
+
+    /**
+     * Retorna as horas do cartão do dia k.
+     * @param k O dia.
+     * @return As horas.
+     */
+    private static String horas(int k) {
+        return Integer.toString(1 + k % 8);
+    }
+}
@@ -0,0 +1,289 @@
+package br.ufal.ic.p2.wepayu.Services;
+
+import br.ufal.ic.p2.wepayu.Amostras;
+import br.ufal.ic.p2.wepayu.Exception.EmpregadoNaoExisteException;
+import br.ufal.ic.p2.wepayu.Exception.EmpregadoNaoHoristaException;
+import br.ufal.ic.p2.wepayu.Exception.MembroNaoExisteException;
+import br.ufal.ic.p2.wepayu.Exception.SindicatoIdJaExisteException;
+import br.ufal.ic.p2.wepayu.Exception.ValidacaoException;
+import br.ufal.ic.p2.wepayu.Exception.ValorPositivoException;
+import br.ufal.ic.p2.wepayu.Repository.EmpregadoRepository;
+import br.ufal.ic.p2.wepayu.Verifica;
+import br.ufal.ic.p2.wepayu.models.Dinheiro;
+import br.ufal.ic.p2.wepayu.models.Empregado;
+import br.ufal.ic.p2.wepayu.models.EmpregadoComissionado;
+import br.ufal.ic.p2.wepayu.models.EmpregadoHorista;
+import br.ufal.ic.p2.wepayu.models.MembroSindicato;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Testes do {@link ImportadorCsv}: campos entre aspas (com separador, aspas e UTF-8 dentro),
+ * linhas em branco, quebras CRLF e linhas com a quantidade errada de campos; um arquivo de vários
+ * trechos, com linhas atravessando as fronteiras de trecho e uma linha terminando exatamente
+ * nelas, em que os números de linha dos erros continuam contando através dos trechos; e a
+ * reaplicação das linhas confirmadas, que reproduz a importação sem os arquivos.
+ */
+public final class ImportadorCsvTeste {
+
+    /**
+     * O tamanho dos trechos do {@link ImportadorCsv}.
+     */
+    private static final int TRECHO = 1 << 22;
+    private static final int COMISSIONADOS = 1_000;
+    private static final int EXISTENTES = 5;
+
+    /**
+     * Classe de testes, não instanciável.
+     */
+    private ImportadorCsvTeste() {
+    }
+
+    /**
+     * Um arquivo CSV em construção, que conta os bytes e as linhas já escritos.
+     */
+    private static final class Arquivo {
+        private final StringBuilder texto = new StringBuilder();
+        private long bytes;
+        private int linhas;
+
+        /**
+         * Acrescenta uma linha.
+         * @param linha O conteúdo da linha, sem a quebra.
+         * @param quebra A quebra de linha ("\n", "\r\n" ou "" na última linha).
+         * @return O número da linha.
+         */
+        int linha(String linha, String quebra) {
+            texto.append(linha).append(quebra);
+            bytes += (linha + quebra).getBytes(StandardCharsets.UTF_8).length;
+            return ++linhas;
+        }
+
+        /**
+         * Acrescenta linhas em branco até o arquivo ter um tamanho.
+         * @param tamanho O tamanho, em bytes.
+         */
+        void completarAte(long tamanho) {
+            if (bytes > tamanho) throw new IllegalStateException("arquivo ja tem " + bytes + " bytes");
+            while (bytes < tamanho) linha("", "\n");
+        }
+
+        /**
+         * Grava o arquivo.
+         * @param caminho O caminho.
+         * @return O caminho, como texto.
+         * @throws Exception se o arquivo não puder ser gravado.
+         */
+        String gravar(Path caminho) throws Exception {
+            Files.writeString(caminho, texto, StandardCharsets.UTF_8);
+            Verifica.igual(bytes, Files.size(caminho), "tamanho de " + caminho.getFileName());
+            return caminho.toString();
+        }
+    }
+
+    /**
+     * Executa os testes.
+     * @param args Não utilizados.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    public static void main(String[] args) throws Exception {
+        camposEAspas();
+        fronteirasDeTrecho();
+    }
+
+    /**
+     * Importa arquivos pequenos com aspas, linhas em branco, CRLF e linhas malformadas sobre um
+     * repositório com empregados, e reaplica as linhas confirmadas sobre uma cópia do estado anterior.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static void camposEAspas() throws Exception {
+        Path diretorio = Files.createTempDirectory("wepayu-teste");
+        String empregados = gravar(diretorio.resolve("empregados.csv"),
+                "chave;nome;endereco;tipo;salario;comissao;idSindicato;taxaSindical\r\n"
+                + "a;\"Silva; Ana\";\"Rua \"\"A\"\", 10\";horista;\"12,50\";;;\r\n"
+                + "\r\n"
+                + "b;Bia;Rua B;assalariado;1000,00;;s1;\"1,5\"\n"
+                + "c;Caio;Rua C;comissionado;1000,00;0,05;;\n"
+                + "d;Davi;Rua D;horista;10,00;;\n"
+                + "e;\"Eva;\";Rua E;horista;10,00;;;;\n"
+                + "\"f\";\"Fábio Ñ\";\"Rua F\";horista;\"10,00\";;;");
+        String cartoes = gravar(diretorio.resolve("cartoes.csv"),
+                "empregado;data;horas\na;1/1/2005;8\n\"a\";2/1/2005;\"4,5\"\nb;1/1/2005;8\n3;10/1/2005;2\n");
+        String vendas = gravar(diretorio.resolve("vendas.csv"), "empregado;data;valor\nc;3/1/2005;100,00\n");
+        String taxas = gravar(diretorio.resolve("taxas.csv"), "idMembro;data;valor\n\"s1\";1/1/2005;\"2,00\"\nzz;1/1/2005;1,00\n");
+
+        EmpregadoRepository repository = repositorioComEmpregados();
+        List<String[]> confirmados = new ArrayList<>();
+        ImportadorCsv.Resultado resultado = importador(repository).importar(empregados, cartoes, vendas, taxas, confirmados::add);
+
+        Verifica.igual(List.of(
+                "empregados.csv:6: Linha deve ter 8 campos.",
+                "empregados.csv:7: Linha deve ter 8 campos.",
+                "cartoes.csv:4: " + new EmpregadoNaoHoristaException().getMessage(),
+                "taxas.csv:3: " + new MembroNaoExisteException().getMessage()), resultado.erros(), "erros");
+        Verifica.igual("4 empregados, 3 cartoes, 1 vendas, 1 taxas, 4 erros", resultado.toString(), "resultado");
+
+        Empregado ana = repository.findById("6");
+        Verifica.igual("Silva; Ana", ana.getNome(), "separador entre aspas");
+        Verifica.igual("Rua \"A\", 10", ana.getEndereco(), "aspas duplicadas");
+        Verifica.igual(2, ((EmpregadoHorista) ana).getCartoesDePonto().size(), "cartoes da chave a");
+        Verifica.igual(LocalDate.of(2005, 1, 1), ((EmpregadoHorista) ana).getDataContratacao(), "contratacao pelo primeiro cartao");
+        MembroSindicato membro = repository.findById("7").getMembroSindicato();
+        Verifica.igual("s1", membro.getIdMembro(), "membro do sindicato");
+        Verifica.igual(1, membro.getTaxasDeServico().size(), "taxa do membro importado");
+        Verifica.igual(1, ((EmpregadoComissionado) repository.findById("8")).getVendas().size(), "venda da chave c");
+        Verifica.igual("Fábio Ñ", repository.findById("9").getNome(), "UTF-8 entre aspas");
+        Verifica.igual("Rua F", repository.findById("9").getEndereco(), "endereco entre aspas");
+        Verifica.igual(1, ((EmpregadoHorista) repository.findById("3")).getCartoesDePonto().size() - cartoesOriginais(3),
+                "cartao pelo ID de um empregado ja cadastrado");
+        Verifica.igual(9, repository.getState().idCont(), "contador de ID");
+
+        Verifica.igual(1, confirmados.size(), "uma confirmacao por importacao");
+        EmpregadoRepository reaplicado = repositorioComEmpregados();
+        importador(reaplicado).reaplicar(confirmados.get(0));
+        Verifica.igual(descrever(repository), descrever(reaplicado), "reaplicacao das linhas confirmadas");
+        Verifica.igual(9, reaplicado.getState().idCont(), "contador de ID reaplicado");
+
+        EmpregadoRepository conflitante = repositorioComEmpregados();
+        Empregado comMembro = conflitante.findById("1").clone();
+        comMembro.setMembroSindicato(new MembroSindicato("s1", Dinheiro.de("1,00")));
+        conflitante.save(comMembro);
+        ValidacaoException erro = Verifica.lanca(ValidacaoException.class, () -> importador(conflitante).reaplicar(confirmados.get(0)),
+                "reaplicacao sobre um estado em que a linha nao vale");
+        Verifica.igual("empregados:2: " + new SindicatoIdJaExisteException().getMessage(), erro.getMessage(), "primeiro erro da reaplicacao");
+    }
+
+    /**
+     * Importa vendas de um arquivo de três trechos: uma linha com campos entre aspas e caracteres
+     * de dois bytes atravessa a primeira fronteira, uma linha CRLF termina exatamente na segunda,
+     * e linhas inválidas logo depois das fronteiras e no fim (sem quebra) são relatadas com o
+     * número de linha do arquivo inteiro.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static void fronteirasDeTrecho() throws Exception {
+        Path diretorio = Files.createTempDirectory("wepayu-teste");
+        Arquivo empregados = new Arquivo();
+        empregados.linha("chave;nome;endereco;tipo;salario;comissao;idSindicato;taxaSindical", "\n");
+        for (int i = 0; i < COMISSIONADOS; i++) empregados.linha("c" + i + ";Vendedor " + i + ";Rua " + i + ";comissionado;1000,00;0,05;;", "\n");
+        empregados.linha("\"çã;1\";Ção;Rua Ç;comissionado;1000,00;0,05;;", "\n");
+
+        Arquivo vendas = new Arquivo();
+        List<String> erros = new ArrayList<>();
+        String valorNegativo = new ValorPositivoException().getMessage();
+        vendas.linha("empregado;data;valor", "\n");
+        int validas = 0;
+        int k = 0;
+        while (vendas.bytes < TRECHO - 64) {
+            vendas.linha(venda(k++), "\n");
+            validas++;
+        }
+        vendas.completarAte(TRECHO - 2);
+        vendas.linha("\"çã;1\";\"" + Amostras.data(0) + "\";\"7,50\"", "\n");
+        validas++;
+        long inicioDoSegundo = vendas.bytes;
+        erros.add("vendas.csv:" + vendas.linha("c1;" + Amostras.data(0) + ";-1,00", "\n") + ": " + valorNegativo);
+        vendas.linha("", "\r\n");
+
+        long fimDoSegundo = inicioDoSegundo + TRECHO;
+        while (vendas.bytes < fimDoSegundo - 64) {
+            vendas.linha(venda(k++), k % 3 == 0 ? "\r\n" : "\n");
+            validas++;
+        }
+        String ultimaDoSegundo = "\"c2\";" + Amostras.data(1) + ";\"8,25\"";
+        vendas.completarAte(fimDoSegundo - ultimaDoSegundo.length() - 2);
+        vendas.linha(ultimaDoSegundo, "\r\n");
+        validas++;
+        Verifica.igual(fimDoSegundo, vendas.bytes, "linha terminando na segunda fronteira");
+        erros.add("vendas.csv:" + vendas.linha("inexistente;" + Amostras.data(0) + ";1,00", "\n") + ": " + new EmpregadoNaoExisteException().getMessage());
+        for (int j = 0; j < 10; j++, validas++) vendas.linha(venda(k++), "\n");
+        erros.add("vendas.csv:" + vendas.linha("c3;" + Amostras.data(0) + ";0", "") + ": " + valorNegativo);
+
+        EmpregadoRepository repository = new EmpregadoRepository(Files.createTempDirectory("wepayu-teste"));
+        ImportadorCsv.Resultado resultado = importador(repository).importar(empregados.gravar(diretorio.resolve("empregados.csv")), null,
+                vendas.gravar(diretorio.resolve("vendas.csv")), "", linhas -> { });
+
+        Verifica.igual(erros, resultado.erros(), "erros numerados atraves dos trechos");
+        Verifica.igual(COMISSIONADOS + 1, resultado.empregados(), "empregados importados");
+        Verifica.igual(validas, resultado.vendas(), "vendas importadas");
+        EmpregadoComissionado atravessando = (EmpregadoComissionado) repository.findById(Integer.toString(COMISSIONADOS + 1));
+        Verifica.igual(7.5, atravessando.getVendas().get(Amostras.data(0)).getValor(), "valor da linha na fronteira");
+        Verifica.igual(8.25, ((EmpregadoComissionado) repository.findById("3")).getVendas().get(Amostras.data(1)).getValor(),
+                "valor da linha terminando na fronteira");
+        int vendasGravadas = 0;
+        for (int i = 1; i <= COMISSIONADOS + 1; i++) vendasGravadas += ((EmpregadoComissionado) repository.findById(Integer.toString(i))).getVendas().size();
+        Verifica.igual(validas, vendasGravadas, "vendas gravadas nos empregados");
+    }
+
+    /**
+     * Retorna a linha da venda k, distribuindo as vendas pelos comissionados sem repetir data.
+     * @param k A posição da venda.
+     * @return A linha, sem a quebra.
+     */
+    private static String venda(int k) {
+        int comissionado = k % COMISSIONADOS;
+        int dia = 2 + k / COMISSIONADOS;
+        return "c" + comissionado + ";" + Amostras.data(dia) + ";" + (1 + k % 900) + "," + String.format("%02d", k % 100);
+    }
+
+    /**
+     * Cria um repositório com {@value #EXISTENTES} empregados já cadastrados e o contador de ID
+     * depois deles.
+     * @return O repositório.
+     * @throws Exception se o diretório não puder ser criado.
+     */
+    private static EmpregadoRepository repositorioComEmpregados() throws Exception {
+        EmpregadoRepository repository = new EmpregadoRepository(Files.createTempDirectory("wepayu-teste"));
+        for (Empregado empregado : Amostras.empregados(EXISTENTES, 3, 31)) {
+            repository.save(empregado);
+            repository.getNextId();
+        }
+        return repository;
+    }
+
+    /**
+     * Retorna a quantidade de cartões de um horista de {@link #repositorioComEmpregados()}.
+     * @param numero O ID do horista.
+     * @return A quantidade de cartões.
+     * @throws Exception se o diretório não puder ser criado.
+     */
+    private static int cartoesOriginais(int numero) throws Exception {
+        return ((EmpregadoHorista) repositorioComEmpregados().findById(Integer.toString(numero))).getCartoesDePonto().size();
+    }
+
+    /**
+     * Cria um importador sobre um repositório.
+     * @param repository O repositório.
+     * @return O importador.
+     */
+    private static ImportadorCsv importador(EmpregadoRepository repository) {
+        return new ImportadorCsv(repository, new CommandHistoryService(repository), new ControleDeConcorrencia());
+    }
+
+    /**
+     * Descreve todos os empregados de um repositório, em ordem de ID.
+     * @param repository O repositório.
+     * @return As descrições.
+     */
+    private static List<String> descrever(EmpregadoRepository repository) {
+        List<String> descricoes = new ArrayList<>();
+        for (int i = 1; i <= repository.getState().idCont(); i++) descricoes.add(Amostras.descrever(repository.findById(Integer.toString(i))));
+        return descricoes;
+    }
+
+    /**
+     * Grava um arquivo em UTF-8.
+     * @param caminho O caminho.
+     * @param conteudo O conteúdo.
+     * @return O caminho, como texto.
+     * @throws Exception se o arquivo não puder ser gravado.
+     */
+    private static String gravar(Path caminho, String conteudo) throws Exception {
+        Files.writeString(caminho, conteudo, StandardCharsets.UTF_8);
+        return caminho.toString();
+    }
+}
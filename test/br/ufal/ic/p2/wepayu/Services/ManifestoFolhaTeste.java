@@ -0,0 +1,314 @@
+package br.ufal.ic.p2.wepayu.Services;
+
+import br.ufal.ic.p2.wepayu.Amostras;
+import br.ufal.ic.p2.wepayu.Verifica;
+import br.ufal.ic.p2.wepayu.models.Empregado;
+import br.ufal.ic.p2.wepayu.models.EmpregadoComissionado;
+import br.ufal.ic.p2.wepayu.models.ResultadoVenda;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Testes do {@link ManifestoFolha}: uma exportação interrompida é retomada do último lote registrado,
+ * com os pagamentos dos lotes concluídos reaplicados em ordem; um registro cortado ou corrompido no
+ * final é descartado e sobrescrito pelo próximo lote; e a exportação recomeça do início quando o
+ * arquivo de saída é menor do que o registrado ou não existe, quando a data, o formato ou a lista
+ * de empregados mudam, e quando um empregado foi alterado entre a queda e a retomada.
+ */
+public final class ManifestoFolhaTeste {
+
+    private static final LocalDate DATA_FOLHA = LocalDate.of(2005, 1, 31);
+    private static final int LOTES = 3;
+
+    /**
+     * Classe de testes, não instanciável.
+     */
+    private ManifestoFolhaTeste() {
+    }
+
+    /**
+     * Uma exportação interrompida depois de {@value #LOTES} lotes, com o tamanho do manifesto ao fim
+     * de cada um.
+     * @param saida O arquivo de saída.
+     * @param empregados Os empregados da execução.
+     * @param fimDoLote O tamanho do manifesto depois de cada lote (o índice 0 é o cabeçalho).
+     */
+    private record Interrompida(Path saida, List<Empregado> empregados, long[] fimDoLote) {}
+
+    /**
+     * Executa os testes.
+     * @param args Não utilizados.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    public static void main(String[] args) throws Exception {
+        retomaDoUltimoLote();
+        descartaRegistroCortado();
+        descartaRegistroCorrompido();
+        recomecaComSaidaMenor();
+        recomecaComOutraExecucao();
+        recomecaComEmpregadoAlterado();
+        concluirApagaOManifesto();
+    }
+
+    /**
+     * Reabre o manifesto de uma exportação interrompida e confere o ponto de retomada e os pagamentos
+     * reaplicados; reabrir de novo dá o mesmo resultado.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static void retomaDoUltimoLote() throws Exception {
+        Interrompida execucao = interromper();
+        for (int vez = 0; vez < 2; vez++) {
+            List<String> pagos = new ArrayList<>();
+            try (ManifestoFolha manifesto = abrir(execucao, execucao.empregados(), pagos)) {
+                Verifica.igual(new ManifestoFolha.PontoDeControle(LOTES, posicao(LOTES), linhas(LOTES)), manifesto.getRetomada(), "retomada " + vez);
+            }
+            Verifica.igual(pagosAte(LOTES), pagos, "pagamentos reaplicados " + vez);
+        }
+    }
+
+    /**
+     * Corta o último registro em cada posição: a retomada volta ao lote anterior, o resto é truncado e
+     * o lote registrado em seguida é lido depois dele.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static void descartaRegistroCortado() throws Exception {
+        Interrompida modelo = interromper();
+        for (long corte = modelo.fimDoLote()[LOTES - 1]; corte < modelo.fimDoLote()[LOTES]; corte++) {
+            Interrompida execucao = interromper();
+            try (RandomAccessFile arquivo = new RandomAccessFile(manifesto(execucao).toFile(), "rw")) {
+                arquivo.setLength(corte);
+            }
+            List<String> pagos = new ArrayList<>();
+            try (ManifestoFolha manifesto = abrir(execucao, execucao.empregados(), pagos)) {
+                Verifica.igual(LOTES - 1, manifesto.getRetomada().lotes(), "lotes com o registro cortado em " + corte);
+                Verifica.igual(pagosAte(LOTES - 1), pagos, "pagamentos com o registro cortado em " + corte);
+                Verifica.igual(execucao.fimDoLote()[LOTES - 1], Files.size(manifesto(execucao)), "manifesto truncado no corte " + corte);
+                manifesto.registrarLote(posicao(LOTES), linhas(LOTES), pagosNoLote(LOTES - 1));
+            }
+            try (ManifestoFolha manifesto = abrir(execucao, execucao.empregados(), new ArrayList<>())) {
+                Verifica.igual(LOTES, manifesto.getRetomada().lotes(), "lote regravado depois do corte " + corte);
+            }
+        }
+    }
+
+    /**
+     * Troca um byte do último registro: o CRC não confere e a retomada volta ao lote anterior.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static void descartaRegistroCorrompido() throws Exception {
+        Interrompida execucao = interromper();
+        try (RandomAccessFile arquivo = new RandomAccessFile(manifesto(execucao).toFile(), "rw")) {
+            long posicao = execucao.fimDoLote()[LOTES] - 1;
+            arquivo.seek(posicao);
+            int original = arquivo.read();
+            arquivo.seek(posicao);
+            arquivo.write(original ^ 0x40);
+        }
+        List<String> pagos = new ArrayList<>();
+        try (ManifestoFolha manifesto = abrir(execucao, execucao.empregados(), pagos)) {
+            Verifica.igual(LOTES - 1, manifesto.getRetomada().lotes(), "lotes com o registro corrompido");
+        }
+        Verifica.igual(pagosAte(LOTES - 1), pagos, "pagamentos com o registro corrompido");
+    }
+
+    /**
+     * Um arquivo de saída menor do que o registrado (ou apagado) faz a exportação recomeçar, sem
+     * reaplicar pagamentos, com um manifesto novo só com o cabeçalho.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static void recomecaComSaidaMenor() throws Exception {
+        Interrompida execucao = interromper();
+        try (RandomAccessFile arquivo = new RandomAccessFile(execucao.saida().toFile(), "rw")) {
+            arquivo.setLength(posicao(LOTES) - 1);
+        }
+        recomeca(execucao, execucao.empregados(), "saida menor");
+
+        execucao = interromper();
+        Files.delete(execucao.saida());
+        recomeca(execucao, execucao.empregados(), "saida apagada");
+
+        execucao = interromper();
+        try (RandomAccessFile arquivo = new RandomAccessFile(execucao.saida().toFile(), "rw")) {
+            arquivo.setLength(posicao(LOTES) + 100);
+        }
+        try (ManifestoFolha manifesto = abrir(execucao, execucao.empregados(), new ArrayList<>())) {
+            Verifica.igual(LOTES, manifesto.getRetomada().lotes(), "saida maior do que o registrado (lote seguinte gravado pela metade)");
+        }
+    }
+
+    /**
+     * Outra data, outro formato ou outra lista de empregados não retomam a execução anterior.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static void recomecaComOutraExecucao() throws Exception {
+        Interrompida execucao = interromper();
+        try (ManifestoFolha manifesto = ManifestoFolha.abrir(execucao.saida().toString(), DATA_FOLHA.plusDays(1), FormatoFolha.CSV,
+                execucao.empregados(), id -> { throw new AssertionError("outra data reaplicou " + id); })) {
+            Verifica.igual(ManifestoFolha.PontoDeControle.INICIO, manifesto.getRetomada(), "outra data");
+        }
+
+        execucao = interromper();
+        try (ManifestoFolha manifesto = ManifestoFolha.abrir(execucao.saida().toString(), DATA_FOLHA, FormatoFolha.JSONL,
+                execucao.empregados(), id -> { throw new AssertionError("outro formato reaplicou " + id); })) {
+            Verifica.igual(ManifestoFolha.PontoDeControle.INICIO, manifesto.getRetomada(), "outro formato");
+        }
+
+        execucao = interromper();
+        recomeca(execucao, execucao.empregados().subList(1, execucao.empregados().size()), "empregado removido");
+    }
+
+    /**
+     * Os mesmos IDs com uma versão diferente de um empregado (nome, método de pagamento ou venda no
+     * período) não retomam a execução; uma cópia idêntica, sim.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static void recomecaComEmpregadoAlterado() throws Exception {
+        Interrompida execucao = interromper();
+        List<Empregado> copias = new ArrayList<>();
+        for (Empregado e : execucao.empregados()) copias.add(e.clone());
+        try (ManifestoFolha manifesto = abrir(execucao, copias, new ArrayList<>())) {
+            Verifica.igual(LOTES, manifesto.getRetomada().lotes(), "copias identicas");
+        }
+
+        List<Empregado> renomeados = new ArrayList<>(copias);
+        Empregado renomeado = renomeados.get(7).clone();
+        renomeado.setNome(renomeado.getNome() + " Jr.");
+        renomeados.set(7, renomeado);
+        recomeca(interromper(), renomeados, "nome alterado");
+
+        List<Empregado> comVenda = new ArrayList<>(copias);
+        int indice = 0;
+        while (!(comVenda.get(indice) instanceof EmpregadoComissionado)) indice++;
+        EmpregadoComissionado vendedor = (EmpregadoComissionado) comVenda.get(indice).clone();
+        vendedor.lancaVenda(new ResultadoVenda("30/1/2005", 99.99));
+        comVenda.set(indice, vendedor);
+        recomeca(interromper(), comVenda, "venda lancada no periodo");
+    }
+
+    /**
+     * {@code concluir} apaga o manifesto, e a próxima abertura começa do início.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static void concluirApagaOManifesto() throws Exception {
+        Interrompida execucao = interromper();
+        try (ManifestoFolha manifesto = abrir(execucao, execucao.empregados(), new ArrayList<>())) {
+            manifesto.concluir();
+        }
+        Verifica.verdadeiro(!Files.exists(manifesto(execucao)), "manifesto apagado");
+        recomeca(execucao, execucao.empregados(), "depois de concluir");
+    }
+
+    /**
+     * Verifica que a abertura recomeça a exportação: ponto de controle inicial, nenhum pagamento
+     * reaplicado e o manifesto reescrito só com o cabeçalho.
+     * @param execucao A execução interrompida.
+     * @param empregados Os empregados da nova abertura.
+     * @param contexto O caso, para as mensagens.
+     * @throws Exception se um arquivo não puder ser lido.
+     */
+    private static void recomeca(Interrompida execucao, List<Empregado> empregados, String contexto) throws Exception {
+        List<String> pagos = new ArrayList<>();
+        try (ManifestoFolha manifesto = abrir(execucao, empregados, pagos)) {
+            Verifica.igual(ManifestoFolha.PontoDeControle.INICIO, manifesto.getRetomada(), contexto);
+        }
+        Verifica.igual(List.of(), pagos, "pagamentos reaplicados: " + contexto);
+        Verifica.igual(execucao.fimDoLote()[0], Files.size(manifesto(execucao)), "manifesto reescrito: " + contexto);
+    }
+
+    /**
+     * Simula uma exportação em CSV que registra {@value #LOTES} lotes e é interrompida antes de concluir.
+     * @return A execução interrompida.
+     * @throws Exception se um arquivo não puder ser criado.
+     */
+    private static Interrompida interromper() throws Exception {
+        Path saida = Files.createTempDirectory("wepayu-teste").resolve("folha.csv");
+        List<Empregado> empregados = Amostras.empregados(60, 40, 19);
+        long[] fimDoLote = new long[LOTES + 1];
+        try (ManifestoFolha manifesto = ManifestoFolha.abrir(saida.toString(), DATA_FOLHA, FormatoFolha.CSV, empregados,
+                id -> { throw new AssertionError("execucao nova reaplicou " + id); })) {
+            Verifica.igual(ManifestoFolha.PontoDeControle.INICIO, manifesto.getRetomada(), "execucao nova");
+            fimDoLote[0] = Files.size(manifesto(saida));
+            for (int lote = 0; lote < LOTES; lote++) {
+                Files.write(saida, new byte[(int) posicao(lote + 1)]);
+                manifesto.registrarLote(posicao(lote + 1), linhas(lote + 1), pagosNoLote(lote));
+                fimDoLote[lote + 1] = Files.size(manifesto(saida));
+            }
+        }
+        return new Interrompida(saida, empregados, fimDoLote);
+    }
+
+    /**
+     * Abre o manifesto de uma execução em CSV na data da folha.
+     * @param execucao A execução.
+     * @param empregados Os empregados da abertura.
+     * @param pagos A lista que recebe os pagamentos reaplicados.
+     * @return O manifesto aberto.
+     * @throws Exception se o manifesto não puder ser aberto.
+     */
+    private static ManifestoFolha abrir(Interrompida execucao, List<Empregado> empregados, List<String> pagos) throws Exception {
+        return ManifestoFolha.abrir(execucao.saida().toString(), DATA_FOLHA, FormatoFolha.CSV, empregados, pagos::add);
+    }
+
+    /**
+     * Retorna o caminho do manifesto de uma execução.
+     * @param execucao A execução.
+     * @return O caminho.
+     */
+    private static Path manifesto(Interrompida execucao) {
+        return manifesto(execucao.saida());
+    }
+
+    /**
+     * Retorna o caminho do manifesto de um arquivo de saída.
+     * @param saida O arquivo de saída.
+     * @return O caminho.
+     */
+    private static Path manifesto(Path saida) {
+        return Path.of(saida + ".manifesto");
+    }
+
+    /**
+     * Retorna o tamanho simulado do arquivo de saída depois de uma quantidade de lotes.
+     * @param lotes A quantidade de lotes.
+     * @return O tamanho, em bytes.
+     */
+    private static long posicao(int lotes) {
+        return 1000L * lotes + 17;
+    }
+
+    /**
+     * Retorna a quantidade simulada de linhas exportadas depois de uma quantidade de lotes.
+     * @param lotes A quantidade de lotes.
+     * @return As linhas.
+     */
+    private static long linhas(int lotes) {
+        return 20L * lotes;
+    }
+
+    /**
+     * Retorna os IDs simulados dos empregados pagos em um lote (a quantidade varia com o lote).
+     * @param lote O índice do lote.
+     * @return Os IDs.
+     */
+    private static List<String> pagosNoLote(int lote) {
+        List<String> pagos = new ArrayList<>();
+        for (int i = 0; i <= lote * 2; i++) pagos.add(lote * 20 + i + 1 + "");
+        return pagos;
+    }
+
+    /**
+     * Retorna os IDs pagos nos primeiros lotes, em ordem.
+     * @param lotes A quantidade de lotes.
+     * @return Os IDs.
+     */
+    private static List<String> pagosAte(int lotes) {
+        List<String> pagos = new ArrayList<>();
+        for (int lote = 0; lote < lotes; lote++) pagos.addAll(pagosNoLote(lote));
+        return pagos;
+    }
+}
@@ -0,0 +1,67 @@
+package br.ufal.ic.p2.wepayu;
+
+import java.util.Objects;
+
+/**
+ * Verificações usadas pelos testes de unidade. Uma verificação que falha lança
+ * {@link AssertionError}, que interrompe o teste e é relatada por {@code TestesDeUnidade}.
+ */
+public final class Verifica {
+
+    /**
+     * Classe utilitária, não instanciável.
+     */
+    private Verifica() {
+    }
+
+    /**
+     * Verifica que dois valores são iguais.
+     * @param esperado O valor esperado.
+     * @param obtido O valor obtido.
+     * @param contexto O que está sendo verificado, para a mensagem de erro.
+     */
+    public static void igual(Object esperado, Object obtido, String contexto) {
+        if (!Objects.equals(esperado, obtido)) {
+            throw new AssertionError(contexto + ": esperado <" + esperado + "> mas foi <" + obtido + ">");
+        }
+    }
+
+    /**
+     * Verifica que uma condição é verdadeira.
+     * @param condicao A condição.
+     * @param contexto O que está sendo verificado, para a mensagem de erro.
+     */
+    public static void verdadeiro(boolean condicao, String contexto) {
+        if (!condicao) throw new AssertionError(contexto);
+    }
+
+    /**
+     * Verifica que uma ação lança uma exceção de um tipo.
+     * @param tipo O tipo esperado.
+     * @param acao A ação.
+     * @param contexto O que está sendo verificado, para a mensagem de erro.
+     * @return A exceção lançada.
+     * @param <T> O tipo da exceção.
+     */
+    public static <T extends Throwable> T lanca(Class<T> tipo, Acao acao, String contexto) {
+        try {
+            acao.executar();
+        } catch (Throwable e) {
+            if (tipo.isInstance(e)) return tipo.cast(e);
+            throw new AssertionError(contexto + ": esperado " + tipo.getSimpleName() + " mas foi " + e, e);
+        }
+        throw new AssertionError(contexto + ": esperado " + tipo.getSimpleName() + ", nada foi lançado");
+    }
+
+    /**
+     * Ação verificada por {@link #lanca}.
+     */
+    @FunctionalInterface
+    public interface Acao {
+        /**
+         * Executa a ação.
+         * @throws Throwable qualquer exceção.
+         */
+        void executar() throws Throwable;
+    }
+}
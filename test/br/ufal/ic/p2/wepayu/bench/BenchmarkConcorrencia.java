@@ -0,0 +1,98 @@
+package br.ufal.ic.p2.wepayu.bench;
+
+import br.ufal.ic.p2.wepayu.Amostras;
+import br.ufal.ic.p2.wepayu.Facade;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Mede a vazão de lançamentos concorrentes pela {@link Facade}, de 1 a 16 threads.
+ * <p>
+ * Cada thread lança cartões de ponto nos seus próprios horistas (nenhum empregado é compartilhado
+ * entre threads), de modo que as travas por empregado não disputam entre si e a escala depende só
+ * das partes compartilhadas: a publicação de versões do repositório e o histórico de undo. Cada
+ * quantidade de threads usa uma fachada nova, em um diretório temporário, com os mesmos
+ * {@value #HORISTAS} horistas divididos entre as threads e os mesmos lançamentos por horista; o tempo
+ * é o melhor de {@value #REPETICOES} execuções, depois de uma rodada de aquecimento. Com {@code -Dwepayu.journal=true} o journal também é medido.
+ * <p>
+ * Uso: {@code BenchmarkConcorrencia [lancamentos] [threads...]}; o padrão é {@code 200000 1 2 4 8 16}.
+ */
+public final class BenchmarkConcorrencia {
+
+    private static final int HORISTAS = 256;
+    private static final int REPETICOES = 3;
+
+    /**
+     * Classe utilitária, não instanciável.
+     */
+    private BenchmarkConcorrencia() {
+    }
+
+    /**
+     * Executa o benchmark.
+     * @param args A quantidade total de lançamentos e as quantidades de threads.
+     * @throws Exception se um lançamento falhar.
+     */
+    public static void main(String[] args) throws Exception {
+        int lancamentos = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int[] threads = args.length > 1 ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[] {1, 2, 4, 8, 16};
+        System.out.printf("%d lancamentos de cartao, %d processadores, journal %s%n", lancamentos,
+                Runtime.getRuntime().availableProcessors(), Boolean.getBoolean("wepayu.journal") ? "ativo" : "inativo");
+        System.out.printf("%8s %12s %16s %10s%n", "threads", "tempo (ms)", "lancamentos/s", "escala");
+        for (int quantidade : threads) medir(lancamentos, quantidade); // aquecimento
+        double base = 0;
+        for (int quantidade : threads) {
+            long tempo = Long.MAX_VALUE;
+            for (int i = 0; i < REPETICOES; i++) tempo = Math.min(tempo, medir(lancamentos, quantidade));
+            double vazao = lancamentos / quantidade * (double) quantidade / (tempo / 1e9);
+            if (base == 0) base = vazao;
+            System.out.printf("%8d %12d %16.0f %9.2fx%n", quantidade, tempo / 1_000_000, vazao, vazao / base);
+        }
+    }
+
+    /**
+     * Mede uma quantidade de threads sobre uma fachada nova.
+     * @param lancamentos A quantidade total de lançamentos.
+     * @param threads A quantidade de threads.
+     * @return O tempo dos lançamentos, em nanossegundos.
+     * @throws Exception se um lançamento falhar.
+     */
+    private static long medir(int lancamentos, int threads) throws Exception {
+        Facade facade = new Facade(Files.createTempDirectory("wepayu-bench"));
+        List<List<String>> horistas = new ArrayList<>();
+        for (int t = 0; t < threads; t++) horistas.add(new ArrayList<>());
+        for (int i = 0; i < HORISTAS; i++) {
+            horistas.get(i % threads).add(facade.criarEmpregado("Horista " + i, "Rua " + i, "horista", "15,00"));
+        }
+        int porThread = lancamentos / threads;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (List<String> ids : horistas) {
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < porThread; i++) {
+                        facade.lancaCartao(ids.get(i % ids.size()), Amostras.data(i / ids.size()), "8");
+                    }
+                    return null;
+                }));
+            }
+            long inicio = System.nanoTime();
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) tarefa.get();
+            return System.nanoTime() - inicio;
+        } finally {
+            executor.shutdown();
+            facade.encerrarSistema();
+        }
+    }
+}
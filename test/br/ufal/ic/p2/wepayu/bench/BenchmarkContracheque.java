@@ -0,0 +1,220 @@
+package br.ufal.ic.p2.wepayu.bench;
+
+import br.ufal.ic.p2.wepayu.Amostras;
+import br.ufal.ic.p2.wepayu.Exception.EmpregadoNaoExisteException;
+import br.ufal.ic.p2.wepayu.Exception.ValidacaoException;
+import br.ufal.ic.p2.wepayu.Repository.EmpregadoRepository;
+import br.ufal.ic.p2.wepayu.Services.ConsultaService;
+import br.ufal.ic.p2.wepayu.models.Contracheque;
+import br.ufal.ic.p2.wepayu.models.Empregado;
+import br.ufal.ic.p2.wepayu.models.EmpregadoComissionado;
+import br.ufal.ic.p2.wepayu.models.EmpregadoHorista;
+
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compara o cálculo da folha com o contracheque calculado uma vez por empregado
+ * ({@link ConsultaService#calcularContracheque}) com o padrão de chamadas anterior, em que o cálculo
+ * da linha e a formatação do relatório consultavam cada um o salário bruto, os descontos (que
+ * recalculavam o salário bruto) e as horas ou vendas do período.
+ * <p>
+ * Os dois cálculos percorrem todos os pagamentos de janeiro de 2005 dos mesmos empregados (ver
+ * {@link Amostras}), com 30 cartões ou vendas cada. As chamadas são contadas por uma subclasse de
+ * {@link ConsultaService}, e o tempo é o melhor de {@value #REPETICOES} execuções.
+ * <p>
+ * Uso: {@code BenchmarkContracheque [empregados]}; o padrão é {@code 10000}.
+ */
+public final class BenchmarkContracheque {
+
+    private static final int REPETICOES = 5;
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("d/M/yyyy");
+
+    /**
+     * Pagamento de um empregado em uma data.
+     * @param empregado O empregado.
+     * @param data A data da folha.
+     */
+    private record Pagamento(Empregado empregado, LocalDate data) {}
+
+    /**
+     * Consulta que conta as chamadas de cada cálculo.
+     */
+    private static final class ConsultaContada extends ConsultaService {
+        private final Map<String, Long> chamadas = new TreeMap<>();
+
+        /**
+         * Cria a consulta sobre um repositório.
+         * @param repository O repositório.
+         */
+        private ConsultaContada(EmpregadoRepository repository) {
+            super(repository);
+        }
+
+        /**
+         * Conta uma chamada.
+         * @param metodo O método chamado.
+         */
+        private void contar(String metodo) {
+            chamadas.merge(metodo, 1L, Long::sum);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long calcularSalarioBruto(Empregado empregado, LocalDate dataFolha) throws ValidacaoException, EmpregadoNaoExisteException {
+            contar("calcularSalarioBruto");
+            return super.calcularSalarioBruto(empregado, dataFolha);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long calcularDeducoes(Empregado empregado, LocalDate dataFolha) throws ValidacaoException, EmpregadoNaoExisteException {
+            contar("calcularDeducoes");
+            return super.calcularDeducoes(empregado, dataFolha);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getHorasNormaisTrabalhadas(String id, String inicio, String fim) throws ValidacaoException, EmpregadoNaoExisteException {
+            contar("getHorasNormaisTrabalhadas");
+            return super.getHorasNormaisTrabalhadas(id, inicio, fim);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getHorasExtrasTrabalhadas(String id, String inicio, String fim) throws ValidacaoException, EmpregadoNaoExisteException {
+            contar("getHorasExtrasTrabalhadas");
+            return super.getHorasExtrasTrabalhadas(id, inicio, fim);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getVendasRealizadas(String id, String inicio, String fim) throws ValidacaoException, EmpregadoNaoExisteException {
+            contar("getVendasRealizadas");
+            return super.getVendasRealizadas(id, inicio, fim);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String getTaxasServico(String id, String inicio, String fim) throws ValidacaoException, EmpregadoNaoExisteException {
+            contar("getTaxasServico");
+            return super.getTaxasServico(id, inicio, fim);
+        }
+    }
+
+    /**
+     * Um dos cálculos comparados, aplicado a um pagamento.
+     */
+    @FunctionalInterface
+    private interface Calculo {
+        /**
+         * Calcula o pagamento.
+         * @param consulta A consulta usada.
+         * @param pagamento O pagamento.
+         * @return O salário líquido, em centavos, para conferir que os dois cálculos concordam.
+         * @throws Exception se o cálculo falhar.
+         */
+        long calcular(ConsultaService consulta, Pagamento pagamento) throws Exception;
+    }
+
+    /**
+     * Classe utilitária, não instanciável.
+     */
+    private BenchmarkContracheque() {
+    }
+
+    /**
+     * Executa o benchmark.
+     * @param args A quantidade de empregados.
+     * @throws Exception se um cálculo falhar.
+     */
+    public static void main(String[] args) throws Exception {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        EmpregadoRepository repository = new EmpregadoRepository(Files.createTempDirectory("wepayu-bench"));
+        repository.gravarEmLote(Amostras.empregados(quantidade, 30, quantidade), quantidade);
+        ConsultaService consulta = new ConsultaService(repository);
+        List<Pagamento> pagamentos = new ArrayList<>();
+        for (LocalDate data = LocalDate.of(2005, 1, 1); data.getMonthValue() == 1; data = data.plusDays(1)) {
+            for (Empregado e : consulta.getEmpregadosDaAgendaDoDia(data)) {
+                if (consulta.isDiaDePagar(e, data)) pagamentos.add(new Pagamento(e, data));
+            }
+        }
+        System.out.printf("%d empregados, %d pagamentos em janeiro de 2005%n", quantidade, pagamentos.size());
+
+        long liquidoAntes = medir("antes", repository, pagamentos, BenchmarkContracheque::calcularComoAntes);
+        long liquidoDepois = medir("contracheque", repository, pagamentos,
+                (c, p) -> c.calcularContracheque(p.empregado(), p.data()).getSalarioLiquido());
+        if (liquidoAntes != liquidoDepois) throw new IllegalStateException("Os dois calculos divergem: " + liquidoAntes + " e " + liquidoDepois);
+    }
+
+    /**
+     * Executa um cálculo sobre todos os pagamentos, imprimindo as chamadas de uma execução e o
+     * melhor tempo.
+     * @param nome O nome do cálculo.
+     * @param repository O repositório dos empregados.
+     * @param pagamentos Os pagamentos.
+     * @param calculo O cálculo.
+     * @return A soma dos salários líquidos.
+     * @throws Exception se um cálculo falhar.
+     */
+    private static long medir(String nome, EmpregadoRepository repository, List<Pagamento> pagamentos, Calculo calculo) throws Exception {
+        ConsultaContada contada = new ConsultaContada(repository);
+        long total = 0;
+        for (Pagamento pagamento : pagamentos) total += calculo.calcular(contada, pagamento);
+        ConsultaService consulta = new ConsultaService(repository);
+        long melhor = Long.MAX_VALUE;
+        for (int i = 0; i <= REPETICOES; i++) {
+            long inicio = System.nanoTime();
+            for (Pagamento pagamento : pagamentos) calculo.calcular(consulta, pagamento);
+            if (i > 0) melhor = Math.min(melhor, System.nanoTime() - inicio);
+        }
+        long chamadas = contada.chamadas.values().stream().mapToLong(Long::longValue).sum();
+        System.out.printf("%-14s %8.1f ms %10d chamadas %s%n", nome, melhor / 1e6, chamadas, contada.chamadas);
+        return total;
+    }
+
+    /**
+     * Reproduz as chamadas feitas por empregado antes do contracheque: o cálculo da linha da folha
+     * e a formatação da linha do relatório consultavam, cada um, o salário bruto, os descontos e as
+     * horas ou vendas do período.
+     * @param consulta A consulta usada.
+     * @param pagamento O pagamento.
+     * @return O salário líquido, em centavos.
+     * @throws Exception se o cálculo falhar.
+     */
+    private static long calcularComoAntes(ConsultaService consulta, Pagamento pagamento) throws Exception {
+        long liquido = 0;
+        for (int passagem = 0; passagem < 2; passagem++) {
+            Empregado e = pagamento.empregado();
+            long bruto = consulta.calcularSalarioBruto(e, pagamento.data());
+            long descontos = consulta.calcularDeducoes(e, pagamento.data());
+            String inicio = e.getDataUltimoPagamento().plusDays(1).format(FORMATO_DATA);
+            String fim = pagamento.data().plusDays(1).format(FORMATO_DATA);
+            if (e instanceof EmpregadoHorista) {
+                consulta.getHorasNormaisTrabalhadas(e.getId(), inicio, fim);
+                consulta.getHorasExtrasTrabalhadas(e.getId(), inicio, fim);
+            } else if (e instanceof EmpregadoComissionado) {
+                consulta.getVendasRealizadas(e.getId(), inicio, fim);
+            }
+            liquido = Math.max(0, bruto - descontos);
+        }
+        return liquido;
+    }
+}
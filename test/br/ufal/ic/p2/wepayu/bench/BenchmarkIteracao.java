@@ -0,0 +1,104 @@
+package br.ufal.ic.p2.wepayu.bench;
+
+import br.ufal.ic.p2.wepayu.Amostras;
+import br.ufal.ic.p2.wepayu.Repository.EmpregadoRepository;
+import br.ufal.ic.p2.wepayu.models.Empregado;
+import br.ufal.ic.p2.wepayu.models.EmpregadoHorista;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Mede a alocação e o tempo de percorrer os empregados do repositório com as visões sem cópia
+ * ({@link EmpregadoRepository#size()}, {@link EmpregadoRepository#forEach},
+ * {@link EmpregadoRepository#stream()} e {@link EmpregadoRepository#stream(Class)}) em comparação com
+ * a cópia para um {@link ArrayList} feita pelo antigo {@code findAll()} a cada chamada.
+ * <p>
+ * A alocação é medida pelo {@link com.sun.management.ThreadMXBean} da thread do benchmark, e tanto
+ * ela quanto o tempo são a média por chamada depois de um aquecimento.
+ * <p>
+ * Uso: {@code BenchmarkIteracao [empregados]}; o padrão é {@code 100000}.
+ */
+public final class BenchmarkIteracao {
+
+    private static final int AQUECIMENTO = 200;
+    private static final int CHAMADAS = 200;
+
+    /**
+     * Recebe os resultados das operações, para que o JIT não as descarte.
+     */
+    private static volatile long sumidouro;
+
+    /**
+     * Classe utilitária, não instanciável.
+     */
+    private BenchmarkIteracao() {
+    }
+
+    /**
+     * Executa o benchmark.
+     * @param args A quantidade de empregados.
+     * @throws Exception se o repositório não puder ser criado.
+     */
+    public static void main(String[] args) throws Exception {
+        int quantidade = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        EmpregadoRepository repository = new EmpregadoRepository(Files.createTempDirectory("wepayu-bench"));
+        repository.gravarEmLote(Amostras.empregados(quantidade, 0, quantidade), quantidade);
+        System.out.printf("%d empregados%n", quantidade);
+        System.out.printf("%-26s %16s %12s%n", "operacao", "alocado (B)", "tempo (us)");
+
+        medir("contar (copia)", repository, r -> copiar(r).size());
+        medir("contar (size)", repository, EmpregadoRepository::size);
+        medir("percorrer (copia)", repository, r -> {
+            long soma = 0;
+            for (Empregado e : copiar(r)) soma += e.getNome().length();
+            return soma;
+        });
+        medir("percorrer (forEach)", repository, r -> {
+            long[] soma = {0};
+            r.forEach(e -> soma[0] += e.getNome().length());
+            return soma[0];
+        });
+        medir("percorrer (stream)", repository, r -> r.stream().mapToLong(e -> e.getNome().length()).sum());
+        medir("horistas (copia)", repository, r -> {
+            long soma = 0;
+            for (Empregado e : copiar(r)) if (e instanceof EmpregadoHorista) soma++;
+            return soma;
+        });
+        medir("horistas (stream(tipo))", repository, r -> r.stream(EmpregadoHorista.class).count());
+    }
+
+    /**
+     * Copia os empregados para uma lista, como fazia o antigo {@code findAll()}.
+     * @param repository O repositório.
+     * @return A cópia.
+     */
+    private static List<Empregado> copiar(EmpregadoRepository repository) {
+        List<Empregado> lista = new ArrayList<>(repository.size());
+        repository.forEach(lista::add);
+        return lista;
+    }
+
+    /**
+     * Mede uma operação e imprime a alocação e o tempo médios por chamada.
+     * @param nome O nome da operação.
+     * @param repository O repositório.
+     * @param operacao A operação.
+     */
+    private static void medir(String nome, EmpregadoRepository repository, ToLongFunction<EmpregadoRepository> operacao) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long resultado = 0;
+        for (int i = 0; i < AQUECIMENTO; i++) resultado += operacao.applyAsLong(repository);
+        long alocadoAntes = threads.getThreadAllocatedBytes(thread);
+        long inicio = System.nanoTime();
+        for (int i = 0; i < CHAMADAS; i++) resultado += operacao.applyAsLong(repository);
+        long tempo = System.nanoTime() - inicio;
+        long alocado = threads.getThreadAllocatedBytes(thread) - alocadoAntes;
+        sumidouro = resultado;
+        System.out.printf("%-26s %16d %12.1f%n", nome, alocado / CHAMADAS, tempo / 1e3 / CHAMADAS);
+    }
+}
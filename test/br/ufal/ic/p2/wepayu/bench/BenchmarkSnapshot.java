@@ -0,0 +1,141 @@
+package br.ufal.ic.p2.wepayu.bench;
+
+import br.ufal.ic.p2.wepayu.Amostras;
+import br.ufal.ic.p2.wepayu.Repository.MapaPersistente;
+import br.ufal.ic.p2.wepayu.Repository.SnapshotCodec;
+import br.ufal.ic.p2.wepayu.models.Empregado;
+
+import java.beans.Encoder;
+import java.beans.Expression;
+import java.beans.PersistenceDelegate;
+import java.beans.XMLDecoder;
+import java.beans.XMLEncoder;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compara o snapshot binário ({@link SnapshotCodec}) com a persistência XML antiga
+ * ({@link XMLEncoder} do mapa de empregados): tempo de gravação, tempo de leitura e tamanho do arquivo.
+ * <p>
+ * Os dois formatos gravam os mesmos empregados (ver {@link Amostras}), com 20 cartões ou vendas
+ * cada. O binário é medido no melhor de {@value #REPETICOES} execuções, depois de um aquecimento;
+ * o XML, por ser muito mais lento, é medido uma vez. O fsync não entra na medida.
+ * <p>
+ * Uso: {@code BenchmarkSnapshot [quantidades...]}; o padrão é {@code 10000 100000}.
+ */
+public final class BenchmarkSnapshot {
+
+    private static final int REPETICOES = 5;
+
+    /**
+     * Classe utilitária, não instanciável.
+     */
+    private BenchmarkSnapshot() {
+    }
+
+    /**
+     * Executa o benchmark.
+     * @param args As quantidades de empregados.
+     * @throws Exception se um arquivo não puder ser gravado ou lido.
+     */
+    public static void main(String[] args) throws Exception {
+        int[] quantidades = args.length > 0 ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray() : new int[] {10_000, 100_000};
+        Path diretorio = Files.createTempDirectory("wepayu-bench");
+        System.out.printf("%10s %8s %12s %12s %12s%n", "empregados", "formato", "gravar (ms)", "ler (ms)", "tamanho (KB)");
+        for (int quantidade : quantidades) {
+            List<Empregado> empregados = Amostras.empregados(quantidade, 20, quantidade);
+            MapaPersistente<String, Empregado> mapa = MapaPersistente.vazio();
+            Map<String, Empregado> hashMap = new HashMap<>();
+            for (Empregado e : empregados) {
+                mapa = mapa.put(e.getId(), e);
+                hashMap.put(e.getId(), e);
+            }
+            medirBinario(diretorio.resolve("empregados.bin"), mapa, quantidade);
+            medirXml(diretorio.resolve("empregados.xml"), hashMap, quantidade);
+        }
+    }
+
+    /**
+     * Mede o snapshot binário.
+     * @param arquivo O arquivo do snapshot.
+     * @param mapa Os empregados.
+     * @param quantidade A quantidade de empregados.
+     * @throws IOException se o arquivo não puder ser gravado ou lido.
+     */
+    private static void medirBinario(Path arquivo, MapaPersistente<String, Empregado> mapa, int quantidade) throws IOException {
+        long melhorGravacao = Long.MAX_VALUE, melhorLeitura = Long.MAX_VALUE;
+        for (int i = 0; i <= REPETICOES; i++) {
+            long inicio = System.nanoTime();
+            try (OutputStream saida = new FileOutputStream(arquivo.toFile())) {
+                SnapshotCodec.escrever(saida, mapa, quantidade, 1, List.of("semanal 5", "mensal $", "semanal 2 5"));
+            }
+            long meio = System.nanoTime();
+            SnapshotCodec.Conteudo lido;
+            try (InputStream entrada = new FileInputStream(arquivo.toFile())) {
+                lido = SnapshotCodec.ler(entrada);
+            }
+            long fim = System.nanoTime();
+            if (lido.empregados().size() != quantidade) throw new IllegalStateException("Snapshot incompleto");
+            if (i == 0) continue; // aquecimento
+            melhorGravacao = Math.min(melhorGravacao, meio - inicio);
+            melhorLeitura = Math.min(melhorLeitura, fim - meio);
+        }
+        imprimir(quantidade, "binario", melhorGravacao, melhorLeitura, Files.size(arquivo));
+    }
+
+    /**
+     * Mede a persistência XML antiga, com o mesmo delegate de {@link LocalDate} que ela usava.
+     * @param arquivo O arquivo XML.
+     * @param empregados Os empregados.
+     * @param quantidade A quantidade de empregados.
+     * @throws IOException se o arquivo não puder ser gravado ou lido.
+     */
+    private static void medirXml(Path arquivo, Map<String, Empregado> empregados, int quantidade) throws IOException {
+        AtomicInteger erros = new AtomicInteger();
+        long inicio = System.nanoTime();
+        try (XMLEncoder encoder = new XMLEncoder(new BufferedOutputStream(new FileOutputStream(arquivo.toFile())))) {
+            encoder.setExceptionListener(e -> erros.incrementAndGet());
+            encoder.setPersistenceDelegate(LocalDate.class, new PersistenceDelegate() {
+                @Override
+                protected Expression instantiate(Object oldInstance, Encoder out) {
+                    LocalDate data = (LocalDate) oldInstance;
+                    return new Expression(data, LocalDate.class, "of", new Object[] {data.getYear(), data.getMonthValue(), data.getDayOfMonth()});
+                }
+            });
+            encoder.writeObject(empregados);
+            encoder.writeObject(quantidade);
+        }
+        long meio = System.nanoTime();
+        try (XMLDecoder decoder = new XMLDecoder(new BufferedInputStream(new FileInputStream(arquivo.toFile())), null, e -> erros.incrementAndGet())) {
+            decoder.readObject();
+        }
+        long fim = System.nanoTime();
+        imprimir(quantidade, "xml", meio - inicio, fim - meio, Files.size(arquivo));
+        if (erros.get() > 0) System.out.println("           (o XMLEncoder relatou " + erros.get() + " propriedades que nao sabe gravar)");
+    }
+
+    /**
+     * Imprime uma linha do resultado.
+     * @param quantidade A quantidade de empregados.
+     * @param formato O formato.
+     * @param gravacao O tempo de gravação, em nanossegundos.
+     * @param leitura O tempo de leitura, em nanossegundos.
+     * @param tamanho O tamanho do arquivo, em bytes.
+     */
+    private static void imprimir(int quantidade, String formato, long gravacao, long leitura, long tamanho) {
+        System.out.printf("%10d %8s %12.1f %12.1f %12d%n", quantidade, formato, gravacao / 1e6, leitura / 1e6, tamanho / 1024);
+    }
+}
@@ -0,0 +1,165 @@
+package br.ufal.ic.p2.wepayu.bench;
+
+import br.ufal.ic.p2.wepayu.Amostras;
+import br.ufal.ic.p2.wepayu.Repository.Alteracoes;
+import br.ufal.ic.p2.wepayu.Repository.EmpregadoRepository;
+import br.ufal.ic.p2.wepayu.Repository.SnapshotCodec;
+import br.ufal.ic.p2.wepayu.Services.CommandHistoryService;
+import br.ufal.ic.p2.wepayu.models.CartaoDePonto;
+import br.ufal.ic.p2.wepayu.models.Empregado;
+import br.ufal.ic.p2.wepayu.models.EmpregadoHorista;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mede a memória retida pelo histórico de undo depois de uma sequência de lançamentos de cartão,
+ * cada um um comando, em três formas de guardar o histórico:
+ * <ul>
+ *     <li><b>cópia profunda</b>: a forma original, em que cada comando guardava uma cópia de todos os
+ *     empregados. Guardar 100 mil cópias não cabe na memória, então o custo é estimado: mede-se a
+ *     cópia do repositório no início e no fim da sequência e, como ela cresce linearmente com os
+ *     lançamentos, o total é a quantidade de comandos vezes a média das duas;</li>
+ *     <li><b>raiz do mapa</b>: cada comando guarda o {@link EmpregadoRepository.Estado} anterior, que
+ *     compartilha com o atual tudo o que não mudou;</li>
+ *     <li><b>delta</b>: o {@link CommandHistoryService} atual, que guarda só as inversas das
+ *     alterações de cada comando.</li>
+ * </ul>
+ * A memória é a diferença do heap usado, depois de coletas de lixo, antes e depois dos lançamentos,
+ * e inclui os próprios cartões lançados.
+ * <p>
+ * Uso: {@code BenchmarkUndo [lancamentos] [empregados]}; o padrão é {@code 100000 1000}.
+ */
+public final class BenchmarkUndo {
+
+    private static final int COPIAS_AMOSTRADAS = 10;
+
+    /**
+     * Classe utilitária, não instanciável.
+     */
+    private BenchmarkUndo() {
+    }
+
+    /**
+     * Executa o benchmark.
+     * @param args A quantidade de lançamentos e a de empregados.
+     * @throws Exception se um comando falhar.
+     */
+    public static void main(String[] args) throws Exception {
+        int lancamentos = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int empregados = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        System.out.printf("%d lancamentos de cartao sobre %d empregados%n", lancamentos, empregados);
+        System.out.printf("%-16s %14s %12s%n", "historico", "retido (MB)", "tempo (ms)");
+
+        EmpregadoRepository comRaizes = repositorio(empregados);
+        long copiaInicial = tamanhoDaCopia(comRaizes);
+        List<EmpregadoRepository.Estado> raizes = new ArrayList<>(lancamentos);
+        long antes = heapUsado(), inicio = System.nanoTime();
+        lancar(comRaizes, lancamentos, () -> raizes.add(comRaizes.getState()), null);
+        long tempo = System.nanoTime() - inicio;
+        imprimir("raiz do mapa", heapUsado() - antes, tempo);
+        raizes.clear();
+
+        EmpregadoRepository repository = repositorio(empregados);
+        CommandHistoryService historico = new CommandHistoryService(repository);
+        antes = heapUsado();
+        inicio = System.nanoTime();
+        lancar(repository, lancamentos, null, historico);
+        tempo = System.nanoTime() - inicio;
+        imprimir("delta", heapUsado() - antes, tempo);
+
+        long copiaFinal = tamanhoDaCopia(repository);
+        System.out.printf("%-16s %14.1f %12s   (estimado: copia de %.1f MB no inicio e %.1f MB no fim)%n", "copia profunda",
+                lancamentos * ((copiaInicial + copiaFinal) / 2.0) / (1 << 20), "-",
+                copiaInicial / (double) (1 << 20), copiaFinal / (double) (1 << 20));
+        Reference.reachabilityFence(historico);
+    }
+
+    /**
+     * Lança um cartão por comando, distribuindo as datas pelos horistas.
+     * @param repository O repositório.
+     * @param lancamentos A quantidade de lançamentos.
+     * @param antesDoComando Ação executada antes de cada comando, ou null.
+     * @param historico O histórico pelo qual os comandos são executados, ou null para aplicá-los diretamente.
+     * @throws Exception se um comando falhar.
+     */
+    private static void lancar(EmpregadoRepository repository, int lancamentos, Runnable antesDoComando,
+                               CommandHistoryService historico) throws Exception {
+        List<String> horistas = repository.stream(EmpregadoHorista.class).map(Empregado::getId).sorted().toList();
+        Random aleatorio = new Random(1);
+        for (int i = 0; i < lancamentos; i++) {
+            String id = horistas.get(i % horistas.size());
+            String data = Amostras.data(i / horistas.size());
+            CartaoDePonto cartao = new CartaoDePonto(data, 1.0 + aleatorio.nextInt(10));
+            Runnable comando = () -> repository.aplicar(Alteracoes.lancamento(id, EmpregadoHorista::getCartoesDePonto, data, cartao));
+            if (antesDoComando != null) antesDoComando.run();
+            if (historico == null) comando.run();
+            else historico.execute(comando);
+        }
+    }
+
+    /**
+     * Mede o tamanho de uma cópia profunda de todos os empregados do repositório, como a média de
+     * {@value #COPIAS_AMOSTRADAS} cópias independentes (lidas de um snapshot serializado).
+     * @param repository O repositório.
+     * @return O tamanho médio de uma cópia, em bytes.
+     * @throws IOException se o snapshot não puder ser gravado ou lido.
+     */
+    private static long tamanhoDaCopia(EmpregadoRepository repository) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        EmpregadoRepository.Estado estado = repository.getState();
+        SnapshotCodec.escrever(bytes, estado.empregados(), estado.idCont(), 0, List.of());
+        byte[] snapshot = bytes.toByteArray();
+        List<SnapshotCodec.Conteudo> copias = new ArrayList<>(COPIAS_AMOSTRADAS);
+        long antes = heapUsado();
+        for (int i = 0; i < COPIAS_AMOSTRADAS; i++) copias.add(SnapshotCodec.ler(new ByteArrayInputStream(snapshot)));
+        long tamanho = (heapUsado() - antes) / COPIAS_AMOSTRADAS;
+        Reference.reachabilityFence(copias);
+        return tamanho;
+    }
+
+    /**
+     * Cria um repositório temporário com empregados sem lançamentos.
+     * @param empregados A quantidade de empregados.
+     * @return O repositório.
+     * @throws IOException se o diretório não puder ser criado.
+     */
+    private static EmpregadoRepository repositorio(int empregados) throws IOException {
+        EmpregadoRepository repository = new EmpregadoRepository(Files.createTempDirectory("wepayu-bench"));
+        repository.gravarEmLote(Amostras.empregados(empregados, 0, 1), empregados);
+        return repository;
+    }
+
+    /**
+     * Imprime uma linha do resultado.
+     * @param nome O nome da forma de histórico.
+     * @param bytes A memória retida.
+     * @param nanos O tempo dos lançamentos.
+     */
+    private static void imprimir(String nome, long bytes, long nanos) {
+        System.out.printf("%-16s %14.1f %12d%n", nome, bytes / (double) (1 << 20), nanos / 1_000_000);
+    }
+
+    /**
+     * Retorna o heap usado depois de algumas coletas de lixo.
+     * @return O heap usado, em bytes.
+     */
+    private static long heapUsado() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
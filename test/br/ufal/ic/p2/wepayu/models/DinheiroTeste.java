@@ -0,0 +1,157 @@
+package br.ufal.ic.p2.wepayu.models;
+
+import br.ufal.ic.p2.wepayu.Verifica;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Testes do arredondamento em centavos e pontos-base: {@link Dinheiro}, {@link Percentual} e os
+ * totais em centavos do {@link LivroDiario} são comparados com as fórmulas em {@code double} que a
+ * folha usava antes do ponto fixo (formatação com {@code %.2f} e truncamento com
+ * {@code Math.floor(valor * 100 + 1e-9) / 100}). Os casos de meio centavo, em que a soma em
+ * {@code double} erra para baixo, são conferidos contra o valor decimal exato.
+ */
+public final class DinheiroTeste {
+
+    private static final int INICIO = LivroDiario.paraDia("1/1/2005");
+    private static final int CASOS = 20_000;
+
+    /**
+     * Classe de teste, não instanciável.
+     */
+    private DinheiroTeste() {
+    }
+
+    /**
+     * Executa o teste.
+     * @param args Argumentos de linha de comando (não utilizados).
+     */
+    public static void main(String[] args) {
+        Random aleatorio = new Random(11);
+        interpretacao(aleatorio);
+        comissao(aleatorio);
+        fixoSemanal(aleatorio);
+        totaisDoLivro(aleatorio);
+        meioCentavo();
+    }
+
+    /**
+     * {@link Dinheiro#de(String)} e {@link Dinheiro#formatar(long)} reproduzem o {@code %.2f} sobre
+     * o {@code double} interpretado, com até quatro casas na entrada.
+     * @param aleatorio A fonte de números aleatórios.
+     */
+    private static void interpretacao(Random aleatorio) {
+        for (int i = 0; i < CASOS; i++) {
+            String texto = decimal(aleatorio, 1 + aleatorio.nextInt(4));
+            String legado = legado(Double.parseDouble(texto));
+            Verifica.igual(legado, Dinheiro.de(texto.replace('.', ',')).toString(), "Dinheiro.de(" + texto + ")");
+            Verifica.igual(legado, Dinheiro.formatar(Dinheiro.de(texto).getCentavos()), "formatar(" + texto + ")");
+        }
+    }
+
+    /**
+     * {@link Percentual#aplicar(long)} trunca a comissão nos centavos como o cálculo em {@code double}.
+     * @param aleatorio A fonte de números aleatórios.
+     */
+    private static void comissao(Random aleatorio) {
+        for (int i = 0; i < CASOS; i++) {
+            String vendas = decimal(aleatorio, 2);
+            String taxa = "0." + String.format("%02d", aleatorio.nextInt(100));
+            double legado = truncar(Double.parseDouble(vendas) * Double.parseDouble(taxa));
+            long centavos = Percentual.de(taxa).aplicar(Dinheiro.de(vendas).getCentavos());
+            Verifica.igual(legado(legado), Dinheiro.formatar(centavos), "comissao " + taxa + " sobre " + vendas);
+            Verifica.igual(legado(Double.parseDouble(taxa)), Percentual.de(taxa).formatar(), "formatar(" + taxa + ")");
+        }
+    }
+
+    /**
+     * O fixo proporcional das agendas semanais, truncado nos centavos, bate com o cálculo em {@code double}.
+     * @param aleatorio A fonte de números aleatórios.
+     */
+    private static void fixoSemanal(Random aleatorio) {
+        for (int i = 0; i < CASOS; i++) {
+            String salario = decimal(aleatorio, 2);
+            int frequencia = 1 + aleatorio.nextInt(4);
+            double legado = truncar((Double.parseDouble(salario) * 12 / 52.0) * frequencia);
+            long centavos = Math.floorDiv(Dinheiro.de(salario).getCentavos() * 12 * frequencia, 52);
+            Verifica.igual(legado(legado), Dinheiro.formatar(centavos), "fixo de " + salario + " a cada " + frequencia + " semanas");
+        }
+    }
+
+    /**
+     * Os totais em centavos das vendas e taxas batem com o {@code %.2f} sobre a soma em {@code double},
+     * tanto com as somas acumuladas exatas (valores em centavos) quanto na soma direta (valores com
+     * mais casas do que a escala do livro).
+     * @param aleatorio A fonte de números aleatórios.
+     */
+    private static void totaisDoLivro(Random aleatorio) {
+        for (int casas : new int[] {2, 6}) {
+            ResultadosDeVenda vendas = new ResultadosDeVenda();
+            TaxasDeServico taxas = new TaxasDeServico();
+            double[] valores = new double[400];
+            for (int d = 0; d < valores.length; d++) {
+                valores[d] = Double.parseDouble(decimal(aleatorio, casas));
+                vendas.lancar(INICIO + d, valores[d]);
+                taxas.lancar(INICIO + d, valores[d]);
+            }
+            for (int i = 0; i < 2_000; i++) {
+                int inicio = aleatorio.nextInt(valores.length), fim = inicio + aleatorio.nextInt(valores.length - inicio + 1);
+                double soma = 0;
+                for (int d = inicio; d < fim; d++) soma += valores[d];
+                String contexto = casas + " casas, [" + inicio + ", " + fim + ")";
+                Verifica.igual(legado(soma), Dinheiro.formatar(vendas.totalCentavos(INICIO + inicio, INICIO + fim)), "vendas " + contexto);
+                Verifica.igual(legado(soma), Dinheiro.formatar(taxas.totalCentavos(INICIO + inicio, INICIO + fim)), "taxas " + contexto);
+            }
+        }
+    }
+
+    /**
+     * Meios centavos são arredondados para cima sobre a soma exata, inclusive quando a soma em
+     * {@code double} fica abaixo do meio (1,0049 + 0,0001 = 1,00499999... em {@code double}).
+     */
+    private static void meioCentavo() {
+        ResultadosDeVenda vendas = new ResultadosDeVenda();
+        vendas.lancar(INICIO, 1.0049);
+        vendas.lancar(INICIO + 1, 0.0001);
+        Verifica.igual(101L, vendas.totalCentavos(INICIO, INICIO + 2), "1,0049 + 0,0001");
+        Verifica.igual(100L, vendas.totalCentavos(INICIO, INICIO + 1), "1,0049");
+
+        TaxasDeServico taxas = new TaxasDeServico();
+        taxas.lancar(INICIO, 0.005);
+        Verifica.igual(1L, taxas.totalCentavos(INICIO, INICIO + 1), "0,005");
+        Verifica.igual(0L, taxas.totalCentavos(INICIO + 1, INICIO + 1), "periodo vazio");
+        Verifica.igual(101L, Dinheiro.de("1,005").getCentavos(), "Dinheiro.de(1,005)");
+        Verifica.igual(550L, Percentual.de("0,055").getPontosBase(), "Percentual.de(0,055)");
+    }
+
+    /**
+     * Gera um valor decimal positivo de até cinco dígitos inteiros.
+     * @param aleatorio A fonte de números aleatórios.
+     * @param casas A quantidade de casas decimais.
+     * @return O valor, com ponto decimal.
+     */
+    private static String decimal(Random aleatorio, int casas) {
+        long escala = (long) Math.pow(10, casas);
+        long valor = 1 + (long) (aleatorio.nextDouble() * 100_000 * escala);
+        return valor / escala + "." + String.format("%0" + casas + "d", valor % escala);
+    }
+
+    /**
+     * A formatação da folha antes do ponto fixo.
+     * @param valor O valor.
+     * @return O valor com duas casas e vírgula.
+     */
+    private static String legado(double valor) {
+        return String.format(Locale.ROOT, "%.2f", valor).replace('.', ',');
+    }
+
+    /**
+     * O truncamento nos centavos da folha antes do ponto fixo.
+     * @param valor O valor.
+     * @return O valor truncado.
+     */
+    private static double truncar(double valor) {
+        return Math.floor((valor * 100) + 1e-9) / 100.0;
+    }
+}
@@ -0,0 +1,219 @@
+package br.ufal.ic.p2.wepayu.models;
+
+import br.ufal.ic.p2.wepayu.Verifica;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Testes do {@link LivroDiario}: lançamentos e retiradas aleatórios (em ordem, fora de ordem e
+ * substituindo dias já lançados) são aplicados ao livro e a um {@link TreeMap} de referência, e as
+ * somas acumuladas de cada período são comparadas com a soma direta. As cópias são feitas ao longo
+ * da sequência e escritas de forma independente, e no final cada versão copiada é conferida de novo,
+ * já que a cópia na escrita não pode alterar a versão de origem nem as outras cópias.
+ */
+public final class LivroDiarioTeste {
+
+    private static final int INICIO = LivroDiario.paraDia("1/1/2005");
+
+    /**
+     * Um tipo de livro: como criá-lo, copiá-lo e somar as suas colunas.
+     * @param nome O nome do tipo, para as mensagens.
+     * @param novo Cria um livro vazio.
+     * @param copia Copia um livro.
+     * @param somas Soma as colunas do livro em um período.
+     * @param parcelas A parcela de um valor lançado que entra em cada coluna.
+     * @param <L> O tipo do livro.
+     */
+    private record Tipo<L extends LivroDiario<?>>(String nome, Supplier<L> novo, UnaryOperator<L> copia,
+                                                   Somas<L> somas, DoubleUnaryOperator... parcelas) {}
+
+    /**
+     * Soma das colunas de um livro em um período.
+     * @param <L> O tipo do livro.
+     */
+    @FunctionalInterface
+    private interface Somas<L> {
+        /**
+         * Soma as colunas no período [inicio, fim).
+         * @param livro O livro.
+         * @param inicio O dia epoch inicial (inclusivo).
+         * @param fim O dia epoch final (exclusivo).
+         * @return A soma de cada coluna.
+         */
+        double[] somar(L livro, int inicio, int fim);
+    }
+
+    /**
+     * Uma versão de um livro e o seu conteúdo esperado.
+     * @param livro O livro.
+     * @param modelo Os lançamentos esperados, por dia epoch.
+     * @param <L> O tipo do livro.
+     */
+    private record Versao<L>(L livro, TreeMap<Integer, Double> modelo) {}
+
+    /**
+     * Classe de testes, não instanciável.
+     */
+    private LivroDiarioTeste() {
+    }
+
+    /**
+     * Executa os testes.
+     * @param args Não utilizados.
+     */
+    public static void main(String[] args) {
+        Tipo<CartoesDePonto> cartoes = new Tipo<>("cartoes", CartoesDePonto::new, CartoesDePonto::copia,
+                (l, i, f) -> new double[] {l.horasNormais(i, f), l.horasExtras(i, f)},
+                h -> Math.min(h, 8), h -> h > 8 ? h - 8 : 0);
+        Tipo<ResultadosDeVenda> vendas = new Tipo<>("vendas", ResultadosDeVenda::new, ResultadosDeVenda::copia,
+                (l, i, f) -> new double[] {l.total(i, f)}, v -> v);
+        Tipo<TaxasDeServico> taxas = new Tipo<>("taxas", TaxasDeServico::new, TaxasDeServico::copia,
+                (l, i, f) -> new double[] {l.total(i, f)}, v -> v);
+        for (long semente = 1; semente <= 3; semente++) {
+            versoesAleatorias(cartoes, semente);
+            versoesAleatorias(vendas, semente);
+            versoesAleatorias(taxas, semente);
+        }
+        valorInexato();
+        visaoDeMapa();
+    }
+
+    /**
+     * Gera uma árvore de versões: cada rodada copia duas vezes uma versão já existente e escreve nas
+     * duas cópias, conferindo-as; no final todas as versões são conferidas de novo.
+     * @param tipo O tipo de livro.
+     * @param semente A semente das operações.
+     * @param <L> O tipo do livro.
+     */
+    private static <L extends LivroDiario<?>> void versoesAleatorias(Tipo<L> tipo, long semente) {
+        Random aleatorio = new Random(semente);
+        List<Versao<L>> versoes = new ArrayList<>();
+        Versao<L> raiz = new Versao<>(tipo.novo().get(), new TreeMap<>());
+        escrever(tipo, raiz, 300, aleatorio);
+        versoes.add(raiz);
+        for (int rodada = 0; rodada < 60; rodada++) {
+            Versao<L> origem = versoes.get(aleatorio.nextInt(versoes.size()));
+            for (int copia = 0; copia < 2; copia++) {
+                Versao<L> nova = new Versao<>(tipo.copia().apply(origem.livro()), new TreeMap<>(origem.modelo()));
+                escrever(tipo, nova, 1 + aleatorio.nextInt(80), aleatorio);
+                versoes.add(nova);
+            }
+            conferir(tipo, origem, aleatorio, tipo.nome() + " origem da rodada " + rodada);
+        }
+        for (int i = 0; i < versoes.size(); i++) conferir(tipo, versoes.get(i), aleatorio, tipo.nome() + " versao " + i);
+    }
+
+    /**
+     * Aplica operações aleatórias a uma versão, conferindo-a depois de cada uma: lançamentos no dia
+     * seguinte ao último (o caso comum), em um dia qualquer (inserção ou substituição) e retiradas.
+     * @param tipo O tipo de livro.
+     * @param versao A versão escrita.
+     * @param operacoes A quantidade de operações.
+     * @param aleatorio A fonte dos valores aleatórios.
+     * @param <L> O tipo do livro.
+     */
+    private static <L extends LivroDiario<?>> void escrever(Tipo<L> tipo, Versao<L> versao, int operacoes, Random aleatorio) {
+        L livro = versao.livro();
+        TreeMap<Integer, Double> modelo = versao.modelo();
+        for (int i = 0; i < operacoes; i++) {
+            int sorteio = aleatorio.nextInt(10);
+            if (sorteio < 2 && !modelo.isEmpty()) {
+                int dia = INICIO + aleatorio.nextInt(modelo.lastKey() - INICIO + 2);
+                Verifica.igual(modelo.remove(dia), livro.retirar(dia), "valor retirado em " + dia);
+            } else {
+                int dia = sorteio < 6 && !modelo.isEmpty() ? modelo.lastKey() + 1 + aleatorio.nextInt(3)
+                        : INICIO + aleatorio.nextInt(400);
+                double valor = tipo.parcelas().length == 2 ? 0.5 * (1 + aleatorio.nextInt(24)) : aleatorio.nextInt(1_000_000) / 100.0;
+                Verifica.igual(modelo.put(dia, valor), livro.lancar(dia, valor), "valor substituido em " + dia);
+            }
+            if (i % 10 == 0) conferir(tipo, versao, aleatorio, tipo.nome() + " operacao " + i);
+        }
+        conferir(tipo, versao, aleatorio, tipo.nome() + " depois das operacoes");
+    }
+
+    /**
+     * Confere uma versão com o seu modelo: tamanho, lançamentos em ordem e somas de períodos
+     * aleatórios, do período vazio e do período inteiro.
+     * @param tipo O tipo de livro.
+     * @param versao A versão conferida.
+     * @param aleatorio A fonte dos períodos aleatórios.
+     * @param contexto A descrição do ponto da verificação.
+     * @param <L> O tipo do livro.
+     */
+    private static <L extends LivroDiario<?>> void conferir(Tipo<L> tipo, Versao<L> versao, Random aleatorio, String contexto) {
+        L livro = versao.livro();
+        TreeMap<Integer, Double> modelo = versao.modelo();
+        Verifica.igual(modelo.size(), livro.size(), "tamanho no " + contexto);
+        int i = 0;
+        for (Map.Entry<Integer, Double> lancamento : modelo.entrySet()) {
+            Verifica.igual(lancamento.getKey().intValue(), livro.dia(i), "dia " + i + " no " + contexto);
+            Verifica.igual(lancamento.getValue(), livro.valor(i), "valor " + i + " no " + contexto);
+            i++;
+        }
+        somarPeriodo(tipo, versao, INICIO - 10, INICIO + 2000, contexto);
+        somarPeriodo(tipo, versao, INICIO + 5, INICIO + 5, contexto);
+        for (int k = 0; k < 20; k++) {
+            int inicio = INICIO - 5 + aleatorio.nextInt(500);
+            somarPeriodo(tipo, versao, inicio, inicio + aleatorio.nextInt(120), contexto);
+        }
+    }
+
+    /**
+     * Compara as somas do livro em um período com a soma direta do modelo.
+     * @param tipo O tipo de livro.
+     * @param versao A versão conferida.
+     * @param inicio O dia epoch inicial (inclusivo).
+     * @param fim O dia epoch final (exclusivo).
+     * @param contexto A descrição do ponto da verificação.
+     * @param <L> O tipo do livro.
+     */
+    private static <L extends LivroDiario<?>> void somarPeriodo(Tipo<L> tipo, Versao<L> versao, int inicio, int fim, String contexto) {
+        double[] obtidas = tipo.somas().somar(versao.livro(), inicio, fim);
+        for (int coluna = 0; coluna < tipo.parcelas().length; coluna++) {
+            double esperada = 0;
+            for (double valor : versao.modelo().subMap(inicio, fim).values()) esperada += tipo.parcelas()[coluna].applyAsDouble(valor);
+            Verifica.verdadeiro(Math.abs(esperada - obtidas[coluna]) < 1e-6,
+                    "soma da coluna " + coluna + " em [" + inicio + ", " + fim + ") no " + contexto
+                            + ": esperado <" + esperada + "> mas foi <" + obtidas[coluna] + ">");
+        }
+    }
+
+    /**
+     * Verifica que um valor que não cabe na escala das somas acumuladas é somado diretamente, e que
+     * as somas voltam a ser exatas quando ele é retirado.
+     */
+    private static void valorInexato() {
+        ResultadosDeVenda vendas = new ResultadosDeVenda();
+        for (int i = 0; i < 200; i++) vendas.lancar(INICIO + i, 0.25);
+        vendas.lancar(INICIO + 50, 1.0 / 3);
+        Verifica.verdadeiro(Math.abs(199 * 0.25 + 1.0 / 3 - vendas.total(INICIO, INICIO + 200)) < 1e-9, "soma com valor inexato");
+        vendas.retirar(INICIO + 50);
+        Verifica.igual(199 * 0.25, vendas.total(INICIO, INICIO + 200), "soma depois de retirar o valor inexato");
+    }
+
+    /**
+     * Verifica a visão de mapa: chaves no formato "d/M/yyyy", registros criados a partir dos
+     * lançamentos e escrita pelo {@code put}, refletida nas somas.
+     */
+    private static void visaoDeMapa() {
+        CartoesDePonto cartoes = new CartoesDePonto();
+        cartoes.put("3/1/2005", new CartaoDePonto("3/1/2005", 10.0));
+        cartoes.lancar(LivroDiario.paraDia("1/1/2005"), 4);
+        Verifica.igual(List.of("1/1/2005", "3/1/2005"), new ArrayList<>(cartoes.keySet()), "chaves em ordem de data");
+        Verifica.igual(10.0, cartoes.get("3/1/2005").getHoras(), "registro da visao de mapa");
+        Verifica.igual(12.0, cartoes.horasNormais(INICIO, INICIO + 7), "horas normais");
+        Verifica.igual(2.0, cartoes.horasExtras(INICIO, INICIO + 7), "horas extras");
+        CartoesDePonto copia = cartoes.copia();
+        copia.remove("3/1/2005");
+        Verifica.igual(14.0, cartoes.horasNormais(INICIO, INICIO + 7) + cartoes.horasExtras(INICIO, INICIO + 7), "origem depois do remove na copia");
+        Verifica.igual(4.0, copia.horasNormais(INICIO, INICIO + 7), "copia depois do remove");
+        Verifica.verdadeiro(!copia.containsKey("3/1/2005") && cartoes.containsKey("3/1/2005"), "containsKey da copia e da origem");
+    }
+}